@@ -0,0 +1,90 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerCompetitionRegistration;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerCompetitionRegistrationRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.AdvancementService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次晋级 5000 名玩家的耗时：报名和已有轮次状态分段 IN 查询校验，新轮次状态批量插入
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BulkAdvancementBenchmark {
+
+    @Param({"5000"})
+    private int playerCount;
+
+    private ConfigurableApplicationContext context;
+    private AdvancementService advancementService;
+    private Competition competition;
+    private List<Long> playerIds;
+    private int targetRound = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-advancement;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        advancementService = context.getBean(AdvancementService.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("晋级基准规则", 25000, 45, 5, -15, -35));
+        competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "晋级基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        List<Player> newPlayers = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String key = "advance-" + i;
+            newPlayers.add(new Player(key, "password", key, "玩家" + key, key, key));
+        }
+        List<Player> players = context.getBean(PlayerRepository.class).saveAll(newPlayers);
+
+        List<PlayerCompetitionRegistration> registrations = new ArrayList<>();
+        List<PlayerRoundStatus> statuses = new ArrayList<>();
+        playerIds = new ArrayList<>();
+        for (Player player : players) {
+            registrations.add(new PlayerCompetitionRegistration(player, competition));
+            statuses.add(new PlayerRoundStatus(player, competition, 1, 0));
+            playerIds.add(player.getId());
+        }
+        context.getBean(PlayerCompetitionRegistrationRepository.class).saveAll(registrations);
+        context.getBean(PlayerRoundStatusRepository.class).saveAll(statuses);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 每次迭代晋级到新的一轮，目标轮次始终超过当前最高轮次
+     */
+    @Benchmark
+    public int advancePlayers() {
+        targetRound++;
+        return advancementService.advancePlayersToRound(competition.getId(), playerIds, targetRound, 0).size();
+    }
+}
@@ -0,0 +1,115 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.config.CompactEncodingConfig;
+import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.dto.match.PlayerRankingDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 排名和比赛状态响应的编码开销：Jackson JSON 与紧凑 CBOR 编码的单次序列化耗时对比
+ * 负载大小（原始和 gzip 后）在初始化时输出
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class CompactEncodingBenchmark {
+
+    @Param({"200"})
+    private int playerCount;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ApiResponse<List<PlayerRankingDTO>> rankings;
+    private ApiResponse<CompetitionStatusResponse> status;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = CompactEncodingConfig.createCborMapper(new Jackson2ObjectMapperBuilder());
+
+        Random random = new Random(42);
+        List<PlayerRankingDTO> rankingList = new ArrayList<>();
+        List<CompetitionStatusResponse.PlayerStatusInfo> statusList = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            int matchCount = 4 + random.nextInt(4);
+            int[] placements = new int[4];
+            for (int m = 0; m < matchCount; m++) {
+                placements[random.nextInt(4)]++;
+            }
+            double averagePosition = (placements[0] + placements[1] * 2 + placements[2] * 3 + placements[3] * 4)
+                    / (double) matchCount;
+            int originalScore = (random.nextInt(2000) - 1000) * 100;
+
+            PlayerRankingDTO dto = new PlayerRankingDTO();
+            dto.setRank(i + 1);
+            dto.setPlayerId(1000L + i);
+            dto.setPlayerName("玩家" + i);
+            dto.setMahjongId("mj-" + (100000 + i));
+            dto.setTotalActualPoints(originalScore / 1000.0 + (random.nextInt(21) - 10) * 5);
+            dto.setTotalOriginalScore(originalScore);
+            dto.setTotalPenalty(random.nextInt(10) == 0 ? -10 : 0);
+            dto.setMatchCount(matchCount);
+            dto.setFirstPlaceCount(placements[0]);
+            dto.setSecondPlaceCount(placements[1]);
+            dto.setThirdPlaceCount(placements[2]);
+            dto.setFourthPlaceCount(placements[3]);
+            dto.setAveragePosition(averagePosition);
+            rankingList.add(dto);
+
+            int roundScore = originalScore / 1000;
+            statusList.add(new CompetitionStatusResponse.PlayerStatusInfo(1000L + i, "玩家" + i, "player" + i,
+                    0, roundScore, roundScore, matchCount, averagePosition,
+                    placements[0], placements[1], placements[2], placements[3], "ACTIVE"));
+        }
+        rankings = ApiResponse.success(rankingList);
+        status = ApiResponse.success("查询比赛状态成功", new CompetitionStatusResponse(
+                1L, 1, "基准比赛", "INDIVIDUAL", statusList, new ArrayList<>()));
+
+        printSize("排名", jsonMapper.writeValueAsBytes(rankings), cborMapper.writeValueAsBytes(rankings));
+        printSize("比赛状态", jsonMapper.writeValueAsBytes(status), cborMapper.writeValueAsBytes(status));
+    }
+
+    private static void printSize(String name, byte[] json, byte[] cbor) throws IOException {
+        System.out.println(name + "：JSON " + json.length + " 字节（gzip " + gzipSize(json) + "），CBOR "
+                + cbor.length + " 字节（gzip " + gzipSize(cbor) + "）");
+    }
+
+    private static int gzipSize(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    public byte[] rankingsJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(rankings);
+    }
+
+    @Benchmark
+    public byte[] rankingsCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(rankings);
+    }
+
+    @Benchmark
+    public byte[] statusJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(status);
+    }
+
+    @Benchmark
+    public byte[] statusCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(status);
+    }
+}
@@ -0,0 +1,161 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.entity.team.Team;
+import com.rogister.mjcompetition.entity.team.TeamMember;
+import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import com.rogister.mjcompetition.repository.team.TeamRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比赛状态查询基准：启动完整的应用上下文，连接预先写入数据的内存H2数据库，
+ * 分别测量个人赛和团队赛的 getCompetitionStatus
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CompetitionStatusBenchmark {
+
+    private static final int ROUND_NUMBER = 1;
+    private static final int TEAM_SIZE = 4;
+
+    @Param({"96"})
+    private int playerCount;
+
+    @Param({"8"})
+    private int matchesPerPlayer;
+
+    private ConfigurableApplicationContext context;
+    private CompetitionStatusService competitionStatusService;
+    private Long individualCompetitionId;
+    private Long teamCompetitionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-status;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        competitionStatusService = context.getBean(CompetitionStatusService.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("基准规则", 25000, 45, 5, -15, -35));
+
+        individualCompetitionId = seedIndividual(rule);
+        teamCompetitionId = seedTeam(rule);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CompetitionStatusResponse individualCompetitionStatus() {
+        return competitionStatusService.getCompetitionStatus(individualCompetitionId, ROUND_NUMBER);
+    }
+
+    @Benchmark
+    public CompetitionStatusResponse teamCompetitionStatus() {
+        return competitionStatusService.getCompetitionStatus(teamCompetitionId, ROUND_NUMBER);
+    }
+
+    private Long seedIndividual(CompetitionRule rule) {
+        Competition competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "基准个人赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        List<Player> players = createPlayers("ind");
+        PlayerRoundStatusRepository roundStatusRepository = context.getBean(PlayerRoundStatusRepository.class);
+        for (Player player : players) {
+            roundStatusRepository.save(new PlayerRoundStatus(player, competition, ROUND_NUMBER, 0));
+        }
+
+        createMatches(competition, players);
+        return competition.getId();
+    }
+
+    private Long seedTeam(CompetitionRule rule) {
+        Competition competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "基准团队赛", Competition.CompetitionType.TEAM, rule, LocalDateTime.now().minusDays(1)));
+
+        List<Player> players = createPlayers("team");
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        TeamMemberRepository teamMemberRepository = context.getBean(TeamMemberRepository.class);
+        TeamRoundStatusRepository roundStatusRepository = context.getBean(TeamRoundStatusRepository.class);
+        for (int i = 0; i < players.size(); i += TEAM_SIZE) {
+            Team team = teamRepository.save(new Team("基准团队" + (i / TEAM_SIZE), "JMH" + (i / TEAM_SIZE),
+                    players.get(i).getId(), TEAM_SIZE));
+            for (int j = i; j < Math.min(i + TEAM_SIZE, players.size()); j++) {
+                teamMemberRepository.save(new TeamMember(team.getId(), players.get(j)));
+            }
+            roundStatusRepository.save(new TeamRoundStatus(team, competition, ROUND_NUMBER, 0));
+        }
+
+        createMatches(competition, players);
+        return competition.getId();
+    }
+
+    private List<Player> createPlayers(String prefix) {
+        PlayerRepository playerRepository = context.getBean(PlayerRepository.class);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String key = prefix + "-" + i;
+            players.add(playerRepository.save(new Player(key, "password", key, "玩家" + key, key, key)));
+        }
+        return players;
+    }
+
+    /**
+     * 安排 matchesPerPlayer 轮比赛，每轮四个座位按不同步长错位取玩家（玩家数为4的倍数时同一场内不会重复）
+     */
+    private void createMatches(Competition competition, List<Player> players) {
+        MatchResultService matchResultService = context.getBean(MatchResultService.class);
+        Random random = new Random(42);
+        int matchNumber = 1;
+        for (int game = 0; game < matchesPerPlayer; game++) {
+            for (int table = 0; table < players.size() / 4; table++) {
+                int base = table * 4;
+                int offset = game % players.size();
+                MatchResult matchResult = new MatchResult(competition, ROUND_NUMBER, matchNumber++,
+                        players.get((base + offset) % players.size()),
+                        players.get((base + 1 + offset * 3) % players.size()),
+                        players.get((base + 2 + offset * 5) % players.size()),
+                        players.get((base + 3 + offset * 7) % players.size()));
+                int east = random.nextInt(400) * 100;
+                int south = random.nextInt(300) * 100;
+                int west = random.nextInt(300) * 100;
+                matchResult.setEastScore(east);
+                matchResult.setSouthScore(south);
+                matchResult.setWestScore(west);
+                matchResult.setNorthScore(100000 - east - south - west);
+                matchResultService.createMatchResult(matchResult);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件请求基准：通过本机 HTTP 请求比赛状态接口，对比完整响应（200）和携带 If-None-Match 命中（304）的单次请求开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConditionalGetBenchmark {
+
+    private static final int ROUND_NUMBER = 1;
+
+    @Param({"96"})
+    private int playerCount;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest fullRequest;
+    private HttpRequest conditionalRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-conditional;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+
+        Long competitionId = seedCompetition();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        URI uri = URI.create("http://localhost:" + port + "/api/competition-status/" + competitionId + "/round/" + ROUND_NUMBER);
+
+        client = HttpClient.newHttpClient();
+        fullRequest = HttpRequest.newBuilder(uri).GET().build();
+        String eTag = client.send(fullRequest, HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("ETag")
+                .orElseThrow(() -> new IllegalStateException("响应缺少 ETag"));
+        conditionalRequest = HttpRequest.newBuilder(uri).header("If-None-Match", eTag).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullResponse() throws IOException, InterruptedException {
+        return client.send(fullRequest, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public int notModified() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(conditionalRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 304) {
+            throw new IllegalStateException("期望304，实际 " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private Long seedCompetition() {
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("条件请求基准规则", 25000, 45, 5, -15, -35));
+        Competition competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "条件请求基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        PlayerRepository playerRepository = context.getBean(PlayerRepository.class);
+        PlayerRoundStatusRepository roundStatusRepository = context.getBean(PlayerRoundStatusRepository.class);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String key = "cg-" + i;
+            Player player = playerRepository.save(new Player(key, "password", key, "玩家" + key, key, key));
+            roundStatusRepository.save(new PlayerRoundStatus(player, competition, ROUND_NUMBER, 0));
+            players.add(player);
+        }
+
+        MatchResultService matchResultService = context.getBean(MatchResultService.class);
+        int matchNumber = 1;
+        for (int table = 0; table + 4 <= players.size(); table += 4) {
+            MatchResult matchResult = new MatchResult(competition, ROUND_NUMBER, matchNumber++,
+                    players.get(table), players.get(table + 1), players.get(table + 2), players.get(table + 3));
+            matchResult.setEastScore(40000);
+            matchResult.setSouthScore(30000);
+            matchResult.setWestScore(20000);
+            matchResult.setNorthScore(10000);
+            matchResultService.createMatchResult(matchResult);
+        }
+        return competition.getId();
+    }
+}
@@ -0,0 +1,59 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.service.competition.CutLineAdvancementService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 晋级线计算：用大小为 k 的堆选出前 k 名（含同分），与对全部玩家排序后截取比较
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CutLineSelectionBenchmark {
+
+    @Param({"5000", "100000"})
+    private int playerCount;
+
+    // 晋级人数占比（百分比）
+    @Param({"12.5"})
+    private double percent;
+
+    private List<double[]> standings;
+    private int k;
+    private final Comparator<double[]> order = Comparator.<double[]>comparingDouble(s -> s[0]).reversed()
+            .thenComparingDouble(s -> s[1]);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        standings = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            // PT为一位小数，平均顺位为1到4
+            standings.add(new double[]{Math.round(random.nextGaussian() * 800) / 10.0, 1 + random.nextInt(31) / 10.0});
+        }
+        k = (int) Math.ceil(playerCount * percent / 100.0);
+    }
+
+    @Benchmark
+    public int heapSelect() {
+        return CutLineAdvancementService.selectTop(standings, k, order).size();
+    }
+
+    @Benchmark
+    public int fullSort() {
+        List<double[]> sorted = new ArrayList<>(standings);
+        sorted.sort(order);
+        double[] cutLine = sorted.get(k - 1);
+        int selected = k;
+        while (selected < sorted.size() && order.compare(sorted.get(selected), cutLine) == 0) {
+            selected++;
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,147 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.ResultDropFolderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 成绩文件收件目录吞吐量：每次迭代把 fileCount 个单桌成绩文件（JSON 和 CSV 各半）一次性移入 inbox，
+ * 测量全部写入数据库并移入 done 的耗时，并输出每秒处理的文件数
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class DropFolderIngestionBenchmark {
+
+    private static final int ROUND_NUMBER = 1;
+    private static final long TIMEOUT_MINUTES = 30;
+
+    @Param({"50000"})
+    private int fileCount;
+
+    @Param({"200"})
+    private int playerCount;
+
+    private ConfigurableApplicationContext context;
+    private ResultDropFolderService dropFolderService;
+    private Path dropDir;
+    private Path stagingDir;
+    private Long competitionId;
+    private List<Player> players;
+    private int nextMatchNumber = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dropDir = Files.createTempDirectory("jmh-drop-folder");
+        stagingDir = Files.createTempDirectory("jmh-drop-folder-staging");
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-drop-folder;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "mj.drop-folder.enabled=true",
+                        "mj.drop-folder.dir=" + dropDir)
+                .run();
+        dropFolderService = context.getBean(ResultDropFolderService.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("收件目录基准规则", 25000, 45, 5, -15, -35));
+        Competition competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "收件目录基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+        competitionId = competition.getId();
+
+        PlayerRepository playerRepository = context.getBean(PlayerRepository.class);
+        PlayerRoundStatusRepository roundStatusRepository = context.getBean(PlayerRoundStatusRepository.class);
+        players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String key = "drop-" + i;
+            Player player = playerRepository.save(new Player(key, "password", key, "玩家" + key, key, key));
+            roundStatusRepository.save(new PlayerRoundStatus(player, competition, ROUND_NUMBER, 0));
+            players.add(player);
+        }
+    }
+
+    /**
+     * 在 inbox 之外生成本次迭代的文件，比赛编号在迭代之间递增，避免与已写入的成绩重复
+     */
+    @Setup(Level.Iteration)
+    public void stageFiles() throws IOException {
+        for (int i = 0; i < fileCount; i++) {
+            int matchNumber = nextMatchNumber++;
+            int firstSeat = (matchNumber * 4) % (players.size() - 3);
+            Long[] seats = new Long[4];
+            for (int seat = 0; seat < 4; seat++) {
+                seats[seat] = players.get(firstSeat + seat).getId();
+            }
+            if (i % 2 == 0) {
+                Files.writeString(stagingDir.resolve("table-" + matchNumber + ".json"), String.format(
+                        "{\"competitionId\":%d,\"roundNumber\":%d,\"matchNumber\":%d,"
+                                + "\"eastPlayerId\":%d,\"eastScore\":45300,\"southPlayerId\":%d,\"southScore\":30700,"
+                                + "\"westPlayerId\":%d,\"westScore\":18200,\"northPlayerId\":%d,\"northScore\":5800}",
+                        competitionId, ROUND_NUMBER, matchNumber, seats[0], seats[1], seats[2], seats[3]),
+                        StandardCharsets.UTF_8);
+            } else {
+                Files.writeString(stagingDir.resolve("table-" + matchNumber + ".csv"),
+                        "competitionId,roundNumber,matchNumber,eastPlayerId,eastScore,southPlayerId,southScore,"
+                                + "westPlayerId,westScore,northPlayerId,northScore\n"
+                                + String.format("%d,%d,%d,%d,45300,%d,30700,%d,18200,%d,5800\n",
+                                competitionId, ROUND_NUMBER, matchNumber, seats[0], seats[1], seats[2], seats[3]),
+                        StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long ingestBacklog() throws IOException, InterruptedException {
+        long target = dropFolderService.getCompletedCount() + dropFolderService.getFailedCount() + fileCount;
+        long start = System.nanoTime();
+
+        Path inbox = dropDir.resolve("inbox");
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : files.toList()) {
+                Files.move(file, inbox.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        long deadline = start + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+        while (dropFolderService.getCompletedCount() + dropFolderService.getFailedCount() < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("处理超时，已完成 " + dropFolderService.getCompletedCount());
+            }
+            Thread.sleep(20);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%n%d 个成绩文件耗时 %.2f 秒，%.0f 个文件/秒，失败 %d 个%n",
+                fileCount, seconds, fileCount / seconds, dropFolderService.getFailedCount());
+        return dropFolderService.getCompletedCount();
+    }
+}
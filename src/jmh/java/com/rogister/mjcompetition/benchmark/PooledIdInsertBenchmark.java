@@ -0,0 +1,95 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量写入 PlayerRoundStatus 的耗时：jdbcBatchSize=1 时逐行插入（与原自增ID时每行一次往返相同），
+ * jdbcBatchSize=50 时使用池化ID和 Hibernate JDBC 批量插入
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PooledIdInsertBenchmark {
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    @Param({"10000"})
+    private int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private PlayerRoundStatusRepository roundStatusRepository;
+    private TransactionTemplate transactionTemplate;
+    private Competition competition;
+    private List<Player> players;
+    private List<PlayerRoundStatus> statuses;
+    private int roundNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-pooled-id-" + jdbcBatchSize + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "mj.jpa.batch-size=" + jdbcBatchSize)
+                .run();
+        roundStatusRepository = context.getBean(PlayerRoundStatusRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("池化ID基准规则", 25000, 45, 5, -15, -35));
+        competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "池化ID基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        PlayerRepository playerRepository = context.getBean(PlayerRepository.class);
+        List<Player> newPlayers = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            String key = "pooled-" + i;
+            newPlayers.add(new Player(key, "password", key, "玩家" + key, key, key));
+        }
+        players = playerRepository.saveAll(newPlayers);
+    }
+
+    /**
+     * 每次迭代写入新的一轮，避免与之前迭代的记录重复
+     */
+    @Setup(Level.Iteration)
+    public void prepareRound() {
+        roundNumber++;
+        statuses = new ArrayList<>(rowCount);
+        for (Player player : players) {
+            statuses.add(new PlayerRoundStatus(player, competition, roundNumber, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertRoundStatuses() {
+        Integer inserted = transactionTemplate.execute(status -> roundStatusRepository.saveAll(statuses).size());
+        return inserted != null ? inserted : 0;
+    }
+}
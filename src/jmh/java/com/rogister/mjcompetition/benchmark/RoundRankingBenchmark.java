@@ -0,0 +1,147 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.util.PtScoringKernel;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 轮次排名计算基准：1k / 10k / 100k 场比赛
+ * calculatePlayerRoundRankings 启动完整的应用上下文，从预先写入数据的内存H2数据库读取积分榜；
+ * foldMatchesIntoStandings 在内存中将同样的比赛汇总为积分榜（与 RoundStandingsService 的增量更新相同）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RoundRankingBenchmark {
+
+    private static final int ROUND_NUMBER = 1;
+    private static final int SEED_BATCH = 500;
+
+    @Param({"1000", "10000", "100000"})
+    private int matchCount;
+
+    private ConfigurableApplicationContext context;
+    private MatchResultService matchResultService;
+    private Competition competition;
+    private List<MatchResult> matchResults;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-ranking-" + matchCount + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        matchResultService = context.getBean(MatchResultService.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("基准规则", 25000, 45, 5, -15, -35));
+        competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        // 每名玩家平均参加10场比赛
+        int playerCount = Math.max(8, matchCount * 4 / 10);
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            String key = "bench-" + i;
+            players.add(new Player(key, "password", key, "玩家" + i, key, key));
+        }
+        players = context.getBean(PlayerRepository.class).saveAll(players);
+
+        // 按批写入，积分榜由 createMatchResults 增量汇总
+        Random random = new Random(42);
+        matchResults = new ArrayList<>(matchCount);
+        List<MatchResult> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < matchCount; i++) {
+            int[] seats = pickSeats(random, playerCount);
+            MatchResult matchResult = new MatchResult(competition, ROUND_NUMBER, i + 1,
+                    players.get(seats[0]), players.get(seats[1]), players.get(seats[2]), players.get(seats[3]));
+            int east = random.nextInt(500) * 100;
+            int south = random.nextInt(500) * 100;
+            int west = random.nextInt(Math.max(1, 1000 - (east + south) / 100)) * 100;
+            matchResult.setEastScore(east);
+            matchResult.setSouthScore(south);
+            matchResult.setWestScore(west);
+            matchResult.setNorthScore(100000 - east - south - west);
+            batch.add(matchResult);
+            if (batch.size() == SEED_BATCH || i == matchCount - 1) {
+                matchResults.addAll(matchResultService.createMatchResults(competition, ROUND_NUMBER, batch));
+                batch = new ArrayList<>(SEED_BATCH);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 将全部比赛汇总为积分榜
+     */
+    @Benchmark
+    public List<RoundPlayerStanding> foldMatchesIntoStandings() {
+        Map<Long, RoundPlayerStanding> byPlayer = new HashMap<>();
+        for (MatchResult matchResult : matchResults) {
+            int ranks = matchResult.resolveSeatRanks();
+            fold(byPlayer, matchResult.getEastPlayer(), matchResult.getEastPtScore(), matchResult.getEastScore(),
+                    matchResult.getEastPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.EAST));
+            fold(byPlayer, matchResult.getSouthPlayer(), matchResult.getSouthPtScore(), matchResult.getSouthScore(),
+                    matchResult.getSouthPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.SOUTH));
+            fold(byPlayer, matchResult.getWestPlayer(), matchResult.getWestPtScore(), matchResult.getWestScore(),
+                    matchResult.getWestPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.WEST));
+            fold(byPlayer, matchResult.getNorthPlayer(), matchResult.getNorthPtScore(), matchResult.getNorthScore(),
+                    matchResult.getNorthPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.NORTH));
+        }
+        return new ArrayList<>(byPlayer.values());
+    }
+
+    /**
+     * 从数据库读取积分榜，计算轮次排名并排序
+     */
+    @Benchmark
+    public List<MatchResultService.PlayerRoundRanking> calculatePlayerRoundRankings() {
+        return matchResultService.calculatePlayerRoundRankings(competition, ROUND_NUMBER);
+    }
+
+    private void fold(Map<Long, RoundPlayerStanding> byPlayer, Player player, Double ptScore,
+                      Integer score, Integer penalty, int placement) {
+        byPlayer.computeIfAbsent(player.getId(), id -> new RoundPlayerStanding(competition.getId(), ROUND_NUMBER, player))
+                .applySeat(1, ptScore, score, penalty, placement);
+    }
+
+    private static int[] pickSeats(Random random, int playerCount) {
+        int[] seats = new int[4];
+        for (int i = 0; i < 4; i++) {
+            int candidate;
+            boolean duplicate;
+            do {
+                candidate = random.nextInt(playerCount);
+                duplicate = false;
+                for (int j = 0; j < i; j++) {
+                    duplicate |= seats[j] == candidate;
+                }
+            } while (duplicate);
+            seats[i] = candidate;
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,182 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.util.PtScoringKernel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PT计分核心与原 calculatePlayerRanks 实现的吞吐量对比，rankPlayers 为比赛详情当前使用的实现
+ * legacyCalculatePlayerRanks 保留了改造前的算法（ArrayList + 四个排名对象 + 按方位字符串比较的排序）作为基线
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ScoringKernelBenchmark {
+
+    private static final int MATCHES = 1024;
+
+    private int[] scores;
+    private int[] penalties;
+    private CompetitionRule rule;
+    private PtScoringKernel.CompiledRule compiledRule;
+    private MatchResult[] matchResults;
+    private MatchResultService matchResultService;
+
+    private int[] rankBuffer;
+    private double[] ptBuffer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rule = new CompetitionRule("基准规则", 25000, 45, 5, -15, -35);
+        compiledRule = PtScoringKernel.compile(rule);
+        matchResultService = new MatchResultService();
+
+        Competition competition = new Competition();
+        competition.setRule(rule);
+
+        scores = new int[MATCHES * 4];
+        penalties = new int[MATCHES * 4];
+        matchResults = new MatchResult[MATCHES];
+        for (int i = 0; i < MATCHES; i++) {
+            int base = i * 4;
+            int remaining = 100000;
+            for (int seat = 0; seat < 3; seat++) {
+                // 以100分为单位，保留一定比例的同分
+                int score = (random.nextInt(500) * 100) - 5000;
+                scores[base + seat] = score;
+                remaining -= score;
+            }
+            scores[base + 3] = remaining;
+            if (random.nextInt(10) == 0) {
+                penalties[base + random.nextInt(4)] = -10;
+            }
+
+            MatchResult matchResult = new MatchResult(competition, 1, i + 1, null, null, null, null);
+            matchResult.setEastScore(scores[base]);
+            matchResult.setSouthScore(scores[base + 1]);
+            matchResult.setWestScore(scores[base + 2]);
+            matchResult.setNorthScore(scores[base + 3]);
+            matchResult.setEastPenalty(penalties[base]);
+            matchResult.setSouthPenalty(penalties[base + 1]);
+            matchResult.setWestPenalty(penalties[base + 2]);
+            matchResult.setNorthPenalty(penalties[base + 3]);
+            matchResults[i] = matchResult;
+        }
+
+        rankBuffer = new int[MATCHES * 4];
+        ptBuffer = new double[MATCHES * 4];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void kernelScore(Blackhole blackhole) {
+        for (int i = 0; i < MATCHES; i++) {
+            int base = i * 4;
+            PtScoringKernel.score(scores[base], scores[base + 1], scores[base + 2], scores[base + 3],
+                    penalties[base], penalties[base + 1], penalties[base + 2], penalties[base + 3],
+                    compiledRule, rankBuffer, ptBuffer, base);
+        }
+        blackhole.consume(rankBuffer);
+        blackhole.consume(ptBuffer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void calculateAndSetPtScores(Blackhole blackhole) {
+        for (MatchResult matchResult : matchResults) {
+            matchResult.calculateAndSetPtScores();
+            blackhole.consume(matchResult.getNorthPtScore());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void rankPlayers(Blackhole blackhole) {
+        for (MatchResult matchResult : matchResults) {
+            blackhole.consume(matchResultService.rankPlayers(matchResult));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void legacyCalculatePlayerRanks(Blackhole blackhole) {
+        for (int i = 0; i < MATCHES; i++) {
+            int base = i * 4;
+            blackhole.consume(legacyRanks(scores[base], scores[base + 1], scores[base + 2], scores[base + 3],
+                    penalties[base], penalties[base + 1], penalties[base + 2], penalties[base + 3]));
+        }
+    }
+
+    /**
+     * 改造前的排名算法
+     */
+    private List<LegacyRank> legacyRanks(Integer east, Integer south, Integer west, Integer north,
+                                         Integer eastPenalty, Integer southPenalty, Integer westPenalty, Integer northPenalty) {
+        List<LegacyRank> playerRanks = new ArrayList<>();
+        playerRanks.add(new LegacyRank(east, eastPenalty, "东"));
+        playerRanks.add(new LegacyRank(south, southPenalty, "南"));
+        playerRanks.add(new LegacyRank(west, westPenalty, "西"));
+        playerRanks.add(new LegacyRank(north, northPenalty, "北"));
+
+        playerRanks.sort((a, b) -> {
+            if (!Objects.equals(a.score, b.score)) {
+                return Integer.compare(b.score, a.score);
+            }
+            return legacyPositionOrder(a.position).compareTo(legacyPositionOrder(b.position));
+        });
+
+        for (int i = 0; i < playerRanks.size(); i++) {
+            LegacyRank playerRank = playerRanks.get(i);
+            playerRank.rank = i + 1;
+            playerRank.calculateActualPoints(rule);
+        }
+        return playerRanks;
+    }
+
+    private static Integer legacyPositionOrder(String position) {
+        switch (position) {
+            case "东": return 0;
+            case "南": return 1;
+            case "西": return 2;
+            case "北": return 3;
+            default: return 999;
+        }
+    }
+
+    private static class LegacyRank {
+        Integer score;
+        Integer penalty;
+        String position;
+        Integer rank;
+        Double actualPoints;
+
+        LegacyRank(Integer score, Integer penalty, String position) {
+            this.score = score;
+            this.penalty = penalty;
+            this.position = position;
+        }
+
+        void calculateActualPoints(CompetitionRule rule) {
+            double basePoints = (score - rule.getOriginPoints()) / 1000.0;
+            int rankPoints = 0;
+            switch (rank) {
+                case 1: rankPoints = rule.getFirstPlacePoints(); break;
+                case 2: rankPoints = rule.getSecondPlacePoints(); break;
+                case 3: rankPoints = rule.getThirdPlacePoints(); break;
+                case 4: rankPoints = rule.getFourthPlacePoints(); break;
+            }
+            this.actualPoints = basePoints + rankPoints + (penalty != null ? penalty : 0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.rogister.mjcompetition.benchmark;
+
+import com.rogister.mjcompetition.MjcompetitonApplication;
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusCache;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.competition.StandingsRecomputePipeline;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 成绩持续写入时读取比赛状态的耗时：读取方直接返回已发布的快照，重算在后台按比赛合并进行
+ * 结束时打印后台重算统计（合并比例、平均重算耗时）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StandingsRecomputeBenchmark {
+
+    private static final int ROUND_NUMBER = 1;
+
+    @Param({"96"})
+    private int playerCount;
+
+    private ConfigurableApplicationContext context;
+    private MatchResultService matchResultService;
+    private CompetitionStatusCache competitionStatusCache;
+    private Competition competition;
+    private List<Player> players;
+    private final AtomicInteger matchNumber = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MjcompetitonApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-recompute;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        matchResultService = context.getBean(MatchResultService.class);
+        competitionStatusCache = context.getBean(CompetitionStatusCache.class);
+
+        CompetitionRule rule = context.getBean(CompetitionRuleRepository.class)
+                .save(new CompetitionRule("重算基准规则", 25000, 45, 5, -15, -35));
+        competition = context.getBean(CompetitionRepository.class).save(new Competition(
+                "重算基准比赛", Competition.CompetitionType.INDIVIDUAL, rule, LocalDateTime.now().minusDays(1)));
+
+        PlayerRepository playerRepository = context.getBean(PlayerRepository.class);
+        PlayerRoundStatusRepository roundStatusRepository = context.getBean(PlayerRoundStatusRepository.class);
+        players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String key = "recompute-" + i;
+            Player player = playerRepository.save(new Player(key, "password", key, "玩家" + key, key, key));
+            roundStatusRepository.save(new PlayerRoundStatus(player, competition, ROUND_NUMBER, 0));
+            players.add(player);
+        }
+        competitionStatusCache.getCompetitionStatus(competition.getId(), ROUND_NUMBER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StandingsRecomputePipeline.RecomputeStats stats = context.getBean(StandingsRecomputePipeline.class).getStats();
+        System.out.println("后台重算: 事件 " + stats.getEventsReceived() + "，重算 " + stats.getRecomputeBursts()
+                + "，合并比例 " + stats.getCoalescingRatio() + "，平均耗时 " + stats.getAverageRecomputeMs() + "ms");
+        context.close();
+    }
+
+    /**
+     * 写入一局成绩，按桌轮换玩家
+     */
+    @Benchmark
+    @Group("writeAndRead")
+    @GroupThreads(1)
+    public MatchResult write() {
+        int number = matchNumber.incrementAndGet();
+        int table = (number * 4) % (playerCount - playerCount % 4);
+        MatchResult matchResult = new MatchResult(competition, ROUND_NUMBER, number,
+                players.get(table), players.get(table + 1), players.get(table + 2), players.get(table + 3));
+        matchResult.setEastScore(40000);
+        matchResult.setSouthScore(30000);
+        matchResult.setWestScore(20000);
+        matchResult.setNorthScore(10000);
+        return matchResultService.createMatchResult(matchResult);
+    }
+
+    @Benchmark
+    @Group("writeAndRead")
+    @GroupThreads(4)
+    public CompetitionStatusResponse read() {
+        return competitionStatusCache.getCompetitionStatus(competition.getId(), ROUND_NUMBER);
+    }
+}
@@ -0,0 +1,81 @@
+package com.rogister.mjcompetition.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.rogister.mjcompetition.dto.match.PlayerRankingDTO;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 紧凑二进制编码：客户端请求头 Accept 为 application/cbor 时，排名和比赛状态接口返回 CBOR 编码的响应
+ *
+ * - 开启 CBOR 字符串引用（stringref），字段名和重复的字符串值只发送一次，之后以表中序号引用
+ * - 整数按大小使用 1~9 字节的变长编码
+ * - PT 分数以定点小数（CBOR 十进制小数标签，指数 + 整数尾数）发送，不使用8字节浮点数
+ *
+ * 未携带该 Accept 的请求仍返回 JSON
+ */
+@Configuration
+public class CompactEncodingConfig {
+
+    // PT分数的小数位数：(得分-原点)/1000 最多三位小数
+    static final int PT_SCALE = 3;
+
+    /**
+     * 替换 Spring MVC 默认的 CBOR 转换器，沿用应用的 Jackson 配置
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(createCborMapper(builder));
+    }
+
+    /**
+     * 创建紧凑编码使用的 ObjectMapper（基准测试中也直接使用）
+     */
+    public static ObjectMapper createCborMapper(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+        return builder.createXmlMapper(false)
+                .factory(factory)
+                .mixIn(PlayerRankingDTO.class, FixedPointPtMixin.class)
+                .mixIn(MatchResultService.PlayerRoundRanking.class, FixedPointPtMixin.class)
+                .build();
+    }
+
+    /**
+     * 排名中的PT分数以定点小数输出
+     */
+    abstract static class FixedPointPtMixin {
+        @JsonSerialize(using = FixedPointSerializer.class)
+        abstract Double getTotalActualPoints();
+    }
+
+    /**
+     * 将浮点数按 PT_SCALE 位小数舍入后去掉末尾的零，CBOR 下写为十进制小数标签 [指数, 尾数]，
+     * 例如 45.3 写为 [-1, 453]
+     */
+    public static class FixedPointSerializer extends StdSerializer<Double> {
+
+        public FixedPointSerializer() {
+            super(Double.class);
+        }
+
+        @Override
+        public void serialize(Double value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(BigDecimal.valueOf(value).setScale(PT_SCALE, RoundingMode.HALF_UP).stripTrailingZeros());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.rogister.mjcompetition.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.entity.common.IdempotencyRecord;
+import com.rogister.mjcompetition.service.common.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * 幂等请求：携带 Idempotency-Key 请求头的比赛成绩录入请求（POST /api/match-results 和 /api/match-results/batch）
+ * 只执行一次，之后相同的重试请求重放保存的响应（带 Idempotent-Replayed: true 响应头）。用于记分员在超时后重试提交比赛成绩
+ *
+ * 只处理这两个写入接口，登录等返回令牌的接口的响应不会被保存；未登录的请求不处理，由安全配置拒绝。
+ * 在安全过滤器之后执行，key 按登录用户区分；同一 key 用于不同请求时返回422，相同请求正在处理时返回409。
+ * 服务端错误（5xx）不保存，重试时重新执行
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    // 支持幂等重试的比赛成绩写入接口
+    private static final Set<String> PATHS = Set.of("/api/match-results", "/api/match-results/batch");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String owner = ownerName();
+        if (owner == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, HEADER + " 长度必须在1到" + MAX_KEY_LENGTH + "之间");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        IdempotencyService.Claim claim = idempotencyService.claim(owner, key, requestHash(cachedRequest));
+        IdempotencyRecord record = claim.getRecord();
+        switch (claim.getOutcome()) {
+            case KEY_REUSED:
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " 已用于不同的请求");
+                return;
+            case IN_PROGRESS:
+                writeError(response, HttpStatus.CONFLICT, "相同 " + HEADER + " 的请求正在处理，请稍后重试");
+                return;
+            case REPLAY:
+                response.setStatus(record.getResponseStatus());
+                if (record.getContentType() != null) {
+                    response.setContentType(record.getContentType());
+                }
+                response.setHeader(REPLAYED_HEADER, "true");
+                byte[] body = record.getResponseBody() != null ? record.getResponseBody() : new byte[0];
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+                return;
+            default:
+                break;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachingResponse);
+            if (cachingResponse.getStatus() < 500 && !cachedRequest.isAsyncStarted()) {
+                idempotencyService.complete(record.getId(), cachingResponse.getStatus(),
+                        cachingResponse.getContentType(), cachingResponse.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(record.getId());
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * 当前登录用户名，未登录（包括匿名身份）时返回null
+     */
+    private static String ownerName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * 请求方法、路径、查询参数和请求体的SHA-256
+     */
+    private static String requestHash(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?"
+                    + (request.getQueryString() != null ? request.getQueryString() : "") + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    /**
+     * 预先读取请求体，用于计算请求摘要后再交给控制器读取
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // 请求体已全部缓存在内存中，立即通知可读和读取完毕
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
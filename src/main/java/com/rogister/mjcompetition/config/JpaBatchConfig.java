@@ -0,0 +1,26 @@
+package com.rogister.mjcompetition.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate JDBC 批量写入：同一事务内的插入和更新按实体排序后每 mj.jpa.batch-size 条合并为一次批量执行
+ * （只对使用池化ID的实体生效，自增ID的实体仍逐条插入）
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Value("${mj.jpa.batch-size:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.rogister.mjcompetition.config;
+
+import com.rogister.mjcompetition.service.common.PooledIdMigrationService;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 池化ID迁移在 EntityManagerFactory 之前执行：Hibernate 启动并开始分配ID之前，先把 id_generators 推进到现有最大ID之后
+ */
+@Configuration(proxyBeanMethods = false)
+public class PooledIdMigrationConfig extends EntityManagerFactoryDependsOnPostProcessor {
+
+    public PooledIdMigrationConfig() {
+        super(PooledIdMigrationService.class);
+    }
+}
@@ -32,7 +32,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/player/login").permitAll() // 玩家登录
                         .requestMatchers("/api/admin/login").permitAll() // 管理员登录
                         .requestMatchers("/api/competitions").permitAll() // 比赛列表查看
+                        .requestMatchers("/api/competition-status/cache-stats", "/api/competition-status/recompute-stats")
+                                .hasAnyAuthority("ADMIN", "SUPER_ADMIN") // 比赛状态缓存和重算统计（仅管理员）
                         .requestMatchers("/api/competition-status/**").permitAll() // 比赛状态查询（无需鉴权）
+                        .requestMatchers("/ws/competitions/*/results").permitAll() // 比赛成绩广播（无需鉴权）
 
                         // Swagger相关接口 - 无需认证
                         .requestMatchers("/swagger-ui/**").permitAll() // Swagger UI
@@ -34,7 +34,7 @@ public class TomcatConfig {
             // 设置压缩
             protocol.setCompression("on");
             protocol.setCompressionMinSize(2048);
-            protocol.setCompressibleMimeType("text/html,text/xml,text/plain,text/css,text/javascript,application/javascript,application/json");
+            protocol.setCompressibleMimeType("text/html,text/xml,text/plain,text/css,text/javascript,application/javascript,application/json,text/csv,application/x-ndjson,application/cbor");
         });
         
         return tomcat;
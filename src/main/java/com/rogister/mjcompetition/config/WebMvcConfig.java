@@ -0,0 +1,19 @@
+package com.rogister.mjcompetition.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // 异步请求（如流式导出）的超时时间，默认30分钟；SSE 连接使用各自的超时时间
+    @Value("${mj.async.request-timeout-ms:1800000}")
+    private long asyncRequestTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rogister.mjcompetition.config;
+
+import com.rogister.mjcompetition.controller.competition.MatchResultWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket 配置类
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private MatchResultWebSocketHandler matchResultWebSocketHandler;
+
+    // 允许跨域连接的来源（逗号分隔，支持 https://*.example.com 形式的通配），为空时只允许同源页面连接
+    @Value("${mj.websocket.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    /**
+     * 比赛成绩广播：/ws/competitions/{competitionId}/results?roundNumber=N
+     */
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(matchResultWebSocketHandler, "/ws/competitions/*/results")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -1,10 +1,15 @@
 package com.rogister.mjcompetition.controller.competition;
 
 import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementResult;
 import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
 import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
+import com.rogister.mjcompetition.service.competition.AdvancementConflictException;
 import com.rogister.mjcompetition.service.competition.AdvancementService;
+import com.rogister.mjcompetition.service.competition.CutLineAdvancementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,16 +32,20 @@ public class AdvancementController {
     @Autowired
     private AdvancementService advancementService;
 
+    @Autowired
+    private CutLineAdvancementService cutLineAdvancementService;
+
     /**
      * 个人赛晋级到指定轮次
      */
-    @Operation(summary = "个人赛晋级", description = "将指定玩家晋级到指定轮次")
+    @Operation(summary = "个人赛晋级", description = "将指定玩家晋级到指定轮次，任一玩家无法晋级时整批不写入")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "晋级成功", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "存在无法晋级的玩家，data 中列出全部冲突"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "晋级失败")
     })
     @PostMapping("/players/advance")
-    public ResponseEntity<ApiResponse<List<PlayerRoundStatus>>> advancePlayersToRound(
+    public ResponseEntity<ApiResponse<?>> advancePlayersToRound(
             @Parameter(description = "晋级请求，包含competitionId、playerIds、targetRound、initialScore", required = true) @RequestBody Map<String, Object> request) {
         try {
             Long competitionId = Long.valueOf(request.get("competitionId").toString());
@@ -69,6 +78,10 @@ public class AdvancementController {
                     competitionId, playerIds, targetRound, initialScore);
 
             return ResponseEntity.ok(ApiResponse.success("个人赛晋级成功", result));
+        } catch (AdvancementConflictException e) {
+            // data 中列出所有无法晋级的玩家，整批未写入
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(-1,
+                    "个人赛晋级失败: " + e.getMessage(), e.getConflicts()));
         } catch (RuntimeException e) {
             return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
@@ -80,7 +93,7 @@ public class AdvancementController {
      * 团队赛晋级到指定轮次
      */
     @PostMapping("/teams/advance")
-    public ResponseEntity<ApiResponse<List<TeamRoundStatus>>> advanceTeamsToRound(
+    public ResponseEntity<ApiResponse<?>> advanceTeamsToRound(
             @RequestBody Map<String, Object> request) {
         try {
             Long competitionId = Long.valueOf(request.get("competitionId").toString());
@@ -113,6 +126,10 @@ public class AdvancementController {
                     competitionId, teamIds, targetRound, initialScore);
 
             return ResponseEntity.ok(ApiResponse.success("团队赛晋级成功", result));
+        } catch (AdvancementConflictException e) {
+            // data 中列出所有无法晋级的团队，整批未写入
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(-1,
+                    "团队赛晋级失败: " + e.getMessage(), e.getConflicts()));
         } catch (RuntimeException e) {
             return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
@@ -120,6 +137,30 @@ public class AdvancementController {
         }
     }
 
+    /**
+     * 按晋级线晋级：根据某轮次积分榜和规则（前N名、前百分之X、PT分数线）计算晋级名单，
+     * 其余玩家在该轮次被淘汰；preview=true 时只返回晋级线计算结果，不写入
+     */
+    @Operation(summary = "按晋级线晋级", description = "根据轮次积分榜和晋级规则计算晋级名单并晋级，其余玩家淘汰；preview=true 时只预览")
+    @PostMapping("/players/advance-by-rule")
+    public ResponseEntity<ApiResponse<?>> advancePlayersByRule(
+            @RequestBody CutLineAdvancementRequest request,
+            @RequestParam(defaultValue = "false") boolean preview) {
+        try {
+            CutLineAdvancementResult result = cutLineAdvancementService.advancePlayers(request, preview);
+            String message = preview ? "晋级线预览：" : "按晋级线晋级成功：";
+            return ResponseEntity.ok(ApiResponse.success(message + "晋级" + result.getAdvanced().size()
+                    + "人，淘汰" + result.getEliminated().size() + "人", result));
+        } catch (AdvancementConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(-1,
+                    "按晋级线晋级失败: " + e.getMessage(), e.getConflicts()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("按晋级线晋级失败"));
+        }
+    }
+
     /**
      * 获取比赛当前最高轮次
      */
@@ -276,4 +317,18 @@ public class AdvancementController {
             return ResponseEntity.ok(ApiResponse.error("完成轮次失败"));
         }
     }
+
+    /**
+     * 重新开放已完成的轮次
+     */
+    @PutMapping("/competition/{competitionId}/round/{roundNumber}/reopen")
+    public ResponseEntity<ApiResponse<String>> reopenRound(
+            @PathVariable Long competitionId, @PathVariable Integer roundNumber) {
+        try {
+            advancementService.reopenRound(competitionId, roundNumber);
+            return ResponseEntity.ok(ApiResponse.success("重新开放轮次成功", null));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("重新开放轮次失败"));
+        }
+    }
 }
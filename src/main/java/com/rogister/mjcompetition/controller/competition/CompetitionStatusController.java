@@ -2,10 +2,20 @@ package com.rogister.mjcompetition.controller.competition;
 
 import com.rogister.mjcompetition.dto.common.ApiResponse;
 import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
-import com.rogister.mjcompetition.service.competition.CompetitionStatusService;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusCache;
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
+import com.rogister.mjcompetition.service.competition.LeaderboardStreamService;
+import com.rogister.mjcompetition.service.competition.RoundSnapshotService;
+import com.rogister.mjcompetition.service.competition.StandingsRecomputePipeline;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,7 +31,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 public class CompetitionStatusController {
 
     @Autowired
-    private CompetitionStatusService competitionStatusService;
+    private CompetitionStatusCache competitionStatusCache;
+
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    @Autowired
+    private RoundSnapshotService roundSnapshotService;
+
+    @Autowired
+    private StandingsRecomputePipeline standingsRecomputePipeline;
+
+    @Value("${mj.leaderboard-stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
 
     /**
      * 查询比赛状态
@@ -30,15 +55,31 @@ public class CompetitionStatusController {
     @Operation(summary = "查询指定轮次比赛状态", description = "查询指定比赛指定轮次的状态信息")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "查询成功", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "轮次数据未变化"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "比赛或轮次不存在")
     })
     @GetMapping("/{competitionId}/round/{roundNumber}")
     public ResponseEntity<ApiResponse<CompetitionStatusResponse>> getCompetitionStatus(
             @Parameter(description = "比赛ID", required = true, example = "1") @PathVariable Long competitionId,
-            @Parameter(description = "轮次编号", required = true, example = "1") @PathVariable Integer roundNumber) {
+            @Parameter(description = "轮次编号", required = true, example = "1") @PathVariable Integer roundNumber,
+            ServletWebRequest webRequest) {
+        // 已发布的快照按其计算时的版本生成 ETag，后台重算完成前不会出现新 ETag 搭配旧数据
+        CompetitionStatusCache.Published<CompetitionStatusResponse> published =
+                competitionStatusCache.peekPublishedStatus(competitionId, roundNumber);
+        // 轮次数据未变化时直接返回304（携带 If-None-Match 或 If-Modified-Since），不访问数据库
+        if (RoundConditionalRequests.isNotModified(webRequest, published != null
+                ? published.getRoundVersion() : competitionVersionService.getRoundVersion(competitionId, roundNumber))) {
+            return null;
+        }
+        // 已完成的轮次直接发送预先生成的快照文件
+        if (roundSnapshotService.serve(RoundSnapshotService.KIND_STATUS, competitionId, roundNumber,
+                webRequest.getRequest(), webRequest.getResponse())) {
+            return null;
+        }
+
         try {
-            CompetitionStatusResponse response = competitionStatusService
-                    .getCompetitionStatus(competitionId, roundNumber);
+            CompetitionStatusResponse response = published != null ? published.getValue()
+                    : competitionStatusCache.getCompetitionStatus(competitionId, roundNumber);
 
             return ResponseEntity.ok(ApiResponse.success("查询比赛状态成功", response));
         } catch (RuntimeException e) {
@@ -56,13 +97,13 @@ public class CompetitionStatusController {
             @PathVariable Long competitionId) {
         try {
             // 获取当前最高轮次
-            Integer currentRound = competitionStatusService.getCurrentMaxRound(competitionId);
+            Integer currentRound = competitionStatusCache.getCurrentMaxRound(competitionId);
 
             if (currentRound == 0) {
                 return ResponseEntity.ok(ApiResponse.error("比赛尚未开始"));
             }
 
-            CompetitionStatusResponse response = competitionStatusService
+            CompetitionStatusResponse response = competitionStatusCache
                     .getCompetitionStatus(competitionId, currentRound);
 
             return ResponseEntity.ok(ApiResponse.success("查询当前轮次状态成功", response));
@@ -72,4 +113,66 @@ public class CompetitionStatusController {
             return ResponseEntity.ok(ApiResponse.error("查询当前轮次状态失败"));
         }
     }
+
+    /**
+     * 查询比赛状态缓存的命中统计
+     */
+    @Operation(summary = "查询比赛状态缓存统计", description = "返回比赛状态缓存的命中次数、未命中次数和缓存项数量")
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<CompetitionStatusCache.CacheStats>> getCacheStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("查询缓存统计成功", competitionStatusCache.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("查询缓存统计失败"));
+        }
+    }
+
+    /**
+     * 查询比赛状态后台重算统计
+     */
+    @Operation(summary = "查询比赛状态后台重算统计", description = "返回待重算的变化事件数、合并比例和重算耗时")
+    @GetMapping("/recompute-stats")
+    public ResponseEntity<ApiResponse<StandingsRecomputePipeline.RecomputeStats>> getRecomputeStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("查询重算统计成功", standingsRecomputePipeline.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("查询重算统计失败"));
+        }
+    }
+
+    /**
+     * 订阅轮次排行榜变化（Server-Sent Events）
+     * 连接后先推送完整排行榜（snapshot），之后每次比赛成绩提交推送变化的玩家（delta）；
+     * 断线重连时携带 Last-Event-ID 补发错过的事件
+     */
+    @Operation(summary = "订阅轮次排行榜变化", description = "text/event-stream 推送轮次排行榜，连接后先推送 snapshot，之后推送 delta")
+    @GetMapping(value = "/{competitionId}/round/{roundNumber}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoundLeaderboard(
+            @Parameter(description = "比赛ID", required = true, example = "1") @PathVariable Long competitionId,
+            @Parameter(description = "轮次编号", required = true, example = "1") @PathVariable Integer roundNumber,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        LeaderboardStreamService.Subscriber subscriber = leaderboardStreamService.subscribe(competitionId, roundNumber,
+                lastEventId, new LeaderboardStreamService.EventSink() {
+                    @Override
+                    public void send(String id, String name, String data) throws IOException {
+                        if (name == null) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } else {
+                            emitter.send(SseEmitter.event().id(id).name(name).data(data));
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
 }
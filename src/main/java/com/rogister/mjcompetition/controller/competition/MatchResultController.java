@@ -1,21 +1,39 @@
 package com.rogister.mjcompetition.controller.competition;
 
 import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.common.CursorPage;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchReport;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchRequest;
 import com.rogister.mjcompetition.dto.match.MatchResultCreateRequest;
+import com.rogister.mjcompetition.dto.match.PlayerRankingDTO;
+import com.rogister.mjcompetition.dto.match.RoundRecordDTO;
+import com.rogister.mjcompetition.dto.match.RoundRecordView;
 import com.rogister.mjcompetition.entity.competition.Competition;
 
 import com.rogister.mjcompetition.entity.competition.MatchResult;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.service.competition.CompetitionService;
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
+import com.rogister.mjcompetition.service.competition.MatchResultBatchService;
+import com.rogister.mjcompetition.service.competition.MatchNumberConflictException;
+import com.rogister.mjcompetition.service.competition.MatchResultExportService;
 import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.competition.RoundSnapshotService;
+import com.rogister.mjcompetition.service.competition.RoundStandingsService;
 import com.rogister.mjcompetition.service.player.PlayerService;
 import com.rogister.mjcompetition.service.team.TeamService;
 import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
 import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
-import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -46,7 +64,19 @@ public class MatchResultController {
     private TeamRoundStatusRepository teamRoundStatusRepository;
 
     @Autowired
-    private MatchResultRepository matchResultRepository;
+    private RoundStandingsService roundStandingsService;
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    @Autowired
+    private MatchResultExportService matchResultExportService;
+
+    @Autowired
+    private RoundSnapshotService roundSnapshotService;
+
+    @Autowired
+    private MatchResultBatchService matchResultBatchService;
 
     /**
      * 创建比赛成绩
@@ -70,7 +100,7 @@ public class MatchResultController {
                     .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + request.getCompetitionId()));
 
             // 验证轮次是否允许录入成绩
-            validateRoundForResultEntry(competition, request.getRoundNumber());
+            matchResultService.validateRoundForResultEntry(competition, request.getRoundNumber());
 
             // 验证并获取四个玩家对象
             Player eastPlayer = playerService.findById(request.getEastPlayerId())
@@ -125,11 +155,36 @@ public class MatchResultController {
             // 调用服务创建比赛成绩
             MatchResult created = matchResultService.createMatchResult(matchResult);
             return ResponseEntity.ok(ApiResponse.success("创建比赛成绩成功", created));
+        } catch (MatchNumberConflictException e) {
+            // 比赛编号重复（含并发提交同一场比赛）统一返回409
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("创建比赛成绩失败: " + e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.error("创建比赛成绩失败: " + e.getMessage()));
         }
     }
 
+    /**
+     * 批量录入一轮的比赛成绩
+     * 任意一行有误时整批不写入，data 中返回逐行错误；dryRun=true 时只校验不写入
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<MatchResultBatchReport>> createMatchResults(
+            @RequestBody MatchResultBatchRequest request,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            MatchResultBatchReport report = matchResultBatchService.ingest(request, dryRun);
+            if (!report.isValid()) {
+                return ResponseEntity.ok(new ApiResponse<>(-1,
+                        "批量录入比赛成绩校验失败，共" + report.getErrors().size() + "个错误", report));
+            }
+            return ResponseEntity.ok(ApiResponse.success(dryRun ? "批量校验比赛成绩通过" : "批量录入比赛成绩成功", report));
+        } catch (MatchNumberConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("批量录入比赛成绩失败: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("批量录入比赛成绩失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 根据ID获取比赛成绩
      */
@@ -244,18 +299,22 @@ public class MatchResultController {
     }
 
     /**
-     * 获取下一场比赛编号
+     * 分配下一场比赛编号（roundId 为轮次编号）
+     * 每次调用都分配新的编号，不可缓存
      */
-    @GetMapping("/next-match-number")
+    @PostMapping("/next-match-number")
     public ResponseEntity<ApiResponse<Integer>> getNextMatchNumber(
             @RequestParam Long competitionId,
             @RequestParam Long roundId) {
         try {
-            // 这里需要根据competitionId和roundNumber查找对应的Competition对象
-            // 为了简化，这里返回一个示例值
-            return ResponseEntity.ok(ApiResponse.success(1));
+            Competition competition = competitionService.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+            Integer matchNumber = matchResultService.getNextMatchNumber(competition, roundId.intValue());
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(ApiResponse.success(matchNumber));
         } catch (Exception e) {
-            return ResponseEntity.ok(ApiResponse.error("获取下一场比赛编号失败"));
+            return ResponseEntity.ok(ApiResponse.error("获取下一场比赛编号失败: " + e.getMessage()));
         }
     }
 
@@ -295,62 +354,51 @@ public class MatchResultController {
     }
 
     /**
-     * 验证轮次是否允许录入成绩
+     * 根据比赛和轮次查询比赛记录，按照时间从早到晚排序
      */
-    private void validateRoundForResultEntry(Competition competition, Integer roundNumber) {
-        // 获取比赛成绩记录中的最大轮次
-        Integer maxResultRound = matchResultRepository.findMaxRoundNumberByCompetitionId(competition.getId());
-
-        // 根据比赛类型获取轮次状态中的最大轮次
-        Integer maxStatusRound = null;
-        if (competition.getCompetitionType() == Competition.CompetitionType.INDIVIDUAL) {
-            maxStatusRound = playerRoundStatusRepository.findMaxRoundNumberByCompetitionId(competition.getId());
-        } else if (competition.getCompetitionType() == Competition.CompetitionType.TEAM) {
-            maxStatusRound = teamRoundStatusRepository.findMaxRoundNumberByCompetitionId(competition.getId());
-        }
-
-        // 取两者中的最大值作为当前实际最大轮次
-        Integer actualMaxRound = null;
-        if (maxResultRound != null && maxStatusRound != null) {
-            actualMaxRound = Math.max(maxResultRound, maxStatusRound);
-        } else if (maxResultRound != null) {
-            actualMaxRound = maxResultRound;
-        } else if (maxStatusRound != null) {
-            actualMaxRound = maxStatusRound;
+    @GetMapping("/round-records")
+    public ResponseEntity<ApiResponse<List<RoundRecordView>>> getRoundRecordsByTime(
+            @RequestParam Long competitionId,
+            @RequestParam Integer roundNumber,
+            @RequestParam(defaultValue = "false") boolean includeMatchNumber,
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
         }
 
-        // 如果存在更高轮次的成绩记录，不允许补录之前轮次的成绩
-        if (actualMaxRound != null && roundNumber < actualMaxRound) {
-            throw new RuntimeException("不允许补录第" + roundNumber + "轮成绩，因为已存在第" + actualMaxRound + "轮的数据");
-        }
+        try {
+            // 查找比赛
+            Competition competition = competitionService.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-        // 如果录入的轮次比当前最高轮次大于1，也不允许（防止跳跃录入）
-        if (actualMaxRound != null && roundNumber > actualMaxRound + 1) {
-            throw new RuntimeException("不允许跳跃录入第" + roundNumber + "轮成绩，当前最高轮次为第" + actualMaxRound + "轮，只能录入第"
-                    + (actualMaxRound + 1) + "轮的成绩");
+            List<RoundRecordView> results = matchResultService.findRoundRecordViews(competition, roundNumber,
+                    includeMatchNumber);
+            return ResponseEntity.ok(ApiResponse.success(results));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("获取轮次记录失败"));
         }
     }
 
     /**
-     * 根据比赛和轮次查询比赛记录，按照时间从早到晚排序
+     * 根据比赛和轮次查询比赛记录，按照时间从早到晚排序（包含比赛编号作为第二排序条件）
      */
-    @GetMapping("/round-records")
-    public ResponseEntity<ApiResponse<List<MatchResult>>> getRoundRecordsByTime(
+    @GetMapping("/round-records/detailed")
+    public ResponseEntity<ApiResponse<List<RoundRecordView>>> getRoundRecordsByTimeAndNumber(
             @RequestParam Long competitionId,
             @RequestParam Integer roundNumber,
-            @RequestParam(defaultValue = "false") boolean includeMatchNumber) {
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
+        }
+
         try {
             // 查找比赛
             Competition competition = competitionService.findById(competitionId)
                     .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-            List<MatchResult> results;
-            if (includeMatchNumber) {
-                results = matchResultService.findByCompetitionAndRoundOrderByTimeAndNumber(competition, roundNumber);
-            } else {
-                results = matchResultService.findByCompetitionAndRoundOrderByTime(competition, roundNumber);
-            }
-
+            List<RoundRecordView> results = matchResultService.findRoundRecordViews(competition, roundNumber, true);
             return ResponseEntity.ok(ApiResponse.success(results));
         } catch (RuntimeException e) {
             return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
@@ -360,20 +408,27 @@ public class MatchResultController {
     }
 
     /**
-     * 根据比赛和轮次查询比赛记录，按照时间从早到晚排序（包含比赛编号作为第二排序条件）
+     * 按比赛编号分页查询轮次的比赛记录，返回格式化的信息，pageToken 为空时返回第一页
      */
-    @GetMapping("/round-records/detailed")
-    public ResponseEntity<ApiResponse<List<MatchResult>>> getRoundRecordsByTimeAndNumber(
+    @GetMapping("/round-records/page")
+    public ResponseEntity<ApiResponse<CursorPage<RoundRecordDTO>>> getRoundRecordsPage(
             @RequestParam Long competitionId,
-            @RequestParam Integer roundNumber) {
+            @RequestParam Integer roundNumber,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer pageSize,
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
+        }
+
         try {
-            // 查找比赛
             Competition competition = competitionService.findById(competitionId)
                     .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-            List<MatchResult> results = matchResultService.findByCompetitionAndRoundOrderByTimeAndNumber(competition,
-                    roundNumber);
-            return ResponseEntity.ok(ApiResponse.success(results));
+            CursorPage<RoundRecordDTO> page = matchResultService
+                    .findRoundRecordsPage(competition, roundNumber, pageToken, pageSize)
+                    .map(RoundRecordDTO::fromMatchResult);
+            return ResponseEntity.ok(ApiResponse.success(page));
         } catch (RuntimeException e) {
             return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
@@ -387,16 +442,25 @@ public class MatchResultController {
     @GetMapping("/round-records/formatted")
     public ResponseEntity<ApiResponse<List<RoundRecordDTO>>> getFormattedRoundRecords(
             @RequestParam Long competitionId,
-            @RequestParam Integer roundNumber) {
+            @RequestParam Integer roundNumber,
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
+        }
+        if (roundSnapshotService.serve(RoundSnapshotService.KIND_RECORDS, competitionId, roundNumber,
+                webRequest.getRequest(), webRequest.getResponse())) {
+            return null;
+        }
+
         try {
             // 查找比赛
             Competition competition = competitionService.findById(competitionId)
                     .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-            List<MatchResult> results = matchResultService.findByCompetitionAndRoundOrderByTime(competition,
-                    roundNumber);
-            List<RoundRecordDTO> formattedResults = results.stream()
-                    .map(RoundRecordDTO::fromMatchResult)
+            List<RoundRecordDTO> formattedResults = matchResultService
+                    .findRoundRecordViews(competition, roundNumber, false)
+                    .stream()
+                    .map(RoundRecordDTO::fromView)
                     .toList();
 
             return ResponseEntity.ok(ApiResponse.success(formattedResults));
@@ -413,7 +477,12 @@ public class MatchResultController {
     @GetMapping("/round-rankings")
     public ResponseEntity<ApiResponse<List<MatchResultService.PlayerRoundRanking>>> getRoundPlayerRankings(
             @RequestParam Long competitionId,
-            @RequestParam Integer roundNumber) {
+            @RequestParam Integer roundNumber,
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
+        }
+
         try {
             // 查找比赛
             Competition competition = competitionService.findById(competitionId)
@@ -468,7 +537,16 @@ public class MatchResultController {
     @GetMapping("/round-rankings/formatted")
     public ResponseEntity<ApiResponse<List<PlayerRankingDTO>>> getFormattedRoundPlayerRankings(
             @RequestParam Long competitionId,
-            @RequestParam Integer roundNumber) {
+            @RequestParam Integer roundNumber,
+            ServletWebRequest webRequest) {
+        if (isNotModified(webRequest, competitionId, roundNumber)) {
+            return null;
+        }
+        if (roundSnapshotService.serve(RoundSnapshotService.KIND_RANKINGS, competitionId, roundNumber,
+                webRequest.getRequest(), webRequest.getResponse())) {
+            return null;
+        }
+
         try {
             // 查找比赛
             Competition competition = competitionService.findById(competitionId)
@@ -496,143 +574,100 @@ public class MatchResultController {
     }
 
     /**
-     * 内部类：分数验证请求
+     * 轮次数据未变化时返回 true，不访问数据库
      */
-    public static class ScoreValidationRequest {
-        private Integer eastScore;
-        private Integer southScore;
-        private Integer westScore;
-        private Integer northScore;
+    private boolean isNotModified(ServletWebRequest webRequest, Long competitionId, Integer roundNumber) {
+        return RoundConditionalRequests.isNotModified(webRequest,
+                competitionVersionService.getRoundVersion(competitionId, roundNumber));
+    }
 
-        // Getter和Setter方法
-        public Integer getEastScore() {
-            return eastScore;
-        }
+    /**
+     * 根据比赛成绩重建轮次积分榜（不指定轮次时重建整场比赛）
+     */
+    @PostMapping("/standings/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildStandings(
+            @RequestParam Long competitionId,
+            @RequestParam(required = false) Integer roundNumber) {
+        try {
+            competitionService.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-        public void setEastScore(Integer eastScore) {
-            this.eastScore = eastScore;
-        }
+            if (roundNumber != null) {
+                int playerCount = roundStandingsService.rebuildRound(competitionId, roundNumber);
+                return ResponseEntity.ok(ApiResponse.success("重建轮次积分榜成功，玩家数: " + playerCount, playerCount));
+            }
 
-        public Integer getSouthScore() {
-            return southScore;
+            int roundCount = roundStandingsService.rebuildCompetition(competitionId);
+            return ResponseEntity.ok(ApiResponse.success("重建比赛积分榜成功，轮次数: " + roundCount, roundCount));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("重建积分榜失败"));
         }
+    }
 
-        public void setSouthScore(Integer southScore) {
-            this.southScore = southScore;
-        }
+    /**
+     * 检查轮次积分榜与比赛成绩是否一致（不指定轮次时检查整场比赛）
+     */
+    @GetMapping("/standings/consistency")
+    public ResponseEntity<ApiResponse<List<RoundStandingsService.StandingDiscrepancy>>> checkStandings(
+            @RequestParam Long competitionId,
+            @RequestParam(required = false) Integer roundNumber) {
+        try {
+            competitionService.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-        public Integer getWestScore() {
-            return westScore;
-        }
+            List<RoundStandingsService.StandingDiscrepancy> discrepancies = roundNumber != null
+                    ? roundStandingsService.checkRound(competitionId, roundNumber)
+                    : roundStandingsService.checkCompetition(competitionId);
 
-        public void setWestScore(Integer westScore) {
-            this.westScore = westScore;
+            String message = discrepancies.isEmpty() ? "积分榜与比赛成绩一致" : "发现 " + discrepancies.size() + " 处不一致";
+            return ResponseEntity.ok(ApiResponse.success(message, discrepancies));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("检查积分榜失败"));
         }
+    }
 
-        public Integer getNorthScore() {
-            return northScore;
-        }
+    /**
+     * 流式导出整场比赛的比赛成绩（format 为 ndjson 或 csv），按轮次号、比赛编号排序
+     * 比赛不存在或格式不支持时返回错误信息
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportMatchResults(
+            @RequestParam Long competitionId,
+            @RequestParam(defaultValue = MatchResultExportService.FORMAT_NDJSON) String format) {
+        try {
+            if (!MatchResultExportService.isSupportedFormat(format)) {
+                throw new RuntimeException("不支持的导出格式: " + format);
+            }
+            competitionService.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
 
-        public void setNorthScore(Integer northScore) {
-            this.northScore = northScore;
+            String fileName = "competition-" + competitionId + "-match-results." + format.toLowerCase();
+            StreamingResponseBody body = out -> matchResultExportService.export(competitionId, format, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(MatchResultExportService.contentTypeOf(format)))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                    .body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("导出比赛成绩失败"));
         }
     }
 
     /**
-     * 内部类：轮次比赛记录DTO
+     * 内部类：分数验证请求
      */
-    public static class RoundRecordDTO {
-        private Long id;
-        private Integer matchNumber;
-        private String matchName;
-        private String eastPlayerName;
+    public static class ScoreValidationRequest {
         private Integer eastScore;
-        private Integer eastPenalty;
-        private String southPlayerName;
         private Integer southScore;
-        private Integer southPenalty;
-        private String westPlayerName;
         private Integer westScore;
-        private Integer westPenalty;
-        private String northPlayerName;
         private Integer northScore;
-        private Integer northPenalty;
-        private String matchTime;
-        private String remarks;
-
-        public static RoundRecordDTO fromMatchResult(MatchResult matchResult) {
-            RoundRecordDTO dto = new RoundRecordDTO();
-            dto.setId(matchResult.getId());
-            dto.setMatchNumber(matchResult.getMatchNumber());
-            dto.setMatchName(matchResult.getMatchName());
-
-            // 设置四个方位的玩家信息
-            if (matchResult.getEastPlayer() != null) {
-                dto.setEastPlayerName(matchResult.getEastPlayer().getNickname());
-                dto.setEastScore(matchResult.getEastScore());
-                dto.setEastPenalty(matchResult.getEastPenalty());
-            }
-
-            if (matchResult.getSouthPlayer() != null) {
-                dto.setSouthPlayerName(matchResult.getSouthPlayer().getNickname());
-                dto.setSouthScore(matchResult.getSouthScore());
-                dto.setSouthPenalty(matchResult.getSouthPenalty());
-            }
-
-            if (matchResult.getWestPlayer() != null) {
-                dto.setWestPlayerName(matchResult.getWestPlayer().getNickname());
-                dto.setWestScore(matchResult.getWestScore());
-                dto.setWestPenalty(matchResult.getWestPenalty());
-            }
-
-            if (matchResult.getNorthPlayer() != null) {
-                dto.setNorthPlayerName(matchResult.getNorthPlayer().getNickname());
-                dto.setNorthScore(matchResult.getNorthScore());
-                dto.setNorthPenalty(matchResult.getNorthPenalty());
-            }
-
-            if (matchResult.getMatchTime() != null) {
-                dto.setMatchTime(matchResult.getMatchTime().toString());
-            }
-
-            dto.setRemarks(matchResult.getRemarks());
-
-            return dto;
-        }
 
         // Getter和Setter方法
-        public Long getId() {
-            return id;
-        }
-
-        public void setId(Long id) {
-            this.id = id;
-        }
-
-        public Integer getMatchNumber() {
-            return matchNumber;
-        }
-
-        public void setMatchNumber(Integer matchNumber) {
-            this.matchNumber = matchNumber;
-        }
-
-        public String getMatchName() {
-            return matchName;
-        }
-
-        public void setMatchName(String matchName) {
-            this.matchName = matchName;
-        }
-
-        public String getEastPlayerName() {
-            return eastPlayerName;
-        }
-
-        public void setEastPlayerName(String eastPlayerName) {
-            this.eastPlayerName = eastPlayerName;
-        }
-
         public Integer getEastScore() {
             return eastScore;
         }
@@ -641,22 +676,6 @@ public class MatchResultController {
             this.eastScore = eastScore;
         }
 
-        public Integer getEastPenalty() {
-            return eastPenalty;
-        }
-
-        public void setEastPenalty(Integer eastPenalty) {
-            this.eastPenalty = eastPenalty;
-        }
-
-        public String getSouthPlayerName() {
-            return southPlayerName;
-        }
-
-        public void setSouthPlayerName(String southPlayerName) {
-            this.southPlayerName = southPlayerName;
-        }
-
         public Integer getSouthScore() {
             return southScore;
         }
@@ -665,22 +684,6 @@ public class MatchResultController {
             this.southScore = southScore;
         }
 
-        public Integer getSouthPenalty() {
-            return southPenalty;
-        }
-
-        public void setSouthPenalty(Integer southPenalty) {
-            this.southPenalty = southPenalty;
-        }
-
-        public String getWestPlayerName() {
-            return westPlayerName;
-        }
-
-        public void setWestPlayerName(String westPlayerName) {
-            this.westPlayerName = westPlayerName;
-        }
-
         public Integer getWestScore() {
             return westScore;
         }
@@ -689,22 +692,6 @@ public class MatchResultController {
             this.westScore = westScore;
         }
 
-        public Integer getWestPenalty() {
-            return westPenalty;
-        }
-
-        public void setWestPenalty(Integer westPenalty) {
-            this.westPenalty = westPenalty;
-        }
-
-        public String getNorthPlayerName() {
-            return northPlayerName;
-        }
-
-        public void setNorthPlayerName(String northPlayerName) {
-            this.northPlayerName = northPlayerName;
-        }
-
         public Integer getNorthScore() {
             return northScore;
         }
@@ -712,171 +699,5 @@ public class MatchResultController {
         public void setNorthScore(Integer northScore) {
             this.northScore = northScore;
         }
-
-        public Integer getNorthPenalty() {
-            return northPenalty;
-        }
-
-        public void setNorthPenalty(Integer northPenalty) {
-            this.northPenalty = northPenalty;
-        }
-
-        public String getMatchTime() {
-            return matchTime;
-        }
-
-        public void setMatchTime(String matchTime) {
-            this.matchTime = matchTime;
-        }
-
-        public String getRemarks() {
-            return remarks;
-        }
-
-        public void setRemarks(String remarks) {
-            this.remarks = remarks;
-        }
-    }
-
-    /**
-     * 内部类：玩家排名DTO
-     */
-    public static class PlayerRankingDTO {
-        private Integer rank; // 排名
-        private Long playerId; // 玩家ID
-        private String playerName; // 玩家姓名
-        private String mahjongId; // 麻将ID
-        private Double totalActualPoints; // 实际得分总和
-        private Integer totalOriginalScore; // 原始得分总和
-        private Integer totalPenalty; // 罚分总和
-        private Integer matchCount; // 比赛场数
-        private Integer firstPlaceCount; // 第一名次数
-        private Integer secondPlaceCount; // 第二名次数
-        private Integer thirdPlaceCount; // 第三名次数
-        private Integer fourthPlaceCount; // 第四名次数
-        private Double averagePosition; // 平均顺位
-
-        public static PlayerRankingDTO fromPlayerRoundRanking(MatchResultService.PlayerRoundRanking ranking) {
-            PlayerRankingDTO dto = new PlayerRankingDTO();
-            dto.setRank(ranking.getRank());
-            dto.setPlayerId(ranking.getPlayer().getId());
-            dto.setPlayerName(ranking.getPlayerName());
-            dto.setMahjongId(ranking.getMahjongId());
-            dto.setTotalActualPoints(ranking.getTotalActualPoints());
-            dto.setTotalOriginalScore(ranking.getTotalOriginalScore());
-            dto.setTotalPenalty(ranking.getTotalPenalty());
-            dto.setMatchCount(ranking.getMatchCount());
-            dto.setFirstPlaceCount(ranking.getFirstPlaceCount());
-            dto.setSecondPlaceCount(ranking.getSecondPlaceCount());
-            dto.setThirdPlaceCount(ranking.getThirdPlaceCount());
-            dto.setFourthPlaceCount(ranking.getFourthPlaceCount());
-            dto.setAveragePosition(ranking.getAveragePosition());
-            return dto;
-        }
-
-        // Getter和Setter方法
-        public Integer getRank() {
-            return rank;
-        }
-
-        public void setRank(Integer rank) {
-            this.rank = rank;
-        }
-
-        public Long getPlayerId() {
-            return playerId;
-        }
-
-        public void setPlayerId(Long playerId) {
-            this.playerId = playerId;
-        }
-
-        public String getPlayerName() {
-            return playerName;
-        }
-
-        public void setPlayerName(String playerName) {
-            this.playerName = playerName;
-        }
-
-        public String getMahjongId() {
-            return mahjongId;
-        }
-
-        public void setMahjongId(String mahjongId) {
-            this.mahjongId = mahjongId;
-        }
-
-        public Double getTotalActualPoints() {
-            return totalActualPoints;
-        }
-
-        public void setTotalActualPoints(Double totalActualPoints) {
-            this.totalActualPoints = totalActualPoints;
-        }
-
-        public Integer getTotalOriginalScore() {
-            return totalOriginalScore;
-        }
-
-        public void setTotalOriginalScore(Integer totalOriginalScore) {
-            this.totalOriginalScore = totalOriginalScore;
-        }
-
-        public Integer getTotalPenalty() {
-            return totalPenalty;
-        }
-
-        public void setTotalPenalty(Integer totalPenalty) {
-            this.totalPenalty = totalPenalty;
-        }
-
-        public Integer getMatchCount() {
-            return matchCount;
-        }
-
-        public void setMatchCount(Integer matchCount) {
-            this.matchCount = matchCount;
-        }
-
-        public Integer getFirstPlaceCount() {
-            return firstPlaceCount;
-        }
-
-        public void setFirstPlaceCount(Integer firstPlaceCount) {
-            this.firstPlaceCount = firstPlaceCount;
-        }
-
-        public Integer getSecondPlaceCount() {
-            return secondPlaceCount;
-        }
-
-        public void setSecondPlaceCount(Integer secondPlaceCount) {
-            this.secondPlaceCount = secondPlaceCount;
-        }
-
-        public Integer getThirdPlaceCount() {
-            return thirdPlaceCount;
-        }
-
-        public void setThirdPlaceCount(Integer thirdPlaceCount) {
-            this.thirdPlaceCount = thirdPlaceCount;
-        }
-
-        public Integer getFourthPlaceCount() {
-            return fourthPlaceCount;
-        }
-
-        public void setFourthPlaceCount(Integer fourthPlaceCount) {
-            this.fourthPlaceCount = fourthPlaceCount;
-        }
-
-        public Double getAveragePosition() {
-            return averagePosition;
-        }
-
-        public void setAveragePosition(Double averagePosition) {
-            this.averagePosition = averagePosition;
-        }
     }
 }
@@ -0,0 +1,62 @@
+package com.rogister.mjcompetition.controller.competition;
+
+import com.rogister.mjcompetition.service.competition.ResultBroadcastService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * 比赛成绩广播连接：/ws/competitions/{competitionId}/results?roundNumber=N
+ * 无需鉴权，供场馆大屏订阅；连接后先收到轮次快照，之后收到比赛成绩的新增、修改和删除
+ */
+@Component
+public class MatchResultWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String COMPETITION_ID = "competitionId";
+
+    @Autowired
+    private ResultBroadcastService resultBroadcastService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        Long competitionId;
+        Integer roundNumber;
+        try {
+            UriComponents uri = UriComponentsBuilder.fromUri(session.getUri()).build();
+            List<String> segments = uri.getPathSegments();
+            competitionId = Long.valueOf(segments.get(segments.size() - 2));
+            String round = uri.getQueryParams().getFirst("roundNumber");
+            roundNumber = round != null ? Integer.valueOf(round) : null;
+        } catch (RuntimeException e) {
+            session.close(CloseStatus.BAD_DATA.withReason("比赛ID或轮次编号无效"));
+            return;
+        }
+
+        session.getAttributes().put(COMPETITION_ID, competitionId);
+        try {
+            resultBroadcastService.subscribe(session, competitionId, roundNumber);
+        } catch (RuntimeException e) {
+            session.close(CloseStatus.SERVER_ERROR.withReason("订阅比赛成绩失败"));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        // 只推送不接收，忽略客户端消息
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long competitionId = (Long) session.getAttributes().get(COMPETITION_ID);
+        if (competitionId != null) {
+            resultBroadcastService.unsubscribe(session, competitionId);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.rogister.mjcompetition.controller.competition;
+
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * 轮次数据的条件请求：按轮次版本检查 If-None-Match / If-Modified-Since，并在响应中写入 ETag 和 Last-Modified
+ */
+final class RoundConditionalRequests {
+
+    private RoundConditionalRequests() {
+    }
+
+    /**
+     * 数据未变化时返回 true（响应状态已设为304，控制器直接返回 null）
+     */
+    static boolean isNotModified(ServletWebRequest webRequest, CompetitionVersionService.RoundVersion version) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            // 允许客户端保存响应，但每次使用前必须重新验证（覆盖安全框架默认的 no-store）
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            // 同一地址按 Accept 返回 JSON 或 CBOR
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return webRequest.checkNotModified(eTagOf(webRequest, version), version.getLastModified());
+    }
+
+    /**
+     * JSON 和 CBOR 是同一数据的不同表示，使用不同的 ETag
+     */
+    private static String eTagOf(ServletWebRequest webRequest, CompetitionVersionService.RoundVersion version) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return version.getETag();
+        }
+        String eTag = version.getETag();
+        return eTag.substring(0, eTag.length() - 1) + "-cbor\"";
+    }
+}
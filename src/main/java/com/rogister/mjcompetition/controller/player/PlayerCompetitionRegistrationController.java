@@ -1,6 +1,7 @@
 package com.rogister.mjcompetition.controller.player;
 
 import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.common.CursorPage;
 import com.rogister.mjcompetition.dto.competition.CompetitionRegistrationRequest;
 import com.rogister.mjcompetition.dto.team.TeamCompetitionRegistrationRequest;
 import com.rogister.mjcompetition.entity.player.Player;
@@ -197,6 +198,25 @@ public class PlayerCompetitionRegistrationController {
         }
     }
 
+    /**
+     * 按报名记录ID升序分页获取比赛的报名玩家，pageToken 为空时返回第一页
+     */
+    @GetMapping("/competition/{competitionId}/page")
+    public ResponseEntity<ApiResponse<CursorPage<PlayerCompetitionRegistration>>> getCompetitionRegistrationsPage(
+            @PathVariable Long competitionId,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer pageSize) {
+        try {
+            CursorPage<PlayerCompetitionRegistration> page = competitionRegistrationService
+                    .getCompetitionIndividualRegistrationsPage(competitionId, pageToken, pageSize);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("获取报名记录失败"));
+        }
+    }
+
     /**
      * 检查玩家是否已报名某场比赛
      */
@@ -1,6 +1,7 @@
 package com.rogister.mjcompetition.controller.player;
 
 import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.common.CursorPage;
 import com.rogister.mjcompetition.dto.player.PlayerTeamsResponse;
 import com.rogister.mjcompetition.dto.player.PlayerLoginRequest;
 import com.rogister.mjcompetition.dto.common.ChangePasswordRequest;
@@ -290,6 +291,22 @@ public class PlayerController {
         }
     }
 
+    /**
+     * 按ID升序分页获取玩家，pageToken 为上一页返回的 nextPageToken，为空时返回第一页
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPage<Player>>> getPlayersPage(
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer pageSize) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(playerService.findPlayersPage(pageToken, pageSize)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("获取玩家列表失败"));
+        }
+    }
+
     /**
      * 根据ID获取玩家
      */
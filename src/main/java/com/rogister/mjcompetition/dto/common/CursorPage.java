@@ -0,0 +1,46 @@
+package com.rogister.mjcompetition.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果：nextPageToken 为空表示已是最后一页
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "游标分页结果")
+public class CursorPage<T> {
+
+    @Schema(description = "本页数据")
+    private List<T> items;
+
+    @Schema(description = "下一页的分页令牌，原样传入 pageToken 获取下一页；为空表示没有更多数据")
+    private String nextPageToken;
+
+    @Schema(description = "是否还有下一页")
+    private boolean hasMore;
+
+    /**
+     * 由多查询一条的结果构造分页：rows 超过 pageSize 时截断，并以本页最后一条生成下一页令牌
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, String> tokenOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, tokenOf.apply(items.get(pageSize - 1)), true);
+    }
+
+    /**
+     * 转换本页数据，分页令牌不变
+     */
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextPageToken, hasMore);
+    }
+}
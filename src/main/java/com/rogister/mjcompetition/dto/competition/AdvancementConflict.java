@@ -0,0 +1,25 @@
+package com.rogister.mjcompetition.dto.competition;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 晋级名单中无法晋级的一个玩家或团队
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "晋级冲突")
+public class AdvancementConflict {
+
+    @Schema(description = "玩家ID或团队ID")
+    private Long id;
+
+    @Schema(description = "玩家用户名或团队名称，不存在时为空")
+    private String name;
+
+    @Schema(description = "无法晋级的原因")
+    private String reason;
+}
@@ -0,0 +1,59 @@
+package com.rogister.mjcompetition.dto.competition;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按晋级线晋级：根据某轮次积分榜和晋级规则计算晋级名单，其余玩家在该轮次被淘汰
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "按晋级线晋级请求")
+public class CutLineAdvancementRequest {
+
+    @Schema(description = "比赛ID", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long competitionId;
+
+    @Schema(description = "按其积分榜计算晋级线的轮次", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer roundNumber;
+
+    @Schema(description = "目标轮次，默认为 roundNumber + 1", example = "2")
+    private Integer targetRound;
+
+    @Schema(description = "晋级玩家在目标轮次的初始得分", example = "0")
+    private Integer initialScore = 0;
+
+    @Schema(description = "晋级规则", example = "TOP_N", requiredMode = Schema.RequiredMode.REQUIRED)
+    private CutRule rule;
+
+    @Schema(description = "规则参数：TOP_N 为人数，TOP_PERCENT 为百分比，PT_THRESHOLD 为PT分数线", example = "16",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private Double value;
+
+    @Schema(description = "PT相同时依次比较的项目，默认为 AVERAGE_POSITION、FIRST_PLACE_COUNT、SCORE_TOTAL；"
+            + "全部相同且恰好处于晋级线上的玩家一同晋级")
+    private List<TieBreaker> tieBreakers;
+
+    /**
+     * 晋级规则
+     */
+    public enum CutRule {
+        TOP_N,        // 前N名
+        TOP_PERCENT,  // 前百分之X（向上取整）
+        PT_THRESHOLD  // PT不低于分数线
+    }
+
+    /**
+     * PT相同时的比较项目
+     */
+    public enum TieBreaker {
+        AVERAGE_POSITION,  // 平均顺位低者优先
+        FIRST_PLACE_COUNT, // 一位次数多者优先
+        SCORE_TOTAL,       // 原始得分总和高者优先
+        PENALTY_TOTAL,     // 罚分少者优先
+        MATCH_COUNT        // 比赛场数多者优先
+    }
+}
@@ -0,0 +1,62 @@
+package com.rogister.mjcompetition.dto.competition;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按晋级线晋级的结果，预览时不写入
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "按晋级线晋级结果")
+public class CutLineAdvancementResult {
+
+    @Schema(description = "是否只预览不写入")
+    private boolean preview;
+
+    @Schema(description = "目标轮次")
+    private Integer targetRound;
+
+    @Schema(description = "参与计算的玩家数（该轮次未被淘汰的玩家）")
+    private int candidateCount;
+
+    @Schema(description = "与晋级线玩家完全同分而一同晋级、超出名额的人数")
+    private int tiedAtCut;
+
+    @Schema(description = "晋级线上（排名最后一位晋级）的玩家，无人晋级时为空")
+    private Entry cutLine;
+
+    @Schema(description = "晋级玩家，按排名顺序")
+    private List<Entry> advanced = new ArrayList<>();
+
+    @Schema(description = "淘汰玩家")
+    private List<Entry> eliminated = new ArrayList<>();
+
+    /**
+     * 一名玩家在该轮次的成绩
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        @Schema(description = "玩家ID")
+        private Long playerId;
+
+        @Schema(description = "玩家用户名")
+        private String username;
+
+        @Schema(description = "PT分数总和")
+        private Double ptTotal;
+
+        @Schema(description = "比赛场数")
+        private Integer matchCount;
+
+        @Schema(description = "平均顺位，未参赛时为空")
+        private Double averagePosition;
+    }
+}
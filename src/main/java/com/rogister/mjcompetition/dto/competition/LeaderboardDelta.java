@@ -0,0 +1,34 @@
+package com.rogister.mjcompetition.dto.competition;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 轮次排行榜推送事件：snapshot 为完整排行榜，delta 只包含总分或排名发生变化的玩家
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDelta {
+
+    private Long competitionId;
+    private Integer roundNumber;
+    private String type;                     // snapshot 或 delta
+    private List<StandingChange> changes;    // 变化的玩家（snapshot 时为全部玩家，按排名排序）
+    private List<Long> removedPlayerIds;     // 已不在排行榜中的玩家
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StandingChange {
+        private Long playerId;
+        private String playerName;
+        private Double totalPoints;          // PT分数总和
+        private Integer matchCount;          // 比赛场数
+        private Integer rank;                // 当前排名
+        private Integer previousRank;        // 变化前的排名，新上榜或 snapshot 时为空
+    }
+}
@@ -0,0 +1,61 @@
+package com.rogister.mjcompetition.dto.match;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量录入比赛成绩的结果：任意一行有误时整批不写入，errors 中列出每一行的错误
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "批量录入比赛成绩结果")
+public class MatchResultBatchReport {
+
+    @Schema(description = "是否只校验不写入")
+    private boolean dryRun;
+
+    @Schema(description = "成绩表行数")
+    private int total;
+
+    @Schema(description = "写入的比赛场数")
+    private int inserted;
+
+    @Schema(description = "逐行错误，为空表示全部通过校验")
+    private List<RowError> errors = new ArrayList<>();
+
+    public MatchResultBatchReport(boolean dryRun, int total) {
+        this.dryRun = dryRun;
+        this.total = total;
+    }
+
+    @Schema(description = "是否全部通过校验")
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public void addError(int row, Integer matchNumber, String message) {
+        errors.add(new RowError(row, matchNumber, message));
+    }
+
+    /**
+     * 一行成绩的错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        @Schema(description = "行号（从1开始）")
+        private int row;
+
+        @Schema(description = "比赛编号")
+        private Integer matchNumber;
+
+        @Schema(description = "错误信息")
+        private String message;
+    }
+}
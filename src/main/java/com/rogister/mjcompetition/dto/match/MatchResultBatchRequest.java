@@ -0,0 +1,24 @@
+package com.rogister.mjcompetition.dto.match;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量录入比赛成绩请求（一轮的成绩表）")
+public class MatchResultBatchRequest {
+
+    @Schema(description = "比赛ID", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long competitionId;
+
+    @Schema(description = "轮次编号", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer roundNumber;
+
+    @Schema(description = "本轮各场比赛成绩，行内的比赛ID和轮次编号可省略", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<MatchResultCreateRequest> matches;
+}
@@ -0,0 +1,145 @@
+package com.rogister.mjcompetition.dto.match;
+
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+
+/**
+ * 玩家排名DTO
+ */
+public class PlayerRankingDTO {
+    private Integer rank; // 排名
+    private Long playerId; // 玩家ID
+    private String playerName; // 玩家姓名
+    private String mahjongId; // 麻将ID
+    private Double totalActualPoints; // 实际得分总和
+    private Integer totalOriginalScore; // 原始得分总和
+    private Integer totalPenalty; // 罚分总和
+    private Integer matchCount; // 比赛场数
+    private Integer firstPlaceCount; // 第一名次数
+    private Integer secondPlaceCount; // 第二名次数
+    private Integer thirdPlaceCount; // 第三名次数
+    private Integer fourthPlaceCount; // 第四名次数
+    private Double averagePosition; // 平均顺位
+
+    public static PlayerRankingDTO fromPlayerRoundRanking(MatchResultService.PlayerRoundRanking ranking) {
+        PlayerRankingDTO dto = new PlayerRankingDTO();
+        dto.setRank(ranking.getRank());
+        dto.setPlayerId(ranking.getPlayer().getId());
+        dto.setPlayerName(ranking.getPlayerName());
+        dto.setMahjongId(ranking.getMahjongId());
+        dto.setTotalActualPoints(ranking.getTotalActualPoints());
+        dto.setTotalOriginalScore(ranking.getTotalOriginalScore());
+        dto.setTotalPenalty(ranking.getTotalPenalty());
+        dto.setMatchCount(ranking.getMatchCount());
+        dto.setFirstPlaceCount(ranking.getFirstPlaceCount());
+        dto.setSecondPlaceCount(ranking.getSecondPlaceCount());
+        dto.setThirdPlaceCount(ranking.getThirdPlaceCount());
+        dto.setFourthPlaceCount(ranking.getFourthPlaceCount());
+        dto.setAveragePosition(ranking.getAveragePosition());
+        return dto;
+    }
+
+    // Getter和Setter方法
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    public String getMahjongId() {
+        return mahjongId;
+    }
+
+    public void setMahjongId(String mahjongId) {
+        this.mahjongId = mahjongId;
+    }
+
+    public Double getTotalActualPoints() {
+        return totalActualPoints;
+    }
+
+    public void setTotalActualPoints(Double totalActualPoints) {
+        this.totalActualPoints = totalActualPoints;
+    }
+
+    public Integer getTotalOriginalScore() {
+        return totalOriginalScore;
+    }
+
+    public void setTotalOriginalScore(Integer totalOriginalScore) {
+        this.totalOriginalScore = totalOriginalScore;
+    }
+
+    public Integer getTotalPenalty() {
+        return totalPenalty;
+    }
+
+    public void setTotalPenalty(Integer totalPenalty) {
+        this.totalPenalty = totalPenalty;
+    }
+
+    public Integer getMatchCount() {
+        return matchCount;
+    }
+
+    public void setMatchCount(Integer matchCount) {
+        this.matchCount = matchCount;
+    }
+
+    public Integer getFirstPlaceCount() {
+        return firstPlaceCount;
+    }
+
+    public void setFirstPlaceCount(Integer firstPlaceCount) {
+        this.firstPlaceCount = firstPlaceCount;
+    }
+
+    public Integer getSecondPlaceCount() {
+        return secondPlaceCount;
+    }
+
+    public void setSecondPlaceCount(Integer secondPlaceCount) {
+        this.secondPlaceCount = secondPlaceCount;
+    }
+
+    public Integer getThirdPlaceCount() {
+        return thirdPlaceCount;
+    }
+
+    public void setThirdPlaceCount(Integer thirdPlaceCount) {
+        this.thirdPlaceCount = thirdPlaceCount;
+    }
+
+    public Integer getFourthPlaceCount() {
+        return fourthPlaceCount;
+    }
+
+    public void setFourthPlaceCount(Integer fourthPlaceCount) {
+        this.fourthPlaceCount = fourthPlaceCount;
+    }
+
+    public Double getAveragePosition() {
+        return averagePosition;
+    }
+
+    public void setAveragePosition(Double averagePosition) {
+        this.averagePosition = averagePosition;
+    }
+}
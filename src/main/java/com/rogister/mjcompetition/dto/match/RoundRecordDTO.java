@@ -0,0 +1,237 @@
+package com.rogister.mjcompetition.dto.match;
+
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+
+/**
+ * 轮次比赛记录DTO：玩家只输出昵称，用于轮次记录接口和比赛成绩广播
+ */
+public class RoundRecordDTO {
+    private Long id;
+    private Integer matchNumber;
+    private String matchName;
+    private String eastPlayerName;
+    private Integer eastScore;
+    private Integer eastPenalty;
+    private String southPlayerName;
+    private Integer southScore;
+    private Integer southPenalty;
+    private String westPlayerName;
+    private Integer westScore;
+    private Integer westPenalty;
+    private String northPlayerName;
+    private Integer northScore;
+    private Integer northPenalty;
+    private String matchTime;
+    private String remarks;
+
+    public static RoundRecordDTO fromMatchResult(MatchResult matchResult) {
+        RoundRecordDTO dto = new RoundRecordDTO();
+        dto.setId(matchResult.getId());
+        dto.setMatchNumber(matchResult.getMatchNumber());
+        dto.setMatchName(matchResult.getMatchName());
+
+        // 设置四个方位的玩家信息
+        if (matchResult.getEastPlayer() != null) {
+            dto.setEastPlayerName(matchResult.getEastPlayer().getNickname());
+            dto.setEastScore(matchResult.getEastScore());
+            dto.setEastPenalty(matchResult.getEastPenalty());
+        }
+
+        if (matchResult.getSouthPlayer() != null) {
+            dto.setSouthPlayerName(matchResult.getSouthPlayer().getNickname());
+            dto.setSouthScore(matchResult.getSouthScore());
+            dto.setSouthPenalty(matchResult.getSouthPenalty());
+        }
+
+        if (matchResult.getWestPlayer() != null) {
+            dto.setWestPlayerName(matchResult.getWestPlayer().getNickname());
+            dto.setWestScore(matchResult.getWestScore());
+            dto.setWestPenalty(matchResult.getWestPenalty());
+        }
+
+        if (matchResult.getNorthPlayer() != null) {
+            dto.setNorthPlayerName(matchResult.getNorthPlayer().getNickname());
+            dto.setNorthScore(matchResult.getNorthScore());
+            dto.setNorthPenalty(matchResult.getNorthPenalty());
+        }
+
+        if (matchResult.getMatchTime() != null) {
+            dto.setMatchTime(matchResult.getMatchTime().toString());
+        }
+
+        dto.setRemarks(matchResult.getRemarks());
+
+        return dto;
+    }
+
+    /**
+     * 由投影查询的只读视图创建（四个座位的玩家总是存在）
+     */
+    public static RoundRecordDTO fromView(RoundRecordView view) {
+        RoundRecordDTO dto = new RoundRecordDTO();
+        dto.setId(view.getId());
+        dto.setMatchNumber(view.getMatchNumber());
+        dto.setMatchName(view.getMatchName());
+
+        dto.setEastPlayerName(view.getEastPlayer().getNickname());
+        dto.setEastScore(view.getEastScore());
+        dto.setEastPenalty(view.getEastPenalty());
+
+        dto.setSouthPlayerName(view.getSouthPlayer().getNickname());
+        dto.setSouthScore(view.getSouthScore());
+        dto.setSouthPenalty(view.getSouthPenalty());
+
+        dto.setWestPlayerName(view.getWestPlayer().getNickname());
+        dto.setWestScore(view.getWestScore());
+        dto.setWestPenalty(view.getWestPenalty());
+
+        dto.setNorthPlayerName(view.getNorthPlayer().getNickname());
+        dto.setNorthScore(view.getNorthScore());
+        dto.setNorthPenalty(view.getNorthPenalty());
+
+        if (view.getMatchTime() != null) {
+            dto.setMatchTime(view.getMatchTime().toString());
+        }
+
+        dto.setRemarks(view.getRemarks());
+
+        return dto;
+    }
+
+    // Getter和Setter方法
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getMatchNumber() {
+        return matchNumber;
+    }
+
+    public void setMatchNumber(Integer matchNumber) {
+        this.matchNumber = matchNumber;
+    }
+
+    public String getMatchName() {
+        return matchName;
+    }
+
+    public void setMatchName(String matchName) {
+        this.matchName = matchName;
+    }
+
+    public String getEastPlayerName() {
+        return eastPlayerName;
+    }
+
+    public void setEastPlayerName(String eastPlayerName) {
+        this.eastPlayerName = eastPlayerName;
+    }
+
+    public Integer getEastScore() {
+        return eastScore;
+    }
+
+    public void setEastScore(Integer eastScore) {
+        this.eastScore = eastScore;
+    }
+
+    public Integer getEastPenalty() {
+        return eastPenalty;
+    }
+
+    public void setEastPenalty(Integer eastPenalty) {
+        this.eastPenalty = eastPenalty;
+    }
+
+    public String getSouthPlayerName() {
+        return southPlayerName;
+    }
+
+    public void setSouthPlayerName(String southPlayerName) {
+        this.southPlayerName = southPlayerName;
+    }
+
+    public Integer getSouthScore() {
+        return southScore;
+    }
+
+    public void setSouthScore(Integer southScore) {
+        this.southScore = southScore;
+    }
+
+    public Integer getSouthPenalty() {
+        return southPenalty;
+    }
+
+    public void setSouthPenalty(Integer southPenalty) {
+        this.southPenalty = southPenalty;
+    }
+
+    public String getWestPlayerName() {
+        return westPlayerName;
+    }
+
+    public void setWestPlayerName(String westPlayerName) {
+        this.westPlayerName = westPlayerName;
+    }
+
+    public Integer getWestScore() {
+        return westScore;
+    }
+
+    public void setWestScore(Integer westScore) {
+        this.westScore = westScore;
+    }
+
+    public Integer getWestPenalty() {
+        return westPenalty;
+    }
+
+    public void setWestPenalty(Integer westPenalty) {
+        this.westPenalty = westPenalty;
+    }
+
+    public String getNorthPlayerName() {
+        return northPlayerName;
+    }
+
+    public void setNorthPlayerName(String northPlayerName) {
+        this.northPlayerName = northPlayerName;
+    }
+
+    public Integer getNorthScore() {
+        return northScore;
+    }
+
+    public void setNorthScore(Integer northScore) {
+        this.northScore = northScore;
+    }
+
+    public Integer getNorthPenalty() {
+        return northPenalty;
+    }
+
+    public void setNorthPenalty(Integer northPenalty) {
+        this.northPenalty = northPenalty;
+    }
+
+    public String getMatchTime() {
+        return matchTime;
+    }
+
+    public void setMatchTime(String matchTime) {
+        this.matchTime = matchTime;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+}
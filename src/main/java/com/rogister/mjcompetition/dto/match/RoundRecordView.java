@@ -0,0 +1,106 @@
+package com.rogister.mjcompetition.dto.match;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 轮次比赛记录的只读视图：由投影查询一次读取所需的列和玩家昵称，不加载比赛和玩家实体
+ * 字段名与 MatchResult 保持一致，玩家只包含ID和昵称
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "轮次比赛记录")
+public class RoundRecordView {
+
+    private Long id;
+    private Long competitionId;
+    private Integer roundNumber;
+    private Integer matchNumber;
+    private String matchName;
+
+    private PlayerRef eastPlayer;
+    private Integer eastScore;
+    private Integer eastPenalty;
+    private Double eastPtScore;
+    private Integer eastPlacement;
+
+    private PlayerRef southPlayer;
+    private Integer southScore;
+    private Integer southPenalty;
+    private Double southPtScore;
+    private Integer southPlacement;
+
+    private PlayerRef westPlayer;
+    private Integer westScore;
+    private Integer westPenalty;
+    private Double westPtScore;
+    private Integer westPlacement;
+
+    private PlayerRef northPlayer;
+    private Integer northScore;
+    private Integer northPenalty;
+    private Double northPtScore;
+    private Integer northPlacement;
+
+    private Integer totalScore;
+    private LocalDateTime matchTime;
+    private String remarks;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * 投影查询使用的构造函数，参数顺序与 MatchResultRepository 中的查询列一致
+     */
+    public RoundRecordView(Long id, Long competitionId, Integer roundNumber, Integer matchNumber, String matchName,
+                           Long eastPlayerId, String eastPlayerNickname, Integer eastScore, Integer eastPenalty, Double eastPtScore, Integer eastPlacement,
+                           Long southPlayerId, String southPlayerNickname, Integer southScore, Integer southPenalty, Double southPtScore, Integer southPlacement,
+                           Long westPlayerId, String westPlayerNickname, Integer westScore, Integer westPenalty, Double westPtScore, Integer westPlacement,
+                           Long northPlayerId, String northPlayerNickname, Integer northScore, Integer northPenalty, Double northPtScore, Integer northPlacement,
+                           Integer totalScore, LocalDateTime matchTime, String remarks, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.competitionId = competitionId;
+        this.roundNumber = roundNumber;
+        this.matchNumber = matchNumber;
+        this.matchName = matchName;
+        this.eastPlayer = new PlayerRef(eastPlayerId, eastPlayerNickname);
+        this.eastScore = eastScore;
+        this.eastPenalty = eastPenalty;
+        this.eastPtScore = eastPtScore;
+        this.eastPlacement = eastPlacement;
+        this.southPlayer = new PlayerRef(southPlayerId, southPlayerNickname);
+        this.southScore = southScore;
+        this.southPenalty = southPenalty;
+        this.southPtScore = southPtScore;
+        this.southPlacement = southPlacement;
+        this.westPlayer = new PlayerRef(westPlayerId, westPlayerNickname);
+        this.westScore = westScore;
+        this.westPenalty = westPenalty;
+        this.westPtScore = westPtScore;
+        this.westPlacement = westPlacement;
+        this.northPlayer = new PlayerRef(northPlayerId, northPlayerNickname);
+        this.northScore = northScore;
+        this.northPenalty = northPenalty;
+        this.northPtScore = northPtScore;
+        this.northPlacement = northPlacement;
+        this.totalScore = totalScore;
+        this.matchTime = matchTime;
+        this.remarks = remarks;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * 座位上的玩家（只包含ID和昵称）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerRef {
+        private Long id;
+        private String nickname;
+    }
+}
@@ -0,0 +1,55 @@
+package com.rogister.mjcompetition.entity.common;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等请求记录：携带 Idempotency-Key 的写请求处理完成后保存响应，相同的重试请求直接重放
+ * responseStatus 为空表示请求仍在处理中
+ */
+@Entity
+@Table(name = "idempotency_records", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_owner_key", columnNames = {"owner_name", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_idempotency_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_name", nullable = false, length = 100)
+    private String ownerName; // 发起请求的用户，不同用户的相同key互不影响
+
+    @Column(name = "idempotency_key", nullable = false, length = 200)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash; // 请求方法、路径和请求体的SHA-256，同一key用于不同请求时拒绝
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(name = "response_body", length = 16 * 1024 * 1024)
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord(String ownerName, String idempotencyKey, String requestHash, LocalDateTime createdAt) {
+        this.ownerName = ownerName;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rogister.mjcompetition.entity.common;
+
+import java.util.List;
+
+/**
+ * 池化ID生成器的公共配置：批量写入的实体使用 id_generators 表分配ID（每次预留 ALLOCATION_SIZE 个），
+ * 不再使用自增列，从而可以使用 Hibernate 的 JDBC 批量插入
+ */
+public final class PooledIds {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String MATCH_RESULTS = "match_results";
+    public static final String PLAYER_ROUND_STATUS = "player_round_status";
+    public static final String TEAM_ROUND_STATUS = "team_round_status";
+    public static final String PLAYER_COMPETITION_REGISTRATIONS = "player_competition_registrations";
+    public static final String TEAM_MEMBERS = "team_members";
+
+    /**
+     * 使用池化ID的实体表，生成器名称即表名，用于从自增ID迁移
+     */
+    public static final List<String> TABLES = List.of(
+            MATCH_RESULTS, PLAYER_ROUND_STATUS, TEAM_ROUND_STATUS, PLAYER_COMPETITION_REGISTRATIONS, TEAM_MEMBERS);
+
+    private PooledIds() {
+    }
+}
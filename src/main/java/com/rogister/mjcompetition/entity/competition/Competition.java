@@ -1,6 +1,7 @@
 package com.rogister.mjcompetition.entity.competition;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -61,6 +62,12 @@ public class Competition {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSSS")
     private LocalDateTime updatedAt;
     
+    // 比赛数据版本号，由 CompetitionVersionService 在写入事务中递增；实体读写不包含该列
+    @Column(name = "data_version", insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private Long dataVersion;
+    
     // 比赛类型枚举
     public enum CompetitionType {
         TEAM,       // 团体赛
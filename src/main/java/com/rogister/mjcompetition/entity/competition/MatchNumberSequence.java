@@ -0,0 +1,36 @@
+package com.rogister.mjcompetition.entity.competition;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 比赛编号序列：按（比赛、轮次）记录下一个未分配的编号，各实例每次从中预留一段编号在内存中分配
+ */
+@Entity
+@Table(name = "match_number_sequences", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_match_number_sequence", columnNames = {"competition_id", "round_number"})
+})
+@Data
+@NoArgsConstructor
+public class MatchNumberSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "competition_id", nullable = false)
+    private Long competitionId;
+
+    @Column(name = "round_number", nullable = false)
+    private Integer roundNumber;
+
+    @Column(name = "next_value", nullable = false)
+    private Integer nextValue; // 下一段预留编号的起始值
+
+    public MatchNumberSequence(Long competitionId, Integer roundNumber, Integer nextValue) {
+        this.competitionId = competitionId;
+        this.roundNumber = roundNumber;
+        this.nextValue = nextValue;
+    }
+}
@@ -1,22 +1,31 @@
 package com.rogister.mjcompetition.entity.competition;
 
 import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.util.PtScoringKernel;
+import com.rogister.mjcompetition.entity.common.PooledIds;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
-import java.util.*;
 
 @Entity
-@Table(name = "match_results")
+@Table(name = "match_results", uniqueConstraints = {
+        @UniqueConstraint(name = MatchResult.UNIQUE_MATCH_NUMBER, columnNames = {"competition_id", "round_number", "match_number"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MatchResult {
     
+    // 同一比赛同一轮次内比赛编号唯一，写入冲突时按约束名识别
+    public static final String UNIQUE_MATCH_NUMBER = "uk_match_result_competition_round_match";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = PooledIds.MATCH_RESULTS)
+    @TableGenerator(name = PooledIds.MATCH_RESULTS, table = PooledIds.TABLE, pkColumnName = PooledIds.NAME_COLUMN,
+            valueColumnName = PooledIds.VALUE_COLUMN, pkColumnValue = PooledIds.MATCH_RESULTS,
+            allocationSize = PooledIds.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,6 +55,9 @@ public class MatchResult {
     @Column(name = "east_pt_score", nullable = false)
     private Double eastPtScore = 0.0; // 东家PT分数
     
+    @Column(name = "east_placement")
+    private Integer eastPlacement; // 东家顺位（1~4），写入时计算
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "south_player_id", nullable = false)
     private Player southPlayer;
@@ -59,6 +71,9 @@ public class MatchResult {
     @Column(name = "south_pt_score", nullable = false)
     private Double southPtScore = 0.0; // 南家PT分数
     
+    @Column(name = "south_placement")
+    private Integer southPlacement; // 南家顺位（1~4），写入时计算
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "west_player_id", nullable = false)
     private Player westPlayer;
@@ -72,6 +87,9 @@ public class MatchResult {
     @Column(name = "west_pt_score", nullable = false)
     private Double westPtScore = 0.0; // 西家PT分数
     
+    @Column(name = "west_placement")
+    private Integer westPlacement; // 西家顺位（1~4），写入时计算
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "north_player_id", nullable = false)
     private Player northPlayer;
@@ -85,6 +103,9 @@ public class MatchResult {
     @Column(name = "north_pt_score", nullable = false)
     private Double northPtScore = 0.0; // 北家PT分数
     
+    @Column(name = "north_placement")
+    private Integer northPlacement; // 北家顺位（1~4），写入时计算
+    
     @Column(name = "total_score", nullable = false)
     private Integer totalScore;
     
@@ -136,71 +157,76 @@ public class MatchResult {
         return this.totalScore == 100000;
     }
     
-    // 计算并设置PT分数
+    // 计算并设置顺位和PT分数
     public void calculateAndSetPtScores() {
-        List<PlayerRank> playerRanks = calculatePlayerRanks();
+        PtScoringKernel.CompiledRule rule = compiledRule();
+        int ranks = calculateSeatRanks();
         
-        for (PlayerRank playerRank : playerRanks) {
-            Double ptScore = playerRank.getActualPoints();
-            String position = playerRank.getPosition();
-            
-            switch (position) {
-                case "东":
-                    this.eastPtScore = ptScore != null ? ptScore : 0.0;
-                    break;
-                case "南":
-                    this.southPtScore = ptScore != null ? ptScore : 0.0;
-                    break;
-                case "西":
-                    this.westPtScore = ptScore != null ? ptScore : 0.0;
-                    break;
-                case "北":
-                    this.northPtScore = ptScore != null ? ptScore : 0.0;
-                    break;
-            }
-        }
+        this.eastPlacement = PtScoringKernel.rankOf(ranks, PtScoringKernel.EAST);
+        this.southPlacement = PtScoringKernel.rankOf(ranks, PtScoringKernel.SOUTH);
+        this.westPlacement = PtScoringKernel.rankOf(ranks, PtScoringKernel.WEST);
+        this.northPlacement = PtScoringKernel.rankOf(ranks, PtScoringKernel.NORTH);
+        
+        this.eastPtScore = eastScore != null
+                ? rule.pt(eastScore, PtScoringKernel.rankOf(ranks, PtScoringKernel.EAST), valueOrZero(eastPenalty)) : 0.0;
+        this.southPtScore = southScore != null
+                ? rule.pt(southScore, PtScoringKernel.rankOf(ranks, PtScoringKernel.SOUTH), valueOrZero(southPenalty)) : 0.0;
+        this.westPtScore = westScore != null
+                ? rule.pt(westScore, PtScoringKernel.rankOf(ranks, PtScoringKernel.WEST), valueOrZero(westPenalty)) : 0.0;
+        this.northPtScore = northScore != null
+                ? rule.pt(northScore, PtScoringKernel.rankOf(ranks, PtScoringKernel.NORTH), valueOrZero(northPenalty)) : 0.0;
     }
     
-    // 计算玩家实际得分（包含排名和罚分）
-    public List<PlayerRank> calculatePlayerRanks() {
-        List<PlayerRank> playerRanks = new ArrayList<>();
-        
-        // 添加四个方位的玩家、得分和罚分
-        playerRanks.add(new PlayerRank(eastPlayer, eastScore, eastPenalty, "东"));
-        playerRanks.add(new PlayerRank(southPlayer, southScore, southPenalty, "南"));
-        playerRanks.add(new PlayerRank(westPlayer, westScore, westPenalty, "西"));
-        playerRanks.add(new PlayerRank(northPlayer, northScore, northPenalty, "北"));
-        
-        // 按照得分从高到低排序，得分相同时按照逆时针顺序（东南西北）排序
-        playerRanks.sort((a, b) -> {
-            if (!Objects.equals(a.score, b.score)) {
-                return Integer.compare(b.score, a.score); // 得分高的在前
-            }
-            // 得分相同时，按照逆时针顺序排序
-            return getPositionOrder(a.position).compareTo(getPositionOrder(b.position));
-        });
-        
-        // 设置排名并计算实际得分
-        for (int i = 0; i < playerRanks.size(); i++) {
-            PlayerRank playerRank = playerRanks.get(i);
-            playerRank.rank = i + 1;
-            
-            // 计算实际得分：(玩家得分-比赛规则原点)/1000+比赛规则的顺位点+罚分
-            playerRank.calculateActualPoints(competition.getRule());
+    // 计算四个座位的顺位，返回压缩值，用 PtScoringKernel.rankOf 按座位读取
+    public int calculateSeatRanks() {
+        return PtScoringKernel.rankSeats(valueOrZero(eastScore), valueOrZero(southScore),
+                valueOrZero(westScore), valueOrZero(northScore));
+    }
+    
+    // 获取四个座位的顺位压缩值：优先使用已保存的顺位，缺失时按得分重新计算
+    public int resolveSeatRanks() {
+        if (eastPlacement == null || southPlacement == null || westPlacement == null || northPlacement == null) {
+            return calculateSeatRanks();
         }
-        
-        return playerRanks;
+        return (eastPlacement - 1)
+                | ((southPlacement - 1) << 2)
+                | ((westPlacement - 1) << 4)
+                | ((northPlacement - 1) << 6);
+    }
+    
+    // 获取玩家在本场比赛的顺位，玩家未参与本场比赛时返回0
+    public int getPlacementOf(Long playerId) {
+        int seat = getSeatOf(playerId);
+        return seat < 0 ? 0 : PtScoringKernel.rankOf(resolveSeatRanks(), seat);
     }
     
-    // 获取方位在逆时针顺序中的权重
-    private Integer getPositionOrder(String position) {
-        switch (position) {
-            case "东": return 0;
-            case "南": return 1;
-            case "西": return 2;
-            case "北": return 3;
-            default: return 999;
+    // 获取玩家所在座位（PtScoringKernel 的座位下标），玩家未参与本场比赛时返回-1
+    public int getSeatOf(Long playerId) {
+        if (playerId == null) {
+            return -1;
+        }
+        if (eastPlayer != null && playerId.equals(eastPlayer.getId())) {
+            return PtScoringKernel.EAST;
+        }
+        if (southPlayer != null && playerId.equals(southPlayer.getId())) {
+            return PtScoringKernel.SOUTH;
+        }
+        if (westPlayer != null && playerId.equals(westPlayer.getId())) {
+            return PtScoringKernel.WEST;
+        }
+        if (northPlayer != null && playerId.equals(northPlayer.getId())) {
+            return PtScoringKernel.NORTH;
         }
+        return -1;
+    }
+    
+    // 获取比赛规则的编译结果
+    private PtScoringKernel.CompiledRule compiledRule() {
+        return PtScoringKernel.compile(competition.getRule());
+    }
+    
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
     }
     
     // 内部类：玩家排名
@@ -226,20 +252,8 @@ public class MatchResult {
                 return;
             }
             
-            // 计算基础得分：(玩家得分-比赛规则原点)/1000
-            double basePoints = (score - rule.getOriginPoints()) / 1000.0;
-            
-            // 获取顺位点
-            int rankPoints = 0;
-            switch (rank) {
-                case 1: rankPoints = rule.getFirstPlacePoints(); break;
-                case 2: rankPoints = rule.getSecondPlacePoints(); break;
-                case 3: rankPoints = rule.getThirdPlacePoints(); break;
-                case 4: rankPoints = rule.getFourthPlacePoints(); break;
-            }
-            
             // 实际得分 = 基础得分 + 顺位点 + 罚分
-            this.actualPoints = basePoints + rankPoints + (penalty != null ? penalty : 0);
+            this.actualPoints = PtScoringKernel.compile(rule).pt(score, rank, valueOrZero(penalty));
         }
         
         public Player getPlayer() { return player; }
@@ -0,0 +1,76 @@
+package com.rogister.mjcompetition.entity.competition;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.rogister.mjcompetition.entity.player.Player;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 比赛座位索引：每场比赛按座位展开为四行，用于按玩家查询比赛，随比赛成绩的写入同步维护
+ */
+@Entity
+@Table(name = "match_result_seats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_match_result_seat", columnNames = {"match_result_id", "seat"})
+}, indexes = {
+        @Index(name = "idx_match_seat_player_competition_round", columnList = "player_id, competition_id, round_number"),
+        @Index(name = "idx_match_seat_team_competition_round", columnList = "team_id, competition_id, round_number")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchResultSeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "match_result_id", nullable = false)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private MatchResult matchResult;
+
+    @Column(name = "competition_id", nullable = false)
+    private Long competitionId;
+
+    @Column(name = "round_number", nullable = false)
+    private Integer roundNumber;
+
+    @Column(name = "seat", nullable = false)
+    private Integer seat; // 座位，取值同 PtScoringKernel 的座位下标（东0 南1 西2 北3）
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "player_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Player player;
+
+    @Column(name = "score", nullable = false)
+    private Integer score;
+
+    @Column(name = "penalty", nullable = false)
+    private Integer penalty = 0;
+
+    @Column(name = "pt_score", nullable = false)
+    private Double ptScore = 0.0;
+
+    @Column(name = "placement", nullable = false)
+    private Integer placement;
+
+    @Column(name = "team_id")
+    private Long teamId; // 团队赛中该座位玩家所属的团队，写入时按当时的激活成员关系确定；个人赛为空
+
+    @Column(name = "team_placement")
+    private Integer teamPlacement; // 所属团队在本场比赛中的顺位
+
+    // 带参数的构造函数
+    public MatchResultSeat(MatchResult matchResult, Integer seat) {
+        this.matchResult = matchResult;
+        this.seat = seat;
+    }
+}
@@ -0,0 +1,105 @@
+package com.rogister.mjcompetition.entity.competition;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.rogister.mjcompetition.entity.player.Player;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 轮次积分榜：按（比赛、轮次、玩家）汇总的成绩，随比赛成绩的写入增量维护
+ */
+@Entity
+@Table(name = "round_player_standings", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_round_player_standing", columnNames = {"competition_id", "round_number", "player_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoundPlayerStanding {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "competition_id", nullable = false)
+    private Long competitionId;
+
+    @Column(name = "round_number", nullable = false)
+    private Integer roundNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "player_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Player player;
+
+    @Column(name = "pt_total", nullable = false)
+    private Double ptTotal = 0.0; // PT分数总和
+
+    @Column(name = "score_total", nullable = false)
+    private Integer scoreTotal = 0; // 原始得分总和
+
+    @Column(name = "penalty_total", nullable = false)
+    private Integer penaltyTotal = 0; // 罚分总和
+
+    @Column(name = "match_count", nullable = false)
+    private Integer matchCount = 0; // 比赛场数
+
+    @Column(name = "first_place_count", nullable = false)
+    private Integer firstPlaceCount = 0;
+
+    @Column(name = "second_place_count", nullable = false)
+    private Integer secondPlaceCount = 0;
+
+    @Column(name = "third_place_count", nullable = false)
+    private Integer thirdPlaceCount = 0;
+
+    @Column(name = "fourth_place_count", nullable = false)
+    private Integer fourthPlaceCount = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // 带参数的构造函数
+    public RoundPlayerStanding(Long competitionId, Integer roundNumber, Player player) {
+        this.competitionId = competitionId;
+        this.roundNumber = roundNumber;
+        this.player = player;
+        this.ptTotal = 0.0;
+        this.scoreTotal = 0;
+        this.penaltyTotal = 0;
+        this.matchCount = 0;
+        this.firstPlaceCount = 0;
+        this.secondPlaceCount = 0;
+        this.thirdPlaceCount = 0;
+        this.fourthPlaceCount = 0;
+    }
+
+    /**
+     * 累加一个座位的成绩，sign 为 1 表示计入，-1 表示撤销
+     */
+    public void applySeat(int sign, double ptScore, int score, int penalty, int placement) {
+        this.ptTotal += sign * ptScore;
+        this.scoreTotal += sign * score;
+        this.penaltyTotal += sign * penalty;
+        this.matchCount += sign;
+        switch (placement) {
+            case 1: this.firstPlaceCount += sign; break;
+            case 2: this.secondPlaceCount += sign; break;
+            case 3: this.thirdPlaceCount += sign; break;
+            case 4: this.fourthPlaceCount += sign; break;
+        }
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
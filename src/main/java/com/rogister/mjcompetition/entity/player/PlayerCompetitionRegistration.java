@@ -3,6 +3,7 @@ package com.rogister.mjcompetition.entity.player;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.common.PooledIds;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,7 +18,10 @@ import java.time.LocalDateTime;
 public class PlayerCompetitionRegistration {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = PooledIds.PLAYER_COMPETITION_REGISTRATIONS)
+    @TableGenerator(name = PooledIds.PLAYER_COMPETITION_REGISTRATIONS, table = PooledIds.TABLE, pkColumnName = PooledIds.NAME_COLUMN,
+            valueColumnName = PooledIds.VALUE_COLUMN, pkColumnValue = PooledIds.PLAYER_COMPETITION_REGISTRATIONS,
+            allocationSize = PooledIds.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.EAGER)
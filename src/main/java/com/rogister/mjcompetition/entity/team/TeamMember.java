@@ -1,6 +1,7 @@
 package com.rogister.mjcompetition.entity.team;
 
 import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.common.PooledIds;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,7 +17,10 @@ import java.time.LocalDateTime;
 public class TeamMember {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = PooledIds.TEAM_MEMBERS)
+    @TableGenerator(name = PooledIds.TEAM_MEMBERS, table = PooledIds.TABLE, pkColumnName = PooledIds.NAME_COLUMN,
+            valueColumnName = PooledIds.VALUE_COLUMN, pkColumnValue = PooledIds.TEAM_MEMBERS,
+            allocationSize = PooledIds.ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "team_id", nullable = false)
@@ -0,0 +1,42 @@
+package com.rogister.mjcompetition.repository.common;
+
+import com.rogister.mjcompetition.entity.common.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 幂等请求记录。调用方不在事务中运行（插入冲突时只回滚插入本身），修改操作各自开启事务
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByOwnerNameAndIdempotencyKey(String ownerName, String idempotencyKey);
+
+    /**
+     * 接管超时未完成的请求记录（原请求所在的进程已退出），返回1表示接管成功
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+           "WHERE r.id = :id AND r.responseStatus IS NULL AND r.createdAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.contentType = :contentType, " +
+           "r.responseBody = :body WHERE r.id = :id")
+    int complete(@Param("id") Long id, @Param("status") Integer status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,22 @@
+package com.rogister.mjcompetition.repository.competition;
+
+import com.rogister.mjcompetition.entity.competition.MatchNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MatchNumberSequenceRepository extends JpaRepository<MatchNumberSequence, Long> {
+
+    /**
+     * 锁定轮次的编号序列，用于预留下一段编号
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MatchNumberSequence s WHERE s.competitionId = :competitionId AND s.roundNumber = :roundNumber")
+    Optional<MatchNumberSequence> findForUpdate(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+}
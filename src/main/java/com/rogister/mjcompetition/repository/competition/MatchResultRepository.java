@@ -1,17 +1,38 @@
 package com.rogister.mjcompetition.repository.competition;
 
+import com.rogister.mjcompetition.dto.match.RoundRecordView;
 import com.rogister.mjcompetition.entity.competition.MatchResult;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MatchResultRepository extends JpaRepository<MatchResult, Long> {
     
+    /**
+     * 轮次比赛记录投影查询的公共部分：只读取 RoundRecordView 需要的列，玩家昵称在同一条 SQL 中连接读取
+     */
+    String ROUND_RECORD_VIEW_QUERY = "SELECT new com.rogister.mjcompetition.dto.match.RoundRecordView(" +
+           "mr.id, mr.competition.id, mr.roundNumber, mr.matchNumber, mr.matchName, " +
+           "ep.id, ep.nickname, mr.eastScore, mr.eastPenalty, mr.eastPtScore, mr.eastPlacement, " +
+           "sp.id, sp.nickname, mr.southScore, mr.southPenalty, mr.southPtScore, mr.southPlacement, " +
+           "wp.id, wp.nickname, mr.westScore, mr.westPenalty, mr.westPtScore, mr.westPlacement, " +
+           "np.id, np.nickname, mr.northScore, mr.northPenalty, mr.northPtScore, mr.northPlacement, " +
+           "mr.totalScore, mr.matchTime, mr.remarks, mr.createdAt, mr.updatedAt) " +
+           "FROM MatchResult mr JOIN mr.eastPlayer ep JOIN mr.southPlayer sp JOIN mr.westPlayer wp JOIN mr.northPlayer np " +
+           "WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber ";
+    
     /**
      * 根据比赛ID查找所有比赛记录
      */
@@ -24,21 +45,21 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     List<MatchResult> findByCompetitionIdAndRoundNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
     
     /**
-     * 根据比赛ID和玩家ID查找该玩家参与的所有比赛记录
+     * 根据比赛ID和玩家ID查找该玩家参与的所有比赛记录（通过座位索引查询）
      */
-    @Query("SELECT mr FROM MatchResult mr WHERE mr.competition.id = :competitionId AND (mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId)")
+    @Query("SELECT DISTINCT s.matchResult FROM MatchResultSeat s WHERE s.player.id = :playerId AND s.competitionId = :competitionId")
     List<MatchResult> findByCompetitionIdAndPlayerId(@Param("competitionId") Long competitionId, @Param("playerId") Long playerId);
     
     /**
-     * 根据玩家ID查找该玩家参与的所有比赛记录
+     * 根据玩家ID查找该玩家参与的所有比赛记录（通过座位索引查询）
      */
-    @Query("SELECT mr FROM MatchResult mr WHERE mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId")
+    @Query("SELECT DISTINCT s.matchResult FROM MatchResultSeat s WHERE s.player.id = :playerId")
     List<MatchResult> findByPlayerId(@Param("playerId") Long playerId);
     
     /**
-     * 根据比赛ID、轮次号和玩家ID查找该玩家在该轮次参与的比赛记录
+     * 根据比赛ID、轮次号和玩家ID查找该玩家在该轮次参与的比赛记录（通过座位索引查询）
      */
-    @Query("SELECT mr FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber AND (mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId)")
+    @Query("SELECT DISTINCT s.matchResult FROM MatchResultSeat s WHERE s.player.id = :playerId AND s.competitionId = :competitionId AND s.roundNumber = :roundNumber")
     List<MatchResult> findByCompetitionIdAndRoundNumberAndPlayerId(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("playerId") Long playerId);
     
     // 注意：MatchResult 实体是为个人赛设计的，不支持团队查询
@@ -53,6 +74,12 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     @Query("SELECT mr FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber AND mr.matchNumber = :matchNumber")
     Optional<MatchResult> findByCompetitionAndRoundAndMatchNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("matchNumber") Integer matchNumber);
     
+    /**
+     * 在指定比赛编号中查找该轮次已存在的编号
+     */
+    @Query("SELECT mr.matchNumber FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber AND mr.matchNumber IN :matchNumbers")
+    List<Integer> findExistingMatchNumbers(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("matchNumbers") Collection<Integer> matchNumbers);
+    
     /**
      * 根据比赛和轮次查找所有比赛记录，按比赛编号排序
      */
@@ -71,6 +98,38 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     @Query("SELECT mr FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber ORDER BY mr.matchTime ASC, mr.matchNumber ASC")
     List<MatchResult> findByCompetitionAndRoundOrderByMatchTimeAscMatchNumberAsc(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
     
+    /**
+     * 按比赛时间升序查询轮次比赛记录的只读视图（一次查询）
+     */
+    @Query(ROUND_RECORD_VIEW_QUERY + "ORDER BY mr.matchTime ASC")
+    List<RoundRecordView> findRoundRecordViewsOrderByMatchTime(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 按比赛时间升序、比赛编号升序查询轮次比赛记录的只读视图（一次查询）
+     */
+    @Query(ROUND_RECORD_VIEW_QUERY + "ORDER BY mr.matchTime ASC, mr.matchNumber ASC")
+    List<RoundRecordView> findRoundRecordViewsOrderByMatchTimeAndNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 根据比赛和轮次查找所有比赛记录并同时加载四名玩家，按比赛时间升序、比赛编号升序排序
+     */
+    @Query("SELECT mr FROM MatchResult mr LEFT JOIN FETCH mr.eastPlayer LEFT JOIN FETCH mr.southPlayer " +
+           "LEFT JOIN FETCH mr.westPlayer LEFT JOIN FETCH mr.northPlayer " +
+           "WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber ORDER BY mr.matchTime ASC, mr.matchNumber ASC")
+    List<MatchResult> findWithPlayersByCompetitionAndRound(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 按比赛编号、ID升序分页查询轮次中 (afterMatchNumber, afterId) 之后的比赛记录并同时加载四名玩家
+     * （游标分页，条数由 pageable 限定）
+     */
+    @Query("SELECT mr FROM MatchResult mr LEFT JOIN FETCH mr.eastPlayer LEFT JOIN FETCH mr.southPlayer " +
+           "LEFT JOIN FETCH mr.westPlayer LEFT JOIN FETCH mr.northPlayer " +
+           "WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber " +
+           "AND (mr.matchNumber > :afterMatchNumber OR (mr.matchNumber = :afterMatchNumber AND mr.id > :afterId)) " +
+           "ORDER BY mr.matchNumber ASC, mr.id ASC")
+    List<MatchResult> findRoundPageAfter(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+            @Param("afterMatchNumber") Integer afterMatchNumber, @Param("afterId") Long afterId, Pageable pageable);
+    
     /**
      * 根据比赛和轮次查找所有比赛记录
      */
@@ -78,9 +137,9 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     List<MatchResult> findByCompetitionAndRound(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
     
     /**
-     * 根据比赛、轮次和玩家查找该玩家参与的比赛记录
+     * 根据比赛、轮次和玩家查找该玩家参与的比赛记录（通过座位索引查询）
      */
-    @Query("SELECT mr FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber AND (mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId)")
+    @Query("SELECT DISTINCT s.matchResult FROM MatchResultSeat s WHERE s.player.id = :playerId AND s.competitionId = :competitionId AND s.roundNumber = :roundNumber")
     List<MatchResult> findByCompetitionAndRoundAndPlayer(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("playerId") Long playerId);
     
     /**
@@ -90,10 +149,26 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     List<MatchResult> findByCompetitionOrderByRoundRoundNumberAscMatchNumberAsc(@Param("competitionId") Long competitionId);
     
     /**
-     * 根据玩家查找该玩家参与的所有比赛记录，按比赛升序、轮次号升序、比赛编号升序排序
+     * 按轮次号升序、比赛编号升序逐行读取比赛的全部比赛记录（只读、不进入二级缓存），用于导出
+     * 每行为 [比赛记录, 东家昵称, 南家昵称, 西家昵称, 北家昵称]，昵称在同一查询中连接读取，
+     * 消费游标期间不需要在同一连接上执行其他查询
+     * 结果为前向游标，必须在事务中消费并关闭；玩家不做关联加载，只读取外键ID
      */
-    @Query("SELECT mr FROM MatchResult mr WHERE mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId ORDER BY mr.competition.id ASC, mr.roundNumber ASC, mr.matchNumber ASC")
-    List<MatchResult> findByEastPlayerOrSouthPlayerOrWestPlayerOrNorthPlayerOrderByCompetitionAscRoundRoundNumberAscMatchNumberAsc(@Param("playerId") Long playerId);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT mr, ep.nickname, sp.nickname, wp.nickname, np.nickname FROM MatchResult mr " +
+           "LEFT JOIN mr.eastPlayer ep LEFT JOIN mr.southPlayer sp LEFT JOIN mr.westPlayer wp LEFT JOIN mr.northPlayer np " +
+           "WHERE mr.competition.id = :competitionId ORDER BY mr.roundNumber ASC, mr.matchNumber ASC")
+    Stream<Object[]> streamByCompetitionId(@Param("competitionId") Long competitionId);
+    
+    /**
+     * 根据玩家查找该玩家参与的所有比赛记录，按比赛升序、轮次号升序、比赛编号升序排序（通过座位索引查询）
+     */
+    @Query("SELECT DISTINCT mr FROM MatchResultSeat s JOIN s.matchResult mr WHERE s.player.id = :playerId ORDER BY mr.competition.id ASC, mr.roundNumber ASC, mr.matchNumber ASC")
+    List<MatchResult> findByPlayerIdOrderByCompetitionRoundMatch(@Param("playerId") Long playerId);
     
     /**
      * 根据比赛和轮次统计比赛记录数量
@@ -102,21 +177,107 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     long countByCompetitionAndRound(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
     
     /**
-     * 根据比赛、轮次和玩家查询该玩家的PT分数总和
+     * 根据比赛、轮次和玩家查询该玩家的PT分数总和（通过座位索引查询）
      */
-    @Query("SELECT " +
-           "COALESCE(SUM(CASE WHEN mr.eastPlayer.id = :playerId THEN mr.eastPtScore ELSE 0 END), 0) + " +
-           "COALESCE(SUM(CASE WHEN mr.southPlayer.id = :playerId THEN mr.southPtScore ELSE 0 END), 0) + " +
-           "COALESCE(SUM(CASE WHEN mr.westPlayer.id = :playerId THEN mr.westPtScore ELSE 0 END), 0) + " +
-           "COALESCE(SUM(CASE WHEN mr.northPlayer.id = :playerId THEN mr.northPtScore ELSE 0 END), 0) " +
-           "FROM MatchResult mr " +
-           "WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber " +
-           "AND (mr.eastPlayer.id = :playerId OR mr.southPlayer.id = :playerId OR mr.westPlayer.id = :playerId OR mr.northPlayer.id = :playerId)")
+    @Query("SELECT COALESCE(SUM(s.ptScore), 0.0) FROM MatchResultSeat s " +
+           "WHERE s.player.id = :playerId AND s.competitionId = :competitionId AND s.roundNumber = :roundNumber")
     Double getPlayerPtScoreSum(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("playerId") Long playerId);
     
+    /**
+     * 汇总某轮次所有玩家的成绩统计（一次查询）
+     * 将四个座位展开为行后按玩家分组，返回列依次为：
+     * 玩家ID、PT分数总和、原始得分总和、罚分总和、出场次数、一位次数、二位次数、三位次数、四位次数
+     * 顺位直接读取写入时保存的座位顺位
+     */
+    @Query(value = "SELECT s.player_id, SUM(s.pt_score), SUM(s.score), SUM(s.penalty), COUNT(*), " +
+           "SUM(CASE WHEN s.placement = 1 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN s.placement = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN s.placement = 3 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN s.placement = 4 THEN 1 ELSE 0 END) " +
+           "FROM (" +
+           "SELECT mr.east_player_id AS player_id, mr.east_pt_score AS pt_score, mr.east_score AS score, mr.east_penalty AS penalty, mr.east_placement AS placement " +
+           "FROM match_results mr WHERE mr.competition_id = :competitionId AND mr.round_number = :roundNumber " +
+           "UNION ALL " +
+           "SELECT mr.south_player_id, mr.south_pt_score, mr.south_score, mr.south_penalty, mr.south_placement " +
+           "FROM match_results mr WHERE mr.competition_id = :competitionId AND mr.round_number = :roundNumber " +
+           "UNION ALL " +
+           "SELECT mr.west_player_id, mr.west_pt_score, mr.west_score, mr.west_penalty, mr.west_placement " +
+           "FROM match_results mr WHERE mr.competition_id = :competitionId AND mr.round_number = :roundNumber " +
+           "UNION ALL " +
+           "SELECT mr.north_player_id, mr.north_pt_score, mr.north_score, mr.north_penalty, mr.north_placement " +
+           "FROM match_results mr WHERE mr.competition_id = :competitionId AND mr.round_number = :roundNumber" +
+           ") s GROUP BY s.player_id", nativeQuery = true)
+    List<Object[]> aggregatePlayerRoundStats(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 统计尚未保存座位顺位的比赛记录数量
+     */
+    @Query("SELECT COUNT(mr) FROM MatchResult mr WHERE mr.eastPlacement IS NULL OR mr.southPlacement IS NULL OR mr.westPlacement IS NULL OR mr.northPlacement IS NULL")
+    long countMissingPlacements();
+    
+    /**
+     * 查找比赛记录的最大ID
+     */
+    @Query("SELECT MAX(mr.id) FROM MatchResult mr")
+    Long findMaxId();
+    
+    /**
+     * 按ID顺序从 afterId 之后取 limit 条比赛记录，返回其中最大的ID（用于按已有ID分批），没有记录时返回空
+     */
+    @Query(value = "SELECT MAX(page.id) FROM (SELECT mr.id FROM match_results mr WHERE mr.id > :afterId ORDER BY mr.id LIMIT :limit) page",
+           nativeQuery = true)
+    Long findPageEndId(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 按ID区间批量回填座位顺位，返回更新的记录数
+     * 顺位按得分从高到低判定，同分时按东南西北顺序，与 PtScoringKernel.rankSeats 保持一致
+     */
+    @Modifying
+    @Query(value = "UPDATE match_results SET " +
+           "east_placement = 1 + (CASE WHEN south_score > east_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN west_score > east_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN north_score > east_score THEN 1 ELSE 0 END), " +
+           "south_placement = 1 + (CASE WHEN east_score >= south_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN west_score > south_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN north_score > south_score THEN 1 ELSE 0 END), " +
+           "west_placement = 1 + (CASE WHEN east_score >= west_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN south_score >= west_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN north_score > west_score THEN 1 ELSE 0 END), " +
+           "north_placement = 1 + (CASE WHEN east_score >= north_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN south_score >= north_score THEN 1 ELSE 0 END) " +
+           "+ (CASE WHEN west_score >= north_score THEN 1 ELSE 0 END) " +
+           "WHERE id BETWEEN :fromId AND :toId " +
+           "AND (east_placement IS NULL OR south_placement IS NULL OR west_placement IS NULL OR north_placement IS NULL)", nativeQuery = true)
+    int backfillPlacements(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * 查找所有存在比赛记录的（比赛ID, 轮次号）组合
+     */
+    @Query("SELECT DISTINCT mr.competition.id, mr.roundNumber FROM MatchResult mr")
+    List<Object[]> findDistinctCompetitionRounds();
+    
+    /**
+     * 查找比赛中存在比赛记录的轮次号
+     */
+    @Query("SELECT DISTINCT mr.roundNumber FROM MatchResult mr WHERE mr.competition.id = :competitionId")
+    List<Integer> findRoundNumbersByCompetitionId(@Param("competitionId") Long competitionId);
+    
     /**
      * 根据比赛ID查找最大轮次号
      */
     @Query("SELECT MAX(mr.roundNumber) FROM MatchResult mr WHERE mr.competition.id = :competitionId")
     Integer findMaxRoundNumberByCompetitionId(@Param("competitionId") Long competitionId);
+    
+    /**
+     * 查找轮次中最大的比赛编号
+     */
+    @Query("SELECT MAX(mr.matchNumber) FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber")
+    Integer findMaxMatchNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 判断轮次中的比赛编号是否已被使用
+     */
+    @Query("SELECT COUNT(mr) > 0 FROM MatchResult mr WHERE mr.competition.id = :competitionId AND mr.roundNumber = :roundNumber AND mr.matchNumber = :matchNumber")
+    boolean existsMatchNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                              @Param("matchNumber") Integer matchNumber);
 } 
\ No newline at end of file
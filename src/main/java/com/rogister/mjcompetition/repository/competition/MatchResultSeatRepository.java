@@ -0,0 +1,87 @@
+package com.rogister.mjcompetition.repository.competition;
+
+import com.rogister.mjcompetition.entity.competition.MatchResultSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MatchResultSeatRepository extends JpaRepository<MatchResultSeat, Long> {
+
+    /**
+     * 查找某场比赛的座位记录
+     */
+    @Query("SELECT s FROM MatchResultSeat s WHERE s.matchResult.id = :matchResultId ORDER BY s.seat")
+    List<MatchResultSeat> findByMatchResultId(@Param("matchResultId") Long matchResultId);
+
+    /**
+     * 查找比赛的全部座位记录，按比赛成绩ID和座位排序
+     */
+    @Query("SELECT s FROM MatchResultSeat s WHERE s.competitionId = :competitionId ORDER BY s.matchResult.id, s.seat")
+    List<MatchResultSeat> findByCompetitionId(@Param("competitionId") Long competitionId);
+
+    /**
+     * 查找某轮次有团队归属的座位（团队-比赛索引），返回列依次为：
+     * 团队ID、比赛成绩ID、玩家ID、原始得分、PT分数、团队顺位，按比赛成绩ID和座位排序
+     */
+    @Query("SELECT s.teamId, s.matchResult.id, s.player.id, s.score, s.ptScore, s.teamPlacement " +
+           "FROM MatchResultSeat s " +
+           "WHERE s.competitionId = :competitionId AND s.roundNumber = :roundNumber AND s.teamId IS NOT NULL " +
+           "ORDER BY s.matchResult.id, s.seat")
+    List<Object[]> findTeamSeatsByCompetitionIdAndRoundNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+
+    /**
+     * 查找存在未标记团队、但玩家属于该轮次参赛团队的座位的比赛ID
+     */
+    @Query("SELECT DISTINCT s.competitionId FROM MatchResultSeat s, TeamMember tm, TeamRoundStatus trs " +
+           "WHERE s.teamId IS NULL AND tm.player.id = s.player.id AND tm.isActive = true " +
+           "AND trs.team.id = tm.teamId AND trs.competition.id = s.competitionId AND trs.roundNumber = s.roundNumber")
+    List<Long> findCompetitionIdsWithUnassignedTeamSeats();
+
+    /**
+     * 删除某场比赛的座位记录
+     */
+    @Modifying
+    @Query("DELETE FROM MatchResultSeat s WHERE s.matchResult.id = :matchResultId")
+    int deleteByMatchResultId(@Param("matchResultId") Long matchResultId);
+
+    /**
+     * 统计没有座位记录的比赛数量
+     */
+    @Query(value = "SELECT COUNT(*) FROM match_results mr " +
+           "WHERE NOT EXISTS (SELECT 1 FROM match_result_seats s WHERE s.match_result_id = mr.id)", nativeQuery = true)
+    long countMatchResultsWithoutSeats();
+
+    /**
+     * 为ID区间内没有座位记录的比赛批量写入四个座位，返回写入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO match_result_seats " +
+           "(match_result_id, competition_id, round_number, seat, player_id, score, penalty, pt_score, placement) " +
+           "SELECT mr.id, mr.competition_id, mr.round_number, 0, mr.east_player_id, mr.east_score, mr.east_penalty, mr.east_pt_score, mr.east_placement " +
+           "FROM match_results mr WHERE mr.id BETWEEN :fromId AND :toId " +
+           "AND NOT EXISTS (SELECT 1 FROM match_result_seats s WHERE s.match_result_id = mr.id) " +
+           "UNION ALL " +
+           "SELECT mr.id, mr.competition_id, mr.round_number, 1, mr.south_player_id, mr.south_score, mr.south_penalty, mr.south_pt_score, mr.south_placement " +
+           "FROM match_results mr WHERE mr.id BETWEEN :fromId AND :toId " +
+           "AND NOT EXISTS (SELECT 1 FROM match_result_seats s WHERE s.match_result_id = mr.id) " +
+           "UNION ALL " +
+           "SELECT mr.id, mr.competition_id, mr.round_number, 2, mr.west_player_id, mr.west_score, mr.west_penalty, mr.west_pt_score, mr.west_placement " +
+           "FROM match_results mr WHERE mr.id BETWEEN :fromId AND :toId " +
+           "AND NOT EXISTS (SELECT 1 FROM match_result_seats s WHERE s.match_result_id = mr.id) " +
+           "UNION ALL " +
+           "SELECT mr.id, mr.competition_id, mr.round_number, 3, mr.north_player_id, mr.north_score, mr.north_penalty, mr.north_pt_score, mr.north_placement " +
+           "FROM match_results mr WHERE mr.id BETWEEN :fromId AND :toId " +
+           "AND NOT EXISTS (SELECT 1 FROM match_result_seats s WHERE s.match_result_id = mr.id)", nativeQuery = true)
+    int backfillSeats(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * 查找玩家参加过比赛的比赛ID
+     */
+    @Query("SELECT DISTINCT s.competitionId FROM MatchResultSeat s WHERE s.player.id = :playerId")
+    List<Long> findCompetitionIdsByPlayerId(@Param("playerId") Long playerId);
+}
@@ -0,0 +1,56 @@
+package com.rogister.mjcompetition.repository.competition;
+
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RoundPlayerStandingRepository extends JpaRepository<RoundPlayerStanding, Long> {
+
+    /**
+     * 根据比赛ID和轮次号查找积分榜（不加载玩家信息）
+     */
+    List<RoundPlayerStanding> findByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
+
+    /**
+     * 根据比赛ID和轮次号查找积分榜，同时加载玩家信息
+     */
+    @EntityGraph(attributePaths = {"player"})
+    List<RoundPlayerStanding> findWithPlayerByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
+
+    /**
+     * 根据比赛ID、轮次号和玩家ID查找积分榜记录
+     */
+    @EntityGraph(attributePaths = {"player"})
+    Optional<RoundPlayerStanding> findByCompetitionIdAndRoundNumberAndPlayerId(Long competitionId, Integer roundNumber, Long playerId);
+
+    /**
+     * 批量查找指定玩家的积分榜记录并加写锁，用于增量更新；按玩家ID顺序加锁，并发写入之间不会死锁
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM RoundPlayerStanding s WHERE s.competitionId = :competitionId AND s.roundNumber = :roundNumber AND s.player.id IN :playerIds ORDER BY s.player.id")
+    List<RoundPlayerStanding> findForUpdateByPlayerIds(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber, @Param("playerIds") Collection<Long> playerIds);
+
+    /**
+     * 删除某轮次的全部积分榜记录
+     */
+    @Modifying
+    @Query("DELETE FROM RoundPlayerStanding s WHERE s.competitionId = :competitionId AND s.roundNumber = :roundNumber")
+    int deleteByCompetitionIdAndRoundNumber(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+
+    /**
+     * 查找比赛中已有积分榜记录的轮次号
+     */
+    @Query("SELECT DISTINCT s.roundNumber FROM RoundPlayerStanding s WHERE s.competitionId = :competitionId")
+    List<Integer> findRoundNumbersByCompetitionId(@Param("competitionId") Long competitionId);
+}
@@ -3,10 +3,14 @@ package com.rogister.mjcompetition.repository.player;
 import com.rogister.mjcompetition.entity.competition.Competition;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.entity.player.PlayerCompetitionRegistration;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +29,14 @@ public interface PlayerCompetitionRegistrationRepository extends JpaRepository<P
     @EntityGraph(attributePaths = {"player"})
     List<PlayerCompetitionRegistration> findByCompetitionId(Long competitionId);
     
+    /**
+     * 按ID升序分页查询比赛中 afterId 之后的报名记录（游标分页，条数由 pageable 限定）
+     */
+    @EntityGraph(attributePaths = {"player"})
+    @Query("SELECT r FROM PlayerCompetitionRegistration r WHERE r.competition.id = :competitionId AND r.id > :afterId ORDER BY r.id ASC")
+    List<PlayerCompetitionRegistration> findPageByCompetitionId(@Param("competitionId") Long competitionId,
+            @Param("afterId") Long afterId, Pageable pageable);
+    
     /**
      * 根据玩家和比赛查找报名记录
      */
@@ -45,6 +57,14 @@ public interface PlayerCompetitionRegistrationRepository extends JpaRepository<P
      */
     boolean existsByPlayerIdAndCompetitionId(Long playerId, Long competitionId);
     
+    /**
+     * 在指定玩家中查找已报名比赛的玩家ID
+     */
+    @Query("SELECT r.player.id FROM PlayerCompetitionRegistration r WHERE r.competition.id = :competitionId " +
+           "AND r.player.id IN :playerIds")
+    List<Long> findRegisteredPlayerIds(@Param("competitionId") Long competitionId,
+                                       @Param("playerIds") Collection<Long> playerIds);
+    
     /**
      * 根据比赛ID统计报名人数
      */
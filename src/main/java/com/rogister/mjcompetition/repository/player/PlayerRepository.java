@@ -1,7 +1,10 @@
 package com.rogister.mjcompetition.repository.player;
 
 import com.rogister.mjcompetition.entity.player.Player;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,6 +18,12 @@ public interface PlayerRepository extends JpaRepository<Player, Long> {
      */
     Optional<Player> findByUsername(String username);
     
+    /**
+     * 按ID升序分页查询 afterId 之后的玩家（游标分页，条数由 pageable 限定）
+     */
+    @Query("SELECT p FROM Player p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Player> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
     /**
      * 根据QQ查找玩家
      */
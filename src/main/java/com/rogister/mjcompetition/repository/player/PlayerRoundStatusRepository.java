@@ -3,11 +3,13 @@ package com.rogister.mjcompetition.repository.player;
 import com.rogister.mjcompetition.entity.competition.Competition;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,7 @@ public interface PlayerRoundStatusRepository extends JpaRepository<PlayerRoundSt
     /**
      * 根据比赛ID和轮次号查找所有选手状态
      */
+    @EntityGraph(attributePaths = {"player", "competition"})
     List<PlayerRoundStatus> findByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
     
     /**
@@ -45,6 +48,16 @@ public interface PlayerRoundStatusRepository extends JpaRepository<PlayerRoundSt
      */
     List<PlayerRoundStatus> findByCompetitionIdAndRoundNumberAndStatus(Long competitionId, Integer roundNumber, PlayerRoundStatus.RoundStatus status);
     
+    /**
+     * 统计比赛某轮次的状态记录数量
+     */
+    long countByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
+    
+    /**
+     * 统计比赛某轮次指定状态的记录数量
+     */
+    long countByCompetitionIdAndRoundNumberAndStatus(Long competitionId, Integer roundNumber, PlayerRoundStatus.RoundStatus status);
+    
     /**
      * 根据玩家ID、比赛ID和轮次号查找选手状态
      */
@@ -54,4 +67,26 @@ public interface PlayerRoundStatusRepository extends JpaRepository<PlayerRoundSt
      * 根据玩家ID和比赛ID查找所有轮次状态
      */
     List<PlayerRoundStatus> findByPlayerIdAndCompetitionId(Long playerId, Long competitionId);
+    
+    /**
+     * 在指定玩家中查找有资格参加某轮次比赛（有轮次状态且未被淘汰）的玩家ID
+     */
+    @Query("SELECT prs.player.id FROM PlayerRoundStatus prs WHERE prs.competition.id = :competitionId " +
+           "AND prs.roundNumber = :roundNumber AND prs.isEliminated = false AND prs.player.id IN :playerIds")
+    List<Long> findEligiblePlayerIds(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                                     @Param("playerIds") Collection<Long> playerIds);
+    
+    /**
+     * 在指定玩家中查找已有某轮次状态的玩家ID
+     */
+    @Query("SELECT prs.player.id FROM PlayerRoundStatus prs WHERE prs.competition.id = :competitionId " +
+           "AND prs.roundNumber = :roundNumber AND prs.player.id IN :playerIds")
+    List<Long> findPlayerIdsInRound(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                                    @Param("playerIds") Collection<Long> playerIds);
+    
+    /**
+     * 查找玩家有轮次状态的比赛ID
+     */
+    @Query("SELECT DISTINCT prs.competition.id FROM PlayerRoundStatus prs WHERE prs.player.id = :playerId")
+    List<Long> findCompetitionIdsByPlayerId(@Param("playerId") Long playerId);
 } 
\ No newline at end of file
@@ -2,8 +2,11 @@ package com.rogister.mjcompetition.repository.team;
 
 import com.rogister.mjcompetition.entity.team.TeamCompetitionRegistration;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +33,14 @@ public interface TeamCompetitionRegistrationRepository extends JpaRepository<Tea
      */
     boolean existsByTeamIdAndCompetitionId(Long teamId, Long competitionId);
     
+    /**
+     * 在指定团队中查找已报名比赛的团队ID
+     */
+    @Query("SELECT r.team.id FROM TeamCompetitionRegistration r WHERE r.competition.id = :competitionId " +
+           "AND r.team.id IN :teamIds")
+    List<Long> findRegisteredTeamIds(@Param("competitionId") Long competitionId,
+                                     @Param("teamIds") Collection<Long> teamIds);
+    
     /**
      * 根据比赛ID和状态查找报名记录
      */
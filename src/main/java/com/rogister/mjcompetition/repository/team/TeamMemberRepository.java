@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,39 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
      */
     List<TeamMember> findByTeamIdAndIsActiveTrue(Long teamId);
     
+    /**
+     * 查找某轮次所有参赛团队的激活成员，同时加载玩家信息（一次查询）
+     */
+    @Query("SELECT tm FROM TeamMember tm JOIN FETCH tm.player, TeamRoundStatus trs " +
+           "WHERE trs.team.id = tm.teamId AND trs.competition.id = :competitionId AND trs.roundNumber = :roundNumber " +
+           "AND tm.isActive = true ORDER BY tm.teamId, tm.id")
+    List<TeamMember> findActiveMembersOfRoundTeams(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber);
+    
+    /**
+     * 查找比赛各轮次参赛团队的激活成员关系，返回列依次为：轮次号、团队ID、玩家ID
+     */
+    @Query("SELECT trs.roundNumber, tm.teamId, tm.player.id FROM TeamMember tm, TeamRoundStatus trs " +
+           "WHERE trs.team.id = tm.teamId AND trs.competition.id = :competitionId AND tm.isActive = true")
+    List<Object[]> findActiveRoundMemberships(@Param("competitionId") Long competitionId);
+    
+    /**
+     * 查找指定玩家在某轮次所属的参赛团队，返回列依次为：玩家ID、团队ID
+     */
+    @Query("SELECT tm.player.id, tm.teamId FROM TeamMember tm, TeamRoundStatus trs " +
+           "WHERE trs.team.id = tm.teamId AND trs.competition.id = :competitionId AND trs.roundNumber = :roundNumber " +
+           "AND tm.isActive = true AND tm.player.id IN :playerIds")
+    List<Object[]> findRoundTeamIdsByPlayerIds(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                                               @Param("playerIds") Collection<Long> playerIds);
+    
+    /**
+     * 在指定玩家中查找所属团队有资格参加某轮次比赛（团队有轮次状态且未被淘汰）的玩家ID
+     */
+    @Query("SELECT DISTINCT tm.player.id FROM TeamMember tm, TeamRoundStatus trs " +
+           "WHERE trs.team.id = tm.teamId AND trs.competition.id = :competitionId AND trs.roundNumber = :roundNumber " +
+           "AND trs.isEliminated = false AND tm.isActive = true AND tm.player.id IN :playerIds")
+    List<Long> findEligibleRoundPlayerIds(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                                          @Param("playerIds") Collection<Long> playerIds);
+    
     /**
      * 根据玩家ID查找所有团队关系
      */
@@ -57,4 +91,10 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
      */
     @Query("SELECT COUNT(tm) FROM TeamMember tm WHERE tm.teamId = :teamId AND tm.isActive = true")
     long countActiveMembersByTeamId(@Param("teamId") Long teamId);
+    
+    /**
+     * 查找玩家所在（含已离开）的团队ID
+     */
+    @Query("SELECT DISTINCT tm.teamId FROM TeamMember tm WHERE tm.player.id = :playerId")
+    List<Long> findTeamIdsByPlayerId(@Param("playerId") Long playerId);
 }
@@ -3,11 +3,13 @@ package com.rogister.mjcompetition.repository.team;
 import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
 import com.rogister.mjcompetition.entity.team.Team;
 import com.rogister.mjcompetition.entity.competition.Competition;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +17,9 @@ import java.util.Optional;
 public interface TeamRoundStatusRepository extends JpaRepository<TeamRoundStatus, Long> {
     
     /**
-     * 根据比赛ID和轮次号查找团队轮次状态
+     * 根据比赛ID和轮次号查找团队轮次状态，同时加载团队和比赛信息
      */
+    @EntityGraph(attributePaths = {"team", "competition"})
     List<TeamRoundStatus> findByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
     
     /**
@@ -45,6 +48,16 @@ public interface TeamRoundStatusRepository extends JpaRepository<TeamRoundStatus
      */
     List<TeamRoundStatus> findByCompetitionIdAndRoundNumberAndStatus(Long competitionId, Integer roundNumber, TeamRoundStatus.RoundStatus status);
     
+    /**
+     * 统计比赛某轮次的状态记录数量
+     */
+    long countByCompetitionIdAndRoundNumber(Long competitionId, Integer roundNumber);
+    
+    /**
+     * 统计比赛某轮次指定状态的记录数量
+     */
+    long countByCompetitionIdAndRoundNumberAndStatus(Long competitionId, Integer roundNumber, TeamRoundStatus.RoundStatus status);
+    
     /**
      * 根据团队ID、比赛ID和轮次号查找团队状态
      */
@@ -54,4 +67,18 @@ public interface TeamRoundStatusRepository extends JpaRepository<TeamRoundStatus
      * 根据团队ID和比赛ID查找所有轮次状态
      */
     List<TeamRoundStatus> findByTeamIdAndCompetitionId(Long teamId, Long competitionId);
+    
+    /**
+     * 在指定团队中查找已有某轮次状态的团队ID
+     */
+    @Query("SELECT trs.team.id FROM TeamRoundStatus trs WHERE trs.competition.id = :competitionId " +
+           "AND trs.roundNumber = :roundNumber AND trs.team.id IN :teamIds")
+    List<Long> findTeamIdsInRound(@Param("competitionId") Long competitionId, @Param("roundNumber") Integer roundNumber,
+                                  @Param("teamIds") Collection<Long> teamIds);
+    
+    /**
+     * 查找指定团队有轮次状态的比赛ID
+     */
+    @Query("SELECT DISTINCT trs.competition.id FROM TeamRoundStatus trs WHERE trs.team.id IN :teamIds")
+    List<Long> findCompetitionIdsByTeamIds(@Param("teamIds") Collection<Long> teamIds);
 }
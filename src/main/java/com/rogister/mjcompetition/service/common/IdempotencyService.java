@@ -0,0 +1,140 @@
+package com.rogister.mjcompetition.service.common;
+
+import com.rogister.mjcompetition.entity.common.IdempotencyRecord;
+import com.rogister.mjcompetition.repository.common.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 幂等请求记录的登记、保存和清理
+ *
+ * 请求开始时以 (用户, Idempotency-Key) 唯一约束登记，登记成功的请求执行并保存响应；
+ * 登记冲突时按已有记录重放响应、拒绝处理中的重复请求或拒绝用于不同请求的key
+ */
+@Service
+public class IdempotencyService {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    // 响应保存时长，超过后相同key视为新请求
+    @Value("${mj.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // 处理中的记录超过该时长未完成时允许重试请求接管（原请求所在进程已退出）
+    @Value("${mj.idempotency.lock-timeout-seconds:60}")
+    private long lockTimeoutSeconds;
+
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    void start() {
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleAtFixedRate(this::deleteExpired, 1, 1, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void stop() {
+        cleaner.shutdownNow();
+    }
+
+    /**
+     * 登记请求
+     */
+    public Claim claim(String ownerName, String idempotencyKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(ownerName, idempotencyKey, requestHash, now));
+            return new Claim(Claim.Outcome.ACQUIRED, record);
+        } catch (DataIntegrityViolationException e) {
+            // 已有相同key的记录
+        }
+
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository
+                .findByOwnerNameAndIdempotencyKey(ownerName, idempotencyKey);
+        if (existing.isEmpty()) {
+            // 记录刚被清理，按处理中返回，由客户端重试
+            return new Claim(Claim.Outcome.IN_PROGRESS, null);
+        }
+        IdempotencyRecord record = existing.get();
+        if (!record.getRequestHash().equals(requestHash)) {
+            return new Claim(Claim.Outcome.KEY_REUSED, record);
+        }
+        if (record.getResponseStatus() != null) {
+            return new Claim(Claim.Outcome.REPLAY, record);
+        }
+        if (idempotencyRecordRepository.takeOver(record.getId(), now, now.minusSeconds(lockTimeoutSeconds)) == 1) {
+            return new Claim(Claim.Outcome.ACQUIRED, record);
+        }
+        return new Claim(Claim.Outcome.IN_PROGRESS, record);
+    }
+
+    /**
+     * 保存已登记请求的响应
+     */
+    public void complete(Long recordId, int status, String contentType, byte[] body) {
+        idempotencyRecordRepository.complete(recordId, status, contentType, body);
+    }
+
+    /**
+     * 放弃登记（请求异常或服务端错误），相同key的重试会重新执行
+     */
+    public void release(Long recordId) {
+        idempotencyRecordRepository.deleteById(recordId);
+    }
+
+    void deleteExpired() {
+        try {
+            int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+            if (deleted > 0) {
+                System.out.println("已清理过期的幂等请求记录: " + deleted + "条");
+            }
+        } catch (Exception e) {
+            System.err.println("清理幂等请求记录失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 登记结果
+     */
+    public static class Claim {
+
+        public enum Outcome {
+            ACQUIRED,    // 登记成功，执行请求
+            REPLAY,      // 已有相同请求的响应，直接重放
+            IN_PROGRESS, // 相同请求正在处理
+            KEY_REUSED   // key已用于不同的请求
+        }
+
+        private final Outcome outcome;
+        private final IdempotencyRecord record;
+
+        public Claim(Outcome outcome, IdempotencyRecord record) {
+            this.outcome = outcome;
+            this.record = record;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public IdempotencyRecord getRecord() {
+            return record;
+        }
+    }
+}
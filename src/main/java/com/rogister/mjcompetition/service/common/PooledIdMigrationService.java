@@ -0,0 +1,73 @@
+package com.rogister.mjcompetition.service.common;
+
+import com.rogister.mjcompetition.entity.common.PooledIds;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 自增ID迁移到池化ID：启动时把 id_generators 中各实体的下一个值推进到表中现有最大ID之后，
+ * 避免池化生成器分配到自增列已经使用过的ID。已迁移或表为空时不做修改，可重复执行
+ *
+ * 池化优化器把表中保存的值作为下一段ID的上界，即分配 (next_val - ALLOCATION_SIZE, next_val]，
+ * 因此写入 MAX(id) + ALLOCATION_SIZE + 1
+ *
+ * 在 EntityManagerFactory 创建之前执行（见 PooledIdMigrationConfig），此时 Hibernate 还不能分配ID，也不接受请求，
+ * 不会出现在推进之前按旧的起始值预留一段ID的情况。全新的数据库中实体表尚未创建，跳过
+ */
+@Service
+public class PooledIdMigrationService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        migrate();
+    }
+
+    public void migrate() {
+        // 未开启自动建表时由此创建生成器表，结构与 Hibernate 生成的一致
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PooledIds.TABLE + " ("
+                + PooledIds.NAME_COLUMN + " VARCHAR(255) NOT NULL PRIMARY KEY, "
+                + PooledIds.VALUE_COLUMN + " BIGINT)");
+
+        for (String table : PooledIds.TABLES) {
+            Long maxId;
+            try {
+                maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            } catch (BadSqlGrammarException e) {
+                // 表尚未创建（全新的数据库），没有需要跳过的ID
+                continue;
+            }
+            if (maxId == null) {
+                continue;
+            }
+            long required = maxId + PooledIds.ALLOCATION_SIZE + 1;
+
+            List<Long> current = jdbcTemplate.queryForList("SELECT " + PooledIds.VALUE_COLUMN + " FROM "
+                    + PooledIds.TABLE + " WHERE " + PooledIds.NAME_COLUMN + " = ?", Long.class, table);
+            if (current.isEmpty()) {
+                try {
+                    jdbcTemplate.update("INSERT INTO " + PooledIds.TABLE + " (" + PooledIds.NAME_COLUMN + ", "
+                            + PooledIds.VALUE_COLUMN + ") VALUES (?, ?)", table, required);
+                    System.out.println("已初始化 " + table + " 的ID生成器，起始于 " + (maxId + 2));
+                    continue;
+                } catch (DataIntegrityViolationException e) {
+                    // 其他实例同时完成了初始化，按更新处理
+                }
+            }
+            int updated = jdbcTemplate.update("UPDATE " + PooledIds.TABLE + " SET " + PooledIds.VALUE_COLUMN + " = ? "
+                    + "WHERE " + PooledIds.NAME_COLUMN + " = ? AND (" + PooledIds.VALUE_COLUMN + " IS NULL OR "
+                    + PooledIds.VALUE_COLUMN + " < ?)", required, table, required);
+            if (updated > 0) {
+                System.out.println("已推进 " + table + " 的ID生成器，起始于 " + (maxId + 2));
+            }
+        }
+    }
+}
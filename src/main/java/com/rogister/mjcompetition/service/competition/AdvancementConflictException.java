@@ -0,0 +1,22 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.dto.competition.AdvancementConflict;
+
+import java.util.List;
+
+/**
+ * 晋级名单校验失败：一次列出所有无法晋级的玩家或团队，整批不写入
+ */
+public class AdvancementConflictException extends RuntimeException {
+
+    private final List<AdvancementConflict> conflicts;
+
+    public AdvancementConflictException(String message, List<AdvancementConflict> conflicts) {
+        super(message);
+        this.conflicts = conflicts;
+    }
+
+    public List<AdvancementConflict> getConflicts() {
+        return conflicts;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rogister.mjcompetition.service.competition;
 
+import com.rogister.mjcompetition.dto.competition.AdvancementConflict;
 import com.rogister.mjcompetition.entity.competition.Competition;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
@@ -13,12 +14,20 @@ import com.rogister.mjcompetition.repository.team.TeamCompetitionRegistrationRep
 import com.rogister.mjcompetition.repository.team.TeamRepository;
 import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class AdvancementService {
@@ -44,110 +53,146 @@ public class AdvancementService {
     @Autowired
     private PlayerRepository playerRepository;
     
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${mj.advancement.in-chunk-size:1000}")
+    private int inChunkSize;
+    
     /**
      * 个人赛晋级到指定轮次
+     * 报名、已有轮次状态按 mj.advancement.in-chunk-size 分段用 IN 查询批量校验，
+     * 名单中所有无法晋级的玩家一次抛出（AdvancementConflictException），全部通过后批量插入
      */
     @Transactional
     public List<PlayerRoundStatus> advancePlayersToRound(Long competitionId, List<Long> playerIds,
                                                          Integer targetRound, Integer initialScore) {
-        // 验证比赛是否存在
-        Competition competition = competitionRepository.findById(competitionId)
-                .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+        Competition competition = validateAdvancement(competitionId, targetRound);
         
-        // 验证目标轮次是否有效
-        if (targetRound <= 1) {
-            throw new RuntimeException("目标轮次必须大于1");
-        }
+        List<AdvancementConflict> conflicts = new ArrayList<>();
+        List<Long> ids = distinctIds(playerIds, conflicts);
         
-        // 获取当前最高轮次
-        Integer currentMaxRound = getCurrentMaxRound(competitionId);
-        if (targetRound <= currentMaxRound) {
-            throw new RuntimeException("目标轮次必须超过当前最高轮次: " + currentMaxRound);
+        Map<Long, Player> players = new HashMap<>();
+        for (Player player : queryInChunks(ids, playerRepository::findAllById)) {
+            players.put(player.getId(), player);
         }
+        Set<Long> registered = new HashSet<>(queryInChunks(ids,
+                chunk -> playerRegistrationRepository.findRegisteredPlayerIds(competitionId, chunk)));
+        Set<Long> inTargetRound = new HashSet<>(queryInChunks(ids,
+                chunk -> playerRoundStatusRepository.findPlayerIdsInRound(competitionId, targetRound, chunk)));
         
-        // 验证所有玩家是否都已报名该比赛
-        for (Long playerId : playerIds) {
-            if (!isPlayerRegistered(competitionId, playerId)) {
-                throw new RuntimeException("玩家ID " + playerId + " 未报名该比赛");
+        List<PlayerRoundStatus> roundStatuses = new ArrayList<>(ids.size());
+        for (Long playerId : ids) {
+            Player player = players.get(playerId);
+            if (player == null) {
+                conflicts.add(new AdvancementConflict(playerId, null, "玩家不存在"));
+            } else if (!registered.contains(playerId)) {
+                conflicts.add(new AdvancementConflict(playerId, player.getUsername(), "未报名该比赛"));
+            } else if (inTargetRound.contains(playerId)) {
+                conflicts.add(new AdvancementConflict(playerId, player.getUsername(), "已存在于第" + targetRound + "轮"));
+            } else {
+                PlayerRoundStatus roundStatus = new PlayerRoundStatus(player, competition, targetRound, initialScore);
+                roundStatus.setStatus(PlayerRoundStatus.RoundStatus.ACTIVE);
+                roundStatuses.add(roundStatus);
             }
         }
+        if (!conflicts.isEmpty()) {
+            throw new AdvancementConflictException(conflicts.size() + "名玩家无法晋级", conflicts);
+        }
         
-        // 为每个玩家创建新轮次状态
-        List<PlayerRoundStatus> roundStatuses = playerIds.stream()
-                .map(playerId -> {
-                    Player player = playerRepository.findById(playerId)
-                            .orElseThrow(() -> new RuntimeException("玩家不存在，ID: " + playerId));
-                    
-                    // 检查是否已有该轮次状态
-                    Optional<PlayerRoundStatus> existingStatus = playerRoundStatusRepository
-                            .findByPlayerAndCompetitionAndRoundNumber(player, competition, targetRound);
-                    
-                    if (existingStatus.isPresent()) {
-                        throw new RuntimeException("玩家 " + player.getUsername() + " 已存在于第" + targetRound + "轮");
-                    }
-                    
-                    // 创建新轮次状态
-                    PlayerRoundStatus roundStatus = new PlayerRoundStatus(player, competition, targetRound, initialScore);
-                    roundStatus.setStatus(PlayerRoundStatus.RoundStatus.ACTIVE);
-                    
-                    return playerRoundStatusRepository.save(roundStatus);
-                })
-                .toList();
-        
-        return roundStatuses;
+        List<PlayerRoundStatus> saved = playerRoundStatusRepository.saveAll(roundStatuses);
+        competitionVersionService.markRoundChanged(competitionId, targetRound);
+        return saved;
     }
     
     /**
-     * 团队赛晋级到指定轮次
+     * 团队赛晋级到指定轮次，校验与写入方式同个人赛
      */
     @Transactional
     public List<TeamRoundStatus> advanceTeamsToRound(Long competitionId, List<Long> teamIds,
                                                      Integer targetRound, Integer initialScore) {
-        // 验证比赛是否存在
+        Competition competition = validateAdvancement(competitionId, targetRound);
+        
+        List<AdvancementConflict> conflicts = new ArrayList<>();
+        List<Long> ids = distinctIds(teamIds, conflicts);
+        
+        Map<Long, Team> teams = new HashMap<>();
+        for (Team team : queryInChunks(ids, teamRepository::findAllById)) {
+            teams.put(team.getId(), team);
+        }
+        Set<Long> registered = new HashSet<>(queryInChunks(ids,
+                chunk -> teamRegistrationRepository.findRegisteredTeamIds(competitionId, chunk)));
+        Set<Long> inTargetRound = new HashSet<>(queryInChunks(ids,
+                chunk -> teamRoundStatusRepository.findTeamIdsInRound(competitionId, targetRound, chunk)));
+        
+        List<TeamRoundStatus> roundStatuses = new ArrayList<>(ids.size());
+        for (Long teamId : ids) {
+            Team team = teams.get(teamId);
+            if (team == null) {
+                conflicts.add(new AdvancementConflict(teamId, null, "团队不存在"));
+            } else if (!registered.contains(teamId)) {
+                conflicts.add(new AdvancementConflict(teamId, team.getTeamName(), "未报名该比赛"));
+            } else if (inTargetRound.contains(teamId)) {
+                conflicts.add(new AdvancementConflict(teamId, team.getTeamName(), "已存在于第" + targetRound + "轮"));
+            } else {
+                TeamRoundStatus roundStatus = new TeamRoundStatus(team, competition, targetRound, initialScore);
+                roundStatus.setStatus(TeamRoundStatus.RoundStatus.ACTIVE);
+                roundStatuses.add(roundStatus);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new AdvancementConflictException(conflicts.size() + "个团队无法晋级", conflicts);
+        }
+        
+        List<TeamRoundStatus> saved = teamRoundStatusRepository.saveAll(roundStatuses);
+        competitionVersionService.markRoundChanged(competitionId, targetRound);
+        return saved;
+    }
+    
+    /**
+     * 验证比赛存在且目标轮次超过当前最高轮次
+     */
+    private Competition validateAdvancement(Long competitionId, Integer targetRound) {
         Competition competition = competitionRepository.findById(competitionId)
                 .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
         
-        // 验证目标轮次是否有效
         if (targetRound <= 1) {
             throw new RuntimeException("目标轮次必须大于1");
         }
         
-        // 获取当前最高轮次
         Integer currentMaxRound = getCurrentMaxRound(competitionId);
         if (targetRound <= currentMaxRound) {
             throw new RuntimeException("目标轮次必须超过当前最高轮次: " + currentMaxRound);
         }
-        
-        // 验证所有团队是否都已报名该比赛
-        for (Long teamId : teamIds) {
-            if (!isTeamRegistered(competitionId, teamId)) {
-                throw new RuntimeException("团队ID " + teamId + " 未报名该比赛");
+        return competition;
+    }
+    
+    /**
+     * 按提交顺序去重，重复出现的ID记为冲突
+     */
+    private List<Long> distinctIds(List<Long> ids, List<AdvancementConflict> conflicts) {
+        Set<Long> seen = new LinkedHashSet<>();
+        Set<Long> duplicated = new HashSet<>();
+        for (Long id : ids) {
+            if (!seen.add(id) && duplicated.add(id)) {
+                conflicts.add(new AdvancementConflict(id, null, "在晋级名单中重复出现"));
             }
         }
-        
-        // 为每个团队创建新轮次状态
-        List<TeamRoundStatus> roundStatuses = teamIds.stream()
-                .map(teamId -> {
-                    Team team = teamRepository.findById(teamId)
-                            .orElseThrow(() -> new RuntimeException("团队不存在，ID: " + teamId));
-                    
-                    // 检查是否已有该轮次状态
-                    Optional<TeamRoundStatus> existingStatus = teamRoundStatusRepository
-                            .findByTeamAndCompetitionAndRoundNumber(team, competition, targetRound);
-                    
-                    if (existingStatus.isPresent()) {
-                        throw new RuntimeException("团队 " + team.getTeamName() + " 已存在于第" + targetRound + "轮");
-                    }
-                    
-                    // 创建新轮次状态
-                    TeamRoundStatus roundStatus = new TeamRoundStatus(team, competition, targetRound, initialScore);
-                    roundStatus.setStatus(TeamRoundStatus.RoundStatus.ACTIVE);
-                    
-                    return teamRoundStatusRepository.save(roundStatus);
-                })
-                .toList();
-        
-        return roundStatuses;
+        return new ArrayList<>(seen);
+    }
+    
+    /**
+     * 把ID列表分段执行 IN 查询并合并结果，避免单条语句的参数过多
+     */
+    private <T> List<T> queryInChunks(List<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> result = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += inChunkSize) {
+            result.addAll(query.apply(ids.subList(from, Math.min(ids.size(), from + inChunkSize))));
+        }
+        return result;
     }
     
     /**
@@ -172,20 +217,6 @@ public class AdvancementService {
         }
     }
     
-    /**
-     * 检查玩家是否已报名比赛
-     */
-    private boolean isPlayerRegistered(Long competitionId, Long playerId) {
-        return playerRegistrationRepository.existsByPlayerIdAndCompetitionId(playerId, competitionId);
-    }
-    
-    /**
-     * 检查团队是否已报名比赛
-     */
-    private boolean isTeamRegistered(Long competitionId, Long teamId) {
-        return teamRegistrationRepository.existsByTeamIdAndCompetitionId(teamId, competitionId);
-    }
-    
     /**
      * 获取比赛指定轮次的所有个人赛参与者
      */
@@ -212,6 +243,7 @@ public class AdvancementService {
         roundStatus.setCurrentScore(newScore);
         roundStatus.setUpdatedAt(LocalDateTime.now());
         
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
         return playerRoundStatusRepository.save(roundStatus);
     }
     
@@ -227,6 +259,7 @@ public class AdvancementService {
         roundStatus.setCurrentScore(newScore);
         roundStatus.setUpdatedAt(LocalDateTime.now());
         
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
         return teamRoundStatusRepository.save(roundStatus);
     }
     
@@ -244,6 +277,7 @@ public class AdvancementService {
         roundStatus.setEliminationTime(LocalDateTime.now());
         roundStatus.setUpdatedAt(LocalDateTime.now());
         
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
         return playerRoundStatusRepository.save(roundStatus);
     }
     
@@ -261,6 +295,7 @@ public class AdvancementService {
         roundStatus.setEliminationTime(LocalDateTime.now());
         roundStatus.setUpdatedAt(LocalDateTime.now());
         
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
         return teamRoundStatusRepository.save(roundStatus);
     }
     
@@ -292,5 +327,32 @@ public class AdvancementService {
                 teamRoundStatusRepository.save(status);
             }
         }
+        
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
+        eventPublisher.publishEvent(new RoundCompletedEvent(competitionId, roundNumber));
+    }
+    
+    /**
+     * 重新开放已完成的轮次（将已完成状态恢复为活跃），轮次结果快照随之失效
+     */
+    @Transactional
+    public void reopenRound(Long competitionId, Integer roundNumber) {
+        List<PlayerRoundStatus> playerStatuses = playerRoundStatusRepository.findByCompetitionIdAndRoundNumberAndStatus(
+                competitionId, roundNumber, PlayerRoundStatus.RoundStatus.COMPLETED);
+        for (PlayerRoundStatus status : playerStatuses) {
+            status.setStatus(PlayerRoundStatus.RoundStatus.ACTIVE);
+            status.setUpdatedAt(LocalDateTime.now());
+            playerRoundStatusRepository.save(status);
+        }
+        
+        List<TeamRoundStatus> teamStatuses = teamRoundStatusRepository.findByCompetitionIdAndRoundNumberAndStatus(
+                competitionId, roundNumber, TeamRoundStatus.RoundStatus.COMPLETED);
+        for (TeamRoundStatus status : teamStatuses) {
+            status.setStatus(TeamRoundStatus.RoundStatus.ACTIVE);
+            status.setUpdatedAt(LocalDateTime.now());
+            teamRoundStatusRepository.save(status);
+        }
+        
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
     }
 }
@@ -1,5 +1,6 @@
 package com.rogister.mjcompetition.service.competition;
 
+import com.rogister.mjcompetition.dto.common.CursorPage;
 import com.rogister.mjcompetition.entity.competition.Competition;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.entity.player.PlayerCompetitionRegistration;
@@ -15,7 +16,9 @@ import com.rogister.mjcompetition.repository.team.TeamCompetitionRegistrationRep
 import com.rogister.mjcompetition.repository.team.TeamRepository;
 import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
 import com.rogister.mjcompetition.service.team.TeamService;
+import com.rogister.mjcompetition.util.PageTokens;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,6 +52,9 @@ public class CompetitionRegistrationService {
     @Autowired
     private TeamRoundStatusRepository teamRoundStatusRepository;
     
+    @Autowired
+    private PageTokens pageTokens;
+    
     /**
      * 统一报名接口 - 根据比赛类型自动选择报名方式
      */
@@ -250,6 +256,24 @@ public class CompetitionRegistrationService {
         return playerRegistrationRepository.findByCompetitionId(competitionId);
     }
     
+    /**
+     * 按报名记录ID升序分页获取比赛的个人赛报名记录，pageToken 为空时返回第一页
+     */
+    public CursorPage<PlayerCompetitionRegistration> getCompetitionIndividualRegistrationsPage(Long competitionId,
+            String pageToken, Integer pageSize) {
+        competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+        
+        String scope = "registrations:" + competitionId;
+        int size = pageTokens.resolvePageSize(pageSize);
+        PageTokens.Cursor cursor = pageTokens.decode(scope, pageToken);
+        long afterId = cursor != null ? cursor.getId() : 0L;
+        
+        List<PlayerCompetitionRegistration> rows = playerRegistrationRepository
+                .findPageByCompetitionId(competitionId, afterId, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, registration -> pageTokens.encode(scope, registration.getId(), registration.getId()));
+    }
+    
     /**
      * 获取比赛的所有团队赛报名记录
      */
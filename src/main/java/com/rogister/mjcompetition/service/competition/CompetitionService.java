@@ -20,6 +20,9 @@ public class CompetitionService {
     @Autowired
     private CompetitionRuleRepository competitionRuleRepository;
     
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+    
     /**
      * 创建新比赛
      */
@@ -62,6 +65,7 @@ public class CompetitionService {
         
         // 保存比赛
         Competition savedCompetition = competitionRepository.save(competition);
+        competitionVersionService.markChanged(savedCompetition.getId());
         
         // 重新查询以确保返回完整数据
         return competitionRepository.findById(savedCompetition.getId()).orElse(savedCompetition);
@@ -128,7 +132,9 @@ public class CompetitionService {
         competition.setCompetitionType(competitionDetails.getCompetitionType());
         competition.setRule(competitionDetails.getRule());
         
-        return competitionRepository.save(competition);
+        Competition saved = competitionRepository.save(competition);
+        competitionVersionService.markChanged(id);
+        return saved;
     }
     
     /**
@@ -139,5 +145,6 @@ public class CompetitionService {
             throw new RuntimeException("比赛不存在，ID: " + id);
         }
         competitionRepository.deleteById(id);
+        competitionVersionService.markChanged(id);
     }
 } 
\ No newline at end of file
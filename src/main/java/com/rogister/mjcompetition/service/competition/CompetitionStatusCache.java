@@ -0,0 +1,359 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 比赛状态缓存：按（比赛、轮次）保存最近一次发布的比赛状态快照，快照记录计算前取得的版本号
+ *
+ * 读取方始终直接返回已发布的快照，不等待重算；只有缓存项的第一次读取在请求线程中计算，
+ * 同一缓存项并发的第一次读取只有一个线程计算，其余线程等待同一结果。
+ * 写入提交后由 StandingsRecomputePipeline 在后台调用 refresh 重算并发布新快照，版本号只前进不后退
+ *
+ * 只为存在的比赛和已开始的轮次建立缓存项；缓存项数量超过上限时移除最久未读取的缓存项
+ */
+@Service
+public class CompetitionStatusCache {
+
+    @Autowired
+    private CompetitionStatusService competitionStatusService;
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    // 每类缓存项的数量上限
+    @Value("${mj.status-cache.max-entries:2000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<StatusKey, Entry<CompetitionStatusResponse>> statusEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Entry<Integer>> currentRoundEntries = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 查询比赛指定轮次的状态（最近一次发布的快照）
+     */
+    public CompetitionStatusResponse getCompetitionStatus(Long competitionId, Integer roundNumber) {
+        return getPublishedStatus(competitionId, roundNumber).getValue();
+    }
+
+    /**
+     * 查询比赛指定轮次最近一次发布的状态快照及其版本
+     */
+    public Published<CompetitionStatusResponse> getPublishedStatus(Long competitionId, Integer roundNumber) {
+        StatusKey key = new StatusKey(competitionId, roundNumber);
+        if (!statusEntries.containsKey(key)) {
+            validateRound(competitionId, roundNumber);
+        }
+        return load(statusEntries, key, () -> computeStatus(competitionId, roundNumber));
+    }
+
+    /**
+     * 查询已发布的状态快照，没有缓存项或第一次计算尚未完成时返回 null（不计算）
+     */
+    public Published<CompetitionStatusResponse> peekPublishedStatus(Long competitionId, Integer roundNumber) {
+        Entry<CompetitionStatusResponse> entry = statusEntries.get(new StatusKey(competitionId, roundNumber));
+        return entry != null ? entry.published.get() : null;
+    }
+
+    /**
+     * 查询与当前版本号一致的比赛状态：已发布的快照落后时在当前线程重新计算并发布（用于生成轮次快照文件）
+     */
+    public CompetitionStatusResponse getCurrentCompetitionStatus(Long competitionId, Integer roundNumber) {
+        long version = competitionVersionService.getRoundStamp(competitionId, roundNumber).getVersion();
+        Published<CompetitionStatusResponse> published = getPublishedStatus(competitionId, roundNumber);
+        if (published.getVersion() >= version) {
+            return published.getValue();
+        }
+        Published<CompetitionStatusResponse> fresh = computeStatus(competitionId, roundNumber);
+        Entry<CompetitionStatusResponse> entry = statusEntries.get(new StatusKey(competitionId, roundNumber));
+        if (entry != null) {
+            entry.publish(fresh);
+        }
+        return fresh.getValue();
+    }
+
+    /**
+     * 查询比赛当前最高轮次
+     */
+    public Integer getCurrentMaxRound(Long competitionId) {
+        return load(currentRoundEntries, competitionId, () -> computeCurrentMaxRound(competitionId)).getValue();
+    }
+
+    /**
+     * 重算比赛已缓存的状态并发布：roundNumbers 为 null 时重算该比赛的全部轮次，当前最高轮次总是重算。
+     * 计算失败的缓存项被移除，下一次读取重新计算
+     *
+     * @return 重算的缓存项数量
+     */
+    public int refresh(Long competitionId, Collection<Integer> roundNumbers) {
+        List<StatusKey> keys = new ArrayList<>();
+        if (roundNumbers != null) {
+            for (Integer roundNumber : roundNumbers) {
+                keys.add(new StatusKey(competitionId, roundNumber));
+            }
+        } else {
+            for (StatusKey key : statusEntries.keySet()) {
+                if (key.competitionId.equals(competitionId)) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        int refreshed = 0;
+        for (StatusKey key : keys) {
+            Entry<CompetitionStatusResponse> entry = statusEntries.get(key);
+            if (entry != null
+                    && refresh(statusEntries, key, entry, () -> computeStatus(competitionId, key.roundNumber))) {
+                refreshed++;
+            }
+        }
+        Entry<Integer> currentRound = currentRoundEntries.get(competitionId);
+        if (currentRound != null
+                && refresh(currentRoundEntries, competitionId, currentRound, () -> computeCurrentMaxRound(competitionId))) {
+            refreshed++;
+        }
+        return refreshed;
+    }
+
+    /**
+     * 获取缓存命中统计（只统计读取方，后台重算不计入）
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), statusEntries.size() + currentRoundEntries.size());
+    }
+
+    /**
+     * 校验轮次已开始（1 到当前最高轮次之间），不为不存在的轮次建立缓存项
+     */
+    private void validateRound(Long competitionId, Integer roundNumber) {
+        if (roundNumber == null || roundNumber < 1) {
+            throw new RuntimeException("轮次编号无效: " + roundNumber);
+        }
+        if (roundNumber <= getCurrentMaxRound(competitionId)) {
+            return;
+        }
+        // 缓存的最高轮次可能尚未由后台重算更新，直接查询一次再判断
+        if (roundNumber <= competitionStatusService.getCurrentMaxRound(competitionId)) {
+            return;
+        }
+        throw new RuntimeException("比赛第" + roundNumber + "轮不存在，比赛ID: " + competitionId);
+    }
+
+    private Published<CompetitionStatusResponse> computeStatus(Long competitionId, Integer roundNumber) {
+        // 先取版本号再计算：计算期间发生的写入会使版本号前进，并再次触发后台重算
+        CompetitionVersionService.RoundVersion roundVersion = competitionVersionService.getRoundVersion(competitionId, roundNumber);
+        CompetitionStatusResponse response = freeze(competitionStatusService.getCompetitionStatus(competitionId, roundNumber));
+        return new Published<>(response, roundVersion.getVersion(), roundVersion);
+    }
+
+    private Published<Integer> computeCurrentMaxRound(Long competitionId) {
+        long version = competitionVersionService.getVersion(competitionId);
+        Integer maxRound = competitionStatusService.getCurrentMaxRound(competitionId);
+        // 比赛不存在时不建立缓存项
+        if (maxRound == 0 && !competitionRepository.existsById(competitionId)) {
+            throw new RuntimeException("比赛不存在，ID: " + competitionId);
+        }
+        return new Published<>(maxRound, version, null);
+    }
+
+    /**
+     * 发布的快照被多个读取方共享，列表改为只读
+     */
+    private static CompetitionStatusResponse freeze(CompetitionStatusResponse response) {
+        if (response.getPlayerStatusList() != null) {
+            response.setPlayerStatusList(Collections.unmodifiableList(response.getPlayerStatusList()));
+        }
+        if (response.getTeamStatusList() != null) {
+            response.setTeamStatusList(Collections.unmodifiableList(response.getTeamStatusList()));
+        }
+        return response;
+    }
+
+    private <K, T> Published<T> load(ConcurrentHashMap<K, Entry<T>> entries, K key, Supplier<Published<T>> loader) {
+        Entry<T> existing = entries.get(key);
+        if (existing == null) {
+            Entry<T> created = new Entry<>();
+            existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                return loadFirst(entries, key, created, loader);
+            }
+        }
+
+        hitCount.increment();
+        existing.lastRead = System.currentTimeMillis();
+        Published<T> published = existing.published.get();
+        // 第一次计算尚未完成时等待其结果
+        return published != null ? published : await(existing.first);
+    }
+
+    private <K, T> Published<T> loadFirst(ConcurrentHashMap<K, Entry<T>> entries, K key, Entry<T> created,
+                                          Supplier<Published<T>> loader) {
+        // 缓存项已先登记再取版本号：此后提交的写入都会由后台重算覆盖
+        missCount.increment();
+        evictIfFull(entries);
+        try {
+            Published<T> published = created.publish(loader.get());
+            created.first.complete(published);
+            return published;
+        } catch (RuntimeException e) {
+            // 计算失败不缓存，等待中的线程得到同一异常
+            entries.remove(key, created);
+            created.first.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存项数量超过上限时，移除最久未读取的缓存项，直到数量降到上限的九成
+     */
+    private <K, T> void evictIfFull(ConcurrentHashMap<K, Entry<T>> entries) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        List<Map.Entry<K, Entry<T>>> items = new ArrayList<>(entries.entrySet());
+        // 排序期间读取时间仍可能变化，先取快照
+        Map<Entry<T>, Long> lastReads = new IdentityHashMap<>();
+        for (Map.Entry<K, Entry<T>> item : items) {
+            lastReads.put(item.getValue(), item.getValue().lastRead);
+        }
+        items.sort(Comparator.comparingLong(item -> lastReads.get(item.getValue())));
+        int excess = items.size() - maxEntries * 9 / 10;
+        for (int i = 0; i < excess && i < items.size(); i++) {
+            entries.remove(items.get(i).getKey(), items.get(i).getValue());
+        }
+    }
+
+    private static <K, T> boolean refresh(ConcurrentHashMap<K, Entry<T>> entries, K key, Entry<T> entry,
+                                          Supplier<Published<T>> loader) {
+        try {
+            entry.publish(loader.get());
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("重算比赛状态失败: " + key + ", " + e.getMessage());
+            entries.remove(key, entry);
+            return false;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存项：最近一次发布的快照、第一次计算的结果（供并发的第一次读取等待）和最近一次读取的时间
+     */
+    private static final class Entry<T> {
+        private final AtomicReference<Published<T>> published = new AtomicReference<>();
+        private final CompletableFuture<Published<T>> first = new CompletableFuture<>();
+        private volatile long lastRead = System.currentTimeMillis();
+
+        /**
+         * 发布快照，只保留版本号较新的一个
+         */
+        private Published<T> publish(Published<T> next) {
+            return published.accumulateAndGet(next,
+                    (current, candidate) -> current == null || candidate.version > current.version ? candidate : current);
+        }
+    }
+
+    /**
+     * 已发布的快照：计算结果、计算前取得的版本号，以及轮次状态对应的 ETag 版本（当前最高轮次为 null）
+     */
+    public static final class Published<T> {
+        private final T value;
+        private final long version;
+        private final CompetitionVersionService.RoundVersion roundVersion;
+
+        private Published(T value, long version, CompetitionVersionService.RoundVersion roundVersion) {
+            this.value = value;
+            this.version = version;
+            this.roundVersion = roundVersion;
+        }
+
+        public T getValue() { return value; }
+        public long getVersion() { return version; }
+        public CompetitionVersionService.RoundVersion getRoundVersion() { return roundVersion; }
+    }
+
+    private static final class StatusKey {
+        private final Long competitionId;
+        private final Integer roundNumber;
+
+        private StatusKey(Long competitionId, Integer roundNumber) {
+            this.competitionId = competitionId;
+            this.roundNumber = roundNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatusKey)) return false;
+            StatusKey other = (StatusKey) o;
+            return Objects.equals(competitionId, other.competitionId) && Objects.equals(roundNumber, other.roundNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(competitionId, roundNumber);
+        }
+
+        @Override
+        public String toString() {
+            return competitionId + ":" + roundNumber;
+        }
+    }
+
+    /**
+     * 内部类：缓存命中统计
+     */
+    public static class CacheStats {
+        private final long hitCount;
+        private final long missCount;
+        private final int size;
+
+        public CacheStats(long hitCount, long missCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.size = size;
+        }
+
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }
+
+        public long getHitCount() { return hitCount; }
+        public long getMissCount() { return missCount; }
+        public int getSize() { return size; }
+    }
+}
@@ -0,0 +1,301 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 比赛数据版本号：比赛成绩、晋级状态、比赛信息以及玩家信息和团队成员的写入更新所属比赛（及轮次）的版本号，
+ * 读取方按版本号判断缓存的比赛状态是否过期，或生成条件请求使用的 ETag 和 Last-Modified
+ *
+ * 版本号保存在 competitions.data_version 列中，在写入事务提交前递增（与写入一起提交或回滚），
+ * 提交后更新本实例内存中的比赛和轮次版本；其他实例的写入由定时轮询发现，按影响全部轮次处理。
+ * 本实例提交的版本号与上次从数据库得知的版本号之间有间隔时，说明中间有其他实例的写入未被轮询到，同样按影响全部轮次处理。
+ * 版本号不随重启变化；轮次的 ETag 由各实例内存中的版本生成，不同实例对同一轮次可能给出不同的 ETag
+ * （切换实例后的条件请求返回完整响应），但不会对过期数据返回304
+ * 版本号更新后发布 RoundChangedEvent，由 StandingsRecomputePipeline 在后台重算比赛状态
+ */
+@Service
+public class CompetitionVersionService implements SmartInitializingSingleton {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private MatchResultSeatRepository matchResultSeatRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private TeamRoundStatusRepository teamRoundStatusRepository;
+
+    // 轮询数据库中版本号的间隔，用于发现其他实例的写入
+    @Value("${mj.version.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final Stamp initialStamp = new Stamp(0L, System.currentTimeMillis());
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "competition-version-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 比赛内任意数据的变化
+    private final ConcurrentHashMap<Long, Stamp> competitionStamps = new ConcurrentHashMap<>();
+    // 影响比赛所有轮次的变化（如比赛信息修改）
+    private final ConcurrentHashMap<Long, Stamp> competitionWideStamps = new ConcurrentHashMap<>();
+    // 某一轮次的变化，键为 比赛ID:轮次号
+    private final ConcurrentHashMap<String, Stamp> roundStamps = new ConcurrentHashMap<>();
+    // 本实例已处理的数据库版本号（本实例的提交和轮询到的版本），用于发现轮询期间被跳过的其他实例的写入
+    private final ConcurrentHashMap<Long, AtomicLong> seenVersions = new ConcurrentHashMap<>();
+    // 本实例已递增版本号但尚未更新内存版本的比赛及其数量
+    private final ConcurrentHashMap<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 全部单例创建完成（数据表已就绪）后载入各比赛的版本号，并开始轮询
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        poll(false);
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll(true);
+            } catch (RuntimeException e) {
+                System.err.println("轮询比赛版本号失败: " + e.getMessage());
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * 获取比赛当前的版本号，没有写入过的比赛为0
+     */
+    public long getVersion(Long competitionId) {
+        return competitionStamps.getOrDefault(competitionId, initialStamp).getVersion();
+    }
+
+    /**
+     * 获取轮次当前的版本：轮次自身的变化和影响全部轮次的变化中较新的一个
+     */
+    public Stamp getRoundStamp(Long competitionId, Integer roundNumber) {
+        Stamp round = roundStamps.getOrDefault(roundKey(competitionId, roundNumber), initialStamp);
+        Stamp wide = competitionWideStamps.getOrDefault(competitionId, initialStamp);
+        return Stamp.newer(round, wide);
+    }
+
+    /**
+     * 获取轮次数据的强 ETag 和 Last-Modified（不访问数据库）
+     */
+    public RoundVersion getRoundVersion(Long competitionId, Integer roundNumber) {
+        Stamp stamp = getRoundStamp(competitionId, roundNumber);
+        String eTag = "\"" + competitionId + "-" + roundNumber + "-" + stamp.getVersion() + "\"";
+        return new RoundVersion(stamp.getVersion(), eTag, stamp.getLastModified());
+    }
+
+    /**
+     * 标记影响比赛所有轮次的变化：处于事务中时在提交前递增版本号、提交后更新（回滚则不变），否则立即更新
+     */
+    public void markChanged(Long competitionId) {
+        mark(competitionId, null);
+    }
+
+    /**
+     * 标记比赛某一轮次的变化，同时更新比赛的版本号
+     */
+    public void markRoundChanged(Long competitionId, Integer roundNumber) {
+        mark(competitionId, roundNumber);
+    }
+
+    /**
+     * 玩家信息（如昵称）变化：标记玩家参加过的全部比赛，包括其所在团队参加的团队赛
+     */
+    public void markPlayerChanged(Long playerId) {
+        Set<Long> competitionIds = new HashSet<>(playerRoundStatusRepository.findCompetitionIdsByPlayerId(playerId));
+        competitionIds.addAll(matchResultSeatRepository.findCompetitionIdsByPlayerId(playerId));
+        List<Long> teamIds = teamMemberRepository.findTeamIdsByPlayerId(playerId);
+        if (!teamIds.isEmpty()) {
+            competitionIds.addAll(teamRoundStatusRepository.findCompetitionIdsByTeamIds(teamIds));
+        }
+        markAll(competitionIds);
+    }
+
+    /**
+     * 团队信息或成员变化：标记团队参加的全部比赛
+     */
+    public void markTeamChanged(Long teamId) {
+        markAll(teamRoundStatusRepository.findCompetitionIdsByTeamIds(List.of(teamId)));
+    }
+
+    private void markAll(Collection<Long> competitionIds) {
+        for (Long competitionId : competitionIds) {
+            markChanged(competitionId);
+        }
+    }
+
+    private void mark(Long competitionId, Integer roundNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.merge(competitionId, 1, Integer::sum);
+            try {
+                apply(competitionId, roundNumber, increment(competitionId));
+            } finally {
+                release(competitionId);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+            private long version;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // 在事务的最后递增，比赛行的锁只持有到提交
+                inFlight.merge(competitionId, 1, Integer::sum);
+                counted = true;
+                version = increment(competitionId);
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(competitionId, roundNumber, version);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (counted) {
+                    release(competitionId);
+                }
+            }
+        });
+    }
+
+    private void release(Long competitionId) {
+        inFlight.computeIfPresent(competitionId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 在当前事务中递增比赛的版本号；比赛已被删除时在本实例内递增
+     */
+    private long increment(Long competitionId) {
+        jdbcTemplate.update("UPDATE competitions SET data_version = data_version + 1 WHERE id = ?", competitionId);
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT data_version FROM competitions WHERE id = ?", Long.class, competitionId);
+        return versions.isEmpty() ? getVersion(competitionId) + 1 : versions.get(0);
+    }
+
+    private void apply(Long competitionId, Integer roundNumber, long version) {
+        Stamp stamp = new Stamp(version, System.currentTimeMillis());
+        long previous = seenVersions.computeIfAbsent(competitionId, id -> new AtomicLong())
+                .getAndAccumulate(version, Math::max);
+        if (version > previous + 1) {
+            // 上次已知的版本之后还有其他写入（其他实例在本实例提交期间的写入），不知道具体轮次
+            roundNumber = null;
+        }
+        if (roundNumber == null) {
+            competitionWideStamps.merge(competitionId, stamp, Stamp::newer);
+        } else {
+            roundStamps.merge(roundKey(competitionId, roundNumber), stamp, Stamp::newer);
+        }
+        competitionStamps.merge(competitionId, stamp, Stamp::newer);
+        eventPublisher.publishEvent(new RoundChangedEvent(competitionId, roundNumber));
+    }
+
+    /**
+     * 读取数据库中的版本号，比本实例已知版本新的比赛按影响全部轮次的变化处理（不知道具体轮次）
+     */
+    private void poll(boolean publish) {
+        jdbcTemplate.query("SELECT id, data_version FROM competitions WHERE data_version > 0", row -> {
+            Long competitionId = row.getLong(1);
+            long version = row.getLong(2);
+            // 本实例正在提交的变化由提交后的回调按轮次更新
+            if (version <= getVersion(competitionId) || inFlight.containsKey(competitionId)) {
+                return;
+            }
+            if (publish) {
+                apply(competitionId, null, version);
+            } else {
+                seenVersions.computeIfAbsent(competitionId, id -> new AtomicLong()).accumulateAndGet(version, Math::max);
+                Stamp stamp = new Stamp(version, initialStamp.getLastModified());
+                competitionWideStamps.merge(competitionId, stamp, Stamp::newer);
+                competitionStamps.merge(competitionId, stamp, Stamp::newer);
+            }
+        });
+    }
+
+    private static String roundKey(Long competitionId, Integer roundNumber) {
+        return competitionId + ":" + roundNumber;
+    }
+
+    /**
+     * 内部类：版本号和变化时间（毫秒），没有变化记录时为0和启动时间
+     */
+    public static class Stamp {
+        private final long version;
+        private final long lastModified;
+
+        public Stamp(long version, long lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * 并发提交时版本号只前进不后退
+         */
+        static Stamp newer(Stamp a, Stamp b) {
+            return a.version >= b.version ? a : b;
+        }
+
+        public long getVersion() { return version; }
+        public long getLastModified() { return lastModified; }
+    }
+
+    /**
+     * 内部类：条件请求使用的轮次版本
+     */
+    public static class RoundVersion {
+        private final long version;
+        private final String eTag;
+        private final long lastModified;
+
+        public RoundVersion(long version, String eTag, long lastModified) {
+            this.version = version;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        public long getVersion() { return version; }
+        public String getETag() { return eTag; }
+        public long getLastModified() { return lastModified; }
+    }
+}
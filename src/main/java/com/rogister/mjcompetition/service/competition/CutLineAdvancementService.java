@@ -0,0 +1,274 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest.TieBreaker;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementResult;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.RoundPlayerStandingRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 按晋级线晋级：从轮次积分榜计算晋级名单，晋级玩家经批量晋级写入目标轮次，其余玩家在该轮次被淘汰
+ *
+ * 前N名和前百分之X用大小为N的堆选出第N名（O(n log N)，不对全部玩家排序），再一次遍历取出
+ * 不低于第N名的玩家，因此与晋级线完全同分的玩家一同晋级。PT按四舍五入到0.1的定点数比较，累加产生的浮点误差不影响排名。
+ * 只支持个人赛
+ */
+@Service
+public class CutLineAdvancementService {
+
+    private static final List<TieBreaker> DEFAULT_TIE_BREAKERS = List.of(
+            TieBreaker.AVERAGE_POSITION, TieBreaker.FIRST_PLACE_COUNT, TieBreaker.SCORE_TOTAL);
+
+    // 百分比名额取整时容许浮点误差
+    private static final double EPSILON = 1e-9;
+
+    @Autowired
+    private AdvancementService advancementService;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private RoundPlayerStandingRepository roundPlayerStandingRepository;
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    /**
+     * 计算晋级线并晋级；preview 为 true 时只返回计算结果，不写入
+     */
+    @Transactional
+    public CutLineAdvancementResult advancePlayers(CutLineAdvancementRequest request, boolean preview) {
+        Long competitionId = request.getCompetitionId();
+        Integer roundNumber = request.getRoundNumber();
+        if (competitionId == null || roundNumber == null || request.getRule() == null || request.getValue() == null) {
+            throw new RuntimeException("比赛ID、轮次号、晋级规则和规则参数不能为空");
+        }
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+        if (competition.getCompetitionType() == Competition.CompetitionType.TEAM) {
+            throw new RuntimeException("按晋级线晋级只支持个人赛，团体赛请按队伍指定晋级");
+        }
+        Integer targetRound = request.getTargetRound() != null ? request.getTargetRound() : roundNumber + 1;
+        if (targetRound <= roundNumber) {
+            throw new RuntimeException("目标轮次必须大于第" + roundNumber + "轮");
+        }
+        Integer currentMaxRound = advancementService.getCurrentMaxRound(competitionId);
+        if (targetRound <= currentMaxRound) {
+            throw new RuntimeException("目标轮次必须超过当前最高轮次: " + currentMaxRound);
+        }
+
+        // 该轮次未被淘汰的玩家参与计算，没有成绩的玩家按零分计
+        Map<Long, RoundPlayerStanding> standings = new HashMap<>();
+        for (RoundPlayerStanding standing : roundPlayerStandingRepository.findByCompetitionIdAndRoundNumber(competitionId, roundNumber)) {
+            standings.put(standing.getPlayer().getId(), standing);
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (PlayerRoundStatus roundStatus : playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competitionId, roundNumber)) {
+            if (!Boolean.TRUE.equals(roundStatus.getIsEliminated())) {
+                RoundPlayerStanding standing = standings.get(roundStatus.getPlayer().getId());
+                candidates.add(new Candidate(roundStatus, standing != null
+                        ? standing : new RoundPlayerStanding(competitionId, roundNumber, roundStatus.getPlayer())));
+            }
+        }
+
+        Comparator<Candidate> order = ranking(request.getTieBreakers());
+        List<Candidate> advanced = select(candidates, request, order);
+        Set<Candidate> advancedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        advancedSet.addAll(advanced);
+        List<Candidate> eliminated = new ArrayList<>(candidates.size() - advanced.size());
+        for (Candidate candidate : candidates) {
+            if (!advancedSet.contains(candidate)) {
+                eliminated.add(candidate);
+            }
+        }
+        // 只对晋级玩家排序
+        advanced.sort(order);
+
+        CutLineAdvancementResult result = new CutLineAdvancementResult();
+        result.setPreview(preview);
+        result.setTargetRound(targetRound);
+        result.setCandidateCount(candidates.size());
+        for (Candidate candidate : advanced) {
+            result.getAdvanced().add(candidate.toEntry());
+        }
+        for (Candidate candidate : eliminated) {
+            result.getEliminated().add(candidate.toEntry());
+        }
+        if (!advanced.isEmpty()) {
+            Candidate last = advanced.get(advanced.size() - 1);
+            result.setCutLine(last.toEntry());
+            Integer quota = quota(request, candidates.size());
+            if (quota != null && advanced.size() > quota) {
+                result.setTiedAtCut(advanced.size() - quota);
+            }
+        }
+        if (preview) {
+            return result;
+        }
+
+        if (advanced.isEmpty()) {
+            throw new RuntimeException("没有玩家满足晋级条件");
+        }
+        List<Long> advancedIds = new ArrayList<>(advanced.size());
+        for (Candidate candidate : advanced) {
+            advancedIds.add(candidate.roundStatus.getPlayer().getId());
+        }
+        advancementService.advancePlayersToRound(competitionId, advancedIds, targetRound, request.getInitialScore());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PlayerRoundStatus> eliminatedStatuses = new ArrayList<>(eliminated.size());
+        for (Candidate candidate : eliminated) {
+            PlayerRoundStatus roundStatus = candidate.roundStatus;
+            roundStatus.setStatus(PlayerRoundStatus.RoundStatus.ELIMINATED);
+            roundStatus.setIsEliminated(true);
+            roundStatus.setEliminationTime(now);
+            roundStatus.setUpdatedAt(now);
+            eliminatedStatuses.add(roundStatus);
+        }
+        playerRoundStatusRepository.saveAll(eliminatedStatuses);
+        competitionVersionService.markRoundChanged(competitionId, roundNumber);
+        return result;
+    }
+
+    /**
+     * 按规则选出晋级玩家（未排序）
+     */
+    private List<Candidate> select(List<Candidate> candidates, CutLineAdvancementRequest request, Comparator<Candidate> order) {
+        if (request.getRule() == CutLineAdvancementRequest.CutRule.PT_THRESHOLD) {
+            // 分数线换算为0.1PT单位，向上取整：PT不低于分数线即晋级
+            long thresholdTenths = (long) Math.ceil(request.getValue() * 10 - EPSILON);
+            List<Candidate> selected = new ArrayList<>();
+            for (Candidate candidate : candidates) {
+                if (candidate.ptTenths >= thresholdTenths) {
+                    selected.add(candidate);
+                }
+            }
+            return selected;
+        }
+        return selectTop(candidates, quota(request, candidates.size()), order);
+    }
+
+    /**
+     * 前N名和前百分之X的晋级名额，PT分数线规则没有名额
+     */
+    private static Integer quota(CutLineAdvancementRequest request, int candidateCount) {
+        double value = request.getValue();
+        switch (request.getRule()) {
+            case TOP_N:
+                if (value < 1 || value != Math.floor(value)) {
+                    throw new RuntimeException("晋级人数必须为正整数");
+                }
+                return (int) value;
+            case TOP_PERCENT:
+                if (value <= 0 || value > 100) {
+                    throw new RuntimeException("晋级百分比必须在0到100之间");
+                }
+                return (int) Math.ceil(candidateCount * value / 100.0 - EPSILON);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 选出按 order 排名前 k 的元素，与第 k 名比较相等的元素一并选出；结果保持 items 中的顺序
+     * 用大小为 k 的堆（堆顶为当前前 k 名中最差者）找出第 k 名，不对全部元素排序
+     */
+    public static <T> List<T> selectTop(List<T> items, int k, Comparator<? super T> order) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        if (k >= items.size()) {
+            return new ArrayList<>(items);
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(k, order.reversed());
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        T cutLine = heap.peek();
+        List<T> selected = new ArrayList<>(k);
+        for (T item : items) {
+            if (order.compare(item, cutLine) <= 0) {
+                selected.add(item);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 排名顺序：PT从高到低，相同时依次按 tieBreakers 比较
+     */
+    private static Comparator<Candidate> ranking(List<TieBreaker> tieBreakers) {
+        Comparator<Candidate> order = Comparator.comparingLong((Candidate c) -> c.ptTenths).reversed();
+        for (TieBreaker tieBreaker : tieBreakers != null ? tieBreakers : DEFAULT_TIE_BREAKERS) {
+            switch (tieBreaker) {
+                case AVERAGE_POSITION:
+                    order = order.thenComparingDouble(c -> c.averagePosition);
+                    break;
+                case FIRST_PLACE_COUNT:
+                    order = order.thenComparing((a, b) -> Integer.compare(
+                            b.standing.getFirstPlaceCount(), a.standing.getFirstPlaceCount()));
+                    break;
+                case SCORE_TOTAL:
+                    order = order.thenComparing((a, b) -> Integer.compare(
+                            b.standing.getScoreTotal(), a.standing.getScoreTotal()));
+                    break;
+                case PENALTY_TOTAL:
+                    order = order.thenComparingInt(c -> c.standing.getPenaltyTotal());
+                    break;
+                case MATCH_COUNT:
+                    order = order.thenComparing((a, b) -> Integer.compare(
+                            b.standing.getMatchCount(), a.standing.getMatchCount()));
+                    break;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 参与计算的玩家：轮次状态和积分榜记录
+     */
+    private static final class Candidate {
+        private final PlayerRoundStatus roundStatus;
+        private final RoundPlayerStanding standing;
+        // PT总分，以0.1PT为单位
+        private final long ptTenths;
+        private final double averagePosition;
+
+        Candidate(PlayerRoundStatus roundStatus, RoundPlayerStanding standing) {
+            this.roundStatus = roundStatus;
+            this.standing = standing;
+            this.ptTenths = Math.round(standing.getPtTotal() * 10);
+            int matchCount = standing.getMatchCount();
+            // 未参赛的玩家平均顺位视为最差
+            this.averagePosition = matchCount > 0
+                    ? (standing.getFirstPlaceCount() + standing.getSecondPlaceCount() * 2.0
+                    + standing.getThirdPlaceCount() * 3.0 + standing.getFourthPlaceCount() * 4.0) / matchCount
+                    : Double.MAX_VALUE;
+        }
+
+        CutLineAdvancementResult.Entry toEntry() {
+            return new CutLineAdvancementResult.Entry(roundStatus.getPlayer().getId(), roundStatus.getPlayer().getUsername(),
+                    standing.getPtTotal(), standing.getMatchCount(),
+                    standing.getMatchCount() > 0 ? averagePosition : null);
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.competition.LeaderboardDelta;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import com.rogister.mjcompetition.repository.competition.RoundPlayerStandingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 轮次排行榜推送：比赛成绩提交后，在合并窗口结束时读取一次轮次积分榜，与上一次推送的排行榜比较，
+ * 只把总分或排名变化的玩家作为一个事件推送给该轮次的全部订阅者
+ *
+ * 每个订阅者有独立的有界发送队列，队列满或单次发送超过 send-timeout-ms 时断开该订阅者，由客户端携带 Last-Event-ID 重连后补发；
+ * 每个轮次保留最近的若干事件用于补发，更早的事件ID或服务重启前的事件ID改为推送完整排行榜
+ */
+@Service
+public class LeaderboardStreamService {
+
+    public static final String EVENT_SNAPSHOT = "snapshot";
+    public static final String EVENT_DELTA = "delta";
+
+    // 事件ID前缀，区分不同的频道实例（服务重启或频道重建后旧ID失效）
+    private static final AtomicLong EPOCH = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    private RoundPlayerStandingRepository standingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${mj.leaderboard-stream.coalesce-window-ms:500}")
+    private long coalesceWindowMs;
+
+    @Value("${mj.leaderboard-stream.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${mj.leaderboard-stream.history-size:128}")
+    private int historySize;
+
+    @Value("${mj.leaderboard-stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${mj.leaderboard-stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${mj.leaderboard-stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final ConcurrentHashMap<String, RoundChannel> channels = new ConcurrentHashMap<>();
+
+    // 正在发送事件的订阅者（包括发送期间已断开的订阅者）
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("leaderboard-flush"));
+        senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("leaderboard-send"));
+        scheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkInterval = Math.max(sendTimeoutMs / 2, 1);
+        scheduler.scheduleAtFixedRate(this::dropSlowSubscribers, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (RoundChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * 订阅轮次排行榜。lastEventId 为空或已无法补发时先推送完整排行榜，否则补发其后的事件
+     */
+    public Subscriber subscribe(Long competitionId, Integer roundNumber, String lastEventId, EventSink sink) {
+        String key = channelKey(competitionId, roundNumber);
+        while (true) {
+            RoundChannel channel = channels.computeIfAbsent(key, k -> new RoundChannel(competitionId, roundNumber));
+            synchronized (channel) {
+                if (channel.closed) {
+                    continue;
+                }
+                if (channel.standings == null) {
+                    channel.standings = loadStandings(competitionId, roundNumber);
+                }
+
+                Subscriber subscriber = new Subscriber(channel, sink);
+                channel.subscribers.add(subscriber);
+                List<Event> replay = channel.replayAfter(lastEventId);
+                if (replay == null || replay.size() >= bufferSize) {
+                    subscriber.offer(snapshotEvent(channel));
+                } else {
+                    for (Event event : replay) {
+                        subscriber.offer(event);
+                    }
+                }
+                return subscriber;
+            }
+        }
+    }
+
+    /**
+     * 标记轮次的比赛成绩已变化：处于事务中时在提交后触发，合并窗口内的多次变化只推送一次
+     */
+    public void publishRoundChanged(Long competitionId, Integer roundNumber) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleFlush(competitionId, roundNumber);
+                }
+            });
+        } else {
+            scheduleFlush(competitionId, roundNumber);
+        }
+    }
+
+    /**
+     * 当前订阅者数量
+     */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (RoundChannel channel : channels.values()) {
+            count += channel.subscribers.size();
+        }
+        return count;
+    }
+
+    private void scheduleFlush(Long competitionId, Integer roundNumber) {
+        RoundChannel channel = channels.get(channelKey(competitionId, roundNumber));
+        if (channel != null && channel.flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> flush(channel), coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 读取积分榜并推送变化。先清除调度标记，读取期间到达的变化会再安排一次推送
+     */
+    private void flush(RoundChannel channel) {
+        channel.flushScheduled.set(false);
+        try {
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty()) {
+                    // 没有订阅者时释放频道，之后的订阅重新加载排行榜
+                    channel.closed = true;
+                    channels.remove(channelKey(channel.competitionId, channel.roundNumber), channel);
+                    return;
+                }
+
+                List<LeaderboardDelta.StandingChange> standings = loadStandings(channel.competitionId, channel.roundNumber);
+                Event event = deltaEvent(channel, standings);
+                channel.standings = standings;
+                if (event == null) {
+                    return;
+                }
+
+                channel.history.addLast(event);
+                while (channel.history.size() > historySize) {
+                    channel.history.removeFirst();
+                }
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offer(event);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("推送轮次排行榜失败: " + e.getMessage());
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (RoundChannel channel : channels.values()) {
+            if (channel.subscribers.isEmpty()) {
+                synchronized (channel) {
+                    if (channel.subscribers.isEmpty()) {
+                        channel.closed = true;
+                        channels.remove(channelKey(channel.competitionId, channel.roundNumber), channel);
+                    }
+                }
+                continue;
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(Event.HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * 断开单次发送超时的订阅者，避免慢客户端长期占用发送线程
+     */
+    private void dropSlowSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : sending) {
+            long sendStartedAt = subscriber.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutMs) {
+                subscriber.timeOut();
+            }
+        }
+    }
+
+    /**
+     * 读取轮次积分榜并按总分、平均顺位排名
+     */
+    private List<LeaderboardDelta.StandingChange> loadStandings(Long competitionId, Integer roundNumber) {
+        List<MatchResultService.PlayerRoundRanking> rankings = new ArrayList<>();
+        for (RoundPlayerStanding standing : standingRepository.findWithPlayerByCompetitionIdAndRoundNumber(competitionId, roundNumber)) {
+            rankings.add(MatchResultService.PlayerRoundRanking.fromStanding(standing, null));
+        }
+        rankings.sort(MatchResultService.PlayerRoundRanking::compareTo);
+
+        List<LeaderboardDelta.StandingChange> standings = new ArrayList<>(rankings.size());
+        for (int i = 0; i < rankings.size(); i++) {
+            MatchResultService.PlayerRoundRanking ranking = rankings.get(i);
+            standings.add(new LeaderboardDelta.StandingChange(ranking.getPlayer().getId(), ranking.getPlayerName(),
+                    ranking.getTotalActualPoints(), ranking.getMatchCount(), i + 1, null));
+        }
+        return standings;
+    }
+
+    private Event snapshotEvent(RoundChannel channel) {
+        LeaderboardDelta delta = new LeaderboardDelta(channel.competitionId, channel.roundNumber, EVENT_SNAPSHOT,
+                channel.standings, List.of());
+        return new Event(channel.currentEventId(), EVENT_SNAPSHOT, toJson(delta));
+    }
+
+    /**
+     * 与上一次推送的排行榜比较，没有变化时返回空
+     */
+    private Event deltaEvent(RoundChannel channel, List<LeaderboardDelta.StandingChange> standings) {
+        Map<Long, LeaderboardDelta.StandingChange> previous = new HashMap<>();
+        for (LeaderboardDelta.StandingChange standing : channel.standings) {
+            previous.put(standing.getPlayerId(), standing);
+        }
+
+        List<LeaderboardDelta.StandingChange> changes = new ArrayList<>();
+        for (LeaderboardDelta.StandingChange standing : standings) {
+            LeaderboardDelta.StandingChange before = previous.remove(standing.getPlayerId());
+            if (before == null) {
+                changes.add(standing);
+            } else if (!before.getRank().equals(standing.getRank())
+                    || !before.getTotalPoints().equals(standing.getTotalPoints())
+                    || !before.getMatchCount().equals(standing.getMatchCount())) {
+                changes.add(new LeaderboardDelta.StandingChange(standing.getPlayerId(), standing.getPlayerName(),
+                        standing.getTotalPoints(), standing.getMatchCount(), standing.getRank(), before.getRank()));
+            }
+        }
+        if (changes.isEmpty() && previous.isEmpty()) {
+            return null;
+        }
+
+        LeaderboardDelta delta = new LeaderboardDelta(channel.competitionId, channel.roundNumber, EVENT_DELTA,
+                changes, new ArrayList<>(previous.keySet()));
+        return new Event(channel.nextEventId(), EVENT_DELTA, toJson(delta));
+    }
+
+    private String toJson(LeaderboardDelta delta) {
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化排行榜事件失败", e);
+        }
+    }
+
+    private static String channelKey(Long competitionId, Integer roundNumber) {
+        return competitionId + ":" + roundNumber;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 事件发送目标，由控制器适配为 SseEmitter
+     */
+    public interface EventSink {
+        /**
+         * 发送一个事件；id 和 name 为空时表示心跳注释
+         */
+        void send(String id, String name, String data) throws IOException;
+
+        void close();
+    }
+
+    /**
+     * 已序列化的事件，同一事件的数据在所有订阅者之间共享
+     */
+    static final class Event {
+        static final Event HEARTBEAT = new Event(null, null, null);
+
+        final String id;
+        final String name;
+        final String data;
+
+        Event(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    /**
+     * 轮次频道：上一次推送的排行榜、最近的事件和订阅者，状态变更都在频道锁内进行
+     */
+    private final class RoundChannel {
+        private final Long competitionId;
+        private final Integer roundNumber;
+        private final long epoch = EPOCH.incrementAndGet();
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Deque<Event> history = new ArrayDeque<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private List<LeaderboardDelta.StandingChange> standings;
+        private long sequence;
+        private boolean closed;
+
+        private RoundChannel(Long competitionId, Integer roundNumber) {
+            this.competitionId = competitionId;
+            this.roundNumber = roundNumber;
+        }
+
+        private String currentEventId() {
+            return epoch + "-" + sequence;
+        }
+
+        private String nextEventId() {
+            sequence++;
+            return currentEventId();
+        }
+
+        /**
+         * 返回 lastEventId 之后的事件；ID 不属于本频道或已超出保留范围时返回空
+         */
+        private List<Event> replayAfter(String lastEventId) {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return null;
+            }
+            int separator = lastEventId.indexOf('-');
+            long lastSequence;
+            try {
+                if (separator < 0 || Long.parseLong(lastEventId.substring(0, separator)) != epoch) {
+                    return null;
+                }
+                lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            long oldestSequence = sequence - history.size() + 1;
+            if (lastSequence > sequence || lastSequence + 1 < oldestSequence) {
+                return null;
+            }
+            List<Event> replay = new ArrayList<>();
+            long eventSequence = oldestSequence;
+            for (Event event : history) {
+                if (eventSequence > lastSequence) {
+                    replay.add(event);
+                }
+                eventSequence++;
+            }
+            return replay;
+        }
+    }
+
+    /**
+     * 订阅者：有界发送队列，由发送线程池按顺序发送
+     *
+     * 发送过程中关闭时，连接由发送线程在发送返回后关闭，关闭连接不会等待被阻塞的发送
+     */
+    public final class Subscriber {
+        private final RoundChannel channel;
+        private final EventSink sink;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean sinkClosed = new AtomicBoolean();
+        // 正在进行的发送的开始时间和发送线程，未在发送时为0和null
+        private volatile long sendStartedAt;
+        private Thread sendingThread;
+
+        private Subscriber(RoundChannel channel, EventSink sink) {
+            this.channel = channel;
+            this.sink = sink;
+        }
+
+        private void offer(Event event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // 客户端跟不上推送速度，断开后由客户端携带 Last-Event-ID 重连补发
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    startSend();
+                    try {
+                        sink.send(event.id, event.name, event.data);
+                    } finally {
+                        finishSend();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                closeSink();
+                return;
+            }
+            // 释放发送标记后仍有新事件入队时继续发送
+            if (!closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private synchronized void startSend() {
+            sendingThread = Thread.currentThread();
+            sendStartedAt = System.currentTimeMillis();
+            sending.add(this);
+        }
+
+        private void finishSend() {
+            synchronized (this) {
+                sendingThread = null;
+                sendStartedAt = 0;
+            }
+            sending.remove(this);
+            // 清除超时断开时设置的中断标记，不影响线程池中的后续任务
+            Thread.interrupted();
+        }
+
+        /**
+         * 发送超时：断开订阅者并中断被阻塞的发送线程
+         */
+        private void timeOut() {
+            close();
+            synchronized (this) {
+                if (sendingThread != null) {
+                    sendingThread.interrupt();
+                }
+            }
+        }
+
+        /**
+         * 取消订阅并关闭连接
+         */
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            channel.subscribers.remove(this);
+            queue.clear();
+            if (sendStartedAt == 0) {
+                closeSink();
+            }
+        }
+
+        private void closeSink() {
+            if (!sinkClosed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sink.close();
+            } catch (RuntimeException ignored) {
+                // 连接可能已由客户端关闭
+            }
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+    }
+}
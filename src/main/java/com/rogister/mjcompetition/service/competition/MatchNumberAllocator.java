@@ -0,0 +1,113 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.entity.competition.MatchNumberSequence;
+import com.rogister.mjcompetition.repository.competition.MatchNumberSequenceRepository;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按（比赛、轮次）分配比赛编号（hi/lo）
+ *
+ * 每个实例从 match_number_sequences 表中锁定预留一段编号（mj.match-number.block-size 个），
+ * 之后在内存中用原子计数器分配，用完再预留下一段。多个实例、重启后分配的编号都不会重复；
+ * 已预留但未使用的编号会被跳过，编号连续但不保证没有间隔；预留后不经分配器直接录入的编号在分配时跳过
+ */
+@Service
+public class MatchNumberAllocator {
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    @Autowired
+    private MatchNumberSequenceRepository matchNumberSequenceRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${mj.match-number.block-size:20}")
+    private int blockSize;
+
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> reserveLocks = new ConcurrentHashMap<>();
+
+    // 预留编号在独立事务中提交，不受调用方事务回滚影响
+    private TransactionTemplate reserveTransaction;
+
+    @PostConstruct
+    void init() {
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 分配下一个比赛编号
+     */
+    public int allocate(Long competitionId, Integer roundNumber) {
+        String key = competitionId + ":" + roundNumber;
+        while (true) {
+            Block block = blocks.get(key);
+            if (block != null) {
+                int number = block.next.getAndIncrement();
+                if (number < block.limit) {
+                    if (matchResultRepository.existsMatchNumber(competitionId, roundNumber, number)) {
+                        continue;
+                    }
+                    return number;
+                }
+            }
+            // 当前段已用完，同一轮次只由一个线程预留下一段
+            synchronized (reserveLocks.computeIfAbsent(key, k -> new Object())) {
+                if (blocks.get(key) == block) {
+                    blocks.put(key, reserve(competitionId, roundNumber));
+                }
+            }
+        }
+    }
+
+    private Block reserve(Long competitionId, Integer roundNumber) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reserveTransaction.execute(status -> {
+                    MatchNumberSequence sequence = matchNumberSequenceRepository.findForUpdate(competitionId, roundNumber)
+                            .orElseGet(() -> new MatchNumberSequence(competitionId, roundNumber, 1));
+                    // 跳过不经分配器直接录入的编号
+                    Integer maxMatchNumber = matchResultRepository.findMaxMatchNumber(competitionId, roundNumber);
+                    int start = Math.max(sequence.getNextValue(), maxMatchNumber != null ? maxMatchNumber + 1 : 1);
+                    sequence.setNextValue(start + blockSize);
+                    matchNumberSequenceRepository.saveAndFlush(sequence);
+                    return new Block(start, start + blockSize);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // 其他实例同时创建了该轮次的序列，重新锁定读取
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw new RuntimeException("预留比赛编号失败: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 本实例预留的一段编号 [next, limit)
+     */
+    private static final class Block {
+        private final AtomicInteger next;
+        private final int limit;
+
+        Block(int start, int limit) {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rogister.mjcompetition.service.competition;
+
+/**
+ * 比赛编号与同一轮次已有的比赛成绩重复：由数据库唯一约束检测，并发提交同一场比赛时只有一个请求成功
+ */
+public class MatchNumberConflictException extends RuntimeException {
+
+    public MatchNumberConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,59 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 座位顺位回填：为保存顺位之前写入的比赛记录批量补齐 east/south/west/north_placement
+ * 需先于轮次积分榜重建执行，积分榜汇总直接读取保存的顺位
+ */
+@Service
+@Order(1)
+public class MatchPlacementBackfillService implements CommandLineRunner {
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${mj.placement-backfill.batch-size:5000}")
+    private int batchSize;
+
+    /**
+     * 应用启动时，存在未保存顺位的比赛记录则执行回填
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        long missing = matchResultRepository.countMissingPlacements();
+        if (missing > 0) {
+            System.out.println("正在回填比赛座位顺位，待处理记录: " + missing);
+            int updated = backfill();
+            System.out.println("比赛座位顺位回填完成，共更新 " + updated + " 条记录");
+        }
+    }
+
+    /**
+     * 按ID区间分批回填座位顺位，每批单独提交，返回更新的记录数
+     */
+    public int backfill() {
+        Long maxId = matchResultRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+
+        int updated = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            long from = fromId;
+            long to = fromId + batchSize - 1;
+            Integer count = transactionTemplate.execute(status -> matchResultRepository.backfillPlacements(from, to));
+            updated += count != null ? count : 0;
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,223 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.dto.match.MatchResultBatchReport;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchRequest;
+import com.rogister.mjcompetition.dto.match.MatchResultCreateRequest;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * 批量录入一轮的比赛成绩
+ *
+ * 轮次是否允许录入只检查一次；玩家、参赛资格和比赛编号是否已存在各用一条 IN 查询批量获取，
+ * 之后逐行在内存中校验。任意一行有误时整批不写入并返回逐行错误；全部通过时在同一事务中批量写入
+ */
+@Service
+public class MatchResultBatchService {
+
+    private static final String[] POSITIONS = {"东家", "南家", "西家", "北家"};
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Value("${mj.match-result-batch.max-rows:500}")
+    private int maxRows;
+
+    /**
+     * 校验并写入成绩表，dryRun 为 true 时只校验不写入
+     * 请求整体无效（比赛不存在、轮次不允许录入等）时抛出异常，行内错误记录在返回结果中
+     */
+    @Transactional
+    public MatchResultBatchReport ingest(MatchResultBatchRequest request, boolean dryRun) {
+        if (request.getCompetitionId() == null) {
+            throw new RuntimeException("比赛ID不能为空");
+        }
+        if (request.getRoundNumber() == null) {
+            throw new RuntimeException("轮次编号不能为空");
+        }
+        List<MatchResultCreateRequest> rows = request.getMatches();
+        if (rows == null || rows.isEmpty()) {
+            throw new RuntimeException("成绩表不能为空");
+        }
+        if (rows.size() > maxRows) {
+            throw new RuntimeException("单次最多录入" + maxRows + "场比赛，当前: " + rows.size());
+        }
+
+        Long competitionId = request.getCompetitionId();
+        Integer roundNumber = request.getRoundNumber();
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+
+        // 整批只验证一次轮次是否允许录入成绩
+        matchResultService.validateRoundForResultEntry(competition, roundNumber);
+
+        Set<Long> playerIds = new HashSet<>();
+        Set<Integer> matchNumbers = new HashSet<>();
+        for (MatchResultCreateRequest row : rows) {
+            if (row == null) {
+                continue;
+            }
+            for (Long playerId : seatPlayerIds(row)) {
+                if (playerId != null) {
+                    playerIds.add(playerId);
+                }
+            }
+            if (row.getMatchNumber() != null) {
+                matchNumbers.add(row.getMatchNumber());
+            }
+        }
+
+        Map<Long, Player> players = new HashMap<>();
+        Set<Long> eligiblePlayerIds = new HashSet<>();
+        if (!playerIds.isEmpty()) {
+            for (Player player : playerRepository.findAllById(playerIds)) {
+                players.put(player.getId(), player);
+            }
+            if (competition.getCompetitionType() == Competition.CompetitionType.INDIVIDUAL) {
+                eligiblePlayerIds.addAll(playerRoundStatusRepository.findEligiblePlayerIds(competitionId, roundNumber, playerIds));
+            } else if (competition.getCompetitionType() == Competition.CompetitionType.TEAM) {
+                eligiblePlayerIds.addAll(teamMemberRepository.findEligibleRoundPlayerIds(competitionId, roundNumber, playerIds));
+            }
+        }
+        Set<Integer> existingMatchNumbers = matchNumbers.isEmpty() ? Set.of()
+                : new HashSet<>(matchResultRepository.findExistingMatchNumbers(competitionId, roundNumber, matchNumbers));
+
+        MatchResultBatchReport report = new MatchResultBatchReport(dryRun, rows.size());
+        Map<Integer, Integer> rowByMatchNumber = new HashMap<>();
+        List<MatchResult> matchResults = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            int rowNumber = i + 1;
+            MatchResultCreateRequest row = rows.get(i);
+            if (row == null) {
+                report.addError(rowNumber, null, "比赛成绩不能为空");
+                continue;
+            }
+            int errorCount = report.getErrors().size();
+            Integer matchNumber = row.getMatchNumber();
+
+            if (row.getCompetitionId() != null && !row.getCompetitionId().equals(competitionId)) {
+                report.addError(rowNumber, matchNumber, "比赛ID与成绩表不一致: " + row.getCompetitionId());
+            }
+            if (row.getRoundNumber() != null && !row.getRoundNumber().equals(roundNumber)) {
+                report.addError(rowNumber, matchNumber, "轮次编号与成绩表不一致: " + row.getRoundNumber());
+            }
+
+            if (matchNumber == null) {
+                report.addError(rowNumber, null, "比赛编号不能为空");
+            } else if (existingMatchNumbers.contains(matchNumber)) {
+                report.addError(rowNumber, matchNumber, "该轮次的比赛编号已存在: " + matchNumber);
+            } else {
+                Integer firstRow = rowByMatchNumber.putIfAbsent(matchNumber, rowNumber);
+                if (firstRow != null) {
+                    report.addError(rowNumber, matchNumber, "比赛编号与第" + firstRow + "行重复: " + matchNumber);
+                }
+            }
+
+            Long[] seatPlayerIds = seatPlayerIds(row);
+            Integer[] seatScores = {row.getEastScore(), row.getSouthScore(), row.getWestScore(), row.getNorthScore()};
+            Player[] seatPlayers = new Player[POSITIONS.length];
+            boolean scoresPresent = true;
+            for (int seat = 0; seat < POSITIONS.length; seat++) {
+                Long playerId = seatPlayerIds[seat];
+                if (playerId == null) {
+                    report.addError(rowNumber, matchNumber, POSITIONS[seat] + "玩家ID不能为空");
+                } else if (!players.containsKey(playerId)) {
+                    report.addError(rowNumber, matchNumber, POSITIONS[seat] + "玩家不存在，ID: " + playerId);
+                } else if (!eligiblePlayerIds.contains(playerId)) {
+                    report.addError(rowNumber, matchNumber, ineligibleMessage(POSITIONS[seat], players.get(playerId),
+                            competition, roundNumber));
+                } else {
+                    seatPlayers[seat] = players.get(playerId);
+                }
+                if (seatScores[seat] == null) {
+                    report.addError(rowNumber, matchNumber, POSITIONS[seat] + "得分不能为空");
+                    scoresPresent = false;
+                }
+            }
+            if (scoresPresent) {
+                int totalScore = seatScores[0] + seatScores[1] + seatScores[2] + seatScores[3];
+                if (totalScore != 100000) {
+                    report.addError(rowNumber, matchNumber, "四人成绩总和必须为100000分，当前总和: " + totalScore);
+                }
+            }
+
+            if (report.getErrors().size() == errorCount) {
+                matchResults.add(toMatchResult(row, competition, roundNumber, seatPlayers));
+            }
+        }
+
+        // 任意一行有误或只校验时不写入
+        if (!report.isValid() || dryRun) {
+            return report;
+        }
+
+        matchResultService.createMatchResults(competition, roundNumber, matchResults);
+        report.setInserted(matchResults.size());
+        return report;
+    }
+
+    private static Long[] seatPlayerIds(MatchResultCreateRequest row) {
+        return new Long[]{row.getEastPlayerId(), row.getSouthPlayerId(), row.getWestPlayerId(), row.getNorthPlayerId()};
+    }
+
+    private static String ineligibleMessage(String position, Player player, Competition competition, Integer roundNumber) {
+        String competitionTypeStr = competition.getCompetitionType() == Competition.CompetitionType.TEAM ? "团队赛" : "个人赛";
+        return position + "玩家(ID:" + player.getId() + ", 姓名:" + player.getNickname()
+                + ")没有资格参加第" + roundNumber + "轮" + competitionTypeStr + "比赛";
+    }
+
+    private static MatchResult toMatchResult(MatchResultCreateRequest row, Competition competition, Integer roundNumber,
+                                             Player[] seatPlayers) {
+        MatchResult matchResult = new MatchResult();
+        matchResult.setCompetition(competition);
+        matchResult.setRoundNumber(roundNumber);
+        matchResult.setMatchNumber(row.getMatchNumber());
+        matchResult.setMatchName(row.getMatchName());
+
+        matchResult.setEastPlayer(seatPlayers[0]);
+        matchResult.setEastScore(row.getEastScore());
+        matchResult.setEastPenalty(row.getEastPenalty() != null ? row.getEastPenalty() : 0);
+
+        matchResult.setSouthPlayer(seatPlayers[1]);
+        matchResult.setSouthScore(row.getSouthScore());
+        matchResult.setSouthPenalty(row.getSouthPenalty() != null ? row.getSouthPenalty() : 0);
+
+        matchResult.setWestPlayer(seatPlayers[2]);
+        matchResult.setWestScore(row.getWestScore());
+        matchResult.setWestPenalty(row.getWestPenalty() != null ? row.getWestPenalty() : 0);
+
+        matchResult.setNorthPlayer(seatPlayers[3]);
+        matchResult.setNorthScore(row.getNorthScore());
+        matchResult.setNorthPenalty(row.getNorthPenalty() != null ? row.getNorthPenalty() : 0);
+
+        matchResult.setRemarks(row.getRemarks());
+        return matchResult;
+    }
+}
@@ -0,0 +1,248 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 比赛成绩导出：以前向游标逐行读取整场比赛的比赛记录，直接写入输出流（NDJSON 或 CSV）
+ *
+ * 玩家昵称在同一查询中连接读取（游标打开期间不在同一连接上执行其他查询，否则部分驱动会先把剩余结果全部读入内存），
+ * 读取过程中定期清空持久化上下文，内存占用与比赛记录数量无关
+ */
+@Service
+public class MatchResultExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final String[] SEAT_PREFIXES = {"east", "south", "west", "north"};
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${mj.export.clear-interval:1000}")
+    private int clearInterval;
+
+    /**
+     * 将比赛的全部比赛记录按轮次号、比赛编号顺序写入输出流，返回导出的记录数
+     * 输出流由调用方关闭
+     */
+    @Transactional(readOnly = true)
+    public long export(Long competitionId, String format, OutputStream out) throws IOException {
+        RowWriter writer = FORMAT_CSV.equalsIgnoreCase(format) ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+
+        long count = 0;
+        try (Stream<Object[]> rows = matchResultRepository.streamByCompetitionId(competitionId)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                writer.write((MatchResult) row[0], row);
+                count++;
+                if (count % clearInterval == 0) {
+                    // 已写出的实体不再需要，释放持久化上下文
+                    entityManager.clear();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return count;
+    }
+
+    /**
+     * 导出格式对应的响应类型
+     */
+    public static String contentTypeOf(String format) {
+        return FORMAT_CSV.equalsIgnoreCase(format) ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8";
+    }
+
+    /**
+     * 是否为支持的导出格式
+     */
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_NDJSON.equalsIgnoreCase(format) || FORMAT_CSV.equalsIgnoreCase(format);
+    }
+
+    private static Long playerIdOf(Player player) {
+        // 懒加载代理读取ID不会触发查询
+        return player != null ? player.getId() : null;
+    }
+
+    private static Player seatPlayer(MatchResult matchResult, int seat) {
+        switch (seat) {
+            case 0: return matchResult.getEastPlayer();
+            case 1: return matchResult.getSouthPlayer();
+            case 2: return matchResult.getWestPlayer();
+            default: return matchResult.getNorthPlayer();
+        }
+    }
+
+    private static Object[] seatValues(MatchResult matchResult, int seat) {
+        switch (seat) {
+            case 0: return new Object[]{matchResult.getEastScore(), matchResult.getEastPenalty(), matchResult.getEastPtScore(), matchResult.getEastPlacement()};
+            case 1: return new Object[]{matchResult.getSouthScore(), matchResult.getSouthPenalty(), matchResult.getSouthPtScore(), matchResult.getSouthPlacement()};
+            case 2: return new Object[]{matchResult.getWestScore(), matchResult.getWestPenalty(), matchResult.getWestPtScore(), matchResult.getWestPlacement()};
+            default: return new Object[]{matchResult.getNorthScore(), matchResult.getNorthPenalty(), matchResult.getNorthPtScore(), matchResult.getNorthPlacement()};
+        }
+    }
+
+    /**
+     * 查询结果行中座位玩家的昵称（第1~4列依次为东南西北），座位没有玩家时为空
+     */
+    private static String nameOf(Object[] row, Long playerId, int seat) {
+        if (playerId == null) {
+            return null;
+        }
+        Object name = row[seat + 1];
+        return name != null ? name.toString() : "";
+    }
+
+    /**
+     * 逐行写出比赛记录，row 为查询结果行（含座位玩家昵称）
+     */
+    private interface RowWriter {
+        void write(MatchResult matchResult, Object[] row);
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * NDJSON：每行一个 JSON 对象
+     */
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(MatchResult matchResult, Object[] row) {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", matchResult.getId());
+                generator.writeNumberField("roundNumber", matchResult.getRoundNumber());
+                generator.writeNumberField("matchNumber", matchResult.getMatchNumber());
+                generator.writeStringField("matchName", matchResult.getMatchName());
+                generator.writeStringField("matchTime", matchResult.getMatchTime() != null ? matchResult.getMatchTime().toString() : null);
+                for (int seat = 0; seat < SEAT_PREFIXES.length; seat++) {
+                    String prefix = SEAT_PREFIXES[seat];
+                    Long playerId = playerIdOf(seatPlayer(matchResult, seat));
+                    Object[] values = seatValues(matchResult, seat);
+                    generator.writeObjectField(prefix + "PlayerId", playerId);
+                    generator.writeStringField(prefix + "PlayerName", nameOf(row, playerId, seat));
+                    generator.writeObjectField(prefix + "Score", values[0]);
+                    generator.writeObjectField(prefix + "Penalty", values[1]);
+                    generator.writeObjectField(prefix + "PtScore", values[2]);
+                    generator.writeObjectField(prefix + "Placement", values[3]);
+                }
+                generator.writeStringField("remarks", matchResult.getRemarks());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV：首行为表头，带 UTF-8 BOM 以便表格软件正确识别中文
+     */
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+            writer.write('\uFEFF');
+            StringBuilder header = new StringBuilder("id,roundNumber,matchNumber,matchName,matchTime");
+            for (String prefix : SEAT_PREFIXES) {
+                header.append(',').append(prefix).append("PlayerId")
+                        .append(',').append(prefix).append("PlayerName")
+                        .append(',').append(prefix).append("Score")
+                        .append(',').append(prefix).append("Penalty")
+                        .append(',').append(prefix).append("PtScore")
+                        .append(',').append(prefix).append("Placement");
+            }
+            header.append(",remarks\r\n");
+            writer.write(header.toString());
+        }
+
+        @Override
+        public void write(MatchResult matchResult, Object[] row) {
+            try {
+                writeField(matchResult.getId(), false);
+                writeField(matchResult.getRoundNumber(), true);
+                writeField(matchResult.getMatchNumber(), true);
+                writeField(matchResult.getMatchName(), true);
+                writeField(matchResult.getMatchTime(), true);
+                for (int seat = 0; seat < SEAT_PREFIXES.length; seat++) {
+                    Long playerId = playerIdOf(seatPlayer(matchResult, seat));
+                    writeField(playerId, true);
+                    writeField(nameOf(row, playerId, seat), true);
+                    for (Object value : seatValues(matchResult, seat)) {
+                        writeField(value, true);
+                    }
+                }
+                writeField(matchResult.getRemarks(), true);
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeField(Object value, boolean separator) throws IOException {
+            if (separator) {
+                writer.write(',');
+            }
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
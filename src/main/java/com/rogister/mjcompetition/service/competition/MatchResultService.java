@@ -1,18 +1,31 @@
 package com.rogister.mjcompetition.service.competition;
 
+import com.rogister.mjcompetition.dto.common.CursorPage;
+import com.rogister.mjcompetition.dto.match.RoundRecordView;
 import com.rogister.mjcompetition.entity.competition.Competition;
 import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.competition.RoundPlayerStandingRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import com.rogister.mjcompetition.util.PageTokens;
+import com.rogister.mjcompetition.util.PtScoringKernel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 @Service
 public class MatchResultService {
@@ -20,9 +33,40 @@ public class MatchResultService {
     @Autowired
     private MatchResultRepository matchResultRepository;
     
+    @Autowired
+    private RoundPlayerStandingRepository roundPlayerStandingRepository;
+    
+    @Autowired
+    private RoundStandingsService roundStandingsService;
+    
+    @Autowired
+    private MatchSeatIndexService matchSeatIndexService;
+    
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+    
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+    
+    @Autowired
+    private ResultBroadcastService resultBroadcastService;
+    
+    @Autowired
+    private PageTokens pageTokens;
+    
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+    
+    @Autowired
+    private TeamRoundStatusRepository teamRoundStatusRepository;
+    
+    @Autowired
+    private MatchNumberAllocator matchNumberAllocator;
+    
     /**
      * 创建比赛成绩
      */
+    @Transactional
     public MatchResult createMatchResult(MatchResult matchResult) {
         // 验证基础数据
         if (matchResult.getCompetition() == null) {
@@ -41,12 +85,6 @@ public class MatchResultService {
             throw new RuntimeException("四人成绩总和必须为100000分，当前总和: " + matchResult.getTotalScore());
         }
         
-        // 检查比赛编号是否已存在
-        if (matchResultRepository.findByCompetitionAndRoundAndMatchNumber(
-                matchResult.getCompetition().getId(), matchResult.getRoundNumber(), matchResult.getMatchNumber()).isPresent()) {
-            throw new RuntimeException("该轮次的比赛编号已存在: " + matchResult.getMatchNumber());
-        }
-        
         // 设置比赛时间
         if (matchResult.getMatchTime() == null) {
             matchResult.setMatchTime(LocalDateTime.now());
@@ -61,9 +99,125 @@ public class MatchResultService {
         // 计算并设置PT分数
         matchResult.calculateAndSetPtScores();
         
-        return matchResultRepository.save(matchResult);
+        // 比赛编号是否重复由唯一约束判断，不预先查询，并发提交同一场比赛时只有一个请求成功
+        MatchResult saved;
+        try {
+            saved = matchResultRepository.saveAndFlush(matchResult);
+        } catch (DataIntegrityViolationException e) {
+            if (isMatchNumberConflict(e)) {
+                throw new MatchNumberConflictException("该轮次的比赛编号已存在: " + matchResult.getMatchNumber(), e);
+            }
+            throw e;
+        }
+        
+        // 同一事务内更新座位索引和轮次积分榜
+        matchSeatIndexService.syncSeats(saved);
+        roundStandingsService.recordMatchResult(saved);
+        competitionVersionService.markRoundChanged(saved.getCompetition().getId(), saved.getRoundNumber());
+        leaderboardStreamService.publishRoundChanged(saved.getCompetition().getId(), saved.getRoundNumber());
+        resultBroadcastService.publish(saved, ResultBroadcastService.TYPE_CREATED);
+        
+        return saved;
     }
     
+    /**
+     * 批量创建同一轮次的比赛成绩（调用方已完成校验）：比赛成绩和座位批量写入，
+     * 积分榜一次锁定涉及的全部玩家，轮次版本和排行榜推送只触发一次
+     */
+    @Transactional
+    public List<MatchResult> createMatchResults(Competition competition, Integer roundNumber, List<MatchResult> matchResults) {
+        if (matchResults.isEmpty()) {
+            return matchResults;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (MatchResult matchResult : matchResults) {
+            matchResult.setCompetition(competition);
+            matchResult.setRoundNumber(roundNumber);
+            if (matchResult.getMatchTime() == null) {
+                matchResult.setMatchTime(now);
+            }
+            if (matchResult.getEastPenalty() == null) matchResult.setEastPenalty(0);
+            if (matchResult.getSouthPenalty() == null) matchResult.setSouthPenalty(0);
+            if (matchResult.getWestPenalty() == null) matchResult.setWestPenalty(0);
+            if (matchResult.getNorthPenalty() == null) matchResult.setNorthPenalty(0);
+            matchResult.calculateTotalScore();
+            matchResult.calculateAndSetPtScores();
+        }
+        
+        // 比赛成绩使用池化的表序列ID，由 Hibernate 按 hibernate.jdbc.batch_size 批量插入
+        try {
+            matchResultRepository.saveAll(matchResults);
+            matchResultRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // 校验之后有其他请求写入了相同编号
+            if (isMatchNumberConflict(e)) {
+                throw new MatchNumberConflictException("该轮次的比赛编号已存在，请重新校验后提交", e);
+            }
+            throw e;
+        }
+        
+        matchSeatIndexService.insertSeats(competition, roundNumber, matchResults);
+        roundStandingsService.recordMatchResults(competition.getId(), roundNumber, matchResults);
+        competitionVersionService.markRoundChanged(competition.getId(), roundNumber);
+        leaderboardStreamService.publishRoundChanged(competition.getId(), roundNumber);
+        for (MatchResult matchResult : matchResults) {
+            resultBroadcastService.publish(matchResult, ResultBroadcastService.TYPE_CREATED);
+        }
+        
+        return matchResults;
+    }
+    
+    /**
+     * 写入失败是否由比赛编号唯一约束引起（按约束名识别，H2 和 MariaDB 的错误信息中均包含约束名）
+     */
+    static boolean isMatchNumberConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(MatchResult.UNIQUE_MATCH_NUMBER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 验证轮次是否允许录入成绩
+     */
+    public void validateRoundForResultEntry(Competition competition, Integer roundNumber) {
+        // 获取比赛成绩记录中的最大轮次
+        Integer maxResultRound = matchResultRepository.findMaxRoundNumberByCompetitionId(competition.getId());
+
+        // 根据比赛类型获取轮次状态中的最大轮次
+        Integer maxStatusRound = null;
+        if (competition.getCompetitionType() == Competition.CompetitionType.INDIVIDUAL) {
+            maxStatusRound = playerRoundStatusRepository.findMaxRoundNumberByCompetitionId(competition.getId());
+        } else if (competition.getCompetitionType() == Competition.CompetitionType.TEAM) {
+            maxStatusRound = teamRoundStatusRepository.findMaxRoundNumberByCompetitionId(competition.getId());
+        }
+
+        // 取两者中的最大值作为当前实际最大轮次
+        Integer actualMaxRound = null;
+        if (maxResultRound != null && maxStatusRound != null) {
+            actualMaxRound = Math.max(maxResultRound, maxStatusRound);
+        } else if (maxResultRound != null) {
+            actualMaxRound = maxResultRound;
+        } else if (maxStatusRound != null) {
+            actualMaxRound = maxStatusRound;
+        }
+
+        // 如果存在更高轮次的成绩记录，不允许补录之前轮次的成绩
+        if (actualMaxRound != null && roundNumber < actualMaxRound) {
+            throw new RuntimeException("不允许补录第" + roundNumber + "轮成绩，因为已存在第" + actualMaxRound + "轮的数据");
+        }
+
+        // 如果录入的轮次比当前最高轮次大于1，也不允许（防止跳跃录入）
+        if (actualMaxRound != null && roundNumber > actualMaxRound + 1) {
+            throw new RuntimeException("不允许跳跃录入第" + roundNumber + "轮成绩，当前最高轮次为第" + actualMaxRound + "轮，只能录入第"
+                    + (actualMaxRound + 1) + "轮的成绩");
+        }
+    }
+
     /**
      * 根据ID查找比赛成绩
      */
@@ -100,136 +254,57 @@ public class MatchResultService {
     }
     
     /**
-     * 计算某一轮次下所有玩家的排名
+     * 按比赛时间从早到晚查询轮次比赛记录的只读视图（includeMatchNumber 为 true 时以比赛编号作为第二排序条件）
+     * 只读取所需的列和玩家昵称，不加载实体
      */
-    public List<PlayerRoundRanking> calculatePlayerRoundRankings(Competition competition, Integer roundNumber) {
-        // 获取该轮次下的所有比赛记录
-        List<MatchResult> matchResults = matchResultRepository.findByCompetitionAndRound(competition.getId(), roundNumber);
-        
-        // 用于存储每个玩家的统计信息
-        Map<Player, PlayerRoundRanking> playerRankings = new HashMap<>();
-        
-        // 遍历每场比赛，计算每个玩家的得分和排名
-        for (MatchResult matchResult : matchResults) {
-            // 直接从数据库读取PT分数
-            addPlayerPtScore(playerRankings, matchResult.getEastPlayer(), matchResult.getEastPtScore(), 
-                            matchResult.getEastScore(), matchResult.getEastPenalty(), competition, roundNumber);
-            addPlayerPtScore(playerRankings, matchResult.getSouthPlayer(), matchResult.getSouthPtScore(), 
-                            matchResult.getSouthScore(), matchResult.getSouthPenalty(), competition, roundNumber);
-            addPlayerPtScore(playerRankings, matchResult.getWestPlayer(), matchResult.getWestPtScore(), 
-                            matchResult.getWestScore(), matchResult.getWestPenalty(), competition, roundNumber);
-            addPlayerPtScore(playerRankings, matchResult.getNorthPlayer(), matchResult.getNorthPtScore(), 
-                            matchResult.getNorthScore(), matchResult.getNorthPenalty(), competition, roundNumber);
-            
-            // 计算排名用于统计顺位次数
-            List<MatchResult.PlayerRank> matchRanks = matchResult.calculatePlayerRanks();
-            for (MatchResult.PlayerRank matchRank : matchRanks) {
-                Player player = matchRank.getPlayer();
-                PlayerRoundRanking ranking = playerRankings.get(player);
-                if (ranking != null) {
-                    // 统计顺位次数
-                    ranking.addPositionCount(matchRank.getRank());
-                }
-            }
-        }
-        
-        // 计算平均顺位并排序
-        List<PlayerRoundRanking> rankings = new ArrayList<>(playerRankings.values());
-        rankings.forEach(PlayerRoundRanking::calculateAveragePosition);
-        rankings.sort(PlayerRoundRanking::compareTo);
-        
-        return rankings;
+    public List<RoundRecordView> findRoundRecordViews(Competition competition, Integer roundNumber, boolean includeMatchNumber) {
+        return includeMatchNumber
+                ? matchResultRepository.findRoundRecordViewsOrderByMatchTimeAndNumber(competition.getId(), roundNumber)
+                : matchResultRepository.findRoundRecordViewsOrderByMatchTime(competition.getId(), roundNumber);
     }
     
     /**
-     * 添加玩家PT分数到排名统计中
+     * 按比赛编号、ID升序分页查询轮次的比赛记录（同时加载四名玩家），pageToken 为空时返回第一页
      */
-    private void addPlayerPtScore(Map<Player, PlayerRoundRanking> playerRankings, Player player, 
-                                 Double ptScore, Integer originalScore, Integer penalty, 
-                                 Competition competition, Integer roundNumber) {
-        // 获取或创建玩家的排名统计对象
-        PlayerRoundRanking ranking = playerRankings.computeIfAbsent(player, 
-            k -> new PlayerRoundRanking(player, competition, roundNumber));
-        
-        // 累加PT分数
-        ranking.addActualPoints(ptScore);
+    public CursorPage<MatchResult> findRoundRecordsPage(Competition competition, Integer roundNumber,
+                                                        String pageToken, Integer pageSize) {
+        String scope = "round-records:" + competition.getId() + ":" + roundNumber;
+        int size = pageTokens.resolvePageSize(pageSize);
+        PageTokens.Cursor cursor = pageTokens.decode(scope, pageToken);
+        int afterMatchNumber = cursor != null ? (int) cursor.getSortKey() : Integer.MIN_VALUE;
+        long afterId = cursor != null ? cursor.getId() : 0L;
+        
+        List<MatchResult> rows = matchResultRepository.findRoundPageAfter(competition.getId(), roundNumber,
+                afterMatchNumber, afterId, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, matchResult -> pageTokens.encode(scope, matchResult.getMatchNumber(), matchResult.getId()));
+    }
+    
+    /**
+     * 计算某一轮次下所有玩家的排名（读取轮次积分榜，开销只与玩家数量相关）
+     */
+    public List<PlayerRoundRanking> calculatePlayerRoundRankings(Competition competition, Integer roundNumber) {
+        List<RoundPlayerStanding> standings = roundPlayerStandingRepository
+                .findWithPlayerByCompetitionIdAndRoundNumber(competition.getId(), roundNumber);
         
-        // 累加原始得分
-        ranking.addOriginalScore(originalScore);
+        List<PlayerRoundRanking> rankings = new ArrayList<>(standings.size());
+        for (RoundPlayerStanding standing : standings) {
+            rankings.add(PlayerRoundRanking.fromStanding(standing, competition));
+        }
         
-        // 累加罚分
-        ranking.addPenalty(penalty);
+        // 按得分和平均顺位排序
+        rankings.sort(PlayerRoundRanking::compareTo);
         
-        // 增加比赛场数
-        ranking.incrementMatchCount();
+        return rankings;
     }
     
     /**
      * 计算某一轮次下指定玩家的排名统计
      */
     public PlayerRoundRanking calculatePlayerRoundRanking(Competition competition, Integer roundNumber, Player player) {
-        // 获取该玩家在该轮次下的所有比赛记录
-        List<MatchResult> playerMatches = matchResultRepository.findByCompetitionAndRoundAndPlayer(
-                competition.getId(), roundNumber, player.getId());
-        
-        PlayerRoundRanking ranking = new PlayerRoundRanking(player, competition, roundNumber);
-        
-        // 遍历该玩家的所有比赛记录
-        for (MatchResult matchResult : playerMatches) {
-            // 直接从数据库读取该玩家的PT分数和其他信息
-            Double ptScore = null;
-            Integer originalScore = null;
-            Integer penalty = null;
-            
-            if (matchResult.getEastPlayer().getId().equals(player.getId())) {
-                ptScore = matchResult.getEastPtScore();
-                originalScore = matchResult.getEastScore();
-                penalty = matchResult.getEastPenalty();
-            } else if (matchResult.getSouthPlayer().getId().equals(player.getId())) {
-                ptScore = matchResult.getSouthPtScore();
-                originalScore = matchResult.getSouthScore();
-                penalty = matchResult.getSouthPenalty();
-            } else if (matchResult.getWestPlayer().getId().equals(player.getId())) {
-                ptScore = matchResult.getWestPtScore();
-                originalScore = matchResult.getWestScore();
-                penalty = matchResult.getWestPenalty();
-            } else if (matchResult.getNorthPlayer().getId().equals(player.getId())) {
-                ptScore = matchResult.getNorthPtScore();
-                originalScore = matchResult.getNorthScore();
-                penalty = matchResult.getNorthPenalty();
-            }
-            
-            if (ptScore != null) {
-                // 累加PT分数
-                ranking.addActualPoints(ptScore);
-                
-                // 累加原始得分
-                ranking.addOriginalScore(originalScore);
-                
-                // 累加罚分
-                ranking.addPenalty(penalty);
-                
-                // 计算排名用于统计顺位次数
-                List<MatchResult.PlayerRank> matchRanks = matchResult.calculatePlayerRanks();
-                MatchResult.PlayerRank playerRank = matchRanks.stream()
-                        .filter(rank -> rank.getPlayer().getId().equals(player.getId()))
-                        .findFirst()
-                        .orElse(null);
-                
-                if (playerRank != null) {
-                    // 统计顺位次数
-                    ranking.addPositionCount(playerRank.getRank());
-                }
-                
-                // 增加比赛场数
-                ranking.incrementMatchCount();
-            }
-        }
-        
-        // 计算平均顺位
-        ranking.calculateAveragePosition();
-        
-        return ranking;
+        return roundPlayerStandingRepository
+                .findByCompetitionIdAndRoundNumberAndPlayerId(competition.getId(), roundNumber, player.getId())
+                .map(standing -> PlayerRoundRanking.fromStanding(standing, competition))
+                .orElseGet(() -> new PlayerRoundRanking(player, competition, roundNumber));
     }
     
     /**
@@ -243,8 +318,7 @@ public class MatchResultService {
      * 根据玩家查找所有参与的比赛成绩
      */
     public List<MatchResult> findByPlayer(Player player) {
-        return matchResultRepository.findByEastPlayerOrSouthPlayerOrWestPlayerOrNorthPlayerOrderByCompetitionAscRoundRoundNumberAscMatchNumberAsc(
-                player.getId());
+        return matchResultRepository.findByPlayerIdOrderByCompetitionRoundMatch(player.getId());
     }
     
     /**
@@ -265,10 +339,14 @@ public class MatchResultService {
     /**
      * 更新比赛成绩
      */
+    @Transactional
     public MatchResult updateMatchResult(Long id, MatchResult matchResultDetails) {
         MatchResult matchResult = matchResultRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("比赛成绩不存在，ID: " + id));
         
+        // 先从轮次积分榜撤销修改前的成绩
+        roundStandingsService.revokeMatchResult(matchResult);
+        
         // 更新成绩
         matchResult.setEastScore(matchResultDetails.getEastScore());
         matchResult.setSouthScore(matchResultDetails.getSouthScore());
@@ -296,17 +374,34 @@ public class MatchResultService {
         // 重新计算并设置PT分数
         matchResult.calculateAndSetPtScores();
         
-        return matchResultRepository.save(matchResult);
+        MatchResult saved = matchResultRepository.save(matchResult);
+        
+        // 同步座位索引并计入修改后的成绩
+        matchSeatIndexService.syncSeats(saved);
+        roundStandingsService.recordMatchResult(saved);
+        competitionVersionService.markRoundChanged(saved.getCompetition().getId(), saved.getRoundNumber());
+        leaderboardStreamService.publishRoundChanged(saved.getCompetition().getId(), saved.getRoundNumber());
+        resultBroadcastService.publish(saved, ResultBroadcastService.TYPE_UPDATED);
+        
+        return saved;
     }
     
     /**
      * 删除比赛成绩
      */
+    @Transactional
     public void deleteMatchResult(Long id) {
-        if (!matchResultRepository.existsById(id)) {
-            throw new RuntimeException("比赛成绩不存在，ID: " + id);
-        }
-        matchResultRepository.deleteById(id);
+        MatchResult matchResult = matchResultRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("比赛成绩不存在，ID: " + id));
+        
+        // 从轮次积分榜撤销该场成绩
+        roundStandingsService.revokeMatchResult(matchResult);
+        matchSeatIndexService.removeSeats(matchResult);
+        resultBroadcastService.publish(matchResult, ResultBroadcastService.TYPE_DELETED);
+        
+        matchResultRepository.delete(matchResult);
+        competitionVersionService.markRoundChanged(matchResult.getCompetition().getId(), matchResult.getRoundNumber());
+        leaderboardStreamService.publishRoundChanged(matchResult.getCompetition().getId(), matchResult.getRoundNumber());
     }
     
     /**
@@ -322,11 +417,10 @@ public class MatchResultService {
     }
     
     /**
-     * 获取下一场比赛编号
+     * 分配下一场比赛编号，多个记分员同时获取时编号也不会重复
      */
     public Integer getNextMatchNumber(Competition competition, Integer roundNumber) {
-        long currentCount = matchResultRepository.countByCompetitionAndRound(competition.getId(), roundNumber);
-        return (int) (currentCount + 1);
+        return matchNumberAllocator.allocate(competition.getId(), roundNumber);
     }
     
     /**
@@ -336,7 +430,7 @@ public class MatchResultService {
         MatchResult matchResult = matchResultRepository.findById(matchResultId)
                 .orElseThrow(() -> new RuntimeException("比赛成绩不存在，ID: " + matchResultId));
         
-        return matchResult.calculatePlayerRanks();
+        return rankPlayers(matchResult);
     }
     
     /**
@@ -346,11 +440,47 @@ public class MatchResultService {
         MatchResult matchResult = matchResultRepository.findById(matchResultId)
                 .orElseThrow(() -> new RuntimeException("比赛成绩不存在，ID: " + matchResultId));
         
-        List<MatchResult.PlayerRank> playerRanks = matchResult.calculatePlayerRanks();
+        List<MatchResult.PlayerRank> playerRanks = rankPlayers(matchResult);
         
         return new MatchResultDetail(matchResult, playerRanks);
     }
     
+    /**
+     * 用PT计分核心计算一场比赛四名玩家的顺位和PT分数，按顺位从高到低返回
+     */
+    public List<MatchResult.PlayerRank> rankPlayers(MatchResult matchResult) {
+        int[] ranks = new int[PtScoringKernel.SEATS];
+        double[] pts = new double[PtScoringKernel.SEATS];
+        PtScoringKernel.score(valueOrZero(matchResult.getEastScore()), valueOrZero(matchResult.getSouthScore()),
+                valueOrZero(matchResult.getWestScore()), valueOrZero(matchResult.getNorthScore()),
+                valueOrZero(matchResult.getEastPenalty()), valueOrZero(matchResult.getSouthPenalty()),
+                valueOrZero(matchResult.getWestPenalty()), valueOrZero(matchResult.getNorthPenalty()),
+                PtScoringKernel.compile(matchResult.getCompetition().getRule()), ranks, pts, 0);
+        
+        MatchResult.PlayerRank[] playerRanks = new MatchResult.PlayerRank[PtScoringKernel.SEATS];
+        addPlayerRank(playerRanks, matchResult.getEastPlayer(), matchResult.getEastScore(), matchResult.getEastPenalty(),
+                "东", ranks[PtScoringKernel.EAST], pts[PtScoringKernel.EAST]);
+        addPlayerRank(playerRanks, matchResult.getSouthPlayer(), matchResult.getSouthScore(), matchResult.getSouthPenalty(),
+                "南", ranks[PtScoringKernel.SOUTH], pts[PtScoringKernel.SOUTH]);
+        addPlayerRank(playerRanks, matchResult.getWestPlayer(), matchResult.getWestScore(), matchResult.getWestPenalty(),
+                "西", ranks[PtScoringKernel.WEST], pts[PtScoringKernel.WEST]);
+        addPlayerRank(playerRanks, matchResult.getNorthPlayer(), matchResult.getNorthScore(), matchResult.getNorthPenalty(),
+                "北", ranks[PtScoringKernel.NORTH], pts[PtScoringKernel.NORTH]);
+        return Arrays.asList(playerRanks);
+    }
+    
+    private static void addPlayerRank(MatchResult.PlayerRank[] playerRanks, Player player, Integer score, Integer penalty,
+                                      String position, int rank, double pt) {
+        MatchResult.PlayerRank playerRank = new MatchResult.PlayerRank(player, score, penalty, position);
+        playerRank.rank = rank;
+        playerRank.actualPoints = score != null ? pt : 0.0;
+        playerRanks[rank - 1] = playerRank;
+    }
+    
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+    
     /**
      * 获取玩家在某轮次的PT分数总和
      */
@@ -359,6 +489,22 @@ public class MatchResultService {
         return sum != null ? sum : 0.0;
     }
     
+    /**
+     * 一次查询读取某轮次所有玩家的成绩统计（来自轮次积分榜），按玩家ID索引
+     */
+    public Map<Long, PlayerRoundAggregate> aggregatePlayerRoundStats(Long competitionId, Integer roundNumber) {
+        List<RoundPlayerStanding> standings = roundPlayerStandingRepository
+                .findByCompetitionIdAndRoundNumber(competitionId, roundNumber);
+        
+        Map<Long, PlayerRoundAggregate> aggregates = new HashMap<>(standings.size() * 2);
+        for (RoundPlayerStanding standing : standings) {
+            PlayerRoundAggregate aggregate = PlayerRoundAggregate.fromStanding(standing);
+            aggregates.put(aggregate.getPlayerId(), aggregate);
+        }
+        
+        return aggregates;
+    }
+    
     /**
      * 内部类：比赛成绩详细信息
      */
@@ -375,6 +521,95 @@ public class MatchResultService {
         public List<MatchResult.PlayerRank> getPlayerRanks() { return playerRanks; }
     }
     
+    /**
+     * 内部类：玩家轮次成绩汇总（由聚合查询的一行构建）
+     */
+    public static class PlayerRoundAggregate {
+        private final Long playerId;
+        private final double ptScoreSum;         // PT分数总和
+        private final int scoreSum;              // 原始得分总和
+        private final int penaltySum;            // 罚分总和
+        private final int appearanceCount;       // 出场次数
+        private final int firstPlaceCount;       // 第一名次数
+        private final int secondPlaceCount;      // 第二名次数
+        private final int thirdPlaceCount;       // 第三名次数
+        private final int fourthPlaceCount;      // 第四名次数
+        
+        public PlayerRoundAggregate(Long playerId, double ptScoreSum, int scoreSum, int penaltySum, int appearanceCount,
+                                    int firstPlaceCount, int secondPlaceCount, int thirdPlaceCount, int fourthPlaceCount) {
+            this.playerId = playerId;
+            this.ptScoreSum = ptScoreSum;
+            this.scoreSum = scoreSum;
+            this.penaltySum = penaltySum;
+            this.appearanceCount = appearanceCount;
+            this.firstPlaceCount = firstPlaceCount;
+            this.secondPlaceCount = secondPlaceCount;
+            this.thirdPlaceCount = thirdPlaceCount;
+            this.fourthPlaceCount = fourthPlaceCount;
+        }
+        
+        /**
+         * 从聚合查询结果行构建，列顺序见 MatchResultRepository.aggregatePlayerRoundStats
+         */
+        static PlayerRoundAggregate fromRow(Object[] row) {
+            return new PlayerRoundAggregate(
+                    ((Number) row[0]).longValue(),
+                    row[1] != null ? ((Number) row[1]).doubleValue() : 0.0,
+                    row[2] != null ? ((Number) row[2]).intValue() : 0,
+                    row[3] != null ? ((Number) row[3]).intValue() : 0,
+                    ((Number) row[4]).intValue(),
+                    ((Number) row[5]).intValue(),
+                    ((Number) row[6]).intValue(),
+                    ((Number) row[7]).intValue(),
+                    ((Number) row[8]).intValue());
+        }
+        
+        /**
+         * 从轮次积分榜记录构建
+         */
+        public static PlayerRoundAggregate fromStanding(RoundPlayerStanding standing) {
+            return new PlayerRoundAggregate(
+                    standing.getPlayer().getId(),
+                    standing.getPtTotal(),
+                    standing.getScoreTotal(),
+                    standing.getPenaltyTotal(),
+                    standing.getMatchCount(),
+                    standing.getFirstPlaceCount(),
+                    standing.getSecondPlaceCount(),
+                    standing.getThirdPlaceCount(),
+                    standing.getFourthPlaceCount());
+        }
+        
+        /**
+         * 没有任何比赛记录的玩家
+         */
+        public static PlayerRoundAggregate empty(Long playerId) {
+            return new PlayerRoundAggregate(playerId, 0.0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        
+        /**
+         * 平均顺位，没有出场时为0
+         */
+        public double getAveragePosition() {
+            if (appearanceCount == 0) {
+                return 0.0;
+            }
+            double totalPosition = firstPlaceCount + (secondPlaceCount * 2.0) +
+                                 (thirdPlaceCount * 3.0) + (fourthPlaceCount * 4.0);
+            return totalPosition / appearanceCount;
+        }
+        
+        public Long getPlayerId() { return playerId; }
+        public double getPtScoreSum() { return ptScoreSum; }
+        public int getScoreSum() { return scoreSum; }
+        public int getPenaltySum() { return penaltySum; }
+        public int getAppearanceCount() { return appearanceCount; }
+        public int getFirstPlaceCount() { return firstPlaceCount; }
+        public int getSecondPlaceCount() { return secondPlaceCount; }
+        public int getThirdPlaceCount() { return thirdPlaceCount; }
+        public int getFourthPlaceCount() { return fourthPlaceCount; }
+    }
+    
     /**
      * 内部类：玩家轮次排名统计
      */
@@ -399,6 +634,23 @@ public class MatchResultService {
             this.roundNumber = roundNumber;
         }
         
+        /**
+         * 从轮次积分榜记录构建排名统计
+         */
+        public static PlayerRoundRanking fromStanding(RoundPlayerStanding standing, Competition competition) {
+            PlayerRoundRanking ranking = new PlayerRoundRanking(standing.getPlayer(), competition, standing.getRoundNumber());
+            ranking.totalActualPoints = standing.getPtTotal();
+            ranking.totalOriginalScore = standing.getScoreTotal();
+            ranking.totalPenalty = standing.getPenaltyTotal();
+            ranking.matchCount = standing.getMatchCount();
+            ranking.firstPlaceCount = standing.getFirstPlaceCount();
+            ranking.secondPlaceCount = standing.getSecondPlaceCount();
+            ranking.thirdPlaceCount = standing.getThirdPlaceCount();
+            ranking.fourthPlaceCount = standing.getFourthPlaceCount();
+            ranking.calculateAveragePosition();
+            return ranking;
+        }
+        
         /**
          * 添加实际得分
          */
@@ -0,0 +1,323 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.MatchResultSeat;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import com.rogister.mjcompetition.util.PtScoringKernel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * 比赛座位索引维护：比赛成绩写入时同步 match_result_seats，启动时为历史比赛补齐座位记录
+ * 需在座位顺位回填之后执行，座位记录直接复制比赛成绩中保存的顺位
+ *
+ * 团队赛中座位同时作为团队-比赛索引：记录每个座位所属的团队和该团队在本场的顺位，
+ * 团队顺位按团队在本场的得分总和从高到低判定，同分时座位靠前的团队优先
+ */
+@Service
+@Order(2)
+public class MatchSeatIndexService implements CommandLineRunner {
+
+    private static final String INSERT_SEAT_SQL = "INSERT INTO match_result_seats (match_result_id, competition_id, round_number, " +
+            "seat, player_id, score, penalty, pt_score, placement, team_id, team_placement) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private MatchResultSeatRepository seatRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${mj.seat-backfill.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${mj.jdbc.batch-size:500}")
+    private int jdbcBatchSize;
+
+    /**
+     * 应用启动时，存在没有座位记录的比赛则执行回填
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        long missing = seatRepository.countMatchResultsWithoutSeats();
+        if (missing > 0) {
+            System.out.println("正在生成比赛座位索引，待处理比赛: " + missing);
+            int inserted = backfill();
+            System.out.println("比赛座位索引生成完成，共写入 " + inserted + " 条座位记录");
+        }
+
+        for (Long competitionId : seatRepository.findCompetitionIdsWithUnassignedTeamSeats()) {
+            int matches = assignMissingTeams(competitionId);
+            System.out.println("比赛 " + competitionId + " 补齐团队-比赛索引，共更新 " + matches + " 场比赛");
+        }
+    }
+
+    /**
+     * 按比赛成绩写入或更新四个座位记录（需在比赛成绩保存的同一事务中调用）
+     * 团队赛中已有座位且玩家未变的保留写入时的团队归属，只有新座位和换了玩家的座位按当前成员关系确定团队
+     */
+    @Transactional
+    public void syncSeats(MatchResult matchResult) {
+        MatchResultSeat[] seats = new MatchResultSeat[PtScoringKernel.SEATS];
+        Long[] previousPlayerIds = new Long[PtScoringKernel.SEATS];
+        for (MatchResultSeat seat : seatRepository.findByMatchResultId(matchResult.getId())) {
+            seats[seat.getSeat()] = seat;
+            previousPlayerIds[seat.getSeat()] = seat.getPlayer().getId();
+        }
+
+        int ranks = matchResult.resolveSeatRanks();
+        fillSeat(seats, matchResult, PtScoringKernel.EAST, matchResult.getEastPlayer(), matchResult.getEastScore(),
+                matchResult.getEastPenalty(), matchResult.getEastPtScore(), ranks);
+        fillSeat(seats, matchResult, PtScoringKernel.SOUTH, matchResult.getSouthPlayer(), matchResult.getSouthScore(),
+                matchResult.getSouthPenalty(), matchResult.getSouthPtScore(), ranks);
+        fillSeat(seats, matchResult, PtScoringKernel.WEST, matchResult.getWestPlayer(), matchResult.getWestScore(),
+                matchResult.getWestPenalty(), matchResult.getWestPtScore(), ranks);
+        fillSeat(seats, matchResult, PtScoringKernel.NORTH, matchResult.getNorthPlayer(), matchResult.getNorthScore(),
+                matchResult.getNorthPenalty(), matchResult.getNorthPtScore(), ranks);
+
+        if (matchResult.getCompetition().getCompetitionType() == Competition.CompetitionType.TEAM) {
+            assignTeams(seats, previousPlayerIds, matchResult);
+        }
+
+        seatRepository.saveAll(List.of(seats));
+    }
+
+    /**
+     * 以 JDBC 批量写入同一轮次多场新比赛的座位记录（比赛成绩需已写入并带有ID，在同一事务中调用）
+     * 团队赛的座位团队归属一次查询得到
+     */
+    @Transactional
+    public void insertSeats(Competition competition, Integer roundNumber, List<MatchResult> matchResults) {
+        Map<Long, Long> teamByPlayer = null;
+        if (competition.getCompetitionType() == Competition.CompetitionType.TEAM) {
+            Set<Long> playerIds = new HashSet<>();
+            for (MatchResult matchResult : matchResults) {
+                playerIds.add(matchResult.getEastPlayer().getId());
+                playerIds.add(matchResult.getSouthPlayer().getId());
+                playerIds.add(matchResult.getWestPlayer().getId());
+                playerIds.add(matchResult.getNorthPlayer().getId());
+            }
+            teamByPlayer = new HashMap<>();
+            for (Object[] row : teamMemberRepository.findRoundTeamIdsByPlayerIds(competition.getId(), roundNumber, playerIds)) {
+                teamByPlayer.put((Long) row[0], (Long) row[1]);
+            }
+        }
+
+        List<MatchResultSeat> seats = new ArrayList<>(matchResults.size() * PtScoringKernel.SEATS);
+        for (MatchResult matchResult : matchResults) {
+            MatchResultSeat[] matchSeats = new MatchResultSeat[PtScoringKernel.SEATS];
+            int ranks = matchResult.resolveSeatRanks();
+            fillSeat(matchSeats, matchResult, PtScoringKernel.EAST, matchResult.getEastPlayer(), matchResult.getEastScore(),
+                    matchResult.getEastPenalty(), matchResult.getEastPtScore(), ranks);
+            fillSeat(matchSeats, matchResult, PtScoringKernel.SOUTH, matchResult.getSouthPlayer(), matchResult.getSouthScore(),
+                    matchResult.getSouthPenalty(), matchResult.getSouthPtScore(), ranks);
+            fillSeat(matchSeats, matchResult, PtScoringKernel.WEST, matchResult.getWestPlayer(), matchResult.getWestScore(),
+                    matchResult.getWestPenalty(), matchResult.getWestPtScore(), ranks);
+            fillSeat(matchSeats, matchResult, PtScoringKernel.NORTH, matchResult.getNorthPlayer(), matchResult.getNorthScore(),
+                    matchResult.getNorthPenalty(), matchResult.getNorthPtScore(), ranks);
+
+            if (teamByPlayer != null) {
+                for (MatchResultSeat seat : matchSeats) {
+                    seat.setTeamId(teamByPlayer.get(seat.getPlayer().getId()));
+                }
+                assignTeamPlacements(matchSeats);
+            }
+            seats.addAll(Arrays.asList(matchSeats));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, seats, jdbcBatchSize, (ps, seat) -> {
+            ps.setLong(1, seat.getMatchResult().getId());
+            ps.setLong(2, seat.getCompetitionId());
+            ps.setInt(3, seat.getRoundNumber());
+            ps.setInt(4, seat.getSeat());
+            ps.setLong(5, seat.getPlayer().getId());
+            ps.setInt(6, seat.getScore());
+            ps.setInt(7, seat.getPenalty());
+            ps.setDouble(8, seat.getPtScore());
+            ps.setInt(9, seat.getPlacement());
+            ps.setObject(10, seat.getTeamId(), Types.BIGINT);
+            ps.setObject(11, seat.getTeamPlacement(), Types.INTEGER);
+        });
+    }
+
+    /**
+     * 为新座位和换了玩家的座位按该轮次参赛团队的激活成员关系标记所属团队，并重新计算团队顺位
+     */
+    private void assignTeams(MatchResultSeat[] seats, Long[] previousPlayerIds, MatchResult matchResult) {
+        List<Long> playerIds = new ArrayList<>(seats.length);
+        for (MatchResultSeat seat : seats) {
+            if (!seat.getPlayer().getId().equals(previousPlayerIds[seat.getSeat()])) {
+                playerIds.add(seat.getPlayer().getId());
+            }
+        }
+
+        if (!playerIds.isEmpty()) {
+            Map<Long, Long> teamByPlayer = new HashMap<>();
+            for (Object[] row : teamMemberRepository.findRoundTeamIdsByPlayerIds(
+                    matchResult.getCompetition().getId(), matchResult.getRoundNumber(), playerIds)) {
+                teamByPlayer.put((Long) row[0], (Long) row[1]);
+            }
+            for (MatchResultSeat seat : seats) {
+                if (playerIds.contains(seat.getPlayer().getId())) {
+                    seat.setTeamId(teamByPlayer.get(seat.getPlayer().getId()));
+                }
+            }
+        }
+        // 得分可能变化，团队顺位总是重新计算
+        assignTeamPlacements(seats);
+    }
+
+    /**
+     * 为比赛中没有团队归属的座位补齐团队和团队顺位，已有归属的座位保持写入时的记录，返回更新的比赛场数
+     */
+    @Transactional
+    public int assignMissingTeams(Long competitionId) {
+        // 轮次号 -> (玩家ID -> 团队ID)
+        Map<Integer, Map<Long, Long>> memberships = new HashMap<>();
+        for (Object[] row : teamMemberRepository.findActiveRoundMemberships(competitionId)) {
+            memberships.computeIfAbsent((Integer) row[0], round -> new HashMap<>()).put((Long) row[2], (Long) row[1]);
+        }
+
+        List<MatchResultSeat> changed = new ArrayList<>();
+        int matches = 0;
+        List<MatchResultSeat> seats = seatRepository.findByCompetitionId(competitionId);
+        for (int start = 0; start < seats.size(); ) {
+            Long matchResultId = seats.get(start).getMatchResult().getId();
+            int end = start;
+            while (end < seats.size() && seats.get(end).getMatchResult().getId().equals(matchResultId)) {
+                end++;
+            }
+
+            MatchResultSeat[] matchSeats = seats.subList(start, end).toArray(new MatchResultSeat[0]);
+            boolean updated = false;
+            for (MatchResultSeat seat : matchSeats) {
+                if (seat.getTeamId() == null) {
+                    Long teamId = memberships.getOrDefault(seat.getRoundNumber(), Map.of()).get(seat.getPlayer().getId());
+                    if (teamId != null) {
+                        seat.setTeamId(teamId);
+                        updated = true;
+                    }
+                }
+            }
+            if (updated) {
+                assignTeamPlacements(matchSeats);
+                changed.addAll(Arrays.asList(matchSeats));
+                matches++;
+            }
+            start = end;
+        }
+
+        seatRepository.saveAll(changed);
+        return matches;
+    }
+
+    /**
+     * 计算一场比赛中各团队的顺位并写入座位，没有团队归属的座位团队顺位为空
+     */
+    private static void assignTeamPlacements(MatchResultSeat[] seats) {
+        // 本场出场的团队，最多四个：团队ID、得分总和、最靠前的座位
+        Long[] teamIds = new Long[PtScoringKernel.SEATS];
+        int[] teamScores = new int[PtScoringKernel.SEATS];
+        int[] firstSeats = new int[PtScoringKernel.SEATS];
+        int teamCount = 0;
+
+        for (MatchResultSeat seat : seats) {
+            if (seat.getTeamId() == null) {
+                continue;
+            }
+            int index = 0;
+            while (index < teamCount && !teamIds[index].equals(seat.getTeamId())) {
+                index++;
+            }
+            if (index == teamCount) {
+                teamIds[index] = seat.getTeamId();
+                firstSeats[index] = seat.getSeat();
+                teamCount++;
+            }
+            teamScores[index] += seat.getScore();
+            firstSeats[index] = Math.min(firstSeats[index], seat.getSeat());
+        }
+
+        for (MatchResultSeat seat : seats) {
+            if (seat.getTeamId() == null) {
+                seat.setTeamPlacement(null);
+                continue;
+            }
+            int index = 0;
+            while (!teamIds[index].equals(seat.getTeamId())) {
+                index++;
+            }
+            int placement = 1;
+            for (int j = 0; j < teamCount; j++) {
+                if (teamScores[j] > teamScores[index]
+                        || (teamScores[j] == teamScores[index] && firstSeats[j] < firstSeats[index])) {
+                    placement++;
+                }
+            }
+            seat.setTeamPlacement(placement);
+        }
+    }
+
+    /**
+     * 删除比赛的座位记录（需在比赛成绩删除之前、同一事务中调用）
+     */
+    @Transactional
+    public void removeSeats(MatchResult matchResult) {
+        seatRepository.deleteByMatchResultId(matchResult.getId());
+    }
+
+    private void fillSeat(MatchResultSeat[] seats, MatchResult matchResult, int seatIndex, Player player,
+                          Integer score, Integer penalty, Double ptScore, int ranks) {
+        MatchResultSeat seat = seats[seatIndex];
+        if (seat == null) {
+            seat = new MatchResultSeat(matchResult, seatIndex);
+            seats[seatIndex] = seat;
+        }
+        seat.setCompetitionId(matchResult.getCompetition().getId());
+        seat.setRoundNumber(matchResult.getRoundNumber());
+        seat.setPlayer(player);
+        seat.setScore(score != null ? score : 0);
+        seat.setPenalty(penalty != null ? penalty : 0);
+        seat.setPtScore(ptScore != null ? ptScore : 0.0);
+        seat.setPlacement(PtScoringKernel.rankOf(ranks, seatIndex));
+    }
+
+    /**
+     * 按已有的比赛ID顺序分页（从上一批的最大ID之后继续），为没有座位记录的比赛写入座位，每批单独提交，返回写入的行数
+     */
+    public int backfill() {
+        int inserted = 0;
+        long afterId = 0;
+        Long pageEndId;
+        // 按已有的比赛ID分批（每批 batchSize 场），ID 不连续时不会产生空批次
+        while ((pageEndId = matchResultRepository.findPageEndId(afterId, batchSize)) != null) {
+            long from = afterId + 1;
+            long to = pageEndId;
+            Integer count = transactionTemplate.execute(status -> seatRepository.backfillSeats(from, to));
+            inserted += count != null ? count : 0;
+            afterId = pageEndId;
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,377 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.match.RoundRecordDTO;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.NativeWebSocketSession;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 比赛成绩广播：每个比赛一个频道，比赛成绩提交后以 RoundRecordDTO 的格式序列化一次，
+ * 同一个 TextMessage 发送给频道内的全部连接；新连接先收到所订阅轮次的快照，之后接收实时更新
+ *
+ * 每个频道的订阅和广播按提交顺序在频道任务队列中依次执行（不同频道并行），任务只把消息放入各连接的发送队列，
+ * 不持有锁也不等待网络发送；连接的发送队列由发送线程池按顺序发送，队列已满或发送超时的连接直接断开。
+ * 发送队列中只保存共享消息的引用，内存占用与连接数成正比而与消息大小无关
+ */
+@Service
+public class ResultBroadcastService {
+
+    public static final String TYPE_SNAPSHOT = "snapshot";
+    public static final String TYPE_CREATED = "created";
+    public static final String TYPE_UPDATED = "updated";
+    public static final String TYPE_DELETED = "deleted";
+
+    // Tomcat 阻塞发送的超时时间（毫秒），超时后发送抛出异常
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private AdvancementService advancementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${mj.result-broadcast.send-time-limit-ms:5000}")
+    private long sendTimeLimitMs;
+
+    @Value("${mj.result-broadcast.queue-size:64}")
+    private int queueSize;
+
+    @Value("${mj.result-broadcast.channel-threads:2}")
+    private int channelThreads;
+
+    @Value("${mj.result-broadcast.sender-threads:4}")
+    private int senderThreads;
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    // 执行频道任务（订阅时的快照查询和广播），不占用写入请求和握手请求的线程
+    private ExecutorService channelExecutor;
+    private ExecutorService senders;
+
+    private final LongAdder framesEncoded = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        channelExecutor = Executors.newFixedThreadPool(channelThreads, daemonThreads("match-result-broadcast"));
+        senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("match-result-send"));
+    }
+
+    @PreDestroy
+    void stop() {
+        channelExecutor.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    /**
+     * 连接订阅比赛频道，roundNumber 为空时使用比赛当前最高轮次的快照
+     */
+    public void subscribe(WebSocketSession session, Long competitionId, Integer roundNumber) {
+        Channel channel = channels.computeIfAbsent(competitionId, id -> new Channel());
+        Connection connection = new Connection(channel, session);
+        // 快照排在之前提交的广播之后、之后提交的广播之前，实时更新不会遗漏；
+        // 快照可能已包含稍后广播的记录，客户端按记录ID合并
+        channel.execute(() -> attach(channel, connection, competitionId, roundNumber));
+    }
+
+    /**
+     * 连接关闭时退出频道
+     */
+    public void unsubscribe(WebSocketSession session, Long competitionId) {
+        Channel channel = channels.get(competitionId);
+        if (channel != null) {
+            Connection connection = channel.connections.remove(session.getId());
+            if (connection != null) {
+                connection.discard();
+            }
+        }
+    }
+
+    /**
+     * 发布一场比赛成绩的变化（需在比赛成绩写入的同一事务中调用，提交后广播，回滚则不广播）
+     */
+    public void publish(MatchResult matchResult, String type) {
+        // 在事务内转换，玩家信息仍可加载
+        RoundRecordMessage message = new RoundRecordMessage(type, matchResult.getCompetition().getId(),
+                matchResult.getRoundNumber(), List.of(RoundRecordDTO.fromMatchResult(matchResult)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueBroadcast(message);
+                }
+            });
+        } else {
+            enqueueBroadcast(message);
+        }
+    }
+
+    private void enqueueBroadcast(RoundRecordMessage message) {
+        Channel channel = channels.get(message.getCompetitionId());
+        if (channel != null) {
+            channel.execute(() -> broadcast(channel, message));
+        }
+    }
+
+    /**
+     * 在频道任务中发送快照并加入频道
+     */
+    private void attach(Channel channel, Connection connection, Long competitionId, Integer roundNumber) {
+        if (!connection.session.isOpen()) {
+            return;
+        }
+        try {
+            Integer snapshotRound = roundNumber != null ? roundNumber : advancementService.getCurrentMaxRound(competitionId);
+            TextMessage snapshot = channel.snapshots.get(snapshotRound);
+            if (snapshot == null) {
+                List<RoundRecordDTO> records = matchResultRepository
+                        .findWithPlayersByCompetitionAndRound(competitionId, snapshotRound).stream()
+                        .map(RoundRecordDTO::fromMatchResult)
+                        .toList();
+                snapshot = encode(new RoundRecordMessage(TYPE_SNAPSHOT, competitionId, snapshotRound, records));
+                channel.snapshots.put(snapshotRound, snapshot);
+            }
+            channel.connections.put(connection.session.getId(), connection);
+            connection.offer(snapshot);
+        } catch (RuntimeException e) {
+            System.err.println("订阅比赛成绩失败: " + e.getMessage());
+            connection.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    /**
+     * 在频道任务中把消息放入频道内全部连接的发送队列
+     */
+    private void broadcast(Channel channel, RoundRecordMessage message) {
+        TextMessage frame = encode(message);
+        channel.snapshots.remove(message.getRoundNumber());
+        for (Connection connection : channel.connections.values()) {
+            connection.offer(frame);
+        }
+    }
+
+    private TextMessage encode(RoundRecordMessage message) {
+        try {
+            TextMessage frame = new TextMessage(objectMapper.writeValueAsString(message));
+            framesEncoded.increment();
+            return frame;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化比赛成绩消息失败", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int getSessionCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.connections.size();
+        }
+        return count;
+    }
+
+    /**
+     * 已序列化的消息数（每次广播或快照只序列化一次）
+     */
+    public long getFramesEncoded() {
+        return framesEncoded.sum();
+    }
+
+    /**
+     * 已发送的消息数（每个连接计一次）
+     */
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /**
+     * 比赛频道：连接（会话ID -> 连接）、各轮次快照的缓存（快照在该轮次有更新时失效），
+     * 以及按提交顺序依次执行的频道任务
+     */
+    private final class Channel {
+        private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+        private final Map<Integer, TextMessage> snapshots = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    channelExecutor.execute(this::runTasks);
+                } catch (RejectedExecutionException e) {
+                    // 服务正在关闭
+                    running.set(false);
+                }
+            }
+        }
+
+        private void runTasks() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("广播比赛成绩失败: " + e.getMessage());
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+            // 释放执行标记后仍有新任务时继续执行
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * 连接：有界发送队列，由发送线程池按顺序发送
+     */
+    private final class Connection {
+        private final Channel channel;
+        private final WebSocketSession session;
+        private final BlockingQueue<TextMessage> queue = new LinkedBlockingQueue<>(queueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Channel channel, WebSocketSession session) {
+            this.channel = channel;
+            this.session = session;
+            // 发送超时的连接由发送异常断开，不会长期占用发送线程
+            if (session instanceof NativeWebSocketSession) {
+                jakarta.websocket.Session nativeSession =
+                        ((NativeWebSocketSession) session).getNativeSession(jakarta.websocket.Session.class);
+                if (nativeSession != null) {
+                    nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimitMs);
+                }
+            }
+        }
+
+        private void offer(TextMessage frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // 客户端跟不上广播速度，断开后由客户端重连获取快照
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                TextMessage frame;
+                while (!closed.get() && (frame = queue.poll()) != null) {
+                    session.sendMessage(frame);
+                    messagesSent.increment();
+                }
+            } catch (IOException | RuntimeException e) {
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            } finally {
+                draining.set(false);
+            }
+            // 释放发送标记后仍有新消息入队时继续发送
+            if (!closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * 退出频道并关闭连接
+         */
+        private void close(CloseStatus status) {
+            if (!discard()) {
+                return;
+            }
+            try {
+                session.close(status);
+            } catch (IOException ignored) {
+                // 连接已断开
+            }
+        }
+
+        /**
+         * 退出频道并丢弃待发送的消息，已经退出时返回 false
+         */
+        private boolean discard() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            channel.connections.remove(session.getId(), this);
+            queue.clear();
+            return true;
+        }
+    }
+
+    /**
+     * 内部类：广播消息
+     */
+    public static class RoundRecordMessage {
+        private final String type;              // snapshot、created、updated 或 deleted
+        private final Long competitionId;
+        private final Integer roundNumber;
+        private final List<RoundRecordDTO> records;
+
+        public RoundRecordMessage(String type, Long competitionId, Integer roundNumber, List<RoundRecordDTO> records) {
+            this.type = type;
+            this.competitionId = competitionId;
+            this.roundNumber = roundNumber;
+            this.records = records;
+        }
+
+        public String getType() { return type; }
+        public Long getCompetitionId() { return competitionId; }
+        public Integer getRoundNumber() { return roundNumber; }
+        public List<RoundRecordDTO> getRecords() { return records; }
+    }
+}
@@ -0,0 +1,548 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchReport;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchRequest;
+import com.rogister.mjcompetition.dto.match.MatchResultCreateRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 成绩文件收件目录：监听 inbox 目录中记分员平板导出的成绩文件（.json / .csv），
+ * 在有界的解析线程池中并行解析，再由单个提交线程按比赛和轮次分组，经 MatchResultBatchService
+ * 以批量事务写入（与接口录入相同的校验和PT计算）
+ *
+ * 目录结构（mj.drop-folder.dir 下）：
+ * - inbox：放入待处理文件。写入方应先写临时文件再重命名为 .json / .csv，避免读取到未写完的文件
+ * - processing：处理中的文件，启动时其中的遗留文件放回 inbox 重新处理
+ * - done：写入成功的文件
+ * - failed：解析或校验失败的文件，同名的 .errors.txt 中记录错误信息
+ *
+ * 文件格式：
+ * - JSON：单个比赛成绩对象、对象数组，或 {competitionId, roundNumber, matches: [...]}，字段同 MatchResultCreateRequest
+ * - CSV：首行为表头，列名同 MatchResultCreateRequest 的字段名，每行一场比赛
+ * 一个文件中的比赛必须属于同一比赛的同一轮次；文件中任意一场有误时整个文件移入 failed
+ *
+ * 数据库暂时不可用（连接失败、锁等待超时、死锁等）时文件不算失败：留在 processing 中，
+ * 按指数退避（mj.drop-folder.retry-initial-ms 起，最长 mj.drop-folder.retry-max-ms）重新提交
+ */
+@Service
+public class ResultDropFolderService {
+
+    static final String INBOX = "inbox";
+    static final String PROCESSING = "processing";
+    static final String DONE = "done";
+    static final String FAILED = "failed";
+    static final String ERROR_REPORT_SUFFIX = ".errors.txt";
+
+    @Autowired
+    private MatchResultBatchService matchResultBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${mj.drop-folder.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mj.drop-folder.dir:${java.io.tmpdir}/mj-drop-folder}")
+    private String dropDir;
+
+    @Value("${mj.drop-folder.parser-threads:4}")
+    private int parserThreads;
+
+    // 解析任务队列和待提交队列的容量，队列满时监听线程自行解析、解析线程等待提交，形成背压
+    @Value("${mj.drop-folder.queue-capacity:1024}")
+    private int queueCapacity;
+
+    // 每个批量事务最多写入的比赛场数（不超过 mj.match-result-batch.max-rows）
+    @Value("${mj.drop-folder.batch-rows:200}")
+    private int batchRows;
+
+    @Value("${mj.drop-folder.batch-wait-ms:200}")
+    private long batchWaitMs;
+
+    @Value("${mj.drop-folder.retry-initial-ms:1000}")
+    private long retryInitialMs;
+
+    @Value("${mj.drop-folder.retry-max-ms:60000}")
+    private long retryMaxMs;
+
+    private Path inbox;
+    private Path processing;
+    private Path done;
+    private Path failed;
+
+    private volatile boolean running;
+    private WatchService watchService;
+    private ThreadPoolExecutor parsers;
+    private BlockingQueue<ParsedFile> parsedFiles;
+    private Thread watcher;
+    private Thread committer;
+    private ScheduledExecutorService retries;
+
+    // 已交给解析线程、尚未移出 processing 的文件名，避免监听事件和目录扫描重复提交
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path root = Paths.get(dropDir).toAbsolutePath();
+        inbox = Files.createDirectories(root.resolve(INBOX));
+        processing = Files.createDirectories(root.resolve(PROCESSING));
+        done = Files.createDirectories(root.resolve(DONE));
+        failed = Files.createDirectories(root.resolve(FAILED));
+
+        // 上次停止时未处理完的文件放回收件目录
+        try (Stream<Path> leftovers = Files.list(processing)) {
+            for (Path file : leftovers.toList()) {
+                Files.move(file, uniqueTarget(inbox, file.getFileName().toString()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        parsedFiles = new ArrayBlockingQueue<>(queueCapacity);
+        parsers = new ThreadPoolExecutor(parserThreads, parserThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("drop-folder-parse"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        // 先注册监听再扫描已有文件，避免遗漏扫描期间放入的文件
+        watchService = FileSystems.getDefault().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+
+        retries = Executors.newSingleThreadScheduledExecutor(daemonThreads("drop-folder-retry"));
+
+        running = true;
+        committer = daemonThreads("drop-folder-commit").newThread(this::commitLoop);
+        committer.start();
+        watcher = daemonThreads("drop-folder-watch").newThread(this::watchLoop);
+        watcher.start();
+        System.out.println("成绩文件收件目录已启动: " + inbox);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("关闭成绩文件目录监听失败: " + e.getMessage());
+        }
+        parsers.shutdownNow();
+        retries.shutdownNow();
+        committer.interrupt();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * 监听线程：处理目录事件，事件溢出时重新扫描整个目录
+     */
+    private void watchLoop() {
+        scanInbox();
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    scanInbox();
+                } else {
+                    dispatch(inbox.resolve((Path) event.context()));
+                }
+            }
+            key.reset();
+        }
+    }
+
+    private void scanInbox() {
+        try (Stream<Path> files = Files.list(inbox)) {
+            files.forEach(this::dispatch);
+        } catch (IOException e) {
+            System.err.println("扫描成绩文件目录失败: " + e.getMessage());
+        }
+    }
+
+    private void dispatch(Path file) {
+        String name = file.getFileName().toString();
+        if (!isResultFile(name) || !inFlight.add(name)) {
+            return;
+        }
+        try {
+            parsers.execute(() -> claimAndParse(file));
+        } catch (RejectedExecutionException e) {
+            // 已停止
+            inFlight.remove(name);
+        }
+    }
+
+    static boolean isResultFile(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return !lower.startsWith(".") && (lower.endsWith(".json") || lower.endsWith(".csv"));
+    }
+
+    /**
+     * 解析线程：将文件移入 processing 后解析，解析结果交给提交线程
+     */
+    private void claimAndParse(Path file) {
+        String name = file.getFileName().toString();
+        Path claimed = processing.resolve(name);
+        try {
+            Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // 文件已被处理或移走
+            inFlight.remove(name);
+            return;
+        } catch (IOException e) {
+            System.err.println("读取成绩文件失败: " + name + ", " + e.getMessage());
+            inFlight.remove(name);
+            return;
+        }
+
+        ParsedFile parsed;
+        try {
+            parsed = parse(claimed);
+        } catch (Exception e) {
+            fail(claimed, List.of("文件解析失败: " + e.getMessage()));
+            return;
+        }
+        try {
+            parsedFiles.put(parsed);
+        } catch (InterruptedException e) {
+            // 停止时留在 processing 中，下次启动重新处理
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ParsedFile parse(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        List<MatchResultCreateRequest> rows = name.endsWith(".csv") ? parseCsv(file) : parseJson(file);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("文件中没有比赛成绩");
+        }
+
+        Long competitionId = rows.get(0).getCompetitionId();
+        Integer roundNumber = rows.get(0).getRoundNumber();
+        if (competitionId == null || roundNumber == null) {
+            throw new IllegalArgumentException("缺少比赛ID或轮次编号");
+        }
+        for (MatchResultCreateRequest row : rows) {
+            if (!competitionId.equals(row.getCompetitionId()) || !roundNumber.equals(row.getRoundNumber())) {
+                throw new IllegalArgumentException("文件中的比赛成绩必须属于同一比赛的同一轮次");
+            }
+        }
+        return new ParsedFile(file, competitionId, roundNumber, rows);
+    }
+
+    private List<MatchResultCreateRequest> parseJson(Path file) throws IOException {
+        JsonNode root = objectMapper.readTree(file.toFile());
+        List<MatchResultCreateRequest> rows = new ArrayList<>();
+        if (root == null) {
+            return rows;
+        }
+        if (root.isArray()) {
+            for (JsonNode node : root) {
+                rows.add(objectMapper.treeToValue(node, MatchResultCreateRequest.class));
+            }
+        } else if (root.has("matches")) {
+            MatchResultBatchRequest request = objectMapper.treeToValue(root, MatchResultBatchRequest.class);
+            if (request.getMatches() != null) {
+                for (MatchResultCreateRequest row : request.getMatches()) {
+                    if (row.getCompetitionId() == null) {
+                        row.setCompetitionId(request.getCompetitionId());
+                    }
+                    if (row.getRoundNumber() == null) {
+                        row.setRoundNumber(request.getRoundNumber());
+                    }
+                    rows.add(row);
+                }
+            }
+        } else {
+            rows.add(objectMapper.treeToValue(root, MatchResultCreateRequest.class));
+        }
+        return rows;
+    }
+
+    private List<MatchResultCreateRequest> parseCsv(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<MatchResultCreateRequest> rows = new ArrayList<>();
+        if (lines.isEmpty()) {
+            return rows;
+        }
+        String headerLine = lines.get(0);
+        if (!headerLine.isEmpty() && headerLine.charAt(0) == '\uFEFF') {
+            headerLine = headerLine.substring(1);
+        }
+        List<String> header = parseCsvLine(headerLine);
+
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(lines.get(i));
+            Map<String, String> values = new HashMap<>();
+            for (int column = 0; column < header.size() && column < fields.size(); column++) {
+                String value = fields.get(column).trim();
+                if (!value.isEmpty()) {
+                    values.put(header.get(column).trim(), value);
+                }
+            }
+            try {
+                rows.add(objectMapper.convertValue(values, MatchResultCreateRequest.class));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("第" + i + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 解析一行 CSV，支持双引号包裹的字段和 "" 转义
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"') {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 提交线程：攒批后按比赛和轮次分组写入
+     */
+    private void commitLoop() {
+        while (running) {
+            List<ParsedFile> batch = new ArrayList<>();
+            try {
+                ParsedFile first = parsedFiles.poll(batchWaitMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int rows = first.rows.size();
+                ParsedFile next;
+                while (rows < batchRows && (next = parsedFiles.poll()) != null) {
+                    batch.add(next);
+                    rows += next.rows.size();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Map<String, List<ParsedFile>> groups = new LinkedHashMap<>();
+            for (ParsedFile file : batch) {
+                groups.computeIfAbsent(file.competitionId + ":" + file.roundNumber, key -> new ArrayList<>()).add(file);
+            }
+            for (List<ParsedFile> group : groups.values()) {
+                try {
+                    commitGroup(group);
+                } catch (RuntimeException e) {
+                    System.err.println("写入成绩文件失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入同一比赛同一轮次的一组文件：有错误的文件移入 failed，其余文件重新提交，直到全部写入
+     */
+    private void commitGroup(List<ParsedFile> files) {
+        Long competitionId = files.get(0).competitionId;
+        Integer roundNumber = files.get(0).roundNumber;
+        List<ParsedFile> pending = new ArrayList<>(files);
+
+        while (!pending.isEmpty()) {
+            List<MatchResultCreateRequest> rows = new ArrayList<>();
+            List<ParsedFile> fileOfRow = new ArrayList<>();
+            for (ParsedFile file : pending) {
+                file.firstRow = rows.size() + 1;
+                for (MatchResultCreateRequest row : file.rows) {
+                    rows.add(row);
+                    fileOfRow.add(file);
+                }
+            }
+
+            MatchResultBatchReport report;
+            try {
+                report = matchResultBatchService.ingest(new MatchResultBatchRequest(competitionId, roundNumber, rows), false);
+            } catch (TransientDataAccessException | DataAccessResourceFailureException
+                     | CannotCreateTransactionException e) {
+                // 数据库暂时不可用，与文件内容无关，整组稍后重试
+                retryLater(pending, e);
+                return;
+            } catch (RuntimeException e) {
+                if (pending.size() > 1) {
+                    // 整批失败时逐个文件重试，只让出错的文件进入 failed
+                    for (ParsedFile file : pending) {
+                        commitGroup(List.of(file));
+                    }
+                } else {
+                    fail(pending.get(0).path, List.of(e.getMessage()));
+                }
+                return;
+            }
+
+            if (report.isValid()) {
+                for (ParsedFile file : pending) {
+                    complete(file.path);
+                }
+                return;
+            }
+
+            Map<ParsedFile, List<String>> errors = new LinkedHashMap<>();
+            for (MatchResultBatchReport.RowError error : report.getErrors()) {
+                ParsedFile file = fileOfRow.get(error.getRow() - 1);
+                errors.computeIfAbsent(file, key -> new ArrayList<>())
+                        .add("第" + (error.getRow() - file.firstRow + 1) + "场: " + error.getMessage());
+            }
+            for (Map.Entry<ParsedFile, List<String>> entry : errors.entrySet()) {
+                fail(entry.getKey().path, entry.getValue());
+            }
+            pending.removeAll(errors.keySet());
+        }
+    }
+
+    /**
+     * 数据库暂时不可用时文件留在 processing 中，按指数退避放回待提交队列
+     */
+    private void retryLater(List<ParsedFile> files, RuntimeException e) {
+        for (ParsedFile file : files) {
+            long delay = Math.min(retryMaxMs, retryInitialMs << Math.min(file.attempts, 16));
+            file.attempts++;
+            System.err.println("数据库暂时不可用，" + delay + "毫秒后重新写入成绩文件: " + file.path.getFileName()
+                    + ", " + e.getMessage());
+            try {
+                retries.schedule(() -> requeue(file), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                // 已停止，留在 processing 中，下次启动重新处理
+            }
+        }
+    }
+
+    private void requeue(ParsedFile file) {
+        try {
+            parsedFiles.put(file);
+        } catch (InterruptedException e) {
+            // 停止时留在 processing 中，下次启动重新处理
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void complete(Path file) {
+        try {
+            Files.move(file, uniqueTarget(done, file.getFileName().toString()), StandardCopyOption.ATOMIC_MOVE);
+            completedCount.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("移动成绩文件失败: " + file + ", " + e.getMessage());
+        } finally {
+            inFlight.remove(file.getFileName().toString());
+        }
+    }
+
+    private void fail(Path file, List<String> messages) {
+        try {
+            Path target = uniqueTarget(failed, file.getFileName().toString());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.write(target.resolveSibling(target.getFileName() + ERROR_REPORT_SUFFIX), messages, StandardCharsets.UTF_8);
+            failedCount.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("移动成绩文件失败: " + file + ", " + e.getMessage());
+        } finally {
+            inFlight.remove(file.getFileName().toString());
+        }
+    }
+
+    /**
+     * 目标目录中已有同名文件时在文件名前加上时间戳
+     */
+    private static Path uniqueTarget(Path dir, String name) {
+        Path target = dir.resolve(name);
+        while (Files.exists(target)) {
+            target = dir.resolve(System.nanoTime() + "-" + name);
+        }
+        return target;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong sequence = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 解析后的成绩文件
+     */
+    static final class ParsedFile {
+        private final Path path;
+        private final Long competitionId;
+        private final Integer roundNumber;
+        private final List<MatchResultCreateRequest> rows;
+        // 在本次提交的成绩表中的起始行号
+        private int firstRow;
+        // 因数据库暂时不可用而重试的次数
+        private int attempts;
+
+        ParsedFile(Path path, Long competitionId, Integer roundNumber, List<MatchResultCreateRequest> rows) {
+            this.path = path;
+            this.competitionId = competitionId;
+            this.roundNumber = roundNumber;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rogister.mjcompetition.service.competition;
+
+/**
+ * 轮次数据变化事件：比赛成绩、晋级状态等写入提交、版本号更新后由 CompetitionVersionService 发布；
+ * roundNumber 为 null 表示影响比赛的所有轮次（如比赛信息修改）
+ */
+public class RoundChangedEvent {
+
+    private final Long competitionId;
+    private final Integer roundNumber;
+
+    public RoundChangedEvent(Long competitionId, Integer roundNumber) {
+        this.competitionId = competitionId;
+        this.roundNumber = roundNumber;
+    }
+
+    public Long getCompetitionId() { return competitionId; }
+    public Integer getRoundNumber() { return roundNumber; }
+}
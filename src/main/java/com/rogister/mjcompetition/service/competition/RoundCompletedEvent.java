@@ -0,0 +1,18 @@
+package com.rogister.mjcompetition.service.competition;
+
+/**
+ * 轮次完成事件：由 AdvancementService.completeRound 发布，事务提交后生成轮次结果快照
+ */
+public class RoundCompletedEvent {
+
+    private final Long competitionId;
+    private final Integer roundNumber;
+
+    public RoundCompletedEvent(Long competitionId, Integer roundNumber) {
+        this.competitionId = competitionId;
+        this.roundNumber = roundNumber;
+    }
+
+    public Long getCompetitionId() { return competitionId; }
+    public Integer getRoundNumber() { return roundNumber; }
+}
@@ -0,0 +1,401 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.match.PlayerRankingDTO;
+import com.rogister.mjcompetition.dto.match.RoundRecordDTO;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 轮次结果快照：轮次完成后，将比赛状态（含个人和团队排名）、格式化排名和格式化比赛记录的完整响应
+ * 渲染为 gzip 压缩的 JSON 文件，之后这些接口直接从磁盘发送文件（Tomcat 下使用 sendfile 零拷贝）；
+ * 客户端仍按 ETag 重新验证
+ *
+ * 快照按轮次版本号生成，轮次有任何写入（修改比赛成绩、晋级、重新开放等）后版本号变化，
+ * 旧快照失效；下次读取时若轮次仍为已完成则重新生成，否则回到实时计算
+ *
+ * 每个实例在快照目录下使用独立的子目录，关闭时只删除本实例生成的文件
+ */
+@Service
+public class RoundSnapshotService {
+
+    public static final String KIND_STATUS = "status";
+    public static final String KIND_RANKINGS = "rankings";
+    public static final String KIND_RECORDS = "records";
+
+    private static final List<String> KINDS = List.of(KIND_STATUS, KIND_RANKINGS, KIND_RECORDS);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    @Autowired
+    private CompetitionStatusCache competitionStatusCache;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private TeamRoundStatusRepository teamRoundStatusRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${mj.round-snapshot.dir:${java.io.tmpdir}/mj-round-snapshots}")
+    private String snapshotDir;
+
+    // 被替换的快照文件延迟删除，避免正在发送的文件被提前删除
+    @Value("${mj.round-snapshot.delete-delay-ms:60000}")
+    private long deleteDelayMs;
+
+    // 本实例的快照子目录
+    private Path root;
+
+    // 键为 比赛ID:轮次号；只为已开始的轮次建立
+    private final ConcurrentHashMap<String, RoundEntry> entries = new ConcurrentHashMap<>();
+
+    // 本实例生成且尚未删除的快照文件
+    private final Set<Path> createdFiles = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "round-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() throws IOException {
+        Path base = Paths.get(snapshotDir).toAbsolutePath();
+        Files.createDirectories(base);
+        // 同一目录可能被多个实例共用，每个实例只使用自己的子目录
+        root = Files.createTempDirectory(base, "instance-");
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdownNow();
+        for (Path file : createdFiles) {
+            deleteFile(file);
+        }
+        // 子目录中只剩本实例建立的空目录，从深到浅删除；非空目录（有外部文件）保留
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path dir : paths.sorted(Comparator.reverseOrder()).toList()) {
+                try {
+                    Files.deleteIfExists(dir);
+                } catch (IOException e) {
+                    // 目录非空时保留
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("清理轮次快照目录失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 轮次完成并提交后，在后台生成全部快照
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoundCompleted(RoundCompletedEvent event) {
+        worker.execute(() -> {
+            try {
+                for (String kind : KINDS) {
+                    resolve(event.getCompetitionId(), event.getRoundNumber(), kind);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("生成轮次快照失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 轮次已完成且客户端接受 gzip（且未要求 CBOR）时，直接发送快照文件并返回 true（控制器直接返回 null）；
+     * 否则返回 false，由控制器实时计算
+     */
+    public boolean serve(String kind, Long competitionId, Integer roundNumber,
+                         HttpServletRequest request, HttpServletResponse response) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return false;
+        }
+        // 快照只有 JSON 格式，请求 CBOR 时实时计算
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return false;
+        }
+        Path file;
+        try {
+            file = resolve(competitionId, roundNumber, kind);
+        } catch (RuntimeException e) {
+            System.err.println("读取轮次快照失败: " + e.getMessage());
+            return false;
+        }
+        if (file == null) {
+            return false;
+        }
+
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            System.err.println("读取轮次快照失败: " + e.getMessage());
+            return false;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // 与实时响应一致：可以缓存，但每次使用前按 ETag 重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // 由 Tomcat 在响应时通过 sendfile 直接从文件发送到套接字
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            OutputStream out = response.getOutputStream();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, Channels.newChannel(out));
+            }
+            out.flush();
+        } catch (IOException e) {
+            // 响应已开始发送（通常是客户端断开），不再回退到实时计算
+            System.err.println("发送轮次快照失败: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * 获取轮次当前版本的快照文件，轮次未完成时返回 null；快照不存在时生成。
+     * 完成状态的查询和快照的生成都在映射之外进行，同一轮次和类型的并发请求等待同一个结果
+     */
+    Path resolve(Long competitionId, Integer roundNumber, String kind) {
+        String key = competitionId + ":" + roundNumber;
+        long version = competitionVersionService.getRoundStamp(competitionId, roundNumber).getVersion();
+
+        RoundEntry entry = entries.get(key);
+        if (entry == null || entry.version < version) {
+            // 不存在的轮次不建立缓存项
+            if (roundNumber == null || roundNumber < 1
+                    || roundNumber > competitionStatusCache.getCurrentMaxRound(competitionId)) {
+                return null;
+            }
+            RoundEntry created = new RoundEntry(version);
+            RoundEntry[] replaced = new RoundEntry[1];
+            entry = entries.compute(key, (k, current) -> {
+                if (current != null && current.version >= version) {
+                    return current;
+                }
+                replaced[0] = current;
+                return created;
+            });
+            if (replaced[0] != null) {
+                scheduleDelete(replaced[0]);
+            }
+            if (entry == created) {
+                // 先读取版本号再读取数据，数据不会比版本号旧
+                try {
+                    Boolean completed = roundCompletion(competitionId, roundNumber);
+                    if (completed == null) {
+                        // 轮次还没有状态记录
+                        entries.remove(key, created);
+                        completed = false;
+                    }
+                    created.completed.complete(completed);
+                } catch (RuntimeException e) {
+                    entries.remove(key, created);
+                    created.completed.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        if (!await(entry.completed)) {
+            return null;
+        }
+
+        return snapshotFile(entry, competitionId, roundNumber, kind);
+    }
+
+    private Path snapshotFile(RoundEntry entry, Long competitionId, Integer roundNumber, String kind) {
+        CompletableFuture<Path> future = entry.files.get(kind);
+        // 文件被外部删除时重新生成
+        if (future != null && future.isDone() && !future.isCompletedExceptionally() && !Files.exists(future.join())) {
+            entry.files.remove(kind, future);
+            future = null;
+        }
+        if (future == null) {
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            future = entry.files.putIfAbsent(kind, created);
+            if (future == null) {
+                future = created;
+                try {
+                    created.complete(render(entry, competitionId, roundNumber, kind));
+                } catch (RuntimeException e) {
+                    entry.files.remove(kind, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return await(future);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 轮次已完成：没有活跃状态的玩家或团队；轮次没有任何状态记录时返回 null
+     */
+    private Boolean roundCompletion(Long competitionId, Integer roundNumber) {
+        long playerTotal = playerRoundStatusRepository.countByCompetitionIdAndRoundNumber(competitionId, roundNumber);
+        long teamTotal = teamRoundStatusRepository.countByCompetitionIdAndRoundNumber(competitionId, roundNumber);
+        if (playerTotal + teamTotal == 0) {
+            return null;
+        }
+        return playerRoundStatusRepository.countByCompetitionIdAndRoundNumberAndStatus(
+                        competitionId, roundNumber, PlayerRoundStatus.RoundStatus.ACTIVE) == 0
+                && teamRoundStatusRepository.countByCompetitionIdAndRoundNumberAndStatus(
+                        competitionId, roundNumber, TeamRoundStatus.RoundStatus.ACTIVE) == 0;
+    }
+
+    private Path render(RoundEntry entry, Long competitionId, Integer roundNumber, String kind) {
+        Object body = transactionTemplate.execute(status -> buildResponse(competitionId, roundNumber, kind));
+        Path dir = root.resolve(String.valueOf(competitionId)).resolve(String.valueOf(roundNumber));
+        Path file = dir.resolve(kind + "-" + entry.version + ".json.gz");
+        Path temp = null;
+        try {
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, kind, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, body);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            createdFiles.add(file);
+            return file;
+        } catch (IOException e) {
+            if (temp != null) {
+                deleteFile(temp);
+            }
+            throw new UncheckedIOException("写入轮次快照失败", e);
+        }
+    }
+
+    /**
+     * 生成与对应接口一致的完整响应
+     */
+    private ApiResponse<?> buildResponse(Long competitionId, Integer roundNumber, String kind) {
+        if (KIND_STATUS.equals(kind)) {
+            return ApiResponse.success("查询比赛状态成功",
+                    competitionStatusCache.getCurrentCompetitionStatus(competitionId, roundNumber));
+        }
+
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("比赛不存在，ID: " + competitionId));
+        if (KIND_RANKINGS.equals(kind)) {
+            List<MatchResultService.PlayerRoundRanking> rankings = matchResultService
+                    .calculatePlayerRoundRankings(competition, roundNumber);
+            for (int i = 0; i < rankings.size(); i++) {
+                rankings.get(i).setRank(i + 1);
+            }
+            return ApiResponse.success(rankings.stream().map(PlayerRankingDTO::fromPlayerRoundRanking).toList());
+        }
+        return ApiResponse.success(matchResultService.findRoundRecordViews(competition, roundNumber, false)
+                .stream()
+                .map(RoundRecordDTO::fromView)
+                .toList());
+    }
+
+    /**
+     * 延迟删除被替换的快照文件；仍在生成中的文件在生成完成后再计时
+     */
+    private void scheduleDelete(RoundEntry entry) {
+        for (CompletableFuture<Path> future : entry.files.values()) {
+            future.thenAccept(file -> worker.schedule(() -> deleteFile(file), deleteDelayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            createdFiles.remove(file);
+        } catch (IOException e) {
+            System.err.println("删除轮次快照失败: " + file);
+        }
+    }
+
+    /**
+     * 轮次在某一版本下的完成状态和已生成（或生成中）的快照文件
+     */
+    private static final class RoundEntry {
+        private final long version;
+        private final CompletableFuture<Boolean> completed = new CompletableFuture<>();
+        private final Map<String, CompletableFuture<Path>> files = new ConcurrentHashMap<>();
+
+        private RoundEntry(long version) {
+            this.version = version;
+        }
+    }
+}
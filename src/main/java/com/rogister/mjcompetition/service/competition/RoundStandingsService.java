@@ -0,0 +1,333 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.competition.RoundPlayerStandingRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.util.PtScoringKernel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * 轮次积分榜维护：比赛成绩写入时按增量更新，并提供重建和一致性检查
+ *
+ * 增量更新前先插入（已存在则忽略）玩家的积分榜记录，再以 SELECT ... FOR UPDATE 锁定：
+ * 记录不存在时加锁查询锁不住任何行，并发的第一场成绩会同时插入，导致唯一约束冲突或间隙锁死锁
+ */
+@Service
+@Order(3)
+public class RoundStandingsService implements CommandLineRunner {
+
+    private static final double PT_TOLERANCE = 1e-6;
+
+    private static final String INSERT_STANDING_COLUMNS = "round_player_standings (competition_id, round_number, player_id, " +
+            "pt_total, score_total, penalty_total, match_count, first_place_count, second_place_count, third_place_count, " +
+            "fourth_place_count) VALUES (?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0)";
+
+    @Autowired
+    private RoundPlayerStandingRepository standingRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 数据库是否支持 INSERT IGNORE（MariaDB/MySQL），首次使用时检测
+    private volatile Boolean insertIgnoreSupported;
+
+    /**
+     * 应用启动时，传入 --rebuild-standings 或积分榜为空而已有比赛成绩时，全量重建积分榜
+     */
+    @Override
+    @Transactional
+    public void run(String... args) throws Exception {
+        boolean forced = Arrays.asList(args).contains("--rebuild-standings");
+        if (forced || (standingRepository.count() == 0 && matchResultRepository.count() > 0)) {
+            System.out.println("正在重建轮次积分榜...");
+            int rounds = rebuildAll();
+            System.out.println("轮次积分榜重建完成，共 " + rounds + " 个轮次");
+        }
+    }
+
+    /**
+     * 计入一场比赛成绩（需在比赛成绩保存的同一事务中调用）
+     */
+    @Transactional
+    public void recordMatchResult(MatchResult matchResult) {
+        applyMatchResults(matchResult.getCompetition().getId(), matchResult.getRoundNumber(), List.of(matchResult), 1);
+    }
+
+    /**
+     * 计入同一轮次的多场比赛成绩：一次查询锁定涉及的全部积分榜记录（需在比赛成绩保存的同一事务中调用）
+     */
+    @Transactional
+    public void recordMatchResults(Long competitionId, Integer roundNumber, List<MatchResult> matchResults) {
+        applyMatchResults(competitionId, roundNumber, matchResults, 1);
+    }
+
+    /**
+     * 撤销一场比赛成绩（需在比赛成绩修改或删除之前、同一事务中调用）
+     */
+    @Transactional
+    public void revokeMatchResult(MatchResult matchResult) {
+        applyMatchResults(matchResult.getCompetition().getId(), matchResult.getRoundNumber(), List.of(matchResult), -1);
+    }
+
+    /**
+     * 将同一轮次的比赛成绩以带符号的增量写入积分榜：一次插入缺失的记录，再一次查询按玩家ID顺序锁定涉及的全部记录，
+     * 在内存中累加后写回。加锁顺序与座位无关，共享玩家的并发写入不会互相等待成环
+     */
+    private void applyMatchResults(Long competitionId, Integer roundNumber, List<MatchResult> matchResults, int sign) {
+        if (matchResults.isEmpty()) {
+            return;
+        }
+
+        Set<Long> playerIds = new TreeSet<>();
+        for (MatchResult matchResult : matchResults) {
+            playerIds.add(matchResult.getEastPlayer().getId());
+            playerIds.add(matchResult.getSouthPlayer().getId());
+            playerIds.add(matchResult.getWestPlayer().getId());
+            playerIds.add(matchResult.getNorthPlayer().getId());
+        }
+
+        ensureStandings(competitionId, roundNumber, playerIds);
+        Map<Long, RoundPlayerStanding> standings = new HashMap<>();
+        for (RoundPlayerStanding standing : standingRepository.findForUpdateByPlayerIds(competitionId, roundNumber, playerIds)) {
+            standings.put(standing.getPlayer().getId(), standing);
+        }
+
+        for (MatchResult matchResult : matchResults) {
+            int ranks = matchResult.resolveSeatRanks();
+            accumulateSeat(standings, matchResult.getEastPlayer(), sign, matchResult.getEastPtScore(),
+                    matchResult.getEastScore(), matchResult.getEastPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.EAST));
+            accumulateSeat(standings, matchResult.getSouthPlayer(), sign, matchResult.getSouthPtScore(),
+                    matchResult.getSouthScore(), matchResult.getSouthPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.SOUTH));
+            accumulateSeat(standings, matchResult.getWestPlayer(), sign, matchResult.getWestPtScore(),
+                    matchResult.getWestScore(), matchResult.getWestPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.WEST));
+            accumulateSeat(standings, matchResult.getNorthPlayer(), sign, matchResult.getNorthPtScore(),
+                    matchResult.getNorthScore(), matchResult.getNorthPenalty(), PtScoringKernel.rankOf(ranks, PtScoringKernel.NORTH));
+        }
+
+        List<RoundPlayerStanding> changed = new ArrayList<>(standings.size());
+        for (RoundPlayerStanding standing : standings.values()) {
+            // 撤销到没有任何比赛时移除该玩家的记录
+            if (standing.getMatchCount() <= 0) {
+                standingRepository.delete(standing);
+            } else {
+                changed.add(standing);
+            }
+        }
+        standingRepository.saveAll(changed);
+    }
+
+    private static void accumulateSeat(Map<Long, RoundPlayerStanding> standings, Player player, int sign,
+                                       Double ptScore, Integer score, Integer penalty, int placement) {
+        RoundPlayerStanding standing = standings.get(player.getId());
+        if (standing == null) {
+            throw new RuntimeException("积分榜记录不存在，玩家ID: " + player.getId());
+        }
+        standing.applySeat(sign,
+                ptScore != null ? ptScore : 0.0,
+                score != null ? score : 0,
+                penalty != null ? penalty : 0,
+                placement);
+    }
+
+    /**
+     * 插入玩家尚不存在的积分榜记录（全部为0），已存在的记录不变；并发插入同一记录时只有一条成功，其余忽略
+     */
+    private void ensureStandings(Long competitionId, Integer roundNumber, Collection<Long> playerIds) {
+        // 先写出本事务中待执行的删除，避免刚删除的记录被当作已存在
+        standingRepository.flush();
+        if (isInsertIgnoreSupported()) {
+            List<Object[]> args = new ArrayList<>(playerIds.size());
+            for (Long playerId : playerIds) {
+                args.add(new Object[]{competitionId, roundNumber, playerId});
+            }
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + INSERT_STANDING_COLUMNS, args);
+            return;
+        }
+        for (Long playerId : playerIds) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + INSERT_STANDING_COLUMNS, competitionId, roundNumber, playerId);
+            } catch (DuplicateKeyException e) {
+                // 记录已存在
+            }
+        }
+    }
+
+    private boolean isInsertIgnoreSupported() {
+        Boolean supported = insertIgnoreSupported;
+        if (supported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            supported = product != null
+                    && (product.equalsIgnoreCase("MariaDB") || product.equalsIgnoreCase("MySQL"));
+            insertIgnoreSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * 根据比赛成绩重建某轮次的积分榜
+     */
+    @Transactional
+    public int rebuildRound(Long competitionId, Integer roundNumber) {
+        standingRepository.deleteByCompetitionIdAndRoundNumber(competitionId, roundNumber);
+
+        List<RoundPlayerStanding> standings = new ArrayList<>();
+        for (Object[] row : matchResultRepository.aggregatePlayerRoundStats(competitionId, roundNumber)) {
+            MatchResultService.PlayerRoundAggregate aggregate = MatchResultService.PlayerRoundAggregate.fromRow(row);
+
+            RoundPlayerStanding standing = new RoundPlayerStanding(competitionId, roundNumber,
+                    playerRepository.getReferenceById(aggregate.getPlayerId()));
+            standing.setPtTotal(aggregate.getPtScoreSum());
+            standing.setScoreTotal(aggregate.getScoreSum());
+            standing.setPenaltyTotal(aggregate.getPenaltySum());
+            standing.setMatchCount(aggregate.getAppearanceCount());
+            standing.setFirstPlaceCount(aggregate.getFirstPlaceCount());
+            standing.setSecondPlaceCount(aggregate.getSecondPlaceCount());
+            standing.setThirdPlaceCount(aggregate.getThirdPlaceCount());
+            standing.setFourthPlaceCount(aggregate.getFourthPlaceCount());
+            standings.add(standing);
+        }
+
+        standingRepository.saveAll(standings);
+        return standings.size();
+    }
+
+    /**
+     * 重建某场比赛所有轮次的积分榜，返回重建的轮次数
+     */
+    @Transactional
+    public int rebuildCompetition(Long competitionId) {
+        Set<Integer> roundNumbers = new TreeSet<>(standingRepository.findRoundNumbersByCompetitionId(competitionId));
+        roundNumbers.addAll(matchResultRepository.findRoundNumbersByCompetitionId(competitionId));
+
+        for (Integer roundNumber : roundNumbers) {
+            rebuildRound(competitionId, roundNumber);
+        }
+        return roundNumbers.size();
+    }
+
+    /**
+     * 全量重建积分榜，返回重建的轮次数
+     */
+    @Transactional
+    public int rebuildAll() {
+        standingRepository.deleteAllInBatch();
+
+        List<Object[]> competitionRounds = matchResultRepository.findDistinctCompetitionRounds();
+        for (Object[] competitionRound : competitionRounds) {
+            rebuildRound((Long) competitionRound[0], (Integer) competitionRound[1]);
+        }
+        return competitionRounds.size();
+    }
+
+    /**
+     * 检查某轮次积分榜与比赛成绩是否一致，返回所有不一致项（为空表示一致）
+     */
+    @Transactional(readOnly = true)
+    public List<StandingDiscrepancy> checkRound(Long competitionId, Integer roundNumber) {
+        Map<Long, MatchResultService.PlayerRoundAggregate> expected = new HashMap<>();
+        for (Object[] row : matchResultRepository.aggregatePlayerRoundStats(competitionId, roundNumber)) {
+            MatchResultService.PlayerRoundAggregate aggregate = MatchResultService.PlayerRoundAggregate.fromRow(row);
+            expected.put(aggregate.getPlayerId(), aggregate);
+        }
+
+        List<StandingDiscrepancy> discrepancies = new ArrayList<>();
+        for (RoundPlayerStanding standing : standingRepository.findByCompetitionIdAndRoundNumber(competitionId, roundNumber)) {
+            Long playerId = standing.getPlayer().getId();
+            MatchResultService.PlayerRoundAggregate aggregate = expected.remove(playerId);
+            if (aggregate == null) {
+                discrepancies.add(new StandingDiscrepancy(competitionId, roundNumber, playerId, "记录多余，该玩家本轮没有比赛成绩"));
+                continue;
+            }
+            compare(discrepancies, standing, aggregate);
+        }
+
+        for (Long playerId : expected.keySet()) {
+            discrepancies.add(new StandingDiscrepancy(competitionId, roundNumber, playerId, "缺少积分榜记录"));
+        }
+
+        return discrepancies;
+    }
+
+    /**
+     * 检查某场比赛所有轮次的积分榜
+     */
+    @Transactional(readOnly = true)
+    public List<StandingDiscrepancy> checkCompetition(Long competitionId) {
+        Set<Integer> roundNumbers = new TreeSet<>(standingRepository.findRoundNumbersByCompetitionId(competitionId));
+        roundNumbers.addAll(matchResultRepository.findRoundNumbersByCompetitionId(competitionId));
+
+        List<StandingDiscrepancy> discrepancies = new ArrayList<>();
+        for (Integer roundNumber : roundNumbers) {
+            discrepancies.addAll(checkRound(competitionId, roundNumber));
+        }
+        return discrepancies;
+    }
+
+    private void compare(List<StandingDiscrepancy> discrepancies, RoundPlayerStanding standing,
+                         MatchResultService.PlayerRoundAggregate aggregate) {
+        Long competitionId = standing.getCompetitionId();
+        Integer roundNumber = standing.getRoundNumber();
+        Long playerId = aggregate.getPlayerId();
+
+        if (Math.abs(standing.getPtTotal() - aggregate.getPtScoreSum()) > PT_TOLERANCE) {
+            discrepancies.add(new StandingDiscrepancy(competitionId, roundNumber, playerId,
+                    "PT总和不一致: " + standing.getPtTotal() + " / " + aggregate.getPtScoreSum()));
+        }
+        checkField(discrepancies, standing, playerId, "原始得分总和", standing.getScoreTotal(), aggregate.getScoreSum());
+        checkField(discrepancies, standing, playerId, "罚分总和", standing.getPenaltyTotal(), aggregate.getPenaltySum());
+        checkField(discrepancies, standing, playerId, "比赛场数", standing.getMatchCount(), aggregate.getAppearanceCount());
+        checkField(discrepancies, standing, playerId, "一位次数", standing.getFirstPlaceCount(), aggregate.getFirstPlaceCount());
+        checkField(discrepancies, standing, playerId, "二位次数", standing.getSecondPlaceCount(), aggregate.getSecondPlaceCount());
+        checkField(discrepancies, standing, playerId, "三位次数", standing.getThirdPlaceCount(), aggregate.getThirdPlaceCount());
+        checkField(discrepancies, standing, playerId, "四位次数", standing.getFourthPlaceCount(), aggregate.getFourthPlaceCount());
+    }
+
+    private void checkField(List<StandingDiscrepancy> discrepancies, RoundPlayerStanding standing, Long playerId,
+                            String field, int actual, int expected) {
+        if (actual != expected) {
+            discrepancies.add(new StandingDiscrepancy(standing.getCompetitionId(), standing.getRoundNumber(), playerId,
+                    field + "不一致: " + actual + " / " + expected));
+        }
+    }
+
+    /**
+     * 内部类：积分榜不一致项（描述中的数值为 积分榜 / 比赛成绩）
+     */
+    public static class StandingDiscrepancy {
+        private Long competitionId;
+        private Integer roundNumber;
+        private Long playerId;
+        private String description;
+
+        public StandingDiscrepancy(Long competitionId, Integer roundNumber, Long playerId, String description) {
+            this.competitionId = competitionId;
+            this.roundNumber = roundNumber;
+            this.playerId = playerId;
+            this.description = description;
+        }
+
+        public Long getCompetitionId() { return competitionId; }
+        public Integer getRoundNumber() { return roundNumber; }
+        public Long getPlayerId() { return playerId; }
+        public String getDescription() { return description; }
+    }
+}
@@ -0,0 +1,238 @@
+package com.rogister.mjcompetition.service.competition;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 比赛状态后台重算：写入提交后的 RoundChangedEvent 按比赛进入各自的队列，合并窗口内的多次变化
+ * 合并为一次重算，在后台线程重算缓存中受影响的比赛状态并发布新快照，请求线程不参与重算
+ *
+ * 每个比赛同一时间只有一个重算任务（单写者），重算期间到达的变化在本次结束后再合并重算一次；
+ * 不同比赛的重算在工作线程池中并行
+ *
+ * 只重算 CompetitionStatusCache 中已缓存的比赛状态。轮次积分榜（RoundStandingsService.applySeat）
+ * 和座位索引（MatchSeatIndexService.syncSeats）仍在写入事务中同步维护，
+ * 轮次排名接口（/round-rankings）仍在请求线程中读取积分榜
+ */
+@Service
+public class StandingsRecomputePipeline {
+
+    @Autowired
+    private CompetitionStatusCache competitionStatusCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${mj.recompute.threads:2}")
+    private int threads;
+
+    @Value("${mj.recompute.coalesce-ms:20}")
+    private long coalesceMs;
+
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder eventsDrained = new LongAdder();
+    private final LongAdder recomputeBursts = new LongAdder();
+    private final LongAdder recomputeNanos = new LongAdder();
+    private final AtomicLong lastRecomputeNanos = new AtomicLong();
+    private final AtomicLong maxRecomputeNanos = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("recompute-coalesce"));
+        workers = Executors.newFixedThreadPool(threads, daemonThreads("recompute-worker"));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 比赛数据变化（已提交）：记入比赛的队列，队列空闲时在合并窗口结束后开始重算
+     */
+    @EventListener
+    public void onRoundChanged(RoundChangedEvent event) {
+        Lane lane = lanes.computeIfAbsent(event.getCompetitionId(), Lane::new);
+        lane.add(event.getRoundNumber());
+        queueDepth.incrementAndGet();
+        eventsReceived.increment();
+        scheduleDrain(lane);
+    }
+
+    /**
+     * 获取后台重算统计
+     */
+    public RecomputeStats getStats() {
+        long bursts = recomputeBursts.sum();
+        int pendingLanes = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.scheduled.get() || lane.hasPending()) {
+                pendingLanes++;
+            }
+        }
+        return new RecomputeStats(queueDepth.get(), eventsReceived.sum(), eventsDrained.sum(), bursts,
+                lastRecomputeNanos.get() / 1_000_000.0,
+                bursts == 0 ? 0.0 : recomputeNanos.sum() / 1_000_000.0 / bursts,
+                maxRecomputeNanos.get() / 1_000_000.0,
+                pendingLanes);
+    }
+
+    private void scheduleDrain(Lane lane) {
+        if (lane.scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(() -> workers.execute(() -> drain(lane)), coalesceMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 应用关闭中
+                lane.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Lane lane) {
+        try {
+            Batch batch = lane.take();
+            if (batch.events == 0) {
+                return;
+            }
+            queueDepth.addAndGet(-batch.events);
+            eventsDrained.add(batch.events);
+            recomputeBursts.increment();
+
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        competitionStatusCache.refresh(lane.competitionId, batch.allRounds ? null : batch.rounds));
+            } catch (RuntimeException e) {
+                System.err.println("后台重算比赛状态失败，比赛ID: " + lane.competitionId + ", " + e.getMessage());
+            }
+            long elapsed = System.nanoTime() - start;
+            recomputeNanos.add(elapsed);
+            lastRecomputeNanos.set(elapsed);
+            maxRecomputeNanos.accumulateAndGet(elapsed, Math::max);
+        } finally {
+            lane.scheduled.set(false);
+            // 重算期间到达的变化
+            if (lane.hasPending()) {
+                scheduleDrain(lane);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 比赛的变化队列：尚未重算的轮次（或全部轮次）和事件数量
+     */
+    private static final class Lane {
+        private final Long competitionId;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private Set<Integer> rounds = new HashSet<>();
+        private boolean allRounds;
+        private int events;
+
+        private Lane(Long competitionId) {
+            this.competitionId = competitionId;
+        }
+
+        private synchronized void add(Integer roundNumber) {
+            if (roundNumber == null) {
+                allRounds = true;
+            } else {
+                rounds.add(roundNumber);
+            }
+            events++;
+        }
+
+        private synchronized boolean hasPending() {
+            return events > 0;
+        }
+
+        private synchronized Batch take() {
+            Batch batch = new Batch(rounds, allRounds, events);
+            rounds = new HashSet<>();
+            allRounds = false;
+            events = 0;
+            return batch;
+        }
+    }
+
+    private static final class Batch {
+        private final Set<Integer> rounds;
+        private final boolean allRounds;
+        private final int events;
+
+        private Batch(Set<Integer> rounds, boolean allRounds, int events) {
+            this.rounds = rounds;
+            this.allRounds = allRounds;
+            this.events = events;
+        }
+    }
+
+    /**
+     * 内部类：后台重算统计
+     */
+    public static class RecomputeStats {
+        private final long queueDepth;
+        private final long eventsReceived;
+        private final long eventsDrained;
+        private final long recomputeBursts;
+        private final double lastRecomputeMs;
+        private final double averageRecomputeMs;
+        private final double maxRecomputeMs;
+        private final int pendingLanes;
+
+        public RecomputeStats(long queueDepth, long eventsReceived, long eventsDrained, long recomputeBursts,
+                              double lastRecomputeMs, double averageRecomputeMs, double maxRecomputeMs, int pendingLanes) {
+            this.queueDepth = queueDepth;
+            this.eventsReceived = eventsReceived;
+            this.eventsDrained = eventsDrained;
+            this.recomputeBursts = recomputeBursts;
+            this.lastRecomputeMs = lastRecomputeMs;
+            this.averageRecomputeMs = averageRecomputeMs;
+            this.maxRecomputeMs = maxRecomputeMs;
+            this.pendingLanes = pendingLanes;
+        }
+
+        /**
+         * 合并比例：平均每次重算合并的变化事件数
+         */
+        public double getCoalescingRatio() {
+            return recomputeBursts == 0 ? 0.0 : (double) eventsDrained / recomputeBursts;
+        }
+
+        public long getQueueDepth() { return queueDepth; }
+        public long getEventsReceived() { return eventsReceived; }
+        public long getEventsDrained() { return eventsDrained; }
+        public long getRecomputeBursts() { return recomputeBursts; }
+        public double getLastRecomputeMs() { return lastRecomputeMs; }
+        public double getAverageRecomputeMs() { return averageRecomputeMs; }
+        public double getMaxRecomputeMs() { return maxRecomputeMs; }
+        public int getPendingLanes() { return pendingLanes; }
+    }
+}
@@ -0,0 +1,169 @@
+package com.rogister.mjcompetition.service.competition;
+
+import com.rogister.mjcompetition.entity.team.TeamMember;
+import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 团队轮次积分：以（比赛、轮次）为单位，一次读取团队-比赛索引（带团队归属的座位），
+ * 在一次遍历中得到团队总分、队员得分明细和团队顺位统计
+ */
+@Service
+public class TeamStandingsService {
+
+    @Autowired
+    private TeamRoundStatusRepository teamRoundStatusRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private MatchResultSeatRepository seatRepository;
+
+    /**
+     * 计算某轮次所有参赛团队的积分，按团队轮次状态的顺序返回（固定三次查询，与团队数量无关）
+     */
+    public List<TeamRoundStanding> calculateRoundStandings(Long competitionId, Integer roundNumber) {
+        List<TeamRoundStatus> roundStatuses = teamRoundStatusRepository
+                .findByCompetitionIdAndRoundNumber(competitionId, roundNumber);
+
+        Map<Long, TeamRoundStanding> byTeam = new LinkedHashMap<>();
+        for (TeamRoundStatus roundStatus : roundStatuses) {
+            byTeam.put(roundStatus.getTeam().getId(), new TeamRoundStanding(roundStatus));
+        }
+        if (byTeam.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        for (TeamMember member : teamMemberRepository.findActiveMembersOfRoundTeams(competitionId, roundNumber)) {
+            TeamRoundStanding standing = byTeam.get(member.getTeamId());
+            if (standing != null) {
+                standing.addMember(member);
+            }
+        }
+
+        // 团队-比赛索引中的座位按比赛成绩ID排序，同一场比赛的座位相邻；每个团队每场只计一次顺位
+        Long currentMatchId = null;
+        Set<Long> placedTeams = new HashSet<>(4);
+        for (Object[] row : seatRepository.findTeamSeatsByCompetitionIdAndRoundNumber(competitionId, roundNumber)) {
+            TeamRoundStanding standing = byTeam.get((Long) row[0]);
+            if (standing == null) {
+                continue;
+            }
+
+            Long matchResultId = (Long) row[1];
+            if (!matchResultId.equals(currentMatchId)) {
+                placedTeams.clear();
+                currentMatchId = matchResultId;
+            }
+
+            standing.addSeat((Long) row[2],
+                    row[3] != null ? (Integer) row[3] : 0,
+                    row[4] != null ? (Double) row[4] : 0.0);
+            if (placedTeams.add((Long) row[0]) && row[5] != null) {
+                standing.addPlacement((Integer) row[5]);
+            }
+        }
+
+        return new ArrayList<>(byTeam.values());
+    }
+
+    /**
+     * 内部类：团队轮次积分
+     */
+    public static class TeamRoundStanding {
+        private final TeamRoundStatus roundStatus;
+        private final List<TeamMember> members = new ArrayList<>();
+        private final Map<Long, MemberStanding> memberStandings = new HashMap<>();
+        private double ptScoreSum;           // 团队PT分数总和
+        private int scoreSum;                // 团队原始得分总和
+        private int appearanceCount;         // 出场次数（有队员参加的比赛场数）
+        private int firstPlaceCount;
+        private int secondPlaceCount;
+        private int thirdPlaceCount;
+        private int fourthPlaceCount;
+
+        TeamRoundStanding(TeamRoundStatus roundStatus) {
+            this.roundStatus = roundStatus;
+        }
+
+        void addMember(TeamMember member) {
+            members.add(member);
+            memberStandings.put(member.getPlayer().getId(), new MemberStanding(member.getPlayer().getId()));
+        }
+
+        void addSeat(Long playerId, int score, double ptScore) {
+            ptScoreSum += ptScore;
+            scoreSum += score;
+            MemberStanding memberStanding = memberStandings.computeIfAbsent(playerId, MemberStanding::new);
+            memberStanding.ptScoreSum += ptScore;
+            memberStanding.scoreSum += score;
+            memberStanding.appearanceCount++;
+        }
+
+        void addPlacement(int placement) {
+            appearanceCount++;
+            switch (placement) {
+                case 1: firstPlaceCount++; break;
+                case 2: secondPlaceCount++; break;
+                case 3: thirdPlaceCount++; break;
+                case 4: fourthPlaceCount++; break;
+            }
+        }
+
+        /**
+         * 获取队员的轮次积分，没有出场的队员返回空记录
+         */
+        public MemberStanding getMemberStanding(Long playerId) {
+            MemberStanding memberStanding = memberStandings.get(playerId);
+            return memberStanding != null ? memberStanding : new MemberStanding(playerId);
+        }
+
+        /**
+         * 平均顺位，没有出场时为0
+         */
+        public double getAveragePosition() {
+            if (appearanceCount == 0) {
+                return 0.0;
+            }
+            double totalPosition = firstPlaceCount + (secondPlaceCount * 2.0) +
+                    (thirdPlaceCount * 3.0) + (fourthPlaceCount * 4.0);
+            return totalPosition / appearanceCount;
+        }
+
+        public TeamRoundStatus getRoundStatus() { return roundStatus; }
+        public List<TeamMember> getMembers() { return members; }
+        public double getPtScoreSum() { return ptScoreSum; }
+        public int getScoreSum() { return scoreSum; }
+        public int getAppearanceCount() { return appearanceCount; }
+        public int getFirstPlaceCount() { return firstPlaceCount; }
+        public int getSecondPlaceCount() { return secondPlaceCount; }
+        public int getThirdPlaceCount() { return thirdPlaceCount; }
+        public int getFourthPlaceCount() { return fourthPlaceCount; }
+    }
+
+    /**
+     * 内部类：队员在团队中的轮次积分
+     */
+    public static class MemberStanding {
+        private final Long playerId;
+        private double ptScoreSum;
+        private int scoreSum;
+        private int appearanceCount;
+
+        MemberStanding(Long playerId) {
+            this.playerId = playerId;
+        }
+
+        public Long getPlayerId() { return playerId; }
+        public double getPtScoreSum() { return ptScoreSum; }
+        public int getScoreSum() { return scoreSum; }
+        public int getAppearanceCount() { return appearanceCount; }
+    }
+}
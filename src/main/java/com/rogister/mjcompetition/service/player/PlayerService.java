@@ -1,11 +1,16 @@
 package com.rogister.mjcompetition.service.player;
 
+import com.rogister.mjcompetition.dto.common.CursorPage;
 import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
 import com.rogister.mjcompetition.util.JwtUtil;
+import com.rogister.mjcompetition.util.PageTokens;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,6 +25,12 @@ public class PlayerService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private PageTokens pageTokens;
+    
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+    
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
     /**
@@ -103,8 +114,21 @@ public class PlayerService {
     }
     
     /**
-     * 更新玩家信息
+     * 按ID升序分页查询玩家，pageToken 为空时返回第一页
+     */
+    public CursorPage<Player> findPlayersPage(String pageToken, Integer pageSize) {
+        int size = pageTokens.resolvePageSize(pageSize);
+        PageTokens.Cursor cursor = pageTokens.decode("players", pageToken);
+        long afterId = cursor != null ? cursor.getId() : 0L;
+        
+        List<Player> rows = playerRepository.findPageAfter(afterId, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, player -> pageTokens.encode("players", player.getId(), player.getId()));
+    }
+    
+    /**
+     * 更新玩家信息（昵称等会显示在比赛状态和排名中，同时更新玩家参加过的比赛的版本号）
      */
+    @Transactional
     public Player updatePlayer(Long id, Player playerDetails) {
         Player player = playerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("玩家不存在，ID: " + id));
@@ -138,7 +162,9 @@ public class PlayerService {
             player.setPassword(passwordEncoder.encode(playerDetails.getPassword()));
         }
         
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        competitionVersionService.markPlayerChanged(id);
+        return saved;
     }
     
     /**
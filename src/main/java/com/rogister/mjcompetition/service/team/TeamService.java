@@ -6,8 +6,10 @@ import com.rogister.mjcompetition.entity.player.Player;
 import com.rogister.mjcompetition.repository.team.TeamRepository;
 import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
 import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +27,9 @@ public class TeamService {
     @Autowired
     private PlayerRepository playerRepository;
 
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
     /**
      * 创建团队
      */
@@ -66,8 +71,9 @@ public class TeamService {
     }
 
     /**
-     * 加入团队
+     * 加入团队（成员变化影响团队赛的比赛状态，同时更新团队参加的比赛的版本号）
      */
+    @Transactional
     public TeamMember joinTeam(String teamCode, Long playerId) {
         // 检查团队是否存在
         Optional<Team> teamOpt = teamRepository.findByTeamCode(teamCode);
@@ -98,6 +104,7 @@ public class TeamService {
         // 更新团队当前成员数
         team.setCurrentMembers(team.getCurrentMembers() + 1);
         teamRepository.save(team);
+        competitionVersionService.markTeamChanged(team.getId());
 
         return savedMember;
     }
@@ -105,6 +112,7 @@ public class TeamService {
     /**
      * 离开团队
      */
+    @Transactional
     public void leaveTeam(Long teamId, Long playerId) {
         // 检查成员关系是否存在
         Optional<TeamMember> memberOpt = teamMemberRepository.findByTeamIdAndPlayerIdAndIsActiveTrue(teamId, playerId);
@@ -128,11 +136,13 @@ public class TeamService {
         Team team = teamOpt.get();
         team.setCurrentMembers(team.getCurrentMembers() - 1);
         teamRepository.save(team);
+        competitionVersionService.markTeamChanged(teamId);
     }
 
     /**
      * 解散团队（只有队长可以解散）
      */
+    @Transactional
     public void dissolveTeam(Long teamId, Long captainId) {
         Optional<Team> teamOpt = teamRepository.findById(teamId);
         if (teamOpt.isEmpty()) {
@@ -156,6 +166,7 @@ public class TeamService {
             member.setIsActive(false);
             teamMemberRepository.save(member);
         }
+        competitionVersionService.markTeamChanged(teamId);
     }
 
     /**
@@ -0,0 +1,80 @@
+package com.rogister.mjcompetition.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标分页令牌：令牌记录上一页最后一条的（排序键, ID），下一页按 (排序键, ID) 之后继续查询，不使用 OFFSET
+ *
+ * 令牌绑定查询范围（如比赛和轮次），用于其他查询时视为无效；令牌内容对客户端不透明，只需原样传回
+ */
+@Component
+public class PageTokens {
+
+    private static final String VERSION = "v1";
+
+    @Value("${mj.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${mj.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * 计算实际的每页条数：未指定时使用默认值，超过上限时取上限
+     */
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new RuntimeException("每页条数必须大于0");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * 生成下一页令牌
+     */
+    public String encode(String scope, long sortKey, long id) {
+        String raw = VERSION + "|" + scope + "|" + sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析分页令牌，令牌为空时返回 null（第一页）
+     */
+    public Cursor decode(String scope, String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 4 || !VERSION.equals(parts[0]) || !scope.equals(parts[1])) {
+                throw new RuntimeException("分页令牌无效");
+            }
+            return new Cursor(Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("分页令牌无效");
+        }
+    }
+
+    /**
+     * 内部类：上一页最后一条的排序键和ID
+     */
+    public static class Cursor {
+        private final long sortKey;
+        private final long id;
+
+        public Cursor(long sortKey, long id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+
+        public long getSortKey() { return sortKey; }
+        public long getId() { return id; }
+    }
+}
@@ -0,0 +1,200 @@
+package com.rogister.mjcompetition.util;
+
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PT计分核心：对一场比赛的四个座位（东南西北，下标0~3）计算顺位和PT分数
+ *
+ * 顺位按得分从高到低判定，同分时按东南西北顺序；计算过程只使用基本类型，不产生对象分配。
+ * PT = (得分 - 原点) / 1000 + 顺位点 + 罚分
+ */
+public final class PtScoringKernel {
+
+    public static final int EAST = 0;
+    public static final int SOUTH = 1;
+    public static final int WEST = 2;
+    public static final int NORTH = 3;
+    public static final int SEATS = 4;
+
+    // 已保存规则的编译结果，键为规则ID
+    private static final ConcurrentHashMap<Long, CompiledRule> COMPILED_RULES = new ConcurrentHashMap<>();
+
+    private PtScoringKernel() {
+    }
+
+    /**
+     * 获取比赛规则的编译结果：已保存的规则按ID缓存，规则取值变化后重新编译；未保存的规则每次编译
+     */
+    public static CompiledRule compile(CompetitionRule rule) {
+        if (rule == null || rule.getId() == null) {
+            return CompiledRule.of(rule);
+        }
+        CompiledRule compiled = COMPILED_RULES.get(rule.getId());
+        if (compiled == null || !compiled.matches(rule)) {
+            compiled = CompiledRule.of(rule);
+            COMPILED_RULES.put(rule.getId(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 计算四个座位的顺位，返回压缩值：每个座位占2位，保存 顺位-1，用 rankOf 读取
+     *
+     * 排序键为 得分*4 + (3-座位)，键越大顺位越靠前，因此同分时座位靠前者优先；
+     * 对四个键使用固定的5次比较交换（排序网络）降序排列。
+     */
+    public static int rankSeats(int eastScore, int southScore, int westScore, int northScore) {
+        long k0 = key(eastScore, EAST);
+        long k1 = key(southScore, SOUTH);
+        long k2 = key(westScore, WEST);
+        long k3 = key(northScore, NORTH);
+        long t;
+
+        if (k0 < k1) { t = k0; k0 = k1; k1 = t; }
+        if (k2 < k3) { t = k2; k2 = k3; k3 = t; }
+        if (k0 < k2) { t = k0; k0 = k2; k2 = t; }
+        if (k1 < k3) { t = k1; k1 = k3; k3 = t; }
+        if (k1 < k2) { t = k1; k1 = k2; k2 = t; }
+
+        return (1 << (seatOf(k1) << 1))
+                | (2 << (seatOf(k2) << 1))
+                | (3 << (seatOf(k3) << 1));
+    }
+
+    /**
+     * 从 rankSeats 的压缩值中读取某个座位的顺位（1~4）
+     */
+    public static int rankOf(int packedRanks, int seat) {
+        return ((packedRanks >>> (seat << 1)) & 3) + 1;
+    }
+
+    /**
+     * 计算一场比赛四个座位的顺位和PT分数，写入调用方提供的缓冲区
+     * ranks[offset..offset+3] 写入顺位，pts[offset..offset+3] 写入PT分数，按东南西北顺序
+     */
+    public static void score(int eastScore, int southScore, int westScore, int northScore,
+                             int eastPenalty, int southPenalty, int westPenalty, int northPenalty,
+                             CompiledRule rule, int[] ranks, double[] pts, int offset) {
+        int packed = rankSeats(eastScore, southScore, westScore, northScore);
+
+        int eastRank = rankOf(packed, EAST);
+        int southRank = rankOf(packed, SOUTH);
+        int westRank = rankOf(packed, WEST);
+        int northRank = rankOf(packed, NORTH);
+
+        ranks[offset] = eastRank;
+        ranks[offset + 1] = southRank;
+        ranks[offset + 2] = westRank;
+        ranks[offset + 3] = northRank;
+
+        pts[offset] = rule.pt(eastScore, eastRank, eastPenalty);
+        pts[offset + 1] = rule.pt(southScore, southRank, southPenalty);
+        pts[offset + 2] = rule.pt(westScore, westRank, westPenalty);
+        pts[offset + 3] = rule.pt(northScore, northRank, northPenalty);
+    }
+
+    private static long key(int score, int seat) {
+        return ((long) score << 2) | (3 - seat);
+    }
+
+    private static int seatOf(long key) {
+        return 3 - (int) (key & 3);
+    }
+
+    /**
+     * 编译后的比赛规则：原点和四个顺位点展开为基本类型字段
+     */
+    public static final class CompiledRule {
+
+        /**
+         * 规则缺失时使用，所有PT均为0
+         */
+        public static final CompiledRule NONE = new CompiledRule(false, 0, 0, 0, 0, 0);
+
+        private final boolean scoring;
+        private final int originPoints;
+        private final int firstPlacePoints;
+        private final int secondPlacePoints;
+        private final int thirdPlacePoints;
+        private final int fourthPlacePoints;
+
+        public CompiledRule(int originPoints, int firstPlacePoints, int secondPlacePoints,
+                            int thirdPlacePoints, int fourthPlacePoints) {
+            this(true, originPoints, firstPlacePoints, secondPlacePoints, thirdPlacePoints, fourthPlacePoints);
+        }
+
+        private CompiledRule(boolean scoring, int originPoints, int firstPlacePoints, int secondPlacePoints,
+                             int thirdPlacePoints, int fourthPlacePoints) {
+            this.scoring = scoring;
+            this.originPoints = originPoints;
+            this.firstPlacePoints = firstPlacePoints;
+            this.secondPlacePoints = secondPlacePoints;
+            this.thirdPlacePoints = thirdPlacePoints;
+            this.fourthPlacePoints = fourthPlacePoints;
+        }
+
+        /**
+         * 编译比赛规则，规则或原点缺失时返回 NONE，缺失的顺位点按0处理
+         */
+        public static CompiledRule of(CompetitionRule rule) {
+            if (rule == null || rule.getOriginPoints() == null) {
+                return NONE;
+            }
+            return new CompiledRule(
+                    rule.getOriginPoints(),
+                    valueOrZero(rule.getFirstPlacePoints()),
+                    valueOrZero(rule.getSecondPlacePoints()),
+                    valueOrZero(rule.getThirdPlacePoints()),
+                    valueOrZero(rule.getFourthPlacePoints()));
+        }
+
+        /**
+         * 判断编译结果是否仍与规则当前的取值一致
+         */
+        public boolean matches(CompetitionRule rule) {
+            if (rule == null || rule.getOriginPoints() == null) {
+                return !scoring;
+            }
+            return scoring
+                    && originPoints == rule.getOriginPoints()
+                    && firstPlacePoints == valueOrZero(rule.getFirstPlacePoints())
+                    && secondPlacePoints == valueOrZero(rule.getSecondPlacePoints())
+                    && thirdPlacePoints == valueOrZero(rule.getThirdPlacePoints())
+                    && fourthPlacePoints == valueOrZero(rule.getFourthPlacePoints());
+        }
+
+        /**
+         * 计算单个座位的PT分数
+         */
+        public double pt(int score, int rank, int penalty) {
+            if (!scoring) {
+                return 0.0;
+            }
+
+            // 计算基础得分：(玩家得分-比赛规则原点)/1000
+            double basePoints = (score - originPoints) / 1000.0;
+
+            // 实际得分 = 基础得分 + 顺位点 + 罚分
+            return basePoints + placePoints(rank) + penalty;
+        }
+
+        /**
+         * 获取顺位点
+         */
+        public int placePoints(int rank) {
+            switch (rank) {
+                case 1: return firstPlacePoints;
+                case 2: return secondPlacePoints;
+                case 3: return thirdPlacePoints;
+                case 4: return fourthPlacePoints;
+                default: return 0;
+            }
+        }
+
+        private static int valueOrZero(Integer value) {
+            return value != null ? value : 0;
+        }
+    }
+}
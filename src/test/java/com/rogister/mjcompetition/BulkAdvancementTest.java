@@ -0,0 +1,118 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+        "mj.advancement.in-chunk-size=100",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+public class BulkAdvancementTest {
+
+    private static final int PLAYER_COUNT = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testAllConflictsReportedAndNothingWritten() throws Exception {
+        Competition competition = fixtures.competition("bulk-conflict");
+        List<Player> players = fixtures.registeredRoundPlayers(competition, PLAYER_COUNT);
+        Player unregistered = fixtures.players(1).get(0);
+
+        List<Long> playerIds = new ArrayList<>(ids(players));
+        playerIds.add(unregistered.getId());
+        playerIds.add(Long.MAX_VALUE);
+        playerIds.add(players.get(10).getId());
+
+        MockHttpServletResponse response = advance(competition.getId(), playerIds);
+        assertEquals(409, response.getStatus());
+
+        JsonNode conflicts = objectMapper.readTree(response.getContentAsByteArray()).get("data");
+        Map<Long, String> reasons = new HashMap<>();
+        for (JsonNode conflict : conflicts) {
+            reasons.put(conflict.get("id").asLong(), conflict.get("reason").asText());
+        }
+        assertEquals(3, reasons.size(), "应一次返回全部冲突: " + reasons);
+        assertEquals("未报名该比赛", reasons.get(unregistered.getId()));
+        assertEquals("玩家不存在", reasons.get(Long.MAX_VALUE));
+        assertEquals("在晋级名单中重复出现", reasons.get(players.get(10).getId()));
+
+        assertTrue(playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 2).isEmpty(),
+                "存在冲突时整批不应写入");
+    }
+
+    @Test
+    public void testBulkAdvanceUsesSetBasedQueries() throws Exception {
+        Competition competition = fixtures.competition("bulk-advance");
+        List<Player> players = fixtures.registeredRoundPlayers(competition, PLAYER_COUNT);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MockHttpServletResponse response = advance(competition.getId(), ids(players));
+        assertEquals(200, response.getStatus());
+        assertEquals(0, objectMapper.readTree(response.getContentAsByteArray()).get("code").asInt());
+
+        // 每100个ID三条IN查询，插入每50行一个批次；逐个校验、逐行插入时至少为 PLAYER_COUNT * 3 条
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 60, "晋级执行了 " + statements + " 条SQL");
+
+        List<PlayerRoundStatus> advanced = playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 2);
+        assertEquals(PLAYER_COUNT, advanced.size());
+        assertTrue(advanced.stream().allMatch(s -> s.getCurrentScore() == 100));
+    }
+
+    private MockHttpServletResponse advance(Long competitionId, List<Long> playerIds) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("competitionId", competitionId);
+        body.put("playerIds", playerIds);
+        body.put("targetRound", 2);
+        body.put("initialScore", 100);
+        String token = "Bearer " + jwtUtil.generateTokenWithRole("bulk-admin", "ADMIN", "ADMIN");
+        return mockMvc.perform(post("/api/advancement/players/advance")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn().getResponse();
+    }
+
+    private List<Long> ids(List<Player> players) {
+        return players.stream().map(Player::getId).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rogister.mjcompetition.dto.common.ApiResponse;
+import com.rogister.mjcompetition.dto.match.PlayerRankingDTO;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CompactEncodingTest {
+
+    private static final int PLAYER_COUNT = 32;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private final ObjectMapper cborReader = new ObjectMapper(new CBORFactory());
+
+    @Test
+    public void testStatusNegotiatesCbor() throws Exception {
+        Competition competition = seedCompetition();
+        String url = "/api/competition-status/" + competition.getId() + "/round/1";
+
+        MockHttpServletResponse json = mockMvc.perform(get(url)).andReturn().getResponse();
+        assertTrue(json.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE), "默认仍返回JSON");
+
+        MockHttpServletResponse cbor = mockMvc.perform(get(url).accept(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getContentType());
+        assertNotEquals(json.getHeader("ETag"), cbor.getHeader("ETag"), "不同表示应使用不同的ETag");
+        assertTrue(cbor.getHeaders("Vary").contains("Accept"));
+
+        byte[] jsonBytes = json.getContentAsByteArray();
+        byte[] cborBytes = cbor.getContentAsByteArray();
+        assertEquals(objectMapper.readTree(jsonBytes), cborReader.readTree(cborBytes), "CBOR 解码结果应与JSON一致");
+        assertTrue(cborBytes.length < jsonBytes.length);
+    }
+
+    @Test
+    public void testRankingPtIsFixedPoint() throws Exception {
+        Competition competition = seedCompetition();
+        List<MatchResultService.PlayerRoundRanking> rankings = matchResultService
+                .calculatePlayerRoundRankings(competition, 1);
+        for (int i = 0; i < rankings.size(); i++) {
+            rankings.get(i).setRank(i + 1);
+        }
+        ApiResponse<List<PlayerRankingDTO>> response = ApiResponse.success(rankings.stream()
+                .map(PlayerRankingDTO::fromPlayerRoundRanking)
+                .toList());
+
+        byte[] jsonBytes = objectMapper.writeValueAsBytes(response);
+        byte[] cborBytes = cborConverter.getObjectMapper().writeValueAsBytes(response);
+        assertTrue(cborBytes.length < jsonBytes.length);
+
+        JsonNode decoded = cborReader.readTree(cborBytes).get("data");
+        assertEquals(rankings.size(), decoded.size());
+        for (int i = 0; i < rankings.size(); i++) {
+            JsonNode points = decoded.get(i).get("totalActualPoints");
+            assertTrue(points.isBigDecimal(), "PT应以定点小数编码");
+            assertEquals(0, BigDecimal.valueOf(rankings.get(i).getTotalActualPoints()).compareTo(points.decimalValue()));
+            assertEquals(rankings.get(i).getPlayerName(), decoded.get(i).get("playerName").asText());
+        }
+    }
+
+    private Competition seedCompetition() {
+        Competition competition = fixtures.competition("编码");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        for (int table = 0; table < PLAYER_COUNT / 4; table++) {
+            matchResultService.createMatchResult(
+                    fixtures.match(competition, players, table * 4, table + 1, 45300, 30700, 18200, 5800));
+        }
+        return competition;
+    }
+}
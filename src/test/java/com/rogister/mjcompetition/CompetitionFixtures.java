@@ -0,0 +1,168 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.CompetitionRule;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerCompetitionRegistration;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.CompetitionRepository;
+import com.rogister.mjcompetition.repository.competition.CompetitionRuleRepository;
+import com.rogister.mjcompetition.repository.player.PlayerCompetitionRegistrationRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.competition.StandingsRecomputePipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 测试数据：比赛规则、比赛、玩家、轮次状态和比赛成绩
+ *
+ * 测试类之间共享 Spring 上下文和数据库，比赛名称、用户名等唯一字段都带有本次运行内唯一的后缀
+ */
+@Component
+public class CompetitionFixtures {
+
+    // 运行标识加递增序号；玩家的用户名同时用作QQ号，长度不能超过20
+    private static final String RUN = Long.toString(System.currentTimeMillis() % 2_176_782_336L, 36);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private CompetitionRuleRepository competitionRuleRepository;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private PlayerCompetitionRegistrationRepository registrationRepository;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private StandingsRecomputePipeline standingsRecomputePipeline;
+
+    /**
+     * 带唯一后缀的名称
+     */
+    public String uniqueName(String prefix) {
+        return prefix + "-" + RUN + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * 带唯一后缀的短标识（最长约15个字符），用于长度受限的唯一字段
+     */
+    public String uniqueKey(String prefix) {
+        return prefix + RUN + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * 创建个人赛，规则为 25000点原点，顺位马 45/5/-15/-35
+     */
+    public Competition competition(String prefix) {
+        return competition(prefix, Competition.CompetitionType.INDIVIDUAL);
+    }
+
+    public Competition competition(String prefix, Competition.CompetitionType type) {
+        String name = uniqueName(prefix);
+        CompetitionRule rule = competitionRuleRepository.save(new CompetitionRule(name + "规则", 25000, 45, 5, -15, -35));
+        return competitionRepository.save(new Competition(name + "比赛", type, rule, LocalDateTime.now().minusDays(1)));
+    }
+
+    /**
+     * 创建玩家
+     */
+    public List<Player> players(int count) {
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = uniqueKey("p");
+            players.add(new Player(key, "password", key, "玩家" + key, key, key));
+        }
+        return playerRepository.saveAll(players);
+    }
+
+    /**
+     * 创建处于比赛第一轮的玩家（初始分为0）
+     */
+    public List<Player> roundPlayers(Competition competition, int count) {
+        List<Player> players = players(count);
+        enterRound(competition, 1, players);
+        return players;
+    }
+
+    /**
+     * 让玩家进入比赛的指定轮次（初始分为0）
+     */
+    public void enterRound(Competition competition, int roundNumber, List<Player> players) {
+        List<PlayerRoundStatus> statuses = new ArrayList<>(players.size());
+        for (Player player : players) {
+            statuses.add(new PlayerRoundStatus(player, competition, roundNumber, 0));
+        }
+        playerRoundStatusRepository.saveAll(statuses);
+    }
+
+    /**
+     * 创建报名比赛并处于第一轮的玩家
+     */
+    public List<Player> registeredRoundPlayers(Competition competition, int count) {
+        List<Player> players = roundPlayers(competition, count);
+        List<PlayerCompetitionRegistration> registrations = new ArrayList<>(count);
+        for (Player player : players) {
+            registrations.add(new PlayerCompetitionRegistration(player, competition));
+        }
+        registrationRepository.saveAll(registrations);
+        return players;
+    }
+
+    /**
+     * 第一轮的一场比赛（未保存），players 中从 offset 开始的四名玩家依次坐东南西北，得分 40000/30000/20000/10000
+     */
+    public MatchResult match(Competition competition, List<Player> players, int offset, int matchNumber) {
+        return match(competition, players, offset, matchNumber, 40000, 30000, 20000, 10000);
+    }
+
+    public MatchResult match(Competition competition, List<Player> players, int offset, int matchNumber,
+                             int east, int south, int west, int north) {
+        MatchResult matchResult = new MatchResult(competition, 1, matchNumber,
+                players.get(offset), players.get(offset + 1), players.get(offset + 2), players.get(offset + 3));
+        matchResult.setEastScore(east);
+        matchResult.setSouthScore(south);
+        matchResult.setWestScore(west);
+        matchResult.setNorthScore(north);
+        return matchResult;
+    }
+
+    /**
+     * 录入前四名玩家的一场第一轮比赛
+     */
+    public MatchResult createMatch(Competition competition, List<Player> players, int matchNumber) {
+        return matchResultService.createMatchResult(match(competition, players, 0, matchNumber));
+    }
+
+    /**
+     * 等待比赛状态的后台重算全部完成
+     */
+    public void awaitRecompute() throws InterruptedException {
+        for (int i = 0; i < 250; i++) {
+            if (standingsRecomputePipeline.getStats().getPendingLanes() == 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("后台重算未在预期时间内完成");
+    }
+}
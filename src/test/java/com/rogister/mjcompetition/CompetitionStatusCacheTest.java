@@ -0,0 +1,126 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.AdvancementService;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CompetitionStatusCacheTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private CompetitionStatusCache competitionStatusCache;
+
+    @Autowired
+    private AdvancementService advancementService;
+
+    @Test
+    public void testRepeatedReadsHitUntilMatchResultIsWritten() throws Exception {
+        Competition competition = fixtures.competition("cache-hit");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.createMatch(competition, players, 1);
+
+        CompetitionStatusCache.CacheStats before = competitionStatusCache.getStats();
+        CompetitionStatusResponse first = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+        CompetitionStatusResponse second = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+        CompetitionStatusCache.CacheStats after = competitionStatusCache.getStats();
+
+        assertSame(first, second);
+        assertEquals(1, after.getMissCount() - before.getMissCount());
+        assertEquals(1, after.getHitCount() - before.getHitCount());
+
+        // 写入新的比赛成绩后由后台重算发布新快照，读取方不重新计算
+        fixtures.createMatch(competition, players, 2);
+        fixtures.awaitRecompute();
+        CompetitionStatusResponse third = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+
+        assertNotSame(first, third);
+        assertEquals(1, competitionStatusCache.getStats().getMissCount() - before.getMissCount());
+        assertEquals(2, third.getPlayerStatusList().get(0).getAppearanceCount());
+    }
+
+    @Test
+    public void testAdvancementWriteInvalidatesStatus() throws Exception {
+        Competition competition = fixtures.competition("cache-adv");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+
+        CompetitionStatusResponse before = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+        advancementService.eliminatePlayer(players.get(0).getId(), competition.getId(), 1);
+        fixtures.awaitRecompute();
+        CompetitionStatusResponse after = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+
+        assertNotSame(before, after);
+        assertTrue(after.getPlayerStatusList().stream()
+                .anyMatch(info -> "ELIMINATED".equals(info.getStatus())));
+    }
+
+    @Test
+    public void testConcurrentReadersShareOneRecompute() throws Exception {
+        Competition competition = fixtures.competition("cache-flight");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.createMatch(competition, players, 1);
+
+        int readers = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompetitionStatusResponse>> futures = new ArrayList<>();
+            long missesBefore = competitionStatusCache.getStats().getMissCount();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+                }));
+            }
+            start.countDown();
+
+            CompetitionStatusResponse shared = futures.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<CompetitionStatusResponse> future : futures) {
+                assertSame(shared, future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, competitionStatusCache.getStats().getMissCount() - missesBefore);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        long missesBefore = competitionStatusCache.getStats().getMissCount();
+
+        assertThrows(RuntimeException.class, () -> competitionStatusCache.getCompetitionStatus(-1L, 1));
+        assertThrows(RuntimeException.class, () -> competitionStatusCache.getCompetitionStatus(-1L, 1));
+
+        assertEquals(2, competitionStatusCache.getStats().getMissCount() - missesBefore);
+    }
+
+    @Test
+    public void testRoundNotStartedIsRejectedWithoutCaching() {
+        Competition competition = fixtures.competition("cache-round");
+        fixtures.roundPlayers(competition, 4);
+        competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+        int size = competitionStatusCache.getStats().getSize();
+
+        assertThrows(RuntimeException.class, () -> competitionStatusCache.getCompetitionStatus(competition.getId(), 2));
+        assertThrows(RuntimeException.class, () -> competitionStatusCache.getCompetitionStatus(competition.getId(), 0));
+        assertThrows(RuntimeException.class, () -> competitionStatusCache.getCompetitionStatus(-1L, 1));
+        assertEquals(size, competitionStatusCache.getStats().getSize(), "不存在的比赛或轮次不应建立缓存项");
+    }
+}
@@ -0,0 +1,231 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.MatchResultSeat;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.team.Team;
+import com.rogister.mjcompetition.entity.team.TeamMember;
+import com.rogister.mjcompetition.entity.team.TeamRoundStatus;
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.repository.team.TeamMemberRepository;
+import com.rogister.mjcompetition.repository.team.TeamRepository;
+import com.rogister.mjcompetition.repository.team.TeamRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CompetitionStatusQueryCountTest {
+
+    private static final int[][] TABLE_SCORES = {
+            {40000, 30000, 20000, 10000},
+            {25000, 25000, 35000, 15000}
+    };
+
+    @Autowired
+    private CompetitionStatusService competitionStatusService;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private TeamRoundStatusRepository teamRoundStatusRepository;
+
+    @Autowired
+    private MatchResultSeatRepository matchResultSeatRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testRoundStatusQueryCountIndependentOfPlayerCount() {
+        long smallRoundQueries = countStatusQueries(8);
+        long largeRoundQueries = countStatusQueries(96);
+
+        assertEquals(smallRoundQueries, largeRoundQueries, "查询次数不应随玩家数量增长");
+    }
+
+    @Test
+    public void testRoundStatusAggregatesSeatTieBreak() {
+        Competition competition = seedIndividualRound(4);
+
+        CompetitionStatusResponse response = competitionStatusService.getCompetitionStatus(competition.getId(), 1);
+
+        // 第二场东家与南家同分，按东南西北顺序东家为二位、南家为三位
+        CompetitionStatusResponse.PlayerStatusInfo east = response.getPlayerStatusList().stream()
+                .filter(info -> info.getPlayerName().endsWith("-0"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, east.getAppearanceCount());
+        assertEquals(1, east.getFirstPlaceCount());
+        assertEquals(1, east.getSecondPlaceCount());
+        assertEquals(1.5, east.getAveragePosition());
+
+        CompetitionStatusResponse.PlayerStatusInfo south = response.getPlayerStatusList().stream()
+                .filter(info -> info.getPlayerName().endsWith("-1"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, south.getThirdPlaceCount());
+    }
+
+    @Test
+    public void testTeamStatusQueryCountIndependentOfTeamCount() {
+        long smallRoundQueries = countTeamStatusQueries(4);
+        long largeRoundQueries = countTeamStatusQueries(32);
+
+        assertEquals(smallRoundQueries, largeRoundQueries, "查询次数不应随团队数量增长");
+    }
+
+    @Test
+    public void testTeamStatusPlacementStats() {
+        Competition competition = seedTeamRound(4);
+
+        CompetitionStatusResponse response = competitionStatusService.getCompetitionStatus(competition.getId(), 1);
+
+        // 第一个团队的两名队员都坐东家：每桌第一场一位，第二场同分按座位为二位
+        CompetitionStatusResponse.TeamStatusInfo first = response.getTeamStatusList().stream()
+                .filter(info -> info.getTeamName().endsWith("-0"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4, first.getAppearanceCount());
+        assertEquals(2, first.getFirstPlaceCount());
+        assertEquals(2, first.getSecondPlaceCount());
+        assertEquals(1.5, first.getAveragePosition());
+        assertEquals(2, first.getMemberScores().size());
+        assertEquals(65000, first.getMemberScores().get(0).getIndividualScore());
+        assertEquals(8, response.getPlayerStatusList().size());
+    }
+
+    @Test
+    public void testSeatKeepsTeamWhenScoreIsCorrectedAfterMembershipChange() {
+        Competition competition = seedTeamRound(4);
+        MatchResult matchResult = matchResultService.findByCompetitionAndRoundOrderByTime(competition, 1).get(0);
+        Map<Integer, Long> teamBySeat = new HashMap<>();
+        for (MatchResultSeat seat : matchResultSeatRepository.findByMatchResultId(matchResult.getId())) {
+            teamBySeat.put(seat.getSeat(), seat.getTeamId());
+        }
+        assertNotNull(teamBySeat.get(0));
+
+        // 东家离开团队后修改比分，已有座位仍记在比赛时的团队
+        TeamMember member = teamMemberRepository.findByPlayerIdAndIsActiveTrue(matchResult.getEastPlayer().getId()).get(0);
+        member.setIsActive(false);
+        teamMemberRepository.save(member);
+
+        MatchResult corrected = new MatchResult();
+        corrected.setEastScore(10000);
+        corrected.setSouthScore(20000);
+        corrected.setWestScore(30000);
+        corrected.setNorthScore(40000);
+        corrected.setMatchTime(matchResult.getMatchTime());
+        matchResultService.updateMatchResult(matchResult.getId(), corrected);
+
+        List<MatchResultSeat> seats = matchResultSeatRepository.findByMatchResultId(matchResult.getId());
+        assertEquals(4, seats.size());
+        for (MatchResultSeat seat : seats) {
+            assertEquals(teamBySeat.get(seat.getSeat()), seat.getTeamId());
+        }
+    }
+
+    private long countTeamStatusQueries(int teamCount) {
+        Competition competition = seedTeamRound(teamCount);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CompetitionStatusResponse response = competitionStatusService.getCompetitionStatus(competition.getId(), 1);
+
+        long queryCount = statistics.getPrepareStatementCount();
+        assertEquals(teamCount, response.getTeamStatusList().size());
+        return queryCount;
+    }
+
+    private long countStatusQueries(int playerCount) {
+        Competition competition = seedIndividualRound(playerCount);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CompetitionStatusResponse response = competitionStatusService.getCompetitionStatus(competition.getId(), 1);
+
+        long queryCount = statistics.getPrepareStatementCount();
+        assertEquals(playerCount, response.getPlayerStatusList().size());
+        return queryCount;
+    }
+
+    /**
+     * 创建一场个人赛第一轮：每四名玩家一桌，每桌打两场
+     */
+    private Competition seedIndividualRound(int playerCount) {
+        Competition competition = fixtures.competition("查询计数");
+        List<Player> players = fixtures.roundPlayers(competition, playerCount);
+
+        int matchNumber = 1;
+        for (int table = 0; table + 4 <= players.size(); table += 4) {
+            for (int[] scores : TABLE_SCORES) {
+                matchResultService.createMatchResult(fixtures.match(competition, players, table, matchNumber++,
+                        scores[0], scores[1], scores[2], scores[3]));
+            }
+        }
+
+        return competition;
+    }
+
+    /**
+     * 创建一场团队赛第一轮：每队两名队员，每四个团队的同号队员一桌，每桌打两场
+     */
+    private Competition seedTeamRound(int teamCount) {
+        Competition competition = fixtures.competition("团队查询计数", Competition.CompetitionType.TEAM);
+
+        List<Player[]> teamPlayers = new ArrayList<>();
+        for (int t = 0; t < teamCount; t++) {
+            Player[] members = fixtures.players(2).toArray(new Player[0]);
+            Team team = teamRepository.save(new Team(fixtures.uniqueName("团队"), fixtures.uniqueKey("T"), members[0].getId(), 4));
+            for (Player member : members) {
+                teamMemberRepository.save(new TeamMember(team.getId(), member));
+            }
+            teamRoundStatusRepository.save(new TeamRoundStatus(team, competition, 1, 0));
+            teamPlayers.add(members);
+        }
+
+        int matchNumber = 1;
+        for (int group = 0; group + 4 <= teamCount; group += 4) {
+            for (int m = 0; m < 2; m++) {
+                for (int[] scores : TABLE_SCORES) {
+                    MatchResult matchResult = new MatchResult(competition, 1, matchNumber++,
+                            teamPlayers.get(group)[m], teamPlayers.get(group + 1)[m],
+                            teamPlayers.get(group + 2)[m], teamPlayers.get(group + 3)[m]);
+                    matchResult.setEastScore(scores[0]);
+                    matchResult.setSouthScore(scores[1]);
+                    matchResult.setWestScore(scores[2]);
+                    matchResult.setNorthScore(scores[3]);
+                    matchResultService.createMatchResult(matchResult);
+                }
+            }
+        }
+
+        return competition;
+    }
+}
@@ -0,0 +1,119 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.CompetitionVersionService;
+import com.rogister.mjcompetition.service.player.PlayerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class ConditionalGetTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompetitionVersionService competitionVersionService;
+
+    @Test
+    public void testMatchingETagReturnsNotModifiedWithoutQueries() throws Exception {
+        Competition competition = fixtures.competition("etag");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.createMatch(competition, players, 1);
+        String url = "/api/competition-status/" + competition.getId() + "/round/1";
+
+        MvcResult first = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+        assertNotNull(first.getResponse().getHeader("Last-Modified"));
+        assertFalse(eTag.startsWith("W/"), "应为强 ETag");
+
+        // 等待第一次写入触发的后台重算结束，避免其查询计入统计
+        fixtures.awaitRecompute();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url).header("If-None-Match", eTag)).andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount(), "304 不应访问数据库");
+
+        // 写入新的比赛成绩、后台重算发布新快照后 ETag 变化，旧 ETag 不再命中
+        fixtures.createMatch(competition, players, 2);
+        fixtures.awaitRecompute();
+        MvcResult changed = mockMvc.perform(get(url).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(eTag, changed.getResponse().getHeader("ETag"));
+    }
+
+    @Test
+    public void testOtherRoundKeepsItsETag() throws Exception {
+        Competition competition = fixtures.competition("round");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.enterRound(competition, 2, players);
+        String secondRound = "/api/competition-status/" + competition.getId() + "/round/2";
+
+        String eTag = mockMvc.perform(get(secondRound)).andReturn().getResponse().getHeader("ETag");
+        fixtures.createMatch(competition, players, 1);
+
+        mockMvc.perform(get(secondRound).header("If-None-Match", eTag)).andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testWriteFromOtherInstanceIsNotLostBehindLocalCommit() {
+        Competition competition = fixtures.competition("instances");
+        String firstRoundETag = competitionVersionService.getRoundVersion(competition.getId(), 1).getETag();
+
+        // 其他实例写入第一轮（只递增数据库中的版本号），本实例紧接着写入第二轮
+        jdbcTemplate.update("UPDATE competitions SET data_version = data_version + 1 WHERE id = ?", competition.getId());
+        competitionVersionService.markRoundChanged(competition.getId(), 2);
+
+        // 本实例提交的版本号跳过了其他实例的版本，第一轮同样视为已变化
+        assertNotEquals(firstRoundETag, competitionVersionService.getRoundVersion(competition.getId(), 1).getETag());
+    }
+
+    @Test
+    public void testPlayerRenameChangesETag() throws Exception {
+        Competition competition = fixtures.competition("rename");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        String url = "/api/competition-status/" + competition.getId() + "/round/1";
+        String eTag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader("ETag");
+
+        // 改名不经过比赛成绩写入，同样更新比赛的版本号（保存在数据库中）
+        Player player = players.get(0);
+        playerService.updatePlayer(player.getId(), new Player(player.getUsername(), "", player.getQq(),
+                "改名" + player.getNickname(), player.getMahjongId(), player.getMahjongNickname()));
+        fixtures.awaitRecompute();
+
+        mockMvc.perform(get(url).header("If-None-Match", eTag)).andExpect(status().isOk());
+        Long dataVersion = jdbcTemplate.queryForObject(
+                "SELECT data_version FROM competitions WHERE id = ?", Long.class, competition.getId());
+        assertTrue(dataVersion > 0);
+    }
+}
@@ -0,0 +1,210 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest.CutRule;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementRequest.TieBreaker;
+import com.rogister.mjcompetition.dto.competition.CutLineAdvancementResult;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.RoundPlayerStanding;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.competition.RoundPlayerStandingRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.competition.CutLineAdvancementService;
+import com.rogister.mjcompetition.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CutLineAdvancementTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private CutLineAdvancementService cutLineAdvancementService;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private RoundPlayerStandingRepository roundPlayerStandingRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testPreviewAppliesRulesAndTieBreakersWithoutWriting() {
+        Competition competition = fixtures.competition("cut-preview");
+        List<Player> p = seedRound(competition);
+
+        // 第4名 p3、p4 同为20PT，默认先比平均顺位：p4（2.0）优于 p3（2.5）
+        CutLineAdvancementResult topFour = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.TOP_N, 4, null), true);
+        assertEquals(ids(p.get(0), p.get(1), p.get(2), p.get(4)), advancedIds(topFour));
+        assertEquals(p.get(4).getId(), topFour.getCutLine().getPlayerId());
+        assertEquals(0, topFour.getTiedAtCut());
+        assertEquals(8, topFour.getCandidateCount());
+
+        // 改为先比一位次数时 p3 晋级
+        CutLineAdvancementResult byFirstPlaces = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.TOP_N, 4, List.of(TieBreaker.FIRST_PLACE_COUNT)), true);
+        assertEquals(ids(p.get(0), p.get(1), p.get(2), p.get(3)), advancedIds(byFirstPlaces));
+
+        // p5、p6 完全同分且处于第6名晋级线上，一同晋级
+        CutLineAdvancementResult topSix = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.TOP_N, 6, null), true);
+        assertEquals(7, topSix.getAdvanced().size());
+        assertEquals(1, topSix.getTiedAtCut());
+        assertEquals(List.of(p.get(7).getId()), topSix.getEliminated().stream()
+                .map(CutLineAdvancementResult.Entry::getPlayerId).toList());
+
+        CutLineAdvancementResult threshold = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.PT_THRESHOLD, 20, null), true);
+        assertEquals(5, threshold.getAdvanced().size());
+
+        assertTrue(playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 2).isEmpty(),
+                "预览不应写入");
+        assertTrue(playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 1).stream()
+                .noneMatch(PlayerRoundStatus::getIsEliminated));
+    }
+
+    @Test
+    public void testAdvanceByPercentWritesAdvancedAndEliminated() throws Exception {
+        Competition competition = fixtures.competition("cut-commit");
+        List<Player> p = seedRound(competition);
+
+        String token = "Bearer " + jwtUtil.generateTokenWithRole("cut-admin", "ADMIN", "ADMIN");
+        MockHttpServletResponse response = mockMvc.perform(post("/api/advancement/players/advance-by-rule")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(competition, CutRule.TOP_PERCENT, 50, null))))
+                .andReturn().getResponse();
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertEquals(0, body.get("code").asInt(), body.toString());
+
+        Set<Long> advanced = new HashSet<>();
+        for (PlayerRoundStatus status : playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 2)) {
+            advanced.add(status.getPlayer().getId());
+        }
+        assertEquals(new HashSet<>(ids(p.get(0), p.get(1), p.get(2), p.get(4))), advanced);
+
+        for (PlayerRoundStatus status : playerRoundStatusRepository.findByCompetitionIdAndRoundNumber(competition.getId(), 1)) {
+            boolean shouldBeEliminated = !advanced.contains(status.getPlayer().getId());
+            assertEquals(shouldBeEliminated, status.getIsEliminated(), "玩家 " + status.getPlayer().getUsername());
+        }
+    }
+
+    @Test
+    public void testAccumulatedPtComparedInTenths() {
+        Competition competition = fixtures.competition("cut-tenths");
+        List<Player> p = fixtures.registeredRoundPlayers(competition, 3);
+        // 0.1 + 0.2 累加后为 0.30000000000000004，与 0.3 按PT同分
+        double[] pts = {0.1 + 0.2, 0.3, 0.2};
+        for (int i = 0; i < pts.length; i++) {
+            RoundPlayerStanding standing = new RoundPlayerStanding(competition.getId(), 1, p.get(i));
+            standing.setPtTotal(pts[i]);
+            standing.setMatchCount(1);
+            standing.setSecondPlaceCount(1);
+            roundPlayerStandingRepository.save(standing);
+        }
+
+        CutLineAdvancementResult topOne = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.TOP_N, 1, null), true);
+        assertEquals(ids(p.get(0), p.get(1)), advancedIds(topOne));
+        assertEquals(1, topOne.getTiedAtCut());
+
+        CutLineAdvancementResult threshold = cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.PT_THRESHOLD, 0.3, null), true);
+        assertEquals(2, threshold.getAdvanced().size());
+    }
+
+    @Test
+    public void testTeamCompetitionIsRejected() {
+        Competition competition = fixtures.competition("cut-team", Competition.CompetitionType.TEAM);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> cutLineAdvancementService.advancePlayers(
+                request(competition, CutRule.TOP_N, 4, null), true));
+        assertTrue(e.getMessage().contains("只支持个人赛"), e.getMessage());
+    }
+
+    @Test
+    public void testSelectTopMatchesFullSort() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<Integer> items = new ArrayList<>();
+            int size = 1 + random.nextInt(60);
+            for (int i = 0; i < size; i++) {
+                items.add(random.nextInt(20));
+            }
+            int k = 1 + random.nextInt(size);
+            Comparator<Integer> order = Comparator.reverseOrder();
+
+            List<Integer> sorted = new ArrayList<>(items);
+            sorted.sort(order);
+            int cutLine = sorted.get(k - 1);
+            List<Integer> expected = items.stream().filter(v -> v >= cutLine).toList();
+
+            assertEquals(expected, CutLineAdvancementService.selectTop(items, k, order));
+        }
+    }
+
+    private CutLineAdvancementRequest request(Competition competition, CutRule rule, double value, List<TieBreaker> tieBreakers) {
+        CutLineAdvancementRequest request = new CutLineAdvancementRequest();
+        request.setCompetitionId(competition.getId());
+        request.setRoundNumber(1);
+        request.setRule(rule);
+        request.setValue(value);
+        request.setTieBreakers(tieBreakers);
+        return request;
+    }
+
+    private List<Long> advancedIds(CutLineAdvancementResult result) {
+        return result.getAdvanced().stream().map(CutLineAdvancementResult.Entry::getPlayerId).toList();
+    }
+
+    private List<Long> ids(Player... players) {
+        return Arrays.stream(players).map(Player::getId).toList();
+    }
+
+    /**
+     * 8名报名玩家处于第一轮，积分榜（PT，一二三四位次数）：
+     * p0 50 (2,0,0,0)，p1 40 (1,1,0,0)，p2 30 (1,0,1,0)，p3 20 (1,0,0,1)，
+     * p4 20 (0,2,0,0)，p5 10 (0,1,1,0)，p6 10 (0,1,1,0)，p7 -50 (0,0,0,2)
+     */
+    private List<Player> seedRound(Competition competition) {
+        double[] pts = {50, 40, 30, 20, 20, 10, 10, -50};
+        int[][] places = {{2, 0, 0, 0}, {1, 1, 0, 0}, {1, 0, 1, 0}, {1, 0, 0, 1},
+                {0, 2, 0, 0}, {0, 1, 1, 0}, {0, 1, 1, 0}, {0, 0, 0, 2}};
+        List<Player> players = fixtures.registeredRoundPlayers(competition, pts.length);
+        for (int i = 0; i < pts.length; i++) {
+            RoundPlayerStanding standing = new RoundPlayerStanding(competition.getId(), 1, players.get(i));
+            standing.setPtTotal(pts[i]);
+            standing.setMatchCount(2);
+            standing.setFirstPlaceCount(places[i][0]);
+            standing.setSecondPlaceCount(places[i][1]);
+            standing.setThirdPlaceCount(places[i][2]);
+            standing.setFourthPlaceCount(places[i][3]);
+            roundPlayerStandingRepository.save(standing);
+        }
+        return players;
+    }
+}
@@ -0,0 +1,124 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "mj.drop-folder.enabled=true",
+        "mj.drop-folder.dir=${java.io.tmpdir}/mj-drop-folder-test"
+})
+public class DropFolderIngestionTest {
+
+    private static final int PLAYER_COUNT = 8;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Value("${mj.drop-folder.dir}")
+    private String dropDir;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Test
+    public void testFilesAreIngestedAndMovedToDoneOrFailed() throws Exception {
+        Competition competition = fixtures.competition("收件目录");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        Long cid = competition.getId();
+        // 文件名带上比赛ID，避免与之前运行遗留的文件冲突
+        String prefix = "c" + cid + "-";
+        Path root = Paths.get(dropDir);
+        clean(root.resolve("done"));
+        clean(root.resolve("failed"));
+
+        drop(root, prefix + "table1.json", json(cid, 1, players, 0, 45300));
+        drop(root, prefix + "tables.csv",
+                "competitionId,roundNumber,matchNumber,eastPlayerId,eastScore,southPlayerId,southScore,"
+                        + "westPlayerId,westScore,northPlayerId,northScore,remarks\n"
+                        + csvRow(cid, 2, players, 4) + ",\"备注, 含逗号\"\n"
+                        + csvRow(cid, 3, players, 0) + ",\n");
+        drop(root, prefix + "bad-total.json", json(cid, 4, players, 4, 50000));
+        drop(root, prefix + "broken.json", "{\"competitionId\": ");
+        drop(root, prefix + "notes.txt", "不是成绩文件");
+
+        awaitFile(root.resolve("done").resolve(prefix + "table1.json"));
+        awaitFile(root.resolve("done").resolve(prefix + "tables.csv"));
+        awaitFile(root.resolve("failed").resolve(prefix + "bad-total.json.errors.txt"));
+        awaitFile(root.resolve("failed").resolve(prefix + "broken.json.errors.txt"));
+
+        // 已写入的比赛编号再次提交时整个文件失败
+        drop(root, prefix + "duplicate.json", json(cid, 1, players, 4, 45300));
+        awaitFile(root.resolve("failed").resolve(prefix + "duplicate.json.errors.txt"));
+
+        assertEquals(3, matchResultService.countByCompetitionAndRound(competition, 1));
+        List<MatchResult> saved = matchResultRepository.findByCompetitionAndRoundOrderByMatchNumber(cid, 1);
+        assertEquals("备注, 含逗号", saved.get(1).getRemarks());
+        assertEquals(20.3 + 45, saved.get(0).getEastPtScore(), 1e-9);
+
+        String badTotal = Files.readString(root.resolve("failed").resolve(prefix + "bad-total.json.errors.txt"));
+        assertTrue(badTotal.contains("100000"), badTotal);
+        assertTrue(Files.readString(root.resolve("failed").resolve(prefix + "broken.json.errors.txt")).contains("解析失败"));
+        assertTrue(Files.readString(root.resolve("failed").resolve(prefix + "duplicate.json.errors.txt")).contains("已存在"));
+        assertTrue(Files.exists(root.resolve("inbox").resolve(prefix + "notes.txt")), "非成绩文件应留在收件目录");
+        Files.delete(root.resolve("inbox").resolve(prefix + "notes.txt"));
+    }
+
+    private static void clean(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * 先写临时文件再重命名，模拟记分平板的导出方式
+     */
+    private static void drop(Path root, String name, String content) throws IOException {
+        Path temp = root.resolve(name + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, root.resolve("inbox").resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        for (int i = 0; i < 200 && !Files.exists(file); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(Files.exists(file), "未生成文件: " + file);
+    }
+
+    private static String json(Long cid, int matchNumber, List<Player> players, int firstSeat, int eastScore) {
+        return String.format("{\"competitionId\":%d,\"roundNumber\":1,\"matchNumber\":%d,"
+                        + "\"eastPlayerId\":%d,\"eastScore\":%d,\"southPlayerId\":%d,\"southScore\":30700,"
+                        + "\"westPlayerId\":%d,\"westScore\":18200,\"northPlayerId\":%d,\"northScore\":5800}",
+                cid, matchNumber, players.get(firstSeat).getId(), eastScore, players.get(firstSeat + 1).getId(),
+                players.get(firstSeat + 2).getId(), players.get(firstSeat + 3).getId());
+    }
+
+    private static String csvRow(Long cid, int matchNumber, List<Player> players, int firstSeat) {
+        return String.format("%d,1,%d,%d,45300,%d,30700,%d,18200,%d,5800", cid, matchNumber,
+                players.get(firstSeat).getId(), players.get(firstSeat + 1).getId(),
+                players.get(firstSeat + 2).getId(), players.get(firstSeat + 3).getId());
+    }
+}
@@ -0,0 +1,176 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.config.IdempotencyFilter;
+import com.rogister.mjcompetition.dto.match.MatchResultCreateRequest;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.MatchNumberConflictException;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IdempotentMatchResultTest {
+
+    private static final int PLAYER_COUNT = 8;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Test
+    public void testConcurrentSubmissionsOfSameTableCreateOneResult() throws Exception {
+        Competition competition = fixtures.competition("idem-race");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    matchResultService.createMatchResult(fixtures.match(competition, players, 0, 1));
+                    created.incrementAndGet();
+                } catch (MatchNumberConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get());
+        assertEquals(threads - 1, conflicts.get());
+        assertEquals(1, matchResultService.countByCompetitionAndRound(competition, 1));
+    }
+
+    @Test
+    public void testIdempotencyKeyReplaysStoredResponse() throws Exception {
+        Competition competition = fixtures.competition("idem-replay");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        String token = "Bearer " + jwtUtil.generateTokenWithRole("idem-admin", "ADMIN", "ADMIN");
+        String body = objectMapper.writeValueAsString(request(competition, players, 1));
+
+        MockHttpServletResponse first = mockMvc.perform(post("/api/match-results")
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, "table-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse();
+        assertEquals(200, first.getStatus());
+        assertEquals(0, objectMapper.readTree(first.getContentAsByteArray()).get("code").asInt());
+
+        // 超时后的重试：重放第一次的响应，不再写入
+        MockHttpServletResponse retry = mockMvc.perform(post("/api/match-results")
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, "table-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse();
+        assertEquals(200, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertArrayEquals(first.getContentAsByteArray(), retry.getContentAsByteArray());
+        assertEquals(1, matchResultService.countByCompetitionAndRound(competition, 1));
+
+        // 相同key用于不同的请求
+        MockHttpServletResponse reused = mockMvc.perform(post("/api/match-results")
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, "table-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(competition, players, 2))))
+                .andReturn().getResponse();
+        assertEquals(422, reused.getStatus());
+
+        // 不同key提交相同比赛编号：由唯一约束返回冲突
+        MockHttpServletResponse duplicate = mockMvc.perform(post("/api/match-results")
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, "table-1-again")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse();
+        assertEquals(409, duplicate.getStatus());
+        assertTrue(objectMapper.readTree(duplicate.getContentAsByteArray()).get("message").asText().contains("已存在"));
+        assertEquals(1, matchResultService.countByCompetitionAndRound(competition, 1));
+    }
+
+    @Test
+    public void testIdempotencyKeyIgnoredOutsideMatchResultWrites() throws Exception {
+        String key = fixtures.uniqueName("login");
+        for (String username : List.of("idem-nobody", "idem-nobody-2")) {
+            MockHttpServletResponse login = mockMvc.perform(post("/api/admin/login")
+                            .header(IdempotencyFilter.HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"" + username + "\",\"password\":\"wrong\"}"))
+                    .andReturn().getResponse();
+            // 登录响应不保存：相同key的第二个请求既不重放也不判为key复用
+            assertEquals(200, login.getStatus());
+            assertNull(login.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        }
+
+        // 未登录的成绩录入请求由安全配置拒绝，不占用key
+        Competition competition = fixtures.competition("idem-anon");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        String body = objectMapper.writeValueAsString(request(competition, players, 1));
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse anonymous = mockMvc.perform(post("/api/match-results")
+                            .header(IdempotencyFilter.HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andReturn().getResponse();
+            assertTrue(anonymous.getStatus() == 401 || anonymous.getStatus() == 403);
+            assertNull(anonymous.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        }
+        assertEquals(0, matchResultService.countByCompetitionAndRound(competition, 1));
+    }
+
+    private static MatchResultCreateRequest request(Competition competition, List<Player> players, int matchNumber) {
+        MatchResultCreateRequest request = new MatchResultCreateRequest();
+        request.setCompetitionId(competition.getId());
+        request.setRoundNumber(1);
+        request.setMatchNumber(matchNumber);
+        request.setEastPlayerId(players.get(0).getId());
+        request.setEastScore(40000);
+        request.setSouthPlayerId(players.get(1).getId());
+        request.setSouthScore(30000);
+        request.setWestPlayerId(players.get(2).getId());
+        request.setWestScore(20000);
+        request.setNorthPlayerId(players.get(3).getId());
+        request.setNorthScore(10000);
+        return request;
+    }
+}
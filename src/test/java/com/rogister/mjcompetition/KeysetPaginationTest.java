@@ -0,0 +1,114 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.dto.common.CursorPage;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerCompetitionRegistration;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.player.PlayerCompetitionRegistrationRepository;
+import com.rogister.mjcompetition.repository.player.PlayerRepository;
+import com.rogister.mjcompetition.service.competition.CompetitionRegistrationService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.player.PlayerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class KeysetPaginationTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private CompetitionRegistrationService competitionRegistrationService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PlayerCompetitionRegistrationRepository playerCompetitionRegistrationRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Test
+    public void testPlayerPagesCoverEveryPlayerOnce() {
+        List<Player> players = fixtures.players(12);
+
+        List<Long> ids = new ArrayList<>();
+        String token = null;
+        do {
+            CursorPage<Player> page = playerService.findPlayersPage(token, 5);
+            assertTrue(page.getItems().size() <= 5);
+            page.getItems().forEach(player -> ids.add(player.getId()));
+            token = page.getNextPageToken();
+            assertEquals(token != null, page.isHasMore());
+        } while (token != null);
+
+        assertEquals(playerRepository.count(), ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertTrue(ids.containsAll(players.stream().map(Player::getId).toList()));
+    }
+
+    @Test
+    public void testRoundRecordPagesFollowMatchNumber() {
+        List<Player> players = fixtures.players(4);
+        Competition competition = fixtures.competition("page-round");
+        List<MatchResult> matches = new ArrayList<>();
+        // 乱序写入，分页结果仍按比赛编号排序
+        for (int matchNumber : new int[]{7, 3, 11, 1, 9, 5, 2, 10, 4, 8, 6}) {
+            matches.add(fixtures.match(competition, players, 0, matchNumber));
+        }
+        matchResultRepository.saveAll(matches);
+
+        List<Integer> matchNumbers = new ArrayList<>();
+        String token = null;
+        do {
+            CursorPage<MatchResult> page = matchResultService.findRoundRecordsPage(competition, 1, token, 4);
+            page.getItems().forEach(matchResult -> matchNumbers.add(matchResult.getMatchNumber()));
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), matchNumbers);
+
+        // 令牌绑定比赛和轮次，不能用于其他轮次
+        String firstToken = matchResultService.findRoundRecordsPage(competition, 1, null, 4).getNextPageToken();
+        assertThrows(RuntimeException.class, () -> matchResultService.findRoundRecordsPage(competition, 2, firstToken, 4));
+        assertThrows(RuntimeException.class, () -> matchResultService.findRoundRecordsPage(competition, 1, "not-a-token", 4));
+    }
+
+    @Test
+    public void testRegistrationPagesAreScopedToCompetition() {
+        List<Player> players = fixtures.players(7);
+        Competition competition = fixtures.competition("page-registration");
+        Competition other = fixtures.competition("page-registration-other");
+        for (Player player : players) {
+            playerCompetitionRegistrationRepository.save(new PlayerCompetitionRegistration(player, competition));
+        }
+        playerCompetitionRegistrationRepository.save(new PlayerCompetitionRegistration(players.get(0), other));
+
+        CursorPage<PlayerCompetitionRegistration> first = competitionRegistrationService
+                .getCompetitionIndividualRegistrationsPage(competition.getId(), null, 4);
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.isHasMore());
+
+        CursorPage<PlayerCompetitionRegistration> second = competitionRegistrationService
+                .getCompetitionIndividualRegistrationsPage(competition.getId(), first.getNextPageToken(), 4);
+        assertEquals(3, second.getItems().size());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextPageToken());
+    }
+}
@@ -0,0 +1,186 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.LeaderboardStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 轮次排行榜推送的端到端测试：通过本机 HTTP 连接订阅 text/event-stream，以及发送超时断开慢订阅者
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "mj.leaderboard-stream.coalesce-window-ms=300",
+        "mj.leaderboard-stream.send-timeout-ms=500"
+})
+public class LeaderboardStreamHttpTest {
+
+    private static final int CONNECTIONS = 5;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    public void testConnectionsReceiveSnapshotAndDelta() throws Exception {
+        Competition competition = fixtures.competition("推送连接");
+        List<Player> players = fixtures.roundPlayers(competition, 8);
+        fixtures.createMatch(competition, players, 1);
+
+        List<StreamReader> readers = new ArrayList<>(CONNECTIONS);
+        try {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                readers.add(open(competition, null, 1));
+            }
+            for (StreamReader reader : readers) {
+                assertTrue(reader.snapshot.await(30, TimeUnit.SECONDS), "连接后应先收到完整排行榜");
+            }
+
+            fixtures.createMatch(competition, players, 2);
+            for (StreamReader reader : readers) {
+                assertTrue(reader.deltas.await(30, TimeUnit.SECONDS), "每个连接都应收到排行榜变化");
+                assertEquals(List.of(LeaderboardStreamService.EVENT_SNAPSHOT, LeaderboardStreamService.EVENT_DELTA),
+                        reader.eventNames());
+            }
+
+            // 携带快照的事件ID重连，只补发之后的变化
+            String snapshotId = readers.get(0).events.get(0)[0];
+            String deltaId = readers.get(0).events.get(1)[0];
+            StreamReader resumed = open(competition, snapshotId, 1);
+            readers.add(resumed);
+            assertTrue(resumed.deltas.await(30, TimeUnit.SECONDS));
+            assertEquals(List.of(LeaderboardStreamService.EVENT_DELTA), resumed.eventNames());
+            assertEquals(deltaId, resumed.events.get(0)[0]);
+        } finally {
+            for (StreamReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    public void testBlockedSendIsDroppedAfterTimeout() throws Exception {
+        Competition competition = fixtures.competition("推送超时");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        LeaderboardStreamService.Subscriber blocked = leaderboardStreamService.subscribe(competition.getId(), 1, null,
+                new LeaderboardStreamService.EventSink() {
+                    @Override
+                    public void send(String id, String name, String data) {
+                        // 模拟不再读取数据的客户端：发送一直阻塞
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.countDown();
+                    }
+                });
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS), "发送超时后应中断发送线程");
+        assertTrue(closed.await(10, TimeUnit.SECONDS), "发送超时后应关闭连接");
+        assertTrue(blocked.isClosed());
+
+        // 其他连接不受影响
+        StreamReader reader = open(competition, null, 1);
+        try {
+            assertTrue(reader.snapshot.await(30, TimeUnit.SECONDS));
+            fixtures.createMatch(competition, players, 1);
+            assertTrue(reader.deltas.await(30, TimeUnit.SECONDS));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private StreamReader open(Competition competition, String lastEventId, int expectedDeltas) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/competition-status/" + competition.getId() + "/round/1/stream"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        return new StreamReader(response.body(), expectedDeltas);
+    }
+
+    /**
+     * 在后台线程读取一个连接的事件（id、name），心跳注释不记录
+     */
+    private static class StreamReader {
+        final List<String[]> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch snapshot = new CountDownLatch(1);
+        final CountDownLatch deltas;
+        private final Stream<String> lines;
+        private String id;
+
+        StreamReader(Stream<String> lines, int expectedDeltas) {
+            this.lines = lines;
+            this.deltas = new CountDownLatch(expectedDeltas);
+            Thread thread = new Thread(this::read, "sse-reader");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void read() {
+            try {
+                lines.forEach(line -> {
+                    if (line.startsWith("id:")) {
+                        id = line.substring(3).trim();
+                    } else if (line.startsWith("event:")) {
+                        String name = line.substring(6).trim();
+                        events.add(new String[]{id, name});
+                        if (LeaderboardStreamService.EVENT_SNAPSHOT.equals(name)) {
+                            snapshot.countDown();
+                        } else if (LeaderboardStreamService.EVENT_DELTA.equals(name)) {
+                            deltas.countDown();
+                        }
+                    }
+                });
+            } catch (RuntimeException ignored) {
+                // 连接已关闭
+            }
+        }
+
+        List<String> eventNames() {
+            return events.stream().map(event -> event[1]).toList();
+        }
+
+        void close() {
+            lines.close();
+        }
+    }
+}
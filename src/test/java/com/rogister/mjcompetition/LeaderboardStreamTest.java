@@ -0,0 +1,175 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.competition.LeaderboardDelta;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.LeaderboardStreamService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "mj.leaderboard-stream.coalesce-window-ms=300",
+        "mj.leaderboard-stream.buffer-size=4"
+})
+public class LeaderboardStreamTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testBurstIsCoalescedForManySubscribers() throws Exception {
+        Competition competition = fixtures.competition("推送");
+        List<Player> players = fixtures.roundPlayers(competition, 8);
+        matchResultService.createMatchResult(fixtures.match(competition, players, 0, 1));
+
+        int subscriberCount = 5000;
+        List<RecordingSink> sinks = new ArrayList<>(subscriberCount);
+        for (int i = 0; i < subscriberCount; i++) {
+            RecordingSink sink = new RecordingSink(1);
+            leaderboardStreamService.subscribe(competition.getId(), 1, null, sink);
+            sinks.add(sink);
+        }
+
+        // 同一事务中提交两场比赛，只推送一次变化
+        matchResultService.createMatchResults(competition, 1, List.of(
+                fixtures.match(competition, players, 4, 2),
+                fixtures.match(competition, players, 0, 3)));
+
+        for (RecordingSink sink : sinks) {
+            assertTrue(sink.deltas.await(30, TimeUnit.SECONDS), "订阅者应收到排行榜变化");
+        }
+
+        String sharedData = sinks.get(0).events.get(1)[2];
+        for (RecordingSink sink : sinks) {
+            assertEquals(2, sink.events.size());
+            assertEquals(LeaderboardStreamService.EVENT_SNAPSHOT, sink.events.get(0)[1]);
+            assertEquals(LeaderboardStreamService.EVENT_DELTA, sink.events.get(1)[1]);
+            assertSame(sharedData, sink.events.get(1)[2]);
+        }
+
+        LeaderboardDelta delta = objectMapper.readValue(sharedData, LeaderboardDelta.class);
+        assertEquals(8, delta.getChanges().size());
+        assertTrue(delta.getRemovedPlayerIds().isEmpty());
+        LeaderboardDelta.StandingChange leader = delta.getChanges().get(0);
+        assertEquals(players.get(0).getId(), leader.getPlayerId());
+        assertEquals(2, leader.getMatchCount());
+        assertEquals(1, leader.getPreviousRank());
+    }
+
+    @Test
+    public void testResumeFromLastEventId() throws Exception {
+        Competition competition = fixtures.competition("推送");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+
+        RecordingSink first = new RecordingSink(1);
+        leaderboardStreamService.subscribe(competition.getId(), 1, null, first);
+        matchResultService.createMatchResult(fixtures.match(competition, players, 0, 1));
+        assertTrue(first.deltas.await(30, TimeUnit.SECONDS));
+
+        String snapshotId = first.events.get(0)[0];
+        String deltaId = first.events.get(1)[0];
+
+        // 携带快照的事件ID重连，只补发之后的变化
+        RecordingSink resumed = new RecordingSink(1);
+        leaderboardStreamService.subscribe(competition.getId(), 1, snapshotId, resumed);
+        assertTrue(resumed.deltas.await(30, TimeUnit.SECONDS));
+        assertEquals(1, resumed.events.size());
+        assertEquals(deltaId, resumed.events.get(0)[0]);
+
+        // 无法识别的事件ID改为推送完整排行榜
+        RecordingSink unknown = new RecordingSink(0);
+        leaderboardStreamService.subscribe(competition.getId(), 1, "1-1", unknown);
+        assertTrue(unknown.snapshot.await(30, TimeUnit.SECONDS));
+        assertEquals(LeaderboardStreamService.EVENT_SNAPSHOT, unknown.events.get(0)[1]);
+    }
+
+    @Test
+    public void testSlowSubscriberIsDisconnectedWhenBufferIsFull() throws Exception {
+        Competition competition = fixtures.competition("推送");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(0) {
+            @Override
+            public void send(String id, String name, String data) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        LeaderboardStreamService.Subscriber slowSubscriber =
+                leaderboardStreamService.subscribe(competition.getId(), 1, null, slow);
+
+        int rounds = 6;
+        RecordingSink fast = new RecordingSink(rounds);
+        leaderboardStreamService.subscribe(competition.getId(), 1, null, fast);
+
+        for (int i = 1; i <= rounds; i++) {
+            long expected = fast.deltas.getCount() - 1;
+            matchResultService.createMatchResult(fixtures.match(competition, players, 0, i));
+            long deadline = System.currentTimeMillis() + 30000;
+            while (fast.deltas.getCount() > expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+        release.countDown();
+
+        assertEquals(0, fast.deltas.getCount());
+        assertTrue(slowSubscriber.isClosed(), "发送队列已满的订阅者应被断开");
+        assertTrue(slow.closed);
+    }
+
+    /**
+     * 模拟订阅者：记录收到的事件（id、name、data），心跳不记录
+     */
+    private static class RecordingSink implements LeaderboardStreamService.EventSink {
+        final List<String[]> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch snapshot = new CountDownLatch(1);
+        final CountDownLatch deltas;
+        volatile boolean closed;
+
+        RecordingSink(int expectedDeltas) {
+            this.deltas = new CountDownLatch(expectedDeltas);
+        }
+
+        @Override
+        public void send(String id, String name, String data) {
+            if (name == null) {
+                return;
+            }
+            events.add(new String[]{id, name, data});
+            if (LeaderboardStreamService.EVENT_SNAPSHOT.equals(name)) {
+                snapshot.countDown();
+            } else if (LeaderboardStreamService.EVENT_DELTA.equals(name)) {
+                deltas.countDown();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
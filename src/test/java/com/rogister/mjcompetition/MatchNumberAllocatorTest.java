@@ -0,0 +1,122 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchNumberSequence;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchNumberSequenceRepository;
+import com.rogister.mjcompetition.service.competition.MatchNumberAllocator;
+import com.rogister.mjcompetition.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "mj.match-number.block-size=10")
+@AutoConfigureMockMvc
+public class MatchNumberAllocatorTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchNumberAllocator matchNumberAllocator;
+
+    @Autowired
+    private MatchNumberSequenceRepository matchNumberSequenceRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testConcurrentAllocationsAreUniqueAndReserved() throws Exception {
+        Competition competition = seedCompetition("alloc-concurrent", 0);
+
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                List<Integer> numbers = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(matchNumberAllocator.allocate(competition.getId(), 1));
+                }
+                return numbers;
+            }));
+        }
+        Set<Integer> allocated = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            allocated.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, allocated.size(), "分配的编号不应重复");
+        assertEquals(1, Collections.min(allocated));
+
+        // 数据库中的序列已越过全部已分配编号，重启或其他实例从其后继续分配
+        MatchNumberSequence sequence = matchNumberSequenceRepository.findAll().stream()
+                .filter(s -> s.getCompetitionId().equals(competition.getId()) && s.getRoundNumber() == 1)
+                .findFirst().orElseThrow();
+        assertTrue(sequence.getNextValue() > Collections.max(allocated));
+
+        // 不同轮次独立编号
+        assertEquals(1, matchNumberAllocator.allocate(competition.getId(), 2));
+    }
+
+    @Test
+    public void testAllocationSkipsExistingNumbersAndEndpointUsesAllocator() throws Exception {
+        Competition competition = seedCompetition("alloc-endpoint", 5);
+        String token = "Bearer " + jwtUtil.generateTokenWithRole("alloc-admin", "ADMIN", "ADMIN");
+
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = mockMvc.perform(post("/api/match-results/next-match-number")
+                            .param("competitionId", competition.getId().toString())
+                            .param("roundId", "1")
+                            .header("Authorization", token))
+                    .andReturn().getResponse();
+            assertEquals("no-store", response.getHeader("Cache-Control"));
+            numbers.add(objectMapper.readTree(response.getContentAsByteArray()).get("data").asInt());
+        }
+        assertEquals(List.of(6, 7, 8), numbers, "应从已录入的最大编号之后开始分配");
+    }
+
+    @Test
+    public void testNumbersEnteredInsideReservedBlockAreSkipped() {
+        Competition competition = fixtures.competition("alloc-skip");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        assertEquals(1, matchNumberAllocator.allocate(competition.getId(), 1));
+
+        // 预留编号段之后直接录入的编号不再分配
+        fixtures.createMatch(competition, players, 2);
+        fixtures.createMatch(competition, players, 3);
+        assertEquals(4, matchNumberAllocator.allocate(competition.getId(), 1));
+    }
+
+    /**
+     * 创建比赛，并以编号 1..existingMatches 录入第一轮成绩
+     */
+    private Competition seedCompetition(String prefix, int existingMatches) {
+        Competition competition = fixtures.competition(prefix);
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        for (int matchNumber = 1; matchNumber <= existingMatches; matchNumber++) {
+            fixtures.createMatch(competition, players, matchNumber);
+        }
+        return competition;
+    }
+}
@@ -0,0 +1,71 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.service.competition.MatchPlacementBackfillService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MatchPlacementBackfillTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private MatchPlacementBackfillService backfillService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPlacementsStoredOnWriteAndBackfilled() {
+        Competition competition = fixtures.competition("顺位");
+        List<Player> players = fixtures.players(4);
+
+        // 南家和北家同分，南家座位靠前排在北家之前
+        MatchResult matchResult = new MatchResult(competition, 1, 1,
+                players.get(0), players.get(1), players.get(2), players.get(3));
+        matchResult.setEastScore(10000);
+        matchResult.setSouthScore(30000);
+        matchResult.setWestScore(30000);
+        matchResult.setNorthScore(30000);
+        Long id = matchResultService.createMatchResult(matchResult).getId();
+
+        assertStoredPlacements(id, 4, 1, 2, 3);
+
+        jdbcTemplate.update("UPDATE match_results SET east_placement = NULL, south_placement = NULL, " +
+                "west_placement = NULL, north_placement = NULL WHERE id = ?", id);
+        assertTrue(matchResultRepository.countMissingPlacements() > 0);
+
+        assertTrue(backfillService.backfill() >= 1);
+        assertEquals(0, matchResultRepository.countMissingPlacements());
+        assertStoredPlacements(id, 4, 1, 2, 3);
+
+        MatchResult stored = matchResultRepository.findById(id).orElseThrow();
+        assertEquals(1, stored.getPlacementOf(players.get(1).getId()));
+        assertEquals(3, stored.getPlacementOf(players.get(3).getId()));
+    }
+
+    private void assertStoredPlacements(Long id, int east, int south, int west, int north) {
+        List<Integer> placements = jdbcTemplate.queryForObject(
+                "SELECT east_placement, south_placement, west_placement, north_placement FROM match_results WHERE id = ?",
+                (rs, rowNum) -> List.of(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)), id);
+        assertEquals(List.of(east, south, west, north), placements);
+    }
+}
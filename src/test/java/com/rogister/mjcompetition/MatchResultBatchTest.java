@@ -0,0 +1,144 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.dto.match.MatchResultBatchReport;
+import com.rogister.mjcompetition.dto.match.MatchResultBatchRequest;
+import com.rogister.mjcompetition.dto.match.MatchResultCreateRequest;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultBatchService;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.competition.RoundStandingsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class MatchResultBatchTest {
+
+    private static final int PLAYER_COUNT = 16;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultBatchService matchResultBatchService;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private RoundStandingsService roundStandingsService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private MatchResultSeatRepository matchResultSeatRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testInvalidRowsAreReportedAndNothingIsWritten() {
+        Competition competition = fixtures.competition("batch-invalid");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        // 已有一场成绩，编号为1
+        fixtures.createMatch(competition, players, 1);
+        Player outsider = fixtures.players(1).get(0);
+
+        List<MatchResultCreateRequest> rows = new ArrayList<>();
+        rows.add(row(1, players, 0));                     // 编号已存在
+        rows.add(row(2, players, 4));
+        rows.add(row(2, players, 8));                     // 批内编号重复
+        MatchResultCreateRequest unknownPlayer = row(3, players, 12);
+        unknownPlayer.setNorthPlayerId(-1L);
+        rows.add(unknownPlayer);
+        MatchResultCreateRequest ineligible = row(4, players, 0);
+        ineligible.setEastPlayerId(outsider.getId());
+        rows.add(ineligible);
+        MatchResultCreateRequest badTotal = row(5, players, 4);
+        badTotal.setEastScore(50000);
+        rows.add(badTotal);
+
+        MatchResultBatchReport report = matchResultBatchService.ingest(
+                new MatchResultBatchRequest(competition.getId(), 1, rows), false);
+
+        assertFalse(report.isValid());
+        assertEquals(0, report.getInserted());
+        assertEquals(List.of(1, 3, 4, 5, 6), report.getErrors().stream().map(MatchResultBatchReport.RowError::getRow).toList());
+        assertTrue(report.getErrors().get(0).getMessage().contains("已存在"));
+        assertTrue(report.getErrors().get(1).getMessage().contains("第2行重复"));
+        assertTrue(report.getErrors().get(2).getMessage().contains("北家玩家不存在"));
+        assertTrue(report.getErrors().get(3).getMessage().contains("没有资格"));
+        assertTrue(report.getErrors().get(4).getMessage().contains("100000"));
+        assertEquals(1, matchResultService.countByCompetitionAndRound(competition, 1), "有错误时不应写入任何成绩");
+    }
+
+    @Test
+    public void testDryRunValidatesWithConstantQueriesAndIngestWritesBatch() {
+        Competition competition = fixtures.competition("batch-valid");
+        List<Player> players = fixtures.roundPlayers(competition, PLAYER_COUNT);
+        // 已有一场成绩，编号为1
+        fixtures.createMatch(competition, players, 1);
+
+        List<MatchResultCreateRequest> rows = new ArrayList<>();
+        for (int table = 0; table < PLAYER_COUNT / 4; table++) {
+            rows.add(row(table + 2, players, table * 4));
+        }
+        MatchResultBatchRequest request = new MatchResultBatchRequest(competition.getId(), 1, rows);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MatchResultBatchReport dryRun = matchResultBatchService.ingest(request, true);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(dryRun.isValid(), () -> "校验应通过: " + dryRun.getErrors());
+        assertEquals(0, dryRun.getInserted());
+        assertEquals(1, matchResultService.countByCompetitionAndRound(competition, 1), "只校验时不应写入");
+        // 比赛、两个最大轮次、玩家、参赛资格、已存在编号各一条查询，与行数无关
+        assertTrue(statements <= 6, "校验执行了 " + statements + " 条SQL");
+
+        MatchResultBatchReport report = matchResultBatchService.ingest(request, false);
+        assertTrue(report.isValid());
+        assertEquals(rows.size(), report.getInserted());
+
+        List<MatchResult> saved = matchResultRepository.findByCompetitionAndRoundOrderByMatchNumber(competition.getId(), 1);
+        assertEquals(rows.size() + 1, saved.size());
+        for (MatchResult matchResult : saved) {
+            assertEquals(4, matchResultSeatRepository.findByMatchResultId(matchResult.getId()).size());
+            assertEquals(100000, matchResult.getTotalScore());
+            assertNotNull(matchResult.getEastPlacement());
+        }
+        assertEquals(45.3 + 45, saved.get(1).getEastPtScore(), 1e-9);
+        assertTrue(roundStandingsService.checkRound(competition.getId(), 1).isEmpty(), "积分榜应与比赛成绩一致");
+
+        // 再次提交相同编号时报告已存在
+        MatchResultBatchReport duplicate = matchResultBatchService.ingest(request, true);
+        assertEquals(rows.size(), duplicate.getErrors().size());
+    }
+
+    private static MatchResultCreateRequest row(int matchNumber, List<Player> players, int firstSeat) {
+        MatchResultCreateRequest row = new MatchResultCreateRequest();
+        row.setMatchNumber(matchNumber);
+        row.setEastPlayerId(players.get(firstSeat).getId());
+        row.setEastScore(70300);
+        row.setSouthPlayerId(players.get(firstSeat + 1).getId());
+        row.setSouthScore(20700);
+        row.setWestPlayerId(players.get(firstSeat + 2).getId());
+        row.setWestScore(8200);
+        row.setNorthPlayerId(players.get(firstSeat + 3).getId());
+        row.setNorthScore(800);
+        return row;
+    }
+}
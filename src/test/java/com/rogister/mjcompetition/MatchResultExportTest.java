@@ -0,0 +1,114 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultExportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "mj.export.clear-interval=100"
+})
+public class MatchResultExportTest {
+
+    private static final int MATCH_COUNT = 1200;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultExportService matchResultExportService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testNdjsonExportStreamsEveryMatchWithoutLoadingPlayers() throws Exception {
+        List<Player> players = new ArrayList<>();
+        Competition competition = seedCompetition("ndjson", players);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = matchResultExportService.export(competition.getId(), MatchResultExportService.FORMAT_NDJSON, out);
+
+        assertEquals(MATCH_COUNT, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(MATCH_COUNT, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("roundNumber").asInt());
+        assertEquals(1, first.get("matchNumber").asInt());
+        assertEquals(players.get(0).getId().longValue(), first.get("eastPlayerId").asLong());
+        assertEquals(players.get(0).getNickname(), first.get("eastPlayerName").asText());
+        assertEquals(40000, first.get("eastScore").asInt());
+
+        JsonNode last = objectMapper.readTree(lines[MATCH_COUNT - 1]);
+        assertEquals(3, last.get("roundNumber").asInt());
+        assertEquals(MATCH_COUNT / 3, last.get("matchNumber").asInt());
+
+        // 玩家不做关联加载，昵称在导出查询中连接读取，游标打开期间不执行其他查询
+        assertEquals(0, statistics.getEntityStatistics(Player.class.getName()).getLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount(),
+                "导出只应执行一条查询，实际语句数: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCsvExportEscapesFields() throws Exception {
+        List<Player> players = new ArrayList<>();
+        Competition competition = seedCompetition("csv", players);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = matchResultExportService.export(competition.getId(), MatchResultExportService.FORMAT_CSV, out);
+
+        assertEquals(MATCH_COUNT, count);
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFFid,roundNumber,matchNumber"));
+        String[] lines = csv.split("\r\n");
+        assertEquals(MATCH_COUNT + 1, lines.length);
+        assertTrue(lines[1].endsWith(",\"备注,含\"\"逗号\"\"\""), lines[1]);
+    }
+
+    private Competition seedCompetition(String key, List<Player> players) {
+        Competition competition = fixtures.competition("导出" + key);
+        players.addAll(fixtures.players(8));
+
+        List<MatchResult> matches = new ArrayList<>();
+        int perRound = MATCH_COUNT / 3;
+        for (int i = 0; i < MATCH_COUNT; i++) {
+            int table = (i % 2) * 4;
+            MatchResult matchResult = new MatchResult(competition, i / perRound + 1, i % perRound + 1,
+                    players.get(table), players.get(table + 1), players.get(table + 2), players.get(table + 3));
+            matchResult.setEastScore(40000);
+            matchResult.setSouthScore(30000);
+            matchResult.setWestScore(20000);
+            matchResult.setNorthScore(10000);
+            matchResult.setRemarks("备注,含\"逗号\"");
+            matches.add(matchResult);
+        }
+        matchResultRepository.saveAll(matches);
+        return competition;
+    }
+}
@@ -0,0 +1,65 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.service.competition.MatchSeatIndexService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "mj.seat-backfill.batch-size=2")
+public class MatchSeatBackfillTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchSeatIndexService matchSeatIndexService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSeatsBackfilledInPagesAndQueriedOncePerMatch() {
+        Competition competition = fixtures.competition("座位回填");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        MatchResult first = null;
+        for (int matchNumber = 1; matchNumber <= 5; matchNumber++) {
+            MatchResult matchResult = fixtures.createMatch(competition, players, matchNumber);
+            if (first == null) {
+                first = matchResult;
+            }
+        }
+        assertEquals(20, countSeats(competition));
+
+        jdbcTemplate.update("DELETE FROM match_result_seats WHERE competition_id = ?", competition.getId());
+        assertEquals(0, countSeats(competition));
+
+        // 每批2场，分多批写入全部座位
+        assertTrue(matchSeatIndexService.backfill() >= 20);
+        assertEquals(20, countSeats(competition));
+
+        // 同一玩家在一场比赛中出现在多个座位时，该场比赛只返回一次
+        jdbcTemplate.update("UPDATE match_result_seats SET player_id = ? WHERE match_result_id = ? AND seat = 1",
+                players.get(0).getId(), first.getId());
+        assertEquals(5, matchResultRepository.findByCompetitionIdAndPlayerId(competition.getId(), players.get(0).getId()).size());
+        List<MatchResult> ordered = matchResultRepository.findByPlayerIdOrderByCompetitionRoundMatch(players.get(0).getId());
+        assertEquals(List.of(1, 2, 3, 4, 5), ordered.stream().map(MatchResult::getMatchNumber).toList());
+    }
+
+    private int countSeats(Competition competition) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM match_result_seats WHERE competition_id = ?",
+                Integer.class, competition.getId());
+        return count != null ? count : 0;
+    }
+}
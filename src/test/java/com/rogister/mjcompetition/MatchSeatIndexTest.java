@@ -0,0 +1,59 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.competition.MatchResultSeat;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.repository.competition.MatchResultSeatRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MatchSeatIndexTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private MatchResultSeatRepository seatRepository;
+
+    @Test
+    public void testSeatsFollowCreateUpdateDelete() {
+        Competition competition = fixtures.competition("座位");
+        List<Player> players = fixtures.players(4);
+        Long westId = players.get(2).getId();
+
+        MatchResult first = matchResultService.createMatchResult(fixtures.match(competition, players, 0, 1, 40000, 30000, 20000, 10000));
+        matchResultService.createMatchResult(fixtures.match(competition, players, 0, 2, 10000, 20000, 30000, 40000));
+
+        List<MatchResultSeat> seats = seatRepository.findByMatchResultId(first.getId());
+        assertEquals(4, seats.size());
+        assertEquals(3, seats.get(2).getPlacement());
+        assertEquals(2, matchResultRepository.findByCompetitionIdAndPlayerId(competition.getId(), westId).size());
+        // 西家：第一场三位 -5-15=-20，第二场二位 5+5=10
+        assertEquals(-10.0, matchResultRepository.getPlayerPtScoreSum(competition.getId(), 1, westId), 1e-6);
+
+        matchResultService.updateMatchResult(first.getId(), fixtures.match(competition, players, 0, 1, 10000, 20000, 45000, 25000));
+        seats = seatRepository.findByMatchResultId(first.getId());
+        assertEquals(4, seats.size());
+        assertEquals(1, seats.get(2).getPlacement());
+        assertEquals(45000, seats.get(2).getScore());
+
+        matchResultService.deleteMatchResult(first.getId());
+        assertTrue(seatRepository.findByMatchResultId(first.getId()).isEmpty());
+        assertEquals(1, matchResultRepository.findByCompetitionAndRoundAndPlayer(competition.getId(), 1, westId).size());
+    }
+}
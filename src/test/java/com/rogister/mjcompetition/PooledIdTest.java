@@ -0,0 +1,94 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.common.PooledIds;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.entity.player.PlayerRoundStatus;
+import com.rogister.mjcompetition.repository.player.PlayerRoundStatusRepository;
+import com.rogister.mjcompetition.service.common.PooledIdMigrationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class PooledIdTest {
+
+    private static final int ROW_COUNT = 200;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private PlayerRoundStatusRepository playerRoundStatusRepository;
+
+    @Autowired
+    private PooledIdMigrationService pooledIdMigrationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testRoundStatusInsertsAreBatched() {
+        Competition competition = fixtures.competition("pooled-batch");
+        List<Player> players = fixtures.players(ROW_COUNT);
+        List<PlayerRoundStatus> statuses = new ArrayList<>();
+        for (Player player : players) {
+            statuses.add(new PlayerRoundStatus(player, competition, 1, 0));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        transactionTemplate.execute(status -> playerRoundStatusRepository.saveAll(statuses));
+
+        assertEquals(ROW_COUNT, statistics.getEntityInsertCount());
+        // 每50行一个批次，外加每段ID预留的读取和更新；逐行插入时至少为 ROW_COUNT 条
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= ROW_COUNT / PooledIds.ALLOCATION_SIZE * 3 + 4, "插入执行了 " + statements + " 条SQL");
+        assertEquals(ROW_COUNT, new HashSet<>(statuses.stream().map(PlayerRoundStatus::getId).toList()).size());
+    }
+
+    @Test
+    public void testMigrationMovesGeneratorPastExistingIds() {
+        Competition competition = fixtures.competition("pooled-migrate");
+        Player player = fixtures.players(1).get(0);
+
+        // 模拟自增ID时期写入的记录
+        long legacyId = 5_000_000L;
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO player_round_status (id, player_id, competition_id, round_number, initial_score, "
+                        + "current_score, status, is_eliminated, created_at, updated_at) VALUES (?, ?, ?, 1, 0, 0, 'ACTIVE', FALSE, ?, ?)",
+                legacyId, player.getId(), competition.getId(), Timestamp.valueOf(now), Timestamp.valueOf(now));
+
+        pooledIdMigrationService.migrate();
+        long expected = legacyId + PooledIds.ALLOCATION_SIZE + 1;
+        assertEquals(expected, nextValue(PooledIds.PLAYER_ROUND_STATUS));
+
+        // 重复执行不再修改
+        pooledIdMigrationService.migrate();
+        assertEquals(expected, nextValue(PooledIds.PLAYER_ROUND_STATUS));
+    }
+
+    private long nextValue(String generator) {
+        return jdbcTemplate.queryForObject("SELECT " + PooledIds.VALUE_COLUMN + " FROM " + PooledIds.TABLE
+                + " WHERE " + PooledIds.NAME_COLUMN + " = ?", Long.class, generator);
+    }
+}
@@ -0,0 +1,110 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.ResultBroadcastService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 比赛成绩广播压力测试：本机建立大量 WebSocket 连接，验证每条消息只序列化一次、
+ * 全部连接都能收到，且每个连接的内存占用有上限。连接数可通过 -Dmj.ws.load.connections 调整
+ *
+ * 不在默认的 test 任务中运行，使用 ./gradlew loadTest 单独执行
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResultBroadcastLoadTest {
+
+    private static final long MAX_BYTES_PER_CONNECTION = 256 * 1024;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ResultBroadcastService resultBroadcastService;
+
+    @Test
+    public void testBroadcastToThousandsOfConnections() throws Exception {
+        int connections = Integer.getInteger("mj.ws.load.connections", 2000);
+
+        Competition competition = fixtures.competition("广播");
+        List<Player> players = fixtures.players(4);
+        fixtures.createMatch(competition, players, 1);
+
+        CountDownLatch snapshots = new CountDownLatch(connections);
+        CountDownLatch updates = new CountDownLatch(connections);
+        TextWebSocketHandler board = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                String payload = message.getPayload();
+                if (payload.contains("\"type\":\"" + ResultBroadcastService.TYPE_SNAPSHOT + "\"")) {
+                    snapshots.countDown();
+                } else if (payload.contains("\"type\":\"" + ResultBroadcastService.TYPE_CREATED + "\"")) {
+                    updates.countDown();
+                }
+            }
+        };
+
+        long baselineMemory = usedMemory();
+        long encodedBeforeConnect = resultBroadcastService.getFramesEncoded();
+
+        StandardWebSocketClient client = new StandardWebSocketClient();
+        String url = "ws://localhost:" + port + "/ws/competitions/" + competition.getId() + "/results?roundNumber=1";
+        List<WebSocketSession> sessions = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                sessions.add(client.execute(board, url).get(30, TimeUnit.SECONDS));
+            }
+            assertTrue(snapshots.await(60, TimeUnit.SECONDS), "全部连接应收到快照");
+            // 快照按轮次缓存，同一轮次只序列化一次
+            assertEquals(1, resultBroadcastService.getFramesEncoded() - encodedBeforeConnect);
+
+            long encodedBefore = resultBroadcastService.getFramesEncoded();
+            long sentBefore = resultBroadcastService.getMessagesSent();
+            fixtures.createMatch(competition, players, 2);
+
+            assertTrue(updates.await(60, TimeUnit.SECONDS), "全部连接应收到新增的比赛成绩");
+            assertEquals(1, resultBroadcastService.getFramesEncoded() - encodedBefore);
+            assertEquals(connections, resultBroadcastService.getMessagesSent() - sentBefore);
+
+            long bytesPerConnection = (usedMemory() - baselineMemory) / connections;
+            assertTrue(bytesPerConnection < MAX_BYTES_PER_CONNECTION,
+                    "每个连接的内存占用应有上限，实际约 " + bytesPerConnection + " 字节（含客户端）");
+        } finally {
+            for (WebSocketSession session : sessions) {
+                session.close();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (resultBroadcastService.getSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, resultBroadcastService.getSessionCount());
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(100);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,113 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rogister.mjcompetition.dto.match.RoundRecordView;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.repository.competition.MatchResultRepository;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class RoundRecordProjectionTest {
+
+    private static final int PLAYER_COUNT = 16;
+    private static final int MATCH_COUNT = 24;
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testProjectionUsesOneStatementAndSmallerPayload() throws Exception {
+        List<Player> players = new ArrayList<>();
+        Competition competition = seedCompetition(players);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<RoundRecordView> views = matchResultService.findRoundRecordViews(competition, 1, true);
+        long projectionStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, projectionStatements, "投影查询应只执行一条SQL");
+        assertEquals(0, statistics.getEntityLoadCount(), "投影查询不应加载实体");
+        assertEquals(MATCH_COUNT, views.size());
+        for (int i = 0; i < MATCH_COUNT; i++) {
+            assertEquals(i + 1, views.get(i).getMatchNumber());
+        }
+        RoundRecordView first = views.get(0);
+        assertEquals(players.get(0).getId(), first.getEastPlayer().getId());
+        assertEquals(players.get(0).getNickname(), first.getEastPlayer().getNickname());
+        assertEquals(40000, first.getEastScore());
+        assertEquals(competition.getId(), first.getCompetitionId());
+
+        // 对比：序列化实体时按行懒加载比赛和玩家
+        ObjectMapper entityMapper = objectMapper.copy().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        statistics.clear();
+        byte[] entityJson = transactionTemplate.execute(status -> {
+            try {
+                List<MatchResult> entities = matchResultService.findByCompetitionAndRoundOrderByTimeAndNumber(competition, 1);
+                return entityMapper.writeValueAsBytes(entities);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        long entityStatements = statistics.getPrepareStatementCount();
+        byte[] viewJson = objectMapper.writeValueAsBytes(views);
+
+        // 实体序列化：一条列表查询，再逐个懒加载比赛和每位玩家
+        assertTrue(entityStatements >= 2 + PLAYER_COUNT, "实体序列化执行了 " + entityStatements + " 条SQL");
+        assertTrue(viewJson.length * 2 < entityJson.length,
+                "投影结果 " + viewJson.length + " 字节，应不到实体序列化结果 " + entityJson.length + " 字节的一半");
+        assertFalse(new String(viewJson, StandardCharsets.UTF_8).contains("password"), "不应输出玩家的其他字段");
+    }
+
+    private Competition seedCompetition(List<Player> players) {
+        Competition competition = fixtures.competition("投影");
+        players.addAll(fixtures.players(PLAYER_COUNT));
+
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        List<MatchResult> matches = new ArrayList<>();
+        for (int i = 0; i < MATCH_COUNT; i++) {
+            int table = (i % (PLAYER_COUNT / 4)) * 4;
+            MatchResult matchResult = new MatchResult(competition, 1, i + 1,
+                    players.get(table), players.get(table + 1), players.get(table + 2), players.get(table + 3));
+            matchResult.setEastScore(40000);
+            matchResult.setSouthScore(30000);
+            matchResult.setWestScore(20000);
+            matchResult.setNorthScore(10000);
+            matchResult.setMatchTime(start.plusMinutes(i));
+            matches.add(matchResult);
+        }
+        matchResultRepository.saveAll(matches);
+        return competition;
+    }
+}
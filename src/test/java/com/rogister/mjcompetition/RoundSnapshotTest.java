@@ -0,0 +1,124 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.AdvancementService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "mj.round-snapshot.dir=${java.io.tmpdir}/mj-round-snapshot-test"
+})
+@AutoConfigureMockMvc
+public class RoundSnapshotTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdvancementService advancementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${mj.round-snapshot.dir}")
+    private String snapshotDir;
+
+    @Test
+    public void testCompletedRoundIsServedFromSnapshotUntilEdited() throws Exception {
+        Competition competition = fixtures.competition("snapshot");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.createMatch(competition, players, 1);
+        String url = "/api/competition-status/" + competition.getId() + "/round/1";
+
+        // 进行中的轮次实时计算
+        MockHttpServletResponse active = mockMvc.perform(get(url).header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        assertNull(active.getHeader("Content-Encoding"));
+
+        advancementService.completeRound(competition.getId(), 1);
+        fixtures.awaitRecompute();
+
+        MockHttpServletResponse snapshot = mockMvc.perform(get(url).header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        assertEquals("gzip", snapshot.getHeader("Content-Encoding"));
+        assertEquals("no-cache", snapshot.getHeader("Cache-Control"));
+        assertNotNull(snapshot.getHeader("ETag"));
+        JsonNode live = objectMapper.readTree(mockMvc.perform(get(url)).andReturn().getResponse().getContentAsByteArray());
+        assertEquals(live, objectMapper.readTree(gunzip(snapshot.getContentAsByteArray())), "快照应与实时计算的响应一致");
+
+        // 等待后台生成全部快照，之后读取不访问数据库
+        awaitSnapshots(competition.getId(), 3);
+        fixtures.awaitRecompute();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url).header("Accept-Encoding", "gzip"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // 修改已完成轮次的比赛成绩后重新生成快照
+        fixtures.createMatch(competition, players, 2);
+        fixtures.awaitRecompute();
+        MockHttpServletResponse regenerated = mockMvc.perform(get(url).header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        assertEquals("gzip", regenerated.getHeader("Content-Encoding"));
+        JsonNode liveAfterEdit = objectMapper.readTree(mockMvc.perform(get(url)).andReturn().getResponse().getContentAsByteArray());
+        assertNotEquals(live, liveAfterEdit);
+        assertEquals(liveAfterEdit, objectMapper.readTree(gunzip(regenerated.getContentAsByteArray())));
+
+        // 重新开放后回到实时计算
+        advancementService.reopenRound(competition.getId(), 1);
+        MockHttpServletResponse reopened = mockMvc.perform(get(url).header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        assertNull(reopened.getHeader("Content-Encoding"));
+    }
+
+    private void awaitSnapshots(Long competitionId, int count) throws Exception {
+        // 快照位于各实例的子目录下：<实例目录>/<比赛ID>/<轮次号>/
+        Path roundDir = Paths.get(String.valueOf(competitionId), "1");
+        for (int i = 0; i < 100; i++) {
+            try (Stream<Path> files = Files.walk(Paths.get(snapshotDir))) {
+                if (files.filter(file -> file.getParent() != null && file.getParent().endsWith(roundDir))
+                        .filter(file -> file.toString().endsWith(".json.gz"))
+                        .count() >= count) {
+                    return;
+                }
+            } catch (UncheckedIOException e) {
+                // 遍历时其他测试的快照被删除，重试
+            }
+            Thread.sleep(50);
+        }
+        fail("快照未在预期时间内生成");
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.rogister.mjcompetition;
+
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.competition.MatchResult;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.MatchResultService;
+import com.rogister.mjcompetition.service.competition.RoundStandingsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RoundStandingsServiceTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private RoundStandingsService roundStandingsService;
+
+    @Test
+    public void testStandingsFollowCreateUpdateDelete() {
+        Competition competition = fixtures.competition("积分榜");
+        List<Player> players = fixtures.players(4);
+
+        MatchResult first = matchResultService.createMatchResult(fixtures.match(competition, players, 0, 1, 40000, 30000, 20000, 10000));
+        MatchResult second = matchResultService.createMatchResult(fixtures.match(competition, players, 0, 2, 10000, 20000, 30000, 40000));
+        assertTrue(roundStandingsService.checkRound(competition.getId(), 1).isEmpty());
+
+        MatchResult details = fixtures.match(competition, players, 0, 2, 25000, 25000, 35000, 15000);
+        matchResultService.updateMatchResult(second.getId(), details);
+        assertTrue(roundStandingsService.checkRound(competition.getId(), 1).isEmpty());
+
+        matchResultService.deleteMatchResult(first.getId());
+        assertTrue(roundStandingsService.checkRound(competition.getId(), 1).isEmpty());
+
+        MatchResultService.PlayerRoundRanking east = matchResultService
+                .calculatePlayerRoundRanking(competition, 1, players.get(0));
+        assertEquals(1, east.getMatchCount());
+        assertEquals(1, east.getSecondPlaceCount());
+        assertEquals(25000, east.getTotalOriginalScore());
+
+        assertEquals(1, roundStandingsService.rebuildCompetition(competition.getId()));
+        assertTrue(roundStandingsService.checkCompetition(competition.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package com.rogister.mjcompetition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rogister.mjcompetition.dto.competition.CompetitionStatusResponse;
+import com.rogister.mjcompetition.entity.competition.Competition;
+import com.rogister.mjcompetition.entity.player.Player;
+import com.rogister.mjcompetition.service.competition.CompetitionStatusCache;
+import com.rogister.mjcompetition.service.competition.StandingsRecomputePipeline;
+import com.rogister.mjcompetition.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 合并窗口放大，使连续写入确定地落在同一窗口内
+@SpringBootTest(properties = "mj.recompute.coalesce-ms=500")
+@AutoConfigureMockMvc
+public class StandingsRecomputePipelineTest {
+
+    @Autowired
+    private CompetitionFixtures fixtures;
+
+    @Autowired
+    private StandingsRecomputePipeline standingsRecomputePipeline;
+
+    @Autowired
+    private CompetitionStatusCache competitionStatusCache;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    public void testBurstOfWritesIsRecomputedOnce() throws Exception {
+        Competition competition = fixtures.competition("burst");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+
+        StandingsRecomputePipeline.RecomputeStats before = standingsRecomputePipeline.getStats();
+        int writes = 10;
+        for (int i = 1; i <= writes; i++) {
+            fixtures.createMatch(competition, players, i);
+        }
+        assertTrue(standingsRecomputePipeline.getStats().getEventsReceived() - before.getEventsReceived() >= writes);
+        fixtures.awaitRecompute();
+
+        StandingsRecomputePipeline.RecomputeStats after = standingsRecomputePipeline.getStats();
+        long bursts = after.getRecomputeBursts() - before.getRecomputeBursts();
+        assertTrue(bursts >= 1 && bursts < writes, "连续写入应合并重算，实际重算次数: " + bursts);
+        assertEquals(0, after.getQueueDepth());
+        assertTrue(after.getCoalescingRatio() > 1.0);
+        assertTrue(after.getMaxRecomputeMs() > 0.0);
+
+        CompetitionStatusResponse status = competitionStatusCache.getCompetitionStatus(competition.getId(), 1);
+        assertEquals(writes, status.getPlayerStatusList().get(0).getAppearanceCount());
+    }
+
+    @Test
+    public void testReadersGetPublishedSnapshotWithoutRecomputing() throws Exception {
+        Competition competition = fixtures.competition("stale");
+        List<Player> players = fixtures.roundPlayers(competition, 4);
+        fixtures.createMatch(competition, players, 1);
+        CompetitionStatusCache.Published<CompetitionStatusResponse> published =
+                competitionStatusCache.getPublishedStatus(competition.getId(), 1);
+        fixtures.awaitRecompute();
+
+        // 合并窗口内读取方拿到上一次发布的快照，不在请求线程中重算
+        long missesBefore = competitionStatusCache.getStats().getMissCount();
+        fixtures.createMatch(competition, players, 2);
+        CompetitionStatusCache.Published<CompetitionStatusResponse> stale =
+                competitionStatusCache.getPublishedStatus(competition.getId(), 1);
+        assertSame(published, stale);
+        assertEquals(missesBefore, competitionStatusCache.getStats().getMissCount());
+
+        // 304 判断使用已发布快照的版本，ETag 与响应数据一致
+        String url = "/api/competition-status/" + competition.getId() + "/round/1";
+        String staleETag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader("ETag");
+        assertEquals(published.getRoundVersion().getETag(), staleETag);
+
+        fixtures.awaitRecompute();
+        CompetitionStatusCache.Published<CompetitionStatusResponse> fresh =
+                competitionStatusCache.getPublishedStatus(competition.getId(), 1);
+        assertTrue(fresh.getVersion() > published.getVersion());
+        assertEquals(2, fresh.getValue().getPlayerStatusList().get(0).getAppearanceCount());
+        assertEquals(missesBefore, competitionStatusCache.getStats().getMissCount());
+        assertNotEquals(staleETag, mockMvc.perform(get(url)).andReturn().getResponse().getHeader("ETag"));
+    }
+
+    @Test
+    public void testRecomputeStatsEndpoint() throws Exception {
+        // 统计接口仅管理员可访问
+        int anonymous = mockMvc.perform(get("/api/competition-status/recompute-stats")).andReturn().getResponse().getStatus();
+        assertTrue(anonymous == 401 || anonymous == 403, "匿名请求返回了 " + anonymous);
+
+        String token = "Bearer " + jwtUtil.generateTokenWithRole("stats-admin", "ADMIN", "ADMIN");
+        JsonNode body = objectMapper.readTree(mockMvc.perform(get("/api/competition-status/recompute-stats")
+                        .header("Authorization", token))
+                .andReturn().getResponse().getContentAsByteArray());
+        assertEquals(0, body.get("code").asInt(), body.toString());
+        assertTrue(body.get("data").has("queueDepth"));
+        assertTrue(body.get("data").has("coalescingRatio"));
+        assertTrue(body.get("data").has("averageRecomputeMs"));
+    }
+}